@@ -2,6 +2,7 @@ package com.mesh_microservices.admin_service;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.context.annotation.Bean;
 import org.springframework.web.client.RestTemplate;
@@ -33,12 +34,16 @@ public class AdminServiceApplication {
 	 * (e.g., "http://user-service/users"), it automatically queries the Eureka
 	 * discovery server to resolve the name to a running instance's actual
 	 * host and port.
+	 * <p>
+	 * The template is built from Spring Boot's {@link RestTemplateBuilder} so that
+	 * every outbound call is timed under the {@code http.client.requests} metric.
 	 *
+	 * @param builder The auto-configured builder carrying the metrics customizations.
 	 * @return A load-balanced RestTemplate instance managed by Spring.
 	 */
 	@Bean
 	@LoadBalanced
-	public RestTemplate restTemplate() {
-		return new RestTemplate();
+	public RestTemplate restTemplate(RestTemplateBuilder builder) {
+		return builder.build();
 	}
 }
\ No newline at end of file
@@ -61,7 +61,7 @@ public class AdminService {
      * @return The User object if found. RestTemplate will throw an exception for non-2xx responses.
      */
     public User getUserById(String userId) {
-        return restTemplate.getForObject(USER_SERVICE_URL + "/" + userId, User.class);
+        return restTemplate.getForObject(USER_SERVICE_URL + "/{userId}", User.class, userId);
     }
 
     /**
@@ -72,7 +72,7 @@ public class AdminService {
      * @return A static confirmation message indicating the request was sent.
      */
     public String updateUser(String userId, User userDetails) {
-        restTemplate.put(USER_SERVICE_URL + "/" + userId, userDetails);
+        restTemplate.put(USER_SERVICE_URL + "/{userId}", userDetails, userId);
         return "User updated successfully.";
     }
 
@@ -83,7 +83,7 @@ public class AdminService {
      * @return A static confirmation message indicating the request was sent.
      */
     public String deleteUser(String userId) {
-        restTemplate.delete(USER_SERVICE_URL + "/" + userId);
+        restTemplate.delete(USER_SERVICE_URL + "/{userId}", userId);
         return "User deleted successfully.";
     }
 
@@ -80,6 +80,28 @@ def get_text_from_url(url):
     except Exception as e:
         raise RuntimeError(f"Failed to process the file. Details: {e}")
 
+@st.cache_data(show_spinner="Fetching document text...")
+def get_text_from_material(classroom_id, material_id):
+    """Fetches the text the classroom service extracted from an uploaded material.
+
+    Raises LookupError if the service is not configured, has not processed the file yet,
+    or cannot be reached, so the caller can fall back to parsing the file itself. Errors
+    are not cached, so a later session asks again.
+    """
+    base_url = os.environ.get("CLASSROOM_API_URL")
+    if not base_url:
+        raise LookupError("CLASSROOM_API_URL is not set.")
+    try:
+        response = requests.get(
+            f"{base_url.rstrip('/')}/api/classrooms/{classroom_id}/materials/{material_id}/extracted-text",
+            timeout=10)
+    except requests.exceptions.RequestException as e:
+        raise LookupError(f"Classroom service unavailable: {e}")
+    # 202 means the file is still queued for extraction.
+    if response.status_code != 200 or not response.text.strip():
+        raise LookupError(f"No extracted text available (HTTP {response.status_code}).")
+    return response.text
+
 @st.cache_data(show_spinner="Processing uploaded file...")
 def get_text_from_upload(uploaded_file):
     """Extracts text from an uploaded file object."""
@@ -168,7 +190,16 @@ file_url = st.query_params.get("file_url")
 if file_url and not st.session_state.get("source_id") == file_url:
     with st.spinner("Analyzing document and preparing your session... Please wait."):
         try:
-            doc_text = get_text_from_url(file_url)
+            classroom_id = st.query_params.get("classroom_id")
+            material_id = st.query_params.get("material_id")
+            doc_text = None
+            if classroom_id and material_id:
+                try:
+                    doc_text = get_text_from_material(classroom_id, material_id)
+                except LookupError:
+                    pass
+            if doc_text is None:
+                doc_text = get_text_from_url(file_url)
             process_document(doc_text, file_url)
         except (ValueError, ConnectionError, RuntimeError) as e:
             st.error(str(e))
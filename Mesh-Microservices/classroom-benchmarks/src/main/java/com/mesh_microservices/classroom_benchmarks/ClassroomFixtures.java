@@ -0,0 +1,117 @@
+package com.mesh_microservices.classroom_benchmarks;
+
+import com.mesh_microservices.classroom_service.model.Assignment;
+import com.mesh_microservices.classroom_service.model.Classroom;
+import com.mesh_microservices.classroom_service.model.Material;
+import com.mesh_microservices.classroom_service.model.Section;
+import com.mesh_microservices.classroom_service.model.Submission;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+
+/**
+ * Generates realistic {@link Classroom} documents of a requested size for benchmarking.
+ * <p>
+ * Generation is seeded, so every benchmark run and every fork works on identical data.
+ */
+public final class ClassroomFixtures {
+
+    private static final int SECTIONS = 12;
+    private static final int MATERIALS_PER_SECTION = 6;
+
+    private ClassroomFixtures() {
+    }
+
+    /**
+     * Builds a classroom with the given number of students and assignments.
+     *
+     * @param students       The number of enrolled students.
+     * @param assignments    The number of assignments.
+     * @param submissionRate The share of students who have submitted each assignment (0 to 1).
+     * @return A fully populated classroom.
+     */
+    public static Classroom classroom(int students, int assignments, double submissionRate) {
+        Random random = new Random(42);
+        LocalDateTime start = LocalDateTime.of(2025, 1, 6, 9, 0);
+
+        Classroom classroom = new Classroom();
+        classroom.setId(hex(random, 24));
+        classroom.setClassroomName("Introduction to Cloud Computing");
+        classroom.setSubject("Computer Science");
+        classroom.setClassroomCode("abc123");
+        classroom.setFacultyId(hex(random, 24));
+        classroom.setFacultyName("Dr. Faculty Member");
+        classroom.setCreatedAt(start);
+
+        String[] studentIds = new String[students];
+        for (int s = 0; s < students; s++) {
+            studentIds[s] = hex(random, 24);
+            classroom.getStudentIds().add(studentIds[s]);
+        }
+
+        for (int i = 0; i < SECTIONS; i++) {
+            Section section = new Section();
+            section.setTitle("Week " + (i + 1));
+            for (int m = 0; m < MATERIALS_PER_SECTION; m++) {
+                Material material = new Material();
+                material.setTitle("Lecture " + (i + 1) + "." + (m + 1));
+                material.setType(m % 2 == 0 ? Material.MaterialType.TEXT : Material.MaterialType.FILE);
+                if (material.getType() == Material.MaterialType.TEXT) {
+                    material.setTextContent(words(random, 150));
+                } else {
+                    material.setFileUrl("https://meshstorage.blob.core.windows.net/files/" + hex(random, 32) + "-slides.pdf");
+                }
+                material.setUploadedAt(start.plusDays(7L * i));
+                section.getMaterials().add(material);
+            }
+            classroom.getSections().add(section);
+        }
+
+        for (int a = 0; a < assignments; a++) {
+            Assignment assignment = new Assignment();
+            assignment.setTitle("Assignment " + (a + 1));
+            assignment.setDescription(words(random, 60));
+            assignment.setPoints(100);
+            assignment.setPostedAt(start.plusDays(a));
+            assignment.setDueDate(start.plusDays(a + 7L));
+            for (int s = 0; s < students; s++) {
+                if (random.nextDouble() >= submissionRate) {
+                    continue;
+                }
+                Submission submission = new Submission();
+                submission.setStudentId(studentIds[s]);
+                submission.setStudentName("Student " + s);
+                submission.setSubmittedFileUrl("https://meshstorage.blob.core.windows.net/files/" + hex(random, 32) + "-answer.pdf");
+                submission.setSubmittedAt(start.plusDays(a + 1L).plusMinutes(random.nextInt(10_000)));
+                if (random.nextBoolean()) {
+                    submission.setGrade(random.nextInt(101));
+                    submission.setFeedback("Good work, see comments.");
+                }
+                assignment.getSubmissions().add(submission);
+            }
+            classroom.getAssignments().add(assignment);
+        }
+        return classroom;
+    }
+
+    private static String hex(Random random, int length) {
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append(Character.forDigit(random.nextInt(16), 16));
+        }
+        return sb.toString();
+    }
+
+    private static String words(Random random, int count) {
+        String[] vocabulary = {"cloud", "service", "latency", "container", "network", "storage",
+                "replica", "gateway", "request", "cluster", "deploy", "scale", "queue", "event"};
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            sb.append(vocabulary[random.nextInt(vocabulary.length)]);
+        }
+        return sb.toString();
+    }
+}
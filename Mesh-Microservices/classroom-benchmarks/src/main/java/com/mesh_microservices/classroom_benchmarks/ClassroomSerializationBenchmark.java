@@ -0,0 +1,130 @@
+package com.mesh_microservices.classroom_benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.mesh_microservices.classroom_service.model.Classroom;
+import com.mongodb.MongoClientSettings;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.Codec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how expensive it is to round-trip a {@link Classroom} through the two
+ * serialization paths every classroom-service request takes: the Spring Data MongoDB
+ * converter (entity to BSON bytes and back) and Jackson (entity to JSON and back).
+ * <p>
+ * Classrooms are generated at each combination of student and assignment counts, with
+ * 80% of students submitting each assignment. Allocation per operation is reported by
+ * JMH's GC profiler:
+ * <pre>
+ * mvn package
+ * java -jar target/benchmarks.jar ClassroomSerializationBenchmark -prof gc
+ * java -jar target/benchmarks.jar ClassroomSerializationBenchmark -p students=1000 -p assignments=20 -prof gc
+ * </pre>
+ * The largest combinations produce documents beyond MongoDB's 16 MB limit; they are kept
+ * to show how cost grows with the embedded model, and the setup prints each document's
+ * encoded size so such cases are visible in the output.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ClassroomSerializationBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    private int students;
+
+    @Param({"1", "20", "200"})
+    private int assignments;
+
+    private MappingMongoConverter converter;
+    private Codec<Document> documentCodec;
+    private ObjectMapper objectMapper;
+
+    private Classroom classroom;
+    private RawBsonDocument bson;
+    private byte[] json;
+
+    /**
+     * Builds the converters the way Spring Boot configures them and pre-serializes the
+     * fixture so the read benchmarks measure decoding only.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        documentCodec = MongoClientSettings.getDefaultCodecRegistry().get(Document.class);
+
+        objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        classroom = ClassroomFixtures.classroom(students, assignments, 0.8);
+        bson = bsonWrite();
+        json = jsonWrite();
+        System.out.printf("%n# students=%d assignments=%d: BSON %,d bytes, JSON %,d bytes%n",
+                students, assignments, bson.getByteBuffer().remaining(), json.length);
+    }
+
+    /**
+     * Converts the entity to a BSON document and encodes it to bytes, as a repository save does.
+     */
+    @Benchmark
+    public RawBsonDocument bsonWrite() {
+        Document document = new Document();
+        converter.write(classroom, document);
+        return new RawBsonDocument(document, documentCodec);
+    }
+
+    /**
+     * Decodes BSON bytes and maps them to the entity, as a repository find does.
+     */
+    @Benchmark
+    public Classroom bsonRead() {
+        return converter.read(Classroom.class, bson.decode(documentCodec));
+    }
+
+    /**
+     * Serializes the entity to JSON, as a controller response does.
+     */
+    @Benchmark
+    public byte[] jsonWrite() throws IOException {
+        return objectMapper.writeValueAsBytes(classroom);
+    }
+
+    /**
+     * Parses JSON into the entity, as a request body or inter-service response does.
+     */
+    @Benchmark
+    public Classroom jsonRead() throws IOException {
+        return objectMapper.readValue(json, Classroom.class);
+    }
+}
@@ -0,0 +1,165 @@
+package com.mesh_microservices.classroom_benchmarks;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mesh_microservices.classroom_service.model.User;
+import com.mesh_microservices.user_service.grpc.GetUserByEmailRequest;
+import com.mesh_microservices.user_service.grpc.UserLookupGrpc;
+import com.mesh_microservices.user_service.grpc.UserProfile;
+import com.sun.net.httpserver.HttpServer;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import io.grpc.stub.StreamObserver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the two ways classroom-service can look a user up in the user-service: the
+ * JSON REST endpoint and the gRPC {@code GetUserByEmail} call.
+ * <p>
+ * Both servers run in the benchmark JVM and are reached over loopback, so the numbers
+ * cover connection handling, framing and (de)serialization but not the network. The REST
+ * side reuses keep-alive connections, as RestTemplate's pooled client does; the gRPC side
+ * multiplexes every thread over one HTTP/2 channel, as {@code UserLookupClient} does.
+ * <pre>
+ * mvn package
+ * java -jar target/benchmarks.jar UserLookupBenchmark
+ * java -jar target/benchmarks.jar UserLookupBenchmark -t 32
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class UserLookupBenchmark {
+
+    private static final String EMAIL = "student42@mesh.local";
+
+    // Unknown properties are skipped, as with the ObjectMapper Spring Boot configures for RestTemplate.
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    private ExecutorService httpExecutor;
+    private HttpServer httpServer;
+    private HttpClient httpClient;
+    private URI restUri;
+
+    private Server grpcServer;
+    private ManagedChannel channel;
+    private UserLookupGrpc.UserLookupBlockingStub stub;
+
+    /**
+     * Starts both servers with the same user and connects a client to each.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        // The same fields the user-service returns for a student.
+        Map<String, Object> user = Map.of(
+                "id", "64f1c2a9e4b0a1b2c3d4e5f6",
+                "name", "Student 42",
+                "email", EMAIL,
+                "role", "student",
+                "department", "Computer Science",
+                "semester", 5,
+                "subjects", List.of("Algorithms", "Databases", "Networks"),
+                "registeredAt", "2025-09-01T09:30:00");
+        byte[] json = objectMapper.writeValueAsBytes(user);
+
+        httpExecutor = Executors.newFixedThreadPool(16);
+        httpServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        httpServer.createContext("/users/byEmail/", exchange -> {
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, json.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(json);
+            }
+        });
+        httpServer.setExecutor(httpExecutor);
+        httpServer.start();
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        restUri = URI.create("http://127.0.0.1:" + httpServer.getAddress().getPort() + "/users/byEmail/" + EMAIL);
+
+        UserProfile profile = UserProfile.newBuilder()
+                .setId("64f1c2a9e4b0a1b2c3d4e5f6")
+                .setName("Student 42")
+                .setEmail(EMAIL)
+                .setRole("student")
+                .setDepartment("Computer Science")
+                .setSemester(5)
+                .addAllSubjects(List.of("Algorithms", "Databases", "Networks"))
+                .setRegisteredAtMillis(1756719000000L)
+                .build();
+        grpcServer = NettyServerBuilder.forAddress(new InetSocketAddress("127.0.0.1", 0))
+                .addService(new UserLookupGrpc.UserLookupImplBase() {
+                    @Override
+                    public void getUserByEmail(GetUserByEmailRequest request, StreamObserver<UserProfile> responseObserver) {
+                        responseObserver.onNext(profile);
+                        responseObserver.onCompleted();
+                    }
+                })
+                .build()
+                .start();
+        channel = NettyChannelBuilder.forAddress("127.0.0.1", grpcServer.getPort()).usePlaintext().build();
+        stub = UserLookupGrpc.newBlockingStub(channel);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        grpcServer.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        httpServer.stop(0);
+        httpExecutor.shutdownNow();
+    }
+
+    /**
+     * Fetches the user as JSON and binds it to the classroom-service DTO.
+     */
+    @Benchmark
+    public User rest() throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = httpClient.send(HttpRequest.newBuilder(restUri).GET().build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        return objectMapper.readValue(response.body(), User.class);
+    }
+
+    /**
+     * Fetches the user over gRPC and maps it to the classroom-service DTO.
+     */
+    @Benchmark
+    public User grpc() {
+        UserProfile profile = stub.getUserByEmail(GetUserByEmailRequest.newBuilder().setEmail(EMAIL).build());
+        User user = new User();
+        user.setId(profile.getId());
+        user.setName(profile.getName());
+        user.setEmail(profile.getEmail());
+        return user;
+    }
+}
@@ -0,0 +1,47 @@
+package com.mesh_microservices.classroom_service.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configures Micrometer instrumentation for the Classroom Service.
+ * <p>
+ * HTTP server requests, outbound {@code RestTemplate} calls and MongoDB commands are
+ * timed by Spring Boot's auto-configuration. This class adds the pieces that are not
+ * auto-configured, such as support for the {@code @Timed} annotation and the split of
+ * MongoDB reads between primaries and secondaries.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Registers the aspect that turns {@code @Timed} annotations into timers.
+     * Without it, the annotation on {@code ClassroomService} would have no effect.
+     *
+     * @param registry The meter registry the timers are recorded in.
+     * @return The {@link TimedAspect} bean.
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+    /**
+     * Counts MongoDB reads by the replica set member that answered them.
+     * <p>
+     * The customizer also applies to the clients of additional classroom shards.
+     *
+     * @param registry The meter registry the counts are recorded in.
+     * @return A customizer applied to the MongoDB client settings.
+     */
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoReadMetricsCustomizer(MeterRegistry registry) {
+        MongoReadMetrics metrics = new MongoReadMetrics(registry);
+        return builder -> builder
+                .addCommandListener(metrics)
+                .applyToClusterSettings(cluster -> cluster.addClusterListener(metrics));
+    }
+}
@@ -0,0 +1,90 @@
+package com.mesh_microservices.classroom_service.config;
+
+import com.mesh_microservices.classroom_service.model.AssignmentDeadline;
+import com.mesh_microservices.classroom_service.model.Classroom;
+import com.mesh_microservices.classroom_service.model.ClassroomRoute;
+import com.mesh_microservices.classroom_service.model.IdempotencyRecord;
+import com.mesh_microservices.classroom_service.model.SearchEntry;
+import com.mesh_microservices.classroom_service.model.UploadSession;
+import com.mesh_microservices.classroom_service.service.ClassroomShards;
+import com.mesh_microservices.classroom_service.service.SearchService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+
+import java.util.List;
+
+/**
+ * Creates the indexes declared on the mapped documents.
+ * <p>
+ * Spring Data's automatic index creation fails the startup on the first index the store
+ * rejects, and Azure Cosmos DB for MongoDB rejects some kinds, such as text indexes.
+ * Indexes are therefore created here once the application is ready, one at a time; a
+ * rejected index is logged and only makes the queries that would use it slower. Classroom
+ * indexes are created on every shard. The text index over search entries is only created
+ * for the {@code text} search backend. Set {@code classroom.mongo.create-indexes=false} to
+ * manage the indexes outside the service.
+ */
+@Configuration
+public class MongoIndexConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(MongoIndexConfig.class);
+
+    // The documents stored in the primary database only.
+    private static final List<Class<?>> PRIMARY_DOCUMENTS = List.of(SearchEntry.class, IdempotencyRecord.class,
+            AssignmentDeadline.class, ClassroomRoute.class, UploadSession.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ClassroomShards classroomShards;
+
+    @Value("${classroom.mongo.create-indexes:true}")
+    private boolean createIndexes;
+
+    @Value("${classroom.search.backend:prefix}")
+    private SearchService.Backend searchBackend;
+
+    /**
+     * Creates any missing index; existing indexes with the same definition are left as they are.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndexes() {
+        if (!createIndexes) {
+            return;
+        }
+        for (MongoTemplate shard : classroomShards.all()) {
+            createIndexes(shard, Classroom.class);
+        }
+        for (Class<?> document : PRIMARY_DOCUMENTS) {
+            createIndexes(mongoTemplate, document);
+        }
+    }
+
+    private void createIndexes(MongoTemplate template, Class<?> document) {
+        IndexOperations indexOps = template.indexOps(document);
+        IndexResolver resolver = IndexResolver.create(template.getConverter().getMappingContext());
+        for (IndexDefinition index : resolver.resolveIndexFor(document)) {
+            // Text index keys map each field to "text".
+            if (index.getIndexKeys().containsValue("text") && searchBackend != SearchService.Backend.TEXT) {
+                continue;
+            }
+            try {
+                indexOps.createIndex(index);
+            } catch (DataAccessException e) {
+                log.warn("Could not create the index {} on {}: {}",
+                        index.getIndexKeys().toJson(), document.getSimpleName(), e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.mesh_microservices.classroom_service.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables Spring's {@code @Scheduled} support for the Classroom Service.
+ * <p>
+ * Each scheduled task is declared and documented on its own bean, with its interval in
+ * the application properties.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
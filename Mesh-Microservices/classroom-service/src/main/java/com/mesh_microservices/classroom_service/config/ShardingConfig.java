@@ -0,0 +1,84 @@
+package com.mesh_microservices.classroom_service.config;
+
+import com.mesh_microservices.classroom_service.service.ClassroomShards;
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.autoconfigure.mongo.StandardMongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Connects the shard databases classrooms are spread over.
+ * <p>
+ * Each shard is configured as {@code classroom.shards.uris.<name>=<connection string>},
+ * with the database name in the connection string. Its client gets the same customizers as
+ * the auto-configured one, such as command tracing, and its template shares the primary's
+ * mapping, so classrooms are stored identically on every shard; their indexes are created
+ * by {@link MongoIndexConfig}. Without any shard configured, every classroom stays in the
+ * primary database.
+ */
+@Configuration
+public class ShardingConfig implements DisposableBean {
+
+    private final List<MongoClient> clients = new ArrayList<>();
+
+    /**
+     * Creates the router over the primary database and the configured shards.
+     *
+     * @param mongoTemplate The auto-configured template of the primary database.
+     * @param customizers The customizers of the auto-configured MongoDB client.
+     * @param environment The environment the shard URIs are read from.
+     * @param moveTimeout How long a lookup waits for a classroom that is being moved.
+     * @return The {@link ClassroomShards} bean.
+     */
+    @Bean
+    public ClassroomShards classroomShards(MongoTemplate mongoTemplate,
+                                           ObjectProvider<MongoClientSettingsBuilderCustomizer> customizers,
+                                           Environment environment,
+                                           @Value("${classroom.shards.move-timeout:PT5S}") Duration moveTimeout) {
+        Map<String, String> uris = Binder.get(environment)
+                .bind("classroom.shards.uris", Bindable.mapOf(String.class, String.class))
+                .orElse(Map.of());
+        Map<String, MongoTemplate> shards = new LinkedHashMap<>();
+        uris.forEach((name, uri) -> {
+            ConnectionString connectionString = new ConnectionString(uri);
+            if (connectionString.getDatabase() == null) {
+                throw new IllegalArgumentException("The URI of shard '" + name + "' does not name a database.");
+            }
+            MongoClientSettings.Builder settings = MongoClientSettings.builder();
+            // The standard customizer would point the client at the primary database.
+            customizers.orderedStream()
+                    .filter(customizer -> !(customizer instanceof StandardMongoClientSettingsBuilderCustomizer))
+                    .forEach(customizer -> customizer.customize(settings));
+            MongoClient client = MongoClients.create(settings.applyConnectionString(connectionString).build());
+            clients.add(client);
+            MongoTemplate shard = new MongoTemplate(
+                    new SimpleMongoClientDatabaseFactory(client, connectionString.getDatabase()),
+                    mongoTemplate.getConverter());
+            shards.put(name, shard);
+        });
+        return new ClassroomShards(mongoTemplate, shards, moveTimeout);
+    }
+
+    @Override
+    public void destroy() {
+        clients.forEach(MongoClient::close);
+    }
+}
@@ -0,0 +1,35 @@
+package com.mesh_microservices.classroom_service.config;
+
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.observability.ContextProviderFactory;
+import org.springframework.data.mongodb.observability.MongoObservationCommandListener;
+
+/**
+ * Configures distributed tracing for the Classroom Service.
+ * <p>
+ * Incoming HTTP requests and outbound {@code RestTemplate} calls are traced by Spring
+ * Boot's auto-configuration, and blob uploads are observed in {@code AzureBlobService}.
+ * This class adds spans for MongoDB commands, which Spring Boot does not set up on its own.
+ */
+@Configuration
+public class TracingConfig {
+
+    /**
+     * Registers a command listener that opens a span for every MongoDB command.
+     * <p>
+     * The context provider lets the driver find the observation of the current request,
+     * so each command span becomes a child of the request that issued it.
+     *
+     * @param observationRegistry The registry spans are reported to.
+     * @return A customizer applied to the auto-configured MongoDB client settings.
+     */
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoObservationCustomizer(ObservationRegistry observationRegistry) {
+        return builder -> builder
+                .contextProvider(ContextProviderFactory.create(observationRegistry))
+                .addCommandListener(new MongoObservationCommandListener(observationRegistry));
+    }
+}
@@ -1,14 +1,29 @@
 package com.mesh_microservices.classroom_service.controller;
 
 import com.mesh_microservices.classroom_service.model.*;
+import com.mesh_microservices.classroom_service.service.BlobDownloadService;
+import com.mesh_microservices.classroom_service.service.ClassroomEventBroadcaster;
 import com.mesh_microservices.classroom_service.service.ClassroomService;
+import com.mesh_microservices.classroom_service.service.GradebookExporter;
+import com.mesh_microservices.classroom_service.service.IdempotencyService;
+import com.mesh_microservices.classroom_service.service.ResumableUploadService;
+import com.mesh_microservices.classroom_service.service.TextExtractionService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -25,6 +40,22 @@ public class ClassroomController {
     @Autowired
     private ClassroomService classroomService;
 
+    // Runs chunked uploads of large files.
+    @Autowired
+    private ResumableUploadService resumableUploadService;
+
+    // Replays the stored response of retried uploads and submissions.
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    // Reads the text extracted from uploaded PDF and DOCX materials.
+    @Autowired
+    private TextExtractionService textExtractionService;
+
+    // Serves material files from the local download cache.
+    @Autowired
+    private BlobDownloadService blobDownloadService;
+
     /**
      * Creates a new classroom. The creating user's email is required for ownership.
      *
@@ -54,6 +85,25 @@ public class ClassroomController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * Streams changes to a classroom as Server-Sent Events, so clients do not have to poll it.
+     * <p>
+     * Each event is named after its type (e.g. {@code MATERIAL_ADDED}) and carries a small
+     * JSON description of the change. The stream ends after a timeout; clients should
+     * reconnect and reload the classroom once.
+     *
+     * @param classroomId The ID of the classroom to follow.
+     * @param userEmail The email of the owner or an enrolled student, from the "X-User-Email" header.
+     * @return The emitter that streams the classroom's changes.
+     */
+    @GetMapping(value = "/{classroomId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents(
+            @PathVariable String classroomId,
+            @RequestHeader("X-User-Email") String userEmail) {
+
+        return classroomService.subscribeToEvents(classroomId, userEmail);
+    }
+
     /**
      * Adds a new section to an existing classroom.
      *
@@ -116,6 +166,8 @@ public class ClassroomController {
      * @param textContent Optional text content for the material.
      * @param file Optional file to be uploaded as part of the material.
      * @param facultyEmail The email of the faculty member adding the material.
+     * @param idempotencyKey Optional key that makes retries return the first response instead of adding the material again.
+     * @param request The request, fingerprinted when an idempotency key is given.
      * @return A ResponseEntity containing the updated Classroom.
      * @throws IOException if there is an error during file processing.
      */
@@ -126,13 +178,16 @@ public class ClassroomController {
             @RequestParam String title,
             @RequestParam(required = false) String textContent,
             @RequestParam(required = false) MultipartFile file,
-            @RequestHeader("X-User-Email") String facultyEmail) throws IOException {
+            @RequestHeader("X-User-Email") String facultyEmail,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            HttpServletRequest request) throws IOException {
 
         Material material = new Material();
         material.setTitle(title);
         material.setTextContent(textContent);
 
-        Classroom updatedClassroom = classroomService.addMaterialToSection(classroomId, sectionId, material, file, facultyEmail);
+        Classroom updatedClassroom = idempotencyService.execute(idempotencyKey, facultyEmail, request, Classroom.class,
+                () -> classroomService.addMaterialToSection(classroomId, sectionId, material, file, facultyEmail));
         return ResponseEntity.ok(updatedClassroom);
     }
 
@@ -143,6 +198,8 @@ public class ClassroomController {
      * @param assignmentId The ID of the assignment being submitted.
      * @param file The file being submitted by the student.
      * @param studentEmail The email of the student submitting the assignment, from the "X-User-Email" header.
+     * @param idempotencyKey Optional key that makes retries return the first response instead of submitting again.
+     * @param request The request, fingerprinted when an idempotency key is given.
      * @return A ResponseEntity containing the updated Classroom, reflecting the new submission.
      * @throws IOException if there is an error during file processing.
      */
@@ -151,9 +208,404 @@ public class ClassroomController {
             @PathVariable String classroomId,
             @PathVariable String assignmentId,
             @RequestParam("file") MultipartFile file,
-            @RequestHeader("X-User-Email") String studentEmail) throws IOException {
+            @RequestHeader("X-User-Email") String studentEmail,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            HttpServletRequest request) throws IOException {
 
-        Classroom updatedClassroom = classroomService.submitAssignment(classroomId, assignmentId, file, studentEmail);
+        Classroom updatedClassroom = idempotencyService.execute(idempotencyKey, studentEmail, request, Classroom.class,
+                () -> classroomService.submitAssignment(classroomId, assignmentId, file, studentEmail));
         return ResponseEntity.ok(updatedClassroom);
     }
-}
\ No newline at end of file
+
+    /**
+     * Starts a resumable upload of a large submission or material file.
+     * The file is then sent in chunks and committed with the endpoints below.
+     *
+     * @param classroomId The ID of the classroom.
+     * @param request The purpose, target ID, file name, content type and size of the file
+     * (and the title and optional text for materials).
+     * @param userEmail The email of the uploading user, from the "X-User-Email" header.
+     * @return A ResponseEntity containing the new session, including the chunk size, and HTTP status 201 (Created).
+     */
+    @PostMapping("/{classroomId}/uploads")
+    public ResponseEntity<UploadSession> createUpload(
+            @PathVariable String classroomId,
+            @RequestBody UploadSession request,
+            @RequestHeader("X-User-Email") String userEmail) {
+
+        UploadSession session = resumableUploadService.create(classroomId, request, userEmail);
+        return new ResponseEntity<>(session, HttpStatus.CREATED);
+    }
+
+    /**
+     * Starts a direct upload: the reply contains a short-lived, create-only URL to which the
+     * client uploads the whole file, bypassing the gateway and this service.
+     *
+     * @param classroomId The ID of the classroom.
+     * @param request The purpose, target ID, file name, content type and size of the file
+     * (and the title and optional text for materials).
+     * @param userEmail The email of the uploading user, from the "X-User-Email" header.
+     * @return A ResponseEntity containing the new session with its upload URL, and HTTP status 201 (Created).
+     */
+    @PostMapping("/{classroomId}/uploads/direct")
+    public ResponseEntity<UploadSession> createDirectUpload(
+            @PathVariable String classroomId,
+            @RequestBody UploadSession request,
+            @RequestHeader("X-User-Email") String userEmail) {
+
+        UploadSession session = resumableUploadService.createDirect(classroomId, request, userEmail);
+        return new ResponseEntity<>(session, HttpStatus.CREATED);
+    }
+
+    /**
+     * Completes a direct upload once the client has written the file to its upload URL,
+     * and records the submission or material it was started for.
+     *
+     * @param classroomId The ID of the classroom the upload was started for.
+     * @param uploadId The ID of the upload session.
+     * @param userEmail The email of the uploading user, from the "X-User-Email" header.
+     * @return A ResponseEntity containing the updated Classroom.
+     * @throws IOException if the stored file cannot be checked.
+     */
+    @PostMapping("/{classroomId}/uploads/{uploadId}/finalize")
+    public ResponseEntity<Classroom> finalizeDirectUpload(
+            @PathVariable String classroomId,
+            @PathVariable String uploadId,
+            @RequestHeader("X-User-Email") String userEmail) throws IOException {
+
+        return ResponseEntity.ok(resumableUploadService.finalizeDirect(classroomId, uploadId, userEmail));
+    }
+
+    /**
+     * Reads the state of a resumable upload, to find the chunks still to be sent.
+     *
+     * @param classroomId The ID of the classroom the upload was started for.
+     * @param uploadId The ID of the upload session.
+     * @param userEmail The email of the uploading user, from the "X-User-Email" header.
+     * @return A ResponseEntity containing the session and its received chunks.
+     */
+    @GetMapping("/{classroomId}/uploads/{uploadId}")
+    public ResponseEntity<UploadSession> getUpload(
+            @PathVariable String classroomId,
+            @PathVariable String uploadId,
+            @RequestHeader("X-User-Email") String userEmail) {
+
+        return ResponseEntity.ok(resumableUploadService.get(classroomId, uploadId, userEmail));
+    }
+
+    /**
+     * Sends one chunk of a resumable upload as the raw request body. Chunks may be sent in
+     * parallel, in any order, and again after a failure.
+     *
+     * @param classroomId The ID of the classroom the upload was started for.
+     * @param uploadId The ID of the upload session.
+     * @param offset The byte offset of the chunk in the file.
+     * @param length The size of the chunk, from the "Content-Length" header.
+     * @param body The chunk content.
+     * @param userEmail The email of the uploading user, from the "X-User-Email" header.
+     * @return A ResponseEntity containing the session with the chunk recorded.
+     * @throws IOException if the chunk cannot be stored.
+     */
+    @PutMapping(value = "/{classroomId}/uploads/{uploadId}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<UploadSession> putUploadChunk(
+            @PathVariable String classroomId,
+            @PathVariable String uploadId,
+            @RequestParam long offset,
+            @RequestHeader(HttpHeaders.CONTENT_LENGTH) long length,
+            InputStream body,
+            @RequestHeader("X-User-Email") String userEmail) throws IOException {
+
+        return ResponseEntity.ok(resumableUploadService.putChunk(classroomId, uploadId, offset, length, body, userEmail));
+    }
+
+    /**
+     * Completes a resumable upload and records the submission or material it was started for.
+     *
+     * @param classroomId The ID of the classroom the upload was started for.
+     * @param uploadId The ID of the upload session.
+     * @param userEmail The email of the uploading user, from the "X-User-Email" header.
+     * @return A ResponseEntity containing the updated Classroom.
+     * @throws IOException if the file cannot be assembled.
+     */
+    @PostMapping("/{classroomId}/uploads/{uploadId}/commit")
+    public ResponseEntity<Classroom> commitUpload(
+            @PathVariable String classroomId,
+            @PathVariable String uploadId,
+            @RequestHeader("X-User-Email") String userEmail) throws IOException {
+
+        return ResponseEntity.ok(resumableUploadService.commit(classroomId, uploadId, userEmail));
+    }
+
+    /**
+     * Answers requests for an upload session that does not exist, or belongs to another
+     * classroom than the one in the path, with 404 (Not Found).
+     */
+    @ExceptionHandler(ResumableUploadService.UploadNotFoundException.class)
+    public ResponseEntity<String> uploadNotFound(ResumableUploadService.UploadNotFoundException e) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+    }
+
+    /**
+     * Answers requests for an expired upload session with 410 (Gone); the upload must be started again.
+     */
+    @ExceptionHandler(ResumableUploadService.UploadExpiredException.class)
+    public ResponseEntity<String> uploadExpired(ResumableUploadService.UploadExpiredException e) {
+        return ResponseEntity.status(HttpStatus.GONE).body(e.getMessage());
+    }
+
+    /**
+     * Answers a request that reuses an Idempotency-Key of a different request with 422 (Unprocessable Entity).
+     */
+    @ExceptionHandler(IdempotencyService.KeyReusedException.class)
+    public ResponseEntity<String> idempotencyKeyReused(IdempotencyService.KeyReusedException e) {
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(e.getMessage());
+    }
+
+    /**
+     * Answers an event stream request beyond this instance's stream limit with 503 (Service
+     * Unavailable) and a "Retry-After" header, so clients back off instead of reconnecting at once.
+     */
+    @ExceptionHandler(ClassroomEventBroadcaster.TooManySubscribersException.class)
+    public ResponseEntity<String> tooManySubscribers(ClassroomEventBroadcaster.TooManySubscribersException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfter().toSeconds()))
+                .body(e.getMessage());
+    }
+
+    /**
+     * Answers a gradebook export in a format other than csv or ndjson with 400 (Bad Request).
+     */
+    @ExceptionHandler(GradebookExporter.UnsupportedFormatException.class)
+    public ResponseEntity<String> unsupportedGradebookFormat(GradebookExporter.UnsupportedFormatException e) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+    }
+
+    /**
+     * Grades many submissions of an assignment in one request.
+     * Each entry is applied independently, so one bad entry does not block the rest.
+     *
+     * @param classroomId The ID of the classroom containing the assignment.
+     * @param assignmentId The ID of the assignment being graded.
+     * @param entries The submission IDs with their grades and feedback.
+     * @param facultyEmail The email of the faculty member grading, from the "X-User-Email" header.
+     * @return A ResponseEntity containing one result per entry, in request order.
+     */
+    @PostMapping("/{classroomId}/assignments/{assignmentId}/grades")
+    public ResponseEntity<List<GradeResult>> gradeSubmissions(
+            @PathVariable String classroomId,
+            @PathVariable String assignmentId,
+            @RequestBody List<GradeEntry> entries,
+            @RequestHeader("X-User-Email") String facultyEmail) {
+
+        List<GradeResult> results = classroomService.gradeSubmissions(classroomId, assignmentId, entries, facultyEmail);
+        return ResponseEntity.ok(results);
+    }
+
+    /**
+     * Lists one page of an assignment's submissions for the owning faculty member.
+     *
+     * @param classroomId The ID of the classroom containing the assignment.
+     * @param assignmentId The ID of the assignment.
+     * @param ungraded If true, only submissions that have not been graded yet are returned.
+     * @param late If true, only submissions made after the due date are returned.
+     * @param studentId Optional student ID to return only that student's submission.
+     * @param cursor Optional cursor from the previous page's {@code nextCursor}.
+     * @param limit Optional page size (default 50, at most 200).
+     * @param facultyEmail The email of the faculty member, from the "X-User-Email" header.
+     * @return A ResponseEntity containing the page of submissions and the next cursor.
+     */
+    @GetMapping("/{classroomId}/assignments/{assignmentId}/submissions")
+    public ResponseEntity<SubmissionPage> listSubmissions(
+            @PathVariable String classroomId,
+            @PathVariable String assignmentId,
+            @RequestParam(defaultValue = "false") boolean ungraded,
+            @RequestParam(defaultValue = "false") boolean late,
+            @RequestParam(required = false) String studentId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader("X-User-Email") String facultyEmail) {
+
+        SubmissionPage page = classroomService.listSubmissions(classroomId, assignmentId, ungraded, late,
+                studentId, cursor, limit, facultyEmail);
+        return ResponseEntity.ok(page);
+    }
+
+    /**
+     * Lists the classrooms the requesting faculty member owns, newest first.
+     *
+     * @param cursor Optional cursor from the previous page's {@code nextCursor}.
+     * @param limit Optional page size (default 50, at most 200).
+     * @param facultyEmail The email of the faculty member, from the "X-User-Email" header.
+     * @return A ResponseEntity containing the page of classroom summaries and the next cursor.
+     */
+    @GetMapping("/mine")
+    public ResponseEntity<ClassroomSummaryPage> listMyClassrooms(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader("X-User-Email") String facultyEmail) {
+
+        return ResponseEntity.ok(classroomService.listFacultyClassrooms(cursor, limit, facultyEmail));
+    }
+
+    /**
+     * Downloads the students x assignments gradebook of a classroom.
+     *
+     * @param classroomId The ID of the classroom to export.
+     * @param format The output format, {@code csv} (default) or {@code ndjson}.
+     * @param facultyEmail The email of the owning faculty member, from the "X-User-Email" header.
+     * @return A ResponseEntity streaming the gradebook as an attachment.
+     */
+    @GetMapping("/{classroomId}/gradebook")
+    public ResponseEntity<StreamingResponseBody> exportGradebook(
+            @PathVariable String classroomId,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestHeader("X-User-Email") String facultyEmail) {
+
+        GradebookExporter.Format exportFormat = GradebookExporter.Format.of(format);
+        StreamingResponseBody body = classroomService.exportGradebook(classroomId, exportFormat, facultyEmail);
+        return gradebookResponse("gradebook-" + classroomId, exportFormat, body);
+    }
+
+    /**
+     * Downloads the gradebooks of every classroom the requesting faculty member owns.
+     *
+     * @param format The output format, {@code csv} (default) or {@code ndjson}.
+     * @param facultyEmail The email of the faculty member, from the "X-User-Email" header.
+     * @return A ResponseEntity streaming the gradebooks as an attachment.
+     */
+    @GetMapping("/gradebook")
+    public ResponseEntity<StreamingResponseBody> exportAllGradebooks(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestHeader("X-User-Email") String facultyEmail) {
+
+        GradebookExporter.Format exportFormat = GradebookExporter.Format.of(format);
+        StreamingResponseBody body = classroomService.exportAllGradebooks(exportFormat, facultyEmail);
+        return gradebookResponse("gradebooks", exportFormat, body);
+    }
+
+    private ResponseEntity<StreamingResponseBody> gradebookResponse(String fileName, GradebookExporter.Format format, StreamingResponseBody body) {
+        boolean csv = format == GradebookExporter.Format.CSV;
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8) : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + (csv ? ".csv" : ".ndjson") + "\"")
+                .body(body);
+    }
+
+    /**
+     * Retrieves submission rate, on-time rate and average grade for a classroom and each of its assignments.
+     *
+     * @param classroomId The ID of the classroom.
+     * @param facultyEmail The email of the owning faculty member, from the "X-User-Email" header.
+     * @return A ResponseEntity containing the classroom analytics.
+     */
+    @GetMapping("/{classroomId}/analytics")
+    public ResponseEntity<ClassroomAnalytics> getAnalytics(
+            @PathVariable String classroomId,
+            @RequestHeader("X-User-Email") String facultyEmail) {
+        return ResponseEntity.ok(classroomService.getAnalytics(classroomId, facultyEmail));
+    }
+
+    /**
+     * Recalculates a classroom's analytics counters from its submissions.
+     *
+     * @param classroomId The ID of the classroom.
+     * @param facultyEmail The email of the owning faculty member, from the "X-User-Email" header.
+     * @return A ResponseEntity containing the corrected analytics.
+     */
+    @PostMapping("/{classroomId}/analytics/rebuild")
+    public ResponseEntity<ClassroomAnalytics> rebuildAnalytics(
+            @PathVariable String classroomId,
+            @RequestHeader("X-User-Email") String facultyEmail) {
+        return ResponseEntity.ok(classroomService.rebuildAnalytics(classroomId, facultyEmail));
+    }
+
+    /**
+     * Retrieves the full text of a text material. Classroom reads only carry a preview of
+     * long texts, which are fetched through this endpoint when the material is opened.
+     *
+     * @param classroomId The ID of the classroom containing the material.
+     * @param materialId The ID of the material.
+     * @param acceptEncoding The client's "Accept-Encoding" header; stored texts are sent
+     * still compressed to clients that accept gzip.
+     * @return A ResponseEntity containing the text as UTF-8 plain text.
+     */
+    @GetMapping("/{classroomId}/materials/{materialId}/text")
+    public ResponseEntity<byte[]> getMaterialText(
+            @PathVariable String classroomId,
+            @PathVariable String materialId,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(new MediaType("text", "plain", StandardCharsets.UTF_8))
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            Optional<byte[]> compressed = classroomService.findCompressedMaterialText(classroomId, materialId);
+            if (compressed.isPresent()) {
+                return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(compressed.get());
+            }
+        }
+        return response.body(classroomService.getMaterialText(classroomId, materialId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Retrieves the text extracted from a PDF or DOCX material, so consumers never need to
+     * download and parse the file themselves.
+     * <p>
+     * Until the file has been processed, the response is 202 (Accepted) with a
+     * "Retry-After" header. A file whose text could not be extracted gets 422
+     * (Unprocessable Entity) with the reason.
+     *
+     * @param classroomId The ID of the classroom containing the material.
+     * @param materialId The ID of the material.
+     * @param acceptEncoding The client's "Accept-Encoding" header; the stored text is sent
+     * still compressed to clients that accept gzip.
+     * @return A ResponseEntity containing the text as UTF-8 plain text.
+     */
+    @GetMapping("/{classroomId}/materials/{materialId}/extracted-text")
+    public ResponseEntity<byte[]> getExtractedText(
+            @PathVariable String classroomId,
+            @PathVariable String materialId,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+
+        Optional<ExtractedText> found = textExtractionService.find(classroomId, materialId);
+        if (found.isEmpty()) {
+            return ResponseEntity.accepted().header(HttpHeaders.RETRY_AFTER, "5").build();
+        }
+        ExtractedText extracted = found.get();
+        if (extracted.getError() != null) {
+            return ResponseEntity.unprocessableEntity()
+                    .contentType(new MediaType("text", "plain", StandardCharsets.UTF_8))
+                    .body(extracted.getError().getBytes(StandardCharsets.UTF_8));
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(new MediaType("text", "plain", StandardCharsets.UTF_8))
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                // The text never changes for a given file, so clients may cache it by hash.
+                .eTag(extracted.getId());
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(extracted.getContent());
+        }
+        return response.body(textExtractionService.text(extracted).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Downloads the file of a file material through this instance's disk cache, instead of
+     * from blob storage. Supports {@code Range} requests and revalidation with
+     * {@code If-None-Match} or {@code If-Modified-Since}.
+     *
+     * @param classroomId The ID of the classroom containing the material.
+     * @param materialId The ID of the material.
+     * @param request The HTTP request, whose range and conditional headers are honoured.
+     * @param response The HTTP response the file is written to.
+     * @throws IOException if the file cannot be fetched or written.
+     */
+    @GetMapping("/{classroomId}/materials/{materialId}/file")
+    public void downloadMaterialFile(
+            @PathVariable String classroomId,
+            @PathVariable String materialId,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+
+        blobDownloadService.serve(classroomService.getMaterialFileUrl(classroomId, materialId), request, response);
+    }
+}
@@ -0,0 +1,54 @@
+package com.mesh_microservices.classroom_service.controller;
+
+import com.mesh_microservices.classroom_service.service.LocalBlobService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileAlreadyExistsException;
+
+/**
+ * Receives direct uploads when files are stored on the local disk.
+ * <p>
+ * With Azure, clients upload straight to blob storage with a SAS URL. The local backend
+ * has no storage endpoint of its own, so its signed upload URLs point here instead. The
+ * controller exists only when {@code classroom.blob.backend=local}.
+ */
+@RestController
+@RequestMapping("/api/classrooms/blobs")
+@ConditionalOnProperty(name = "classroom.blob.backend", havingValue = "local")
+public class LocalBlobController {
+
+    @Autowired
+    private LocalBlobService localBlobService;
+
+    /**
+     * Stores the request body as a blob, if the URL's signature is valid and has not expired.
+     *
+     * @param blobName The name of the blob, from the signed URL.
+     * @param expires The expiry of the URL, in epoch seconds.
+     * @param signature The signature of the URL.
+     * @param body The file content.
+     * @return An empty ResponseEntity with status 201 (Created), or 409 (Conflict) if the
+     * blob has already been uploaded.
+     * @throws IOException if the file cannot be written.
+     */
+    @PutMapping("/{blobName}")
+    public ResponseEntity<Void> upload(
+            @PathVariable String blobName,
+            @RequestParam long expires,
+            @RequestParam String signature,
+            InputStream body) throws IOException {
+
+        try {
+            localBlobService.acceptSignedUpload(blobName, expires, signature, body);
+        } catch (FileAlreadyExistsException e) {
+            return new ResponseEntity<>(HttpStatus.CONFLICT);
+        }
+        return new ResponseEntity<>(HttpStatus.CREATED);
+    }
+}
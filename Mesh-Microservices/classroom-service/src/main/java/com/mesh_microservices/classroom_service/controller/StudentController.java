@@ -1,6 +1,8 @@
 package com.mesh_microservices.classroom_service.controller;
 
 import com.mesh_microservices.classroom_service.model.Classroom;
+import com.mesh_microservices.classroom_service.model.DueAssignment;
+import com.mesh_microservices.classroom_service.model.SearchEntry;
 import com.mesh_microservices.classroom_service.service.ClassroomService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -13,7 +15,8 @@ import java.util.Map;
  * REST controller for handling student-specific classroom operations.
  * <p>
  * This class exposes endpoints for students to join classrooms and view the
- * classrooms they are enrolled in.
+ * classrooms they are enrolled in, to list the work that is due, and to search
+ * their classrooms' content.
  */
 @RestController
 @RequestMapping("/api/student")
@@ -52,4 +55,44 @@ public class StudentController {
         List<Classroom> classrooms = classroomService.findClassroomsByStudent(studentEmail);
         return ResponseEntity.ok(classrooms);
     }
+
+    /**
+     * Retrieves the student's to-do list: upcoming and recently overdue assignments across
+     * all of their classrooms, each with the student's own submission status.
+     *
+     * @param days Optional number of days ahead to include (default 14).
+     * @param overdueDays Optional number of days back to include unsubmitted work (default 30).
+     * @param studentEmail The email of the student, passed in the "X-User-Email" request header.
+     * @return A ResponseEntity containing the assignments, earliest due date first.
+     */
+    @GetMapping("/assignments/due")
+    public ResponseEntity<List<DueAssignment>> getDueAssignments(
+            @RequestParam(required = false) Integer days,
+            @RequestParam(required = false) Integer overdueDays,
+            @RequestHeader("X-User-Email") String studentEmail) {
+        List<DueAssignment> assignments = classroomService.findDueAssignments(studentEmail, days, overdueDays);
+        return ResponseEntity.ok(assignments);
+    }
+
+    /**
+     * Searches lecture materials and assignments across the student's classrooms.
+     *
+     * @param q The search terms.
+     * @param classroomId Optional ID of a single classroom to search in.
+     * @param page Optional zero-based page number.
+     * @param size Optional number of results per page (default 20, at most 100).
+     * @param studentEmail The email of the searching student, passed in the
+     * "X-User-Email" request header.
+     * @return A ResponseEntity containing the matching items; with the text search backend, best match first.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<SearchEntry>> search(
+            @RequestParam String q,
+            @RequestParam(required = false) String classroomId,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            @RequestHeader("X-User-Email") String studentEmail) {
+        List<SearchEntry> results = classroomService.search(studentEmail, q, classroomId, page, size);
+        return ResponseEntity.ok(results);
+    }
 }
\ No newline at end of file
@@ -47,6 +47,11 @@ public class Assignment {
      */
     private List<Submission> submissions = new ArrayList<>();
 
+    /**
+     * Counters over this assignment's submissions, kept up to date on every submission and grade.
+     */
+    private SubmissionStats stats = new SubmissionStats();
+
     // --- Getters and Setters ---
     public String getId() {
         return id;
@@ -104,4 +109,11 @@ public class Assignment {
         this.submissions = submissions;
     }
 
+    public SubmissionStats getStats() {
+        return stats;
+    }
+
+    public void setStats(SubmissionStats stats) {
+        this.stats = stats;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,101 @@
+package com.mesh_microservices.classroom_service.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Submission and grading figures for one assignment, derived from its {@link SubmissionStats}.
+ * <p>
+ * This class is a response DTO and is part of {@link ClassroomAnalytics}.
+ */
+public class AssignmentAnalytics {
+
+    private String assignmentId;
+    private String title;
+    private int points;
+    private LocalDateTime dueDate;
+
+    /**
+     * The raw counters the rates below are derived from.
+     */
+    private SubmissionStats stats;
+
+    /**
+     * Submissions per enrolled student, between 0 and 1.
+     */
+    private double submissionRate;
+
+    /**
+     * Share of submissions made on or before the due date, between 0 and 1.
+     */
+    private double onTimeRate;
+
+    /**
+     * The mean of all grades given, or null if nothing is graded yet.
+     */
+    private Double averageGrade;
+
+    // --- Getters and Setters ---
+    public String getAssignmentId() {
+        return assignmentId;
+    }
+
+    public void setAssignmentId(String assignmentId) {
+        this.assignmentId = assignmentId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public int getPoints() {
+        return points;
+    }
+
+    public void setPoints(int points) {
+        this.points = points;
+    }
+
+    public LocalDateTime getDueDate() {
+        return dueDate;
+    }
+
+    public void setDueDate(LocalDateTime dueDate) {
+        this.dueDate = dueDate;
+    }
+
+    public SubmissionStats getStats() {
+        return stats;
+    }
+
+    public void setStats(SubmissionStats stats) {
+        this.stats = stats;
+    }
+
+    public double getSubmissionRate() {
+        return submissionRate;
+    }
+
+    public void setSubmissionRate(double submissionRate) {
+        this.submissionRate = submissionRate;
+    }
+
+    public double getOnTimeRate() {
+        return onTimeRate;
+    }
+
+    public void setOnTimeRate(double onTimeRate) {
+        this.onTimeRate = onTimeRate;
+    }
+
+    public Double getAverageGrade() {
+        return averageGrade;
+    }
+
+    public void setAverageGrade(Double averageGrade) {
+        this.averageGrade = averageGrade;
+    }
+}
@@ -0,0 +1,97 @@
+package com.mesh_microservices.classroom_service.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * A pending due-date event for one assignment.
+ * <p>
+ * This class is mapped to the "assignment_deadlines" collection. Each assignment with a
+ * due date has one entry, which first fires a reminder and then, once the due date has
+ * passed, the late check. The entry is removed after the late check, so the collection
+ * only ever holds upcoming work and the scheduler never scans classrooms.
+ * <p>
+ * The scheduler looks entries up by stage and time, in time order, using the compound index
+ * on both fields.
+ */
+@Document(collection = "assignment_deadlines")
+@CompoundIndex(name = "stage_next_fire", def = "{'stage': 1, 'nextFireAt': 1}")
+public class AssignmentDeadline {
+
+    /**
+     * The stages an entry moves through, in order.
+     */
+    public enum Stage {
+        REMINDER, DUE
+    }
+
+    /**
+     * The ID of the assignment this entry belongs to.
+     */
+    @Id
+    private String id;
+
+    /**
+     * The ID of the classroom containing the assignment.
+     */
+    private String classroomId;
+
+    /**
+     * The assignment's due date, copied from the assignment.
+     */
+    private LocalDateTime dueDate;
+
+    /**
+     * The next event to fire for this assignment.
+     */
+    private Stage stage;
+
+    /**
+     * When the next event should fire. The scheduler only reads entries whose time has arrived.
+     */
+    private LocalDateTime nextFireAt;
+
+    // --- Getters and Setters ---
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getClassroomId() {
+        return classroomId;
+    }
+
+    public void setClassroomId(String classroomId) {
+        this.classroomId = classroomId;
+    }
+
+    public LocalDateTime getDueDate() {
+        return dueDate;
+    }
+
+    public void setDueDate(LocalDateTime dueDate) {
+        this.dueDate = dueDate;
+    }
+
+    public Stage getStage() {
+        return stage;
+    }
+
+    public void setStage(Stage stage) {
+        this.stage = stage;
+    }
+
+    public LocalDateTime getNextFireAt() {
+        return nextFireAt;
+    }
+
+    public void setNextFireAt(LocalDateTime nextFireAt) {
+        this.nextFireAt = nextFireAt;
+    }
+}
@@ -1,6 +1,8 @@
 package com.mesh_microservices.classroom_service.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -13,8 +15,12 @@ import java.util.List;
  * This class is mapped to the "classrooms" collection in MongoDB and acts as the
  * root document containing all information about a class, including its students,
  * sections, and assignments.
+ * <p>
+ * Classrooms are indexed by owner and creation time, newest first, so a faculty
+ * member's classrooms are listed page by page from the index alone.
  */
 @Document(collection = "classrooms")
+@CompoundIndex(name = "faculty_created", def = "{'facultyId': 1, 'createdAt': -1, '_id': -1}")
 public class Classroom {
 
     /**
@@ -50,7 +56,9 @@ public class Classroom {
 
     /**
      * A list of unique IDs for all students enrolled in the classroom.
+     * Indexed (multikey) so a student's classrooms are found without a collection scan.
      */
+    @Indexed
     private List<String> studentIds = new ArrayList<>();
 
     /**
@@ -68,6 +76,11 @@ public class Classroom {
      */
     private List<Assignment> assignments = new ArrayList<>();
 
+    /**
+     * Counters over the submissions of all assignments, kept up to date on every submission and grade.
+     */
+    private SubmissionStats stats = new SubmissionStats();
+
     // --- Getters and Setters ---
 
     public String getId() {
@@ -149,4 +162,12 @@ public class Classroom {
     public void setAssignments(List<Assignment> assignments) {
         this.assignments = assignments;
     }
+
+    public SubmissionStats getStats() {
+        return stats;
+    }
+
+    public void setStats(SubmissionStats stats) {
+        this.stats = stats;
+    }
 }
\ No newline at end of file
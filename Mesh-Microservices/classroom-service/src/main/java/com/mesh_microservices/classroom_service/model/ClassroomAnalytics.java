@@ -0,0 +1,111 @@
+package com.mesh_microservices.classroom_service.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Submission and grading figures for a classroom and each of its assignments.
+ * <p>
+ * This class is a response DTO built from the counters stored on the classroom, so it
+ * can be produced without reading any submissions.
+ */
+public class ClassroomAnalytics {
+
+    private String classroomId;
+    private String classroomName;
+
+    /**
+     * The number of students currently enrolled.
+     */
+    private int enrolled;
+
+    /**
+     * The counters over all assignments of the classroom.
+     */
+    private SubmissionStats stats;
+
+    /**
+     * Submissions per enrolled student and assignment, between 0 and 1.
+     */
+    private double submissionRate;
+
+    /**
+     * Share of all submissions made on or before their due date, between 0 and 1.
+     */
+    private double onTimeRate;
+
+    /**
+     * The mean of all grades given in the classroom, or null if nothing is graded yet.
+     */
+    private Double averageGrade;
+
+    /**
+     * The figures for each assignment, in assignment order.
+     */
+    private List<AssignmentAnalytics> assignments = new ArrayList<>();
+
+    // --- Getters and Setters ---
+    public String getClassroomId() {
+        return classroomId;
+    }
+
+    public void setClassroomId(String classroomId) {
+        this.classroomId = classroomId;
+    }
+
+    public String getClassroomName() {
+        return classroomName;
+    }
+
+    public void setClassroomName(String classroomName) {
+        this.classroomName = classroomName;
+    }
+
+    public int getEnrolled() {
+        return enrolled;
+    }
+
+    public void setEnrolled(int enrolled) {
+        this.enrolled = enrolled;
+    }
+
+    public SubmissionStats getStats() {
+        return stats;
+    }
+
+    public void setStats(SubmissionStats stats) {
+        this.stats = stats;
+    }
+
+    public double getSubmissionRate() {
+        return submissionRate;
+    }
+
+    public void setSubmissionRate(double submissionRate) {
+        this.submissionRate = submissionRate;
+    }
+
+    public double getOnTimeRate() {
+        return onTimeRate;
+    }
+
+    public void setOnTimeRate(double onTimeRate) {
+        this.onTimeRate = onTimeRate;
+    }
+
+    public Double getAverageGrade() {
+        return averageGrade;
+    }
+
+    public void setAverageGrade(Double averageGrade) {
+        this.averageGrade = averageGrade;
+    }
+
+    public List<AssignmentAnalytics> getAssignments() {
+        return assignments;
+    }
+
+    public void setAssignments(List<AssignmentAnalytics> assignments) {
+        this.assignments = assignments;
+    }
+}
@@ -0,0 +1,111 @@
+package com.mesh_microservices.classroom_service.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * A change to a classroom's content that subscribed clients are told about.
+ * <p>
+ * This class is published as an application event by the classroom service after each
+ * change has been saved, and is sent as the data of a Server-Sent Event to every client
+ * subscribed to the classroom. It describes what changed rather than carrying the whole
+ * classroom, so clients fetch only what they need.
+ */
+public class ClassroomEvent {
+
+    /**
+     * The kinds of changes clients are notified about. Used as the SSE event name.
+     */
+    public enum Type {
+        SECTION_ADDED, SECTION_DELETED, MATERIAL_ADDED, ASSIGNMENT_CREATED
+    }
+
+    /**
+     * The kind of change.
+     */
+    private Type type;
+
+    /**
+     * The ID of the changed classroom.
+     */
+    private String classroomId;
+
+    /**
+     * The ID of the affected section, or null for assignments.
+     */
+    private String sectionId;
+
+    /**
+     * The ID of the added section, material or assignment, or of the deleted section.
+     */
+    private String itemId;
+
+    /**
+     * The title of the added item, or null for deletions.
+     */
+    private String title;
+
+    /**
+     * The time the change was saved.
+     */
+    private LocalDateTime occurredAt = LocalDateTime.now();
+
+    public ClassroomEvent() {
+    }
+
+    public ClassroomEvent(Type type, String classroomId, String sectionId, String itemId, String title) {
+        this.type = type;
+        this.classroomId = classroomId;
+        this.sectionId = sectionId;
+        this.itemId = itemId;
+        this.title = title;
+    }
+
+    // --- Getters and Setters ---
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public String getClassroomId() {
+        return classroomId;
+    }
+
+    public void setClassroomId(String classroomId) {
+        this.classroomId = classroomId;
+    }
+
+    public String getSectionId() {
+        return sectionId;
+    }
+
+    public void setSectionId(String sectionId) {
+        this.sectionId = sectionId;
+    }
+
+    public String getItemId() {
+        return itemId;
+    }
+
+    public void setItemId(String itemId) {
+        this.itemId = itemId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+
+    public void setOccurredAt(LocalDateTime occurredAt) {
+        this.occurredAt = occurredAt;
+    }
+}
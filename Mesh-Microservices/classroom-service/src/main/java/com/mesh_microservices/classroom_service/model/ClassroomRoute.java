@@ -0,0 +1,104 @@
+package com.mesh_microservices.classroom_service.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records which shard database holds a classroom.
+ * <p>
+ * This class is mapped to the "classroom_routes" collection in the primary database.
+ * Classrooms are placed by consistent hashing of their ID, but the route is what every
+ * lookup follows, so a classroom stays reachable while it is being moved to another shard.
+ * The join code and enrolled students are copied here, so that lookups by code or by
+ * student go to the one or few shards concerned instead of all of them.
+ */
+@Document(collection = "classroom_routes")
+public class ClassroomRoute {
+
+    /**
+     * The ID of the classroom.
+     */
+    @Id
+    private String id;
+
+    /**
+     * The name of the shard that holds the classroom.
+     */
+    private String shard;
+
+    /**
+     * The classroom's join code, unique across all shards.
+     */
+    @Indexed(unique = true, sparse = true)
+    private String classroomCode;
+
+    /**
+     * The IDs of the students enrolled in the classroom.
+     */
+    @Indexed
+    private List<String> studentIds = new ArrayList<>();
+
+    /**
+     * The shard the classroom is being moved to, or null if it is not being moved.
+     */
+    private String movingTo;
+
+    /**
+     * The time the current move started.
+     */
+    private LocalDateTime movingSince;
+
+    // --- Getters and Setters ---
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getShard() {
+        return shard;
+    }
+
+    public void setShard(String shard) {
+        this.shard = shard;
+    }
+
+    public String getClassroomCode() {
+        return classroomCode;
+    }
+
+    public void setClassroomCode(String classroomCode) {
+        this.classroomCode = classroomCode;
+    }
+
+    public List<String> getStudentIds() {
+        return studentIds;
+    }
+
+    public void setStudentIds(List<String> studentIds) {
+        this.studentIds = studentIds;
+    }
+
+    public String getMovingTo() {
+        return movingTo;
+    }
+
+    public void setMovingTo(String movingTo) {
+        this.movingTo = movingTo;
+    }
+
+    public LocalDateTime getMovingSince() {
+        return movingSince;
+    }
+
+    public void setMovingSince(LocalDateTime movingSince) {
+        this.movingSince = movingSince;
+    }
+}
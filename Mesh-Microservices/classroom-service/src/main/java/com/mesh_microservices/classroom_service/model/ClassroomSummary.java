@@ -0,0 +1,118 @@
+package com.mesh_microservices.classroom_service.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * A compact view of a classroom for dashboards.
+ * <p>
+ * This class is a response DTO projected straight from the "classrooms" collection. It
+ * carries counts instead of the embedded students, sections and assignments, so a list
+ * of summaries stays small however large the classrooms grow.
+ */
+public class ClassroomSummary {
+
+    /**
+     * The unique identifier of the classroom.
+     */
+    private String id;
+
+    /**
+     * The name of the classroom.
+     */
+    private String classroomName;
+
+    /**
+     * The subject of the classroom.
+     */
+    private String subject;
+
+    /**
+     * The code students use to join the classroom.
+     */
+    private String classroomCode;
+
+    /**
+     * The timestamp when the classroom was created.
+     */
+    private LocalDateTime createdAt;
+
+    /**
+     * The number of enrolled students.
+     */
+    private int studentCount;
+
+    /**
+     * The number of assignments in the classroom.
+     */
+    private int assignmentCount;
+
+    /**
+     * The submission counters of the whole classroom.
+     */
+    private SubmissionStats stats = new SubmissionStats();
+
+    // --- Getters and Setters ---
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getClassroomName() {
+        return classroomName;
+    }
+
+    public void setClassroomName(String classroomName) {
+        this.classroomName = classroomName;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public void setSubject(String subject) {
+        this.subject = subject;
+    }
+
+    public String getClassroomCode() {
+        return classroomCode;
+    }
+
+    public void setClassroomCode(String classroomCode) {
+        this.classroomCode = classroomCode;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public int getStudentCount() {
+        return studentCount;
+    }
+
+    public void setStudentCount(int studentCount) {
+        this.studentCount = studentCount;
+    }
+
+    public int getAssignmentCount() {
+        return assignmentCount;
+    }
+
+    public void setAssignmentCount(int assignmentCount) {
+        this.assignmentCount = assignmentCount;
+    }
+
+    public SubmissionStats getStats() {
+        return stats;
+    }
+
+    public void setStats(SubmissionStats stats) {
+        this.stats = stats;
+    }
+}
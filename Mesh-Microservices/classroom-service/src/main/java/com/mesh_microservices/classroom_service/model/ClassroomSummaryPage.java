@@ -0,0 +1,49 @@
+package com.mesh_microservices.classroom_service.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One page of a faculty member's classrooms, as returned by the "my classrooms" listing.
+ * <p>
+ * This class is a response DTO. To fetch the following page, pass {@code nextCursor}
+ * back as the {@code cursor} request parameter.
+ */
+public class ClassroomSummaryPage {
+
+    /**
+     * The classrooms on this page, newest first.
+     */
+    private List<ClassroomSummary> classrooms = new ArrayList<>();
+
+    /**
+     * An opaque cursor pointing after the last classroom on this page,
+     * or null if there are no more pages.
+     */
+    private String nextCursor;
+
+    public ClassroomSummaryPage() {
+    }
+
+    public ClassroomSummaryPage(List<ClassroomSummary> classrooms, String nextCursor) {
+        this.classrooms = classrooms;
+        this.nextCursor = nextCursor;
+    }
+
+    // --- Getters and Setters ---
+    public List<ClassroomSummary> getClassrooms() {
+        return classrooms;
+    }
+
+    public void setClassrooms(List<ClassroomSummary> classrooms) {
+        this.classrooms = classrooms;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,158 @@
+package com.mesh_microservices.classroom_service.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * One entry of a student's to-do list: an assignment that is due soon or overdue,
+ * together with the student's own submission status.
+ * <p>
+ * This class is a response DTO computed by the "what's due" aggregation across all of
+ * a student's classrooms.
+ */
+public class DueAssignment {
+
+    /**
+     * Where the assignment stands for the requesting student.
+     */
+    public enum Status {
+        /** Not submitted yet, and the due date has not passed. */
+        PENDING,
+        /** Not submitted, and the due date has passed. */
+        OVERDUE,
+        /** Submitted but not graded yet. */
+        SUBMITTED,
+        /** Submitted and graded. */
+        GRADED
+    }
+
+    /**
+     * The ID of the classroom containing the assignment.
+     */
+    private String classroomId;
+
+    /**
+     * The name of the classroom containing the assignment.
+     */
+    private String classroomName;
+
+    /**
+     * The ID of the assignment.
+     */
+    private String assignmentId;
+
+    /**
+     * The title of the assignment.
+     */
+    private String title;
+
+    /**
+     * The maximum points of the assignment.
+     */
+    private int points;
+
+    /**
+     * The deadline for submitting the assignment.
+     */
+    private LocalDateTime dueDate;
+
+    /**
+     * The time of the student's submission, or null if they have not submitted.
+     */
+    private LocalDateTime submittedAt;
+
+    /**
+     * The student's grade, or null if not graded.
+     */
+    private Integer grade;
+
+    /**
+     * Whether the student's submission was made after the due date.
+     */
+    private boolean late;
+
+    /**
+     * The student's status for this assignment.
+     */
+    private Status status;
+
+    // --- Getters and Setters ---
+    public String getClassroomId() {
+        return classroomId;
+    }
+
+    public void setClassroomId(String classroomId) {
+        this.classroomId = classroomId;
+    }
+
+    public String getClassroomName() {
+        return classroomName;
+    }
+
+    public void setClassroomName(String classroomName) {
+        this.classroomName = classroomName;
+    }
+
+    public String getAssignmentId() {
+        return assignmentId;
+    }
+
+    public void setAssignmentId(String assignmentId) {
+        this.assignmentId = assignmentId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public int getPoints() {
+        return points;
+    }
+
+    public void setPoints(int points) {
+        this.points = points;
+    }
+
+    public LocalDateTime getDueDate() {
+        return dueDate;
+    }
+
+    public void setDueDate(LocalDateTime dueDate) {
+        this.dueDate = dueDate;
+    }
+
+    public LocalDateTime getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public void setSubmittedAt(LocalDateTime submittedAt) {
+        this.submittedAt = submittedAt;
+    }
+
+    public Integer getGrade() {
+        return grade;
+    }
+
+    public void setGrade(Integer grade) {
+        this.grade = grade;
+    }
+
+    public boolean isLate() {
+        return late;
+    }
+
+    public void setLate(boolean late) {
+        this.late = late;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+}
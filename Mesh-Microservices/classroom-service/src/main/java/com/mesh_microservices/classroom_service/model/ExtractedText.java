@@ -0,0 +1,98 @@
+package com.mesh_microservices.classroom_service.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * The text extracted from an uploaded PDF or DOCX file, gzip-compressed.
+ * <p>
+ * This class is mapped to the "extracted_texts" collection and keyed by the SHA-256 hash
+ * of the file, so a file uploaded to several classrooms is extracted only once. File
+ * materials refer to it through their {@code contentHash}. A file that could not be read
+ * is recorded with an error instead of text, so it is not extracted again.
+ */
+@Document(collection = "extracted_texts")
+public class ExtractedText {
+
+    /**
+     * The SHA-256 hash of the file, hex-encoded.
+     */
+    @Id
+    private String id;
+
+    /**
+     * The UTF-8 text, gzip-compressed. Null if extraction failed.
+     */
+    private byte[] content;
+
+    /**
+     * The length of the uncompressed text in characters.
+     */
+    private int length;
+
+    /**
+     * Whether the text was cut off at the configured maximum length.
+     */
+    private boolean truncated;
+
+    /**
+     * Why no text could be extracted, or null on success.
+     */
+    private String error;
+
+    /**
+     * The time the file was processed.
+     */
+    private LocalDateTime extractedAt;
+
+    // --- Getters and Setters ---
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public byte[] getContent() {
+        return content;
+    }
+
+    public void setContent(byte[] content) {
+        this.content = content;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public void setLength(int length) {
+        this.length = length;
+    }
+
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    public void setTruncated(boolean truncated) {
+        this.truncated = truncated;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public LocalDateTime getExtractedAt() {
+        return extractedAt;
+    }
+
+    public void setExtractedAt(LocalDateTime extractedAt) {
+        this.extractedAt = extractedAt;
+    }
+}
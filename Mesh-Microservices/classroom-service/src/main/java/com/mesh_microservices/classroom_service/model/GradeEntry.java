@@ -0,0 +1,50 @@
+package com.mesh_microservices.classroom_service.model;
+
+/**
+ * A single grade to apply in a bulk grading request.
+ * <p>
+ * This class is a request DTO; it is never stored on its own. The grade and feedback
+ * are written to the {@link Submission} identified by {@code submissionId}.
+ */
+public class GradeEntry {
+
+    /**
+     * The unique ID of the submission being graded.
+     */
+    private String submissionId;
+
+    /**
+     * The grade to assign. Must be between 0 and the assignment's points.
+     */
+    private Integer grade;
+
+    /**
+     * Optional feedback for the student.
+     */
+    private String feedback;
+
+    // --- Getters and Setters ---
+    public String getSubmissionId() {
+        return submissionId;
+    }
+
+    public void setSubmissionId(String submissionId) {
+        this.submissionId = submissionId;
+    }
+
+    public Integer getGrade() {
+        return grade;
+    }
+
+    public void setGrade(Integer grade) {
+        this.grade = grade;
+    }
+
+    public String getFeedback() {
+        return feedback;
+    }
+
+    public void setFeedback(String feedback) {
+        this.feedback = feedback;
+    }
+}
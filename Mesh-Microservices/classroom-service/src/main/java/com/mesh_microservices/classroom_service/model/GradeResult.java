@@ -0,0 +1,66 @@
+package com.mesh_microservices.classroom_service.model;
+
+/**
+ * The outcome of applying one {@link GradeEntry} in a bulk grading request.
+ * <p>
+ * Results are returned in the same order as the entries, so a grader can tell which
+ * grades were saved and retry or fix only the others.
+ */
+public class GradeResult {
+
+    /**
+     * The possible outcomes for a single grade entry.
+     */
+    public enum Status {
+        UPDATED, NOT_FOUND, INVALID, FAILED
+    }
+
+    /**
+     * The unique ID of the submission the entry referred to.
+     */
+    private String submissionId;
+
+    /**
+     * Whether the grade was saved, and if not, why.
+     */
+    private Status status;
+
+    /**
+     * A human-readable explanation when the grade was not saved. Null on success.
+     */
+    private String message;
+
+    public GradeResult() {
+    }
+
+    public GradeResult(String submissionId, Status status, String message) {
+        this.submissionId = submissionId;
+        this.status = status;
+        this.message = message;
+    }
+
+    // --- Getters and Setters ---
+    public String getSubmissionId() {
+        return submissionId;
+    }
+
+    public void setSubmissionId(String submissionId) {
+        this.submissionId = submissionId;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -0,0 +1,122 @@
+package com.mesh_microservices.classroom_service.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * The outcome of a request made with an {@code Idempotency-Key} header.
+ * <p>
+ * This class is mapped to the "idempotency_keys" collection. The first request with a
+ * key inserts the record while it runs and stores its response when it finishes; repeated
+ * requests with the same key get the stored response. Expired records are purged
+ * periodically by the idempotency service, and may be taken over by a new request until then.
+ */
+@Document(collection = "idempotency_keys")
+public class IdempotencyRecord {
+
+    /**
+     * The states a record moves through.
+     */
+    public enum Status {
+        IN_PROGRESS, COMPLETED
+    }
+
+    /**
+     * A hash of the user and the client's key.
+     */
+    @Id
+    private String id;
+
+    /**
+     * A hash of the request that used the key. A repeated request must match it.
+     */
+    private String fingerprint;
+
+    /**
+     * A token identifying the request that currently holds the key. It changes when another
+     * request takes over, so the earlier request can no longer complete or remove the record.
+     */
+    private String owner;
+
+    /**
+     * Whether the first request is still running.
+     */
+    private Status status;
+
+    /**
+     * The time until which the first request holds the key. If it has not completed by
+     * then, its instance is assumed to have died and a repeated request may take over.
+     */
+    private LocalDateTime lockedUntil;
+
+    /**
+     * The JSON response body of the first request, once completed.
+     */
+    private String response;
+
+    /**
+     * The time after which the record is no longer used and may be purged.
+     */
+    @Indexed
+    private LocalDateTime expiresAt;
+
+    // --- Getters and Setters ---
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public void setFingerprint(String fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getLockedUntil() {
+        return lockedUntil;
+    }
+
+    public void setLockedUntil(LocalDateTime lockedUntil) {
+        this.lockedUntil = lockedUntil;
+    }
+
+    public String getResponse() {
+        return response;
+    }
+
+    public void setResponse(String response) {
+        this.response = response;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
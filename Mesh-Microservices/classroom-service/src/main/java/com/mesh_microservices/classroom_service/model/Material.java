@@ -41,15 +41,49 @@ public class Material {
     private MaterialType type;
 
     /**
-     * The content for text-only materials. Null if the material is a file.
+     * The content for text-only materials. Null if the material is a file, or if the text
+     * is too long to be kept in the classroom document and is stored separately.
      */
     private String textContent;
 
+    /**
+     * The length of the text content in characters, whether stored inline or separately.
+     */
+    private Integer textLength;
+
+    /**
+     * The beginning of the text content, set only when the full text is stored separately.
+     */
+    private String textPreview;
+
+    /**
+     * Whether the full text is stored separately and must be fetched on its own.
+     */
+    private boolean textExternal;
+
     /**
      * The URL pointing to the uploaded file. Null if the material is text-only.
      */
     private String fileUrl;
 
+    /**
+     * The SHA-256 hash of the file, hex-encoded, set once its text has been extracted.
+     * Null for text materials and for files that have not been processed yet.
+     */
+    private String contentHash;
+
+    /**
+     * The URL of a small JPEG rendition of an image file, for lists. Null for other files
+     * and until the rendition has been generated.
+     */
+    private String thumbnailUrl;
+
+    /**
+     * The URL of a screen-sized JPEG rendition of an image file, for viewing. Null for other
+     * files and until the rendition has been generated.
+     */
+    private String previewUrl;
+
     /**
      * The timestamp when the material was added or uploaded.
      */
@@ -88,6 +122,30 @@ public class Material {
         this.textContent = textContent;
     }
 
+    public Integer getTextLength() {
+        return textLength;
+    }
+
+    public void setTextLength(Integer textLength) {
+        this.textLength = textLength;
+    }
+
+    public String getTextPreview() {
+        return textPreview;
+    }
+
+    public void setTextPreview(String textPreview) {
+        this.textPreview = textPreview;
+    }
+
+    public boolean isTextExternal() {
+        return textExternal;
+    }
+
+    public void setTextExternal(boolean textExternal) {
+        this.textExternal = textExternal;
+    }
+
     public String getFileUrl() {
         return fileUrl;
     }
@@ -96,6 +154,30 @@ public class Material {
         this.fileUrl = fileUrl;
     }
 
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public String getThumbnailUrl() {
+        return thumbnailUrl;
+    }
+
+    public void setThumbnailUrl(String thumbnailUrl) {
+        this.thumbnailUrl = thumbnailUrl;
+    }
+
+    public String getPreviewUrl() {
+        return previewUrl;
+    }
+
+    public void setPreviewUrl(String previewUrl) {
+        this.previewUrl = previewUrl;
+    }
+
     public LocalDateTime getUploadedAt() {
         return uploadedAt;
     }
@@ -0,0 +1,69 @@
+package com.mesh_microservices.classroom_service.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * The gzip-compressed text of a long {@link Material}.
+ * <p>
+ * This class is mapped to the "material_bodies" collection. Texts above the inline limit
+ * are kept here instead of in the classroom document, so classroom reads stay small; the
+ * material keeps a preview and the length, and the text is loaded only when requested.
+ */
+@Document(collection = "material_bodies")
+public class MaterialBody {
+
+    /**
+     * The ID of the material this text belongs to.
+     */
+    @Id
+    private String id;
+
+    /**
+     * The ID of the classroom containing the material.
+     */
+    private String classroomId;
+
+    /**
+     * The UTF-8 text, gzip-compressed.
+     */
+    private byte[] content;
+
+    /**
+     * The length of the uncompressed text in characters.
+     */
+    private int length;
+
+    // --- Getters and Setters ---
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getClassroomId() {
+        return classroomId;
+    }
+
+    public void setClassroomId(String classroomId) {
+        this.classroomId = classroomId;
+    }
+
+    public byte[] getContent() {
+        return content;
+    }
+
+    public void setContent(byte[] content) {
+        this.content = content;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public void setLength(int length) {
+        this.length = length;
+    }
+}
@@ -0,0 +1,160 @@
+package com.mesh_microservices.classroom_service.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.index.TextIndexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.TextScore;
+
+import java.util.List;
+
+/**
+ * A searchable copy of one material or assignment.
+ * <p>
+ * This class is mapped to the "search_entries" collection. Each entry carries the
+ * lower-case words of its title and body as keywords, indexed with its classroom, for
+ * prefix searches; where text searches are enabled, the collection also carries a MongoDB
+ * text index over the title and body. Entries are written whenever the material or
+ * assignment they mirror is added or removed, so the index is always current without
+ * rescanning classrooms. Search results are returned as entries, with the body and
+ * keywords left out.
+ */
+@Document(collection = "search_entries")
+@CompoundIndex(name = "classroom_keywords", def = "{'classroomId': 1, 'keywords': 1}")
+public class SearchEntry {
+
+    /**
+     * The kinds of items that can be searched.
+     */
+    public enum Type {
+        MATERIAL, ASSIGNMENT
+    }
+
+    /**
+     * The ID of the material or assignment this entry mirrors.
+     */
+    @Id
+    private String id;
+
+    /**
+     * The ID of the classroom containing the item. Searches are always restricted to
+     * the classrooms a student belongs to.
+     */
+    private String classroomId;
+
+    /**
+     * The ID of the section containing a material. Null for assignments.
+     */
+    @Indexed(sparse = true)
+    private String sectionId;
+
+    /**
+     * Whether the item is a material or an assignment.
+     */
+    private Type type;
+
+    /**
+     * The item's title. With text searches, matches in the title rank above matches in the body.
+     */
+    @TextIndexed(weight = 3)
+    private String title;
+
+    /**
+     * The material's text content or the assignment's description.
+     */
+    @TextIndexed
+    @JsonIgnore
+    private String body;
+
+    /**
+     * The distinct lower-case words of the title and body, title first, matched by prefix.
+     */
+    @JsonIgnore
+    private List<String> keywords;
+
+    /**
+     * The start of the body, shown with search results.
+     */
+    private String snippet;
+
+    /**
+     * The relevance of this entry to the search terms, set on search results only.
+     */
+    @TextScore
+    private Float score;
+
+    // --- Getters and Setters ---
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getClassroomId() {
+        return classroomId;
+    }
+
+    public void setClassroomId(String classroomId) {
+        this.classroomId = classroomId;
+    }
+
+    public String getSectionId() {
+        return sectionId;
+    }
+
+    public void setSectionId(String sectionId) {
+        this.sectionId = sectionId;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public void setBody(String body) {
+        this.body = body;
+    }
+
+    public List<String> getKeywords() {
+        return keywords;
+    }
+
+    public void setKeywords(List<String> keywords) {
+        this.keywords = keywords;
+    }
+
+    public String getSnippet() {
+        return snippet;
+    }
+
+    public void setSnippet(String snippet) {
+        this.snippet = snippet;
+    }
+
+    public Float getScore() {
+        return score;
+    }
+
+    public void setScore(Float score) {
+        this.score = score;
+    }
+}
@@ -31,6 +31,18 @@ public class Submission {
      */
     private String submittedFileUrl;
 
+    /**
+     * The URL of a small JPEG rendition of an image file, for lists. Null for other files
+     * and until the rendition has been generated.
+     */
+    private String thumbnailUrl;
+
+    /**
+     * The URL of a screen-sized JPEG rendition of an image file, for viewing. Null for other
+     * files and until the rendition has been generated.
+     */
+    private String previewUrl;
+
     /**
      * The timestamp when the assignment was submitted.
      */
@@ -46,6 +58,11 @@ public class Submission {
      */
     private String feedback;
 
+    /**
+     * Whether the submission was made after the assignment's due date.
+     */
+    private boolean late;
+
     // --- Getters and Setters ---
     public String getId() {
         return id;
@@ -79,6 +96,22 @@ public class Submission {
         this.submittedFileUrl = submittedFileUrl;
     }
 
+    public String getThumbnailUrl() {
+        return thumbnailUrl;
+    }
+
+    public void setThumbnailUrl(String thumbnailUrl) {
+        this.thumbnailUrl = thumbnailUrl;
+    }
+
+    public String getPreviewUrl() {
+        return previewUrl;
+    }
+
+    public void setPreviewUrl(String previewUrl) {
+        this.previewUrl = previewUrl;
+    }
+
     public LocalDateTime getSubmittedAt() {
         return submittedAt;
     }
@@ -102,4 +135,12 @@ public class Submission {
     public void setFeedback(String feedback) {
         this.feedback = feedback;
     }
+
+    public boolean isLate() {
+        return late;
+    }
+
+    public void setLate(boolean late) {
+        this.late = late;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,49 @@
+package com.mesh_microservices.classroom_service.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One page of an assignment's submissions, as returned by the submission listing.
+ * <p>
+ * This class is a response DTO. To fetch the following page, pass {@code nextCursor}
+ * back as the {@code cursor} request parameter.
+ */
+public class SubmissionPage {
+
+    /**
+     * The submissions on this page, oldest first.
+     */
+    private List<Submission> submissions = new ArrayList<>();
+
+    /**
+     * An opaque cursor pointing after the last submission on this page,
+     * or null if there are no more pages.
+     */
+    private String nextCursor;
+
+    public SubmissionPage() {
+    }
+
+    public SubmissionPage(List<Submission> submissions, String nextCursor) {
+        this.submissions = submissions;
+        this.nextCursor = nextCursor;
+    }
+
+    // --- Getters and Setters ---
+    public List<Submission> getSubmissions() {
+        return submissions;
+    }
+
+    public void setSubmissions(List<Submission> submissions) {
+        this.submissions = submissions;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
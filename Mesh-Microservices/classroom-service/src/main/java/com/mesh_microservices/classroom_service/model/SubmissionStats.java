@@ -0,0 +1,65 @@
+package com.mesh_microservices.classroom_service.model;
+
+/**
+ * Running submission counters for an assignment or a whole classroom.
+ * <p>
+ * This class is a POJO embedded in each {@link Assignment} and in the {@link Classroom}.
+ * The counters are adjusted in the same write that changes the submissions they count,
+ * so analytics can be read without loading any submissions. They can be recalculated
+ * from the submissions at any time.
+ */
+public class SubmissionStats {
+
+    /**
+     * The number of submissions (one per student, resubmissions replace earlier ones).
+     */
+    private long submitted;
+
+    /**
+     * The number of submissions that have a grade.
+     */
+    private long graded;
+
+    /**
+     * The number of submissions made after the due date.
+     */
+    private long late;
+
+    /**
+     * The sum of all grades given, used to derive the average grade.
+     */
+    private long gradeSum;
+
+    // --- Getters and Setters ---
+    public long getSubmitted() {
+        return submitted;
+    }
+
+    public void setSubmitted(long submitted) {
+        this.submitted = submitted;
+    }
+
+    public long getGraded() {
+        return graded;
+    }
+
+    public void setGraded(long graded) {
+        this.graded = graded;
+    }
+
+    public long getLate() {
+        return late;
+    }
+
+    public void setLate(long late) {
+        this.late = late;
+    }
+
+    public long getGradeSum() {
+        return gradeSum;
+    }
+
+    public void setGradeSum(long gradeSum) {
+        this.gradeSum = gradeSum;
+    }
+}
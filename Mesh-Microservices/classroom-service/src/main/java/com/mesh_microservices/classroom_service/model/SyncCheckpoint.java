@@ -0,0 +1,58 @@
+package com.mesh_microservices.classroom_service.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * How far classroom-service has read a feed from another service.
+ * <p>
+ * This class is mapped to the "sync_checkpoints" collection, with one document per feed.
+ * It is written after each batch has been applied, so a restart resumes where the last
+ * batch ended.
+ */
+@Document(collection = "sync_checkpoints")
+public class SyncCheckpoint {
+
+    /**
+     * The name of the feed (e.g. "user-changes").
+     */
+    @Id
+    private String id;
+
+    /**
+     * The ID of the last feed entry that has been applied.
+     */
+    private String lastEventId;
+
+    /**
+     * The time the checkpoint was last moved.
+     */
+    private LocalDateTime updatedAt;
+
+    // --- Getters and Setters ---
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getLastEventId() {
+        return lastEventId;
+    }
+
+    public void setLastEventId(String lastEventId) {
+        this.lastEventId = lastEventId;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
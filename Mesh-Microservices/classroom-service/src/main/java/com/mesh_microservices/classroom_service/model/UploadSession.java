@@ -0,0 +1,305 @@
+package com.mesh_microservices.classroom_service.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A resumable upload of a large file for a submission or a lecture material.
+ * <p>
+ * This class is mapped to the "upload_sessions" collection and doubles as the request
+ * and response body of the upload endpoints. The client creates a session, sends the
+ * file in fixed-size chunks (in any order, in parallel, and again after a failure), and
+ * commits it. Each chunk is staged as a block in blob storage and recorded here, so both
+ * the data and the progress survive a dropped connection or a service restart.
+ * <p>
+ * A direct session instead hands the client a signed URL to write the whole file straight
+ * to storage; the file never passes through the service, which only checks the stored
+ * blob when the client finalizes the session.
+ * Expired sessions are removed by a periodic sweep, together with their staged chunks.
+ */
+@Document(collection = "upload_sessions")
+public class UploadSession {
+
+    /**
+     * What the uploaded file is for.
+     */
+    public enum Purpose {
+        SUBMISSION, MATERIAL
+    }
+
+    /**
+     * The states a session moves through.
+     */
+    public enum Status {
+        UPLOADING, COMMITTING, COMMITTED
+    }
+
+    /**
+     * The unique identifier of the session, generated by MongoDB.
+     */
+    @Id
+    private String id;
+
+    /**
+     * What the uploaded file is for. Set by the client.
+     */
+    private Purpose purpose;
+
+    /**
+     * The ID of the classroom the file belongs to.
+     */
+    private String classroomId;
+
+    /**
+     * The ID of the assignment (for submissions) or section (for materials). Set by the client.
+     */
+    private String targetId;
+
+    /**
+     * The title of the material, for material uploads. Set by the client.
+     */
+    private String title;
+
+    /**
+     * Optional text content of the material, for material uploads. Set by the client.
+     */
+    private String textContent;
+
+    /**
+     * The original name of the file. Set by the client.
+     */
+    private String fileName;
+
+    /**
+     * The MIME type of the file. Set by the client.
+     */
+    private String contentType;
+
+    /**
+     * The total size of the file in bytes. Set by the client.
+     */
+    private long size;
+
+    /**
+     * The size of every chunk but the last, chosen by the service.
+     */
+    private long chunkSize;
+
+    /**
+     * The email of the user who created the session; only they may continue it.
+     */
+    private String userEmail;
+
+    /**
+     * The name of the blob the chunks are staged under.
+     */
+    @JsonIgnore
+    private String blobName;
+
+    /**
+     * Whether the client uploads the file directly to storage through a signed URL.
+     */
+    private boolean direct;
+
+    /**
+     * The signed URL for a direct upload. Returned once when the session is created and never stored.
+     */
+    @Transient
+    private String uploadUrl;
+
+    /**
+     * The time after which the signed URL can no longer be used. Returned with the URL.
+     */
+    @Transient
+    private LocalDateTime uploadUrlExpiresAt;
+
+    /**
+     * The indexes of the chunks that have been staged.
+     */
+    private List<Integer> receivedChunks = new ArrayList<>();
+
+    /**
+     * The state of the session.
+     */
+    private Status status = Status.UPLOADING;
+
+    /**
+     * The timestamp when the session was created.
+     */
+    private LocalDateTime createdAt;
+
+    /**
+     * The time after which the session is removed.
+     */
+    @Indexed
+    private LocalDateTime expiresAt;
+
+    /**
+     * The number of chunks the file is split into.
+     *
+     * @return The chunk count; at least one.
+     */
+    public int chunkCount() {
+        return chunkSize <= 0 ? 1 : (int) Math.max(1, (size + chunkSize - 1) / chunkSize);
+    }
+
+    // --- Getters and Setters ---
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public Purpose getPurpose() {
+        return purpose;
+    }
+
+    public void setPurpose(Purpose purpose) {
+        this.purpose = purpose;
+    }
+
+    public String getClassroomId() {
+        return classroomId;
+    }
+
+    public void setClassroomId(String classroomId) {
+        this.classroomId = classroomId;
+    }
+
+    public String getTargetId() {
+        return targetId;
+    }
+
+    public void setTargetId(String targetId) {
+        this.targetId = targetId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getTextContent() {
+        return textContent;
+    }
+
+    public void setTextContent(String textContent) {
+        this.textContent = textContent;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public void setSize(long size) {
+        this.size = size;
+    }
+
+    public long getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(long chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public String getUserEmail() {
+        return userEmail;
+    }
+
+    public void setUserEmail(String userEmail) {
+        this.userEmail = userEmail;
+    }
+
+    public String getBlobName() {
+        return blobName;
+    }
+
+    public void setBlobName(String blobName) {
+        this.blobName = blobName;
+    }
+
+    public boolean isDirect() {
+        return direct;
+    }
+
+    public void setDirect(boolean direct) {
+        this.direct = direct;
+    }
+
+    public String getUploadUrl() {
+        return uploadUrl;
+    }
+
+    public void setUploadUrl(String uploadUrl) {
+        this.uploadUrl = uploadUrl;
+    }
+
+    public LocalDateTime getUploadUrlExpiresAt() {
+        return uploadUrlExpiresAt;
+    }
+
+    public void setUploadUrlExpiresAt(LocalDateTime uploadUrlExpiresAt) {
+        this.uploadUrlExpiresAt = uploadUrlExpiresAt;
+    }
+
+    public List<Integer> getReceivedChunks() {
+        return receivedChunks;
+    }
+
+    public void setReceivedChunks(List<Integer> receivedChunks) {
+        this.receivedChunks = receivedChunks;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
@@ -0,0 +1,71 @@
+package com.mesh_microservices.classroom_service.model;
+
+/**
+ * A change to a user, as read from the user-service change feed.
+ * <p>
+ * This class is a DTO for inter-service communication. classroom-service applies these
+ * changes to the user names it copies into classrooms and submissions, and to the
+ * enrolment lists.
+ */
+public class UserChange {
+
+    /**
+     * The kinds of changes in the feed.
+     */
+    public enum Type {
+        UPDATED, DELETED
+    }
+
+    /**
+     * The ID of the feed entry; entries are ordered by it.
+     */
+    private String id;
+
+    /**
+     * The kind of change.
+     */
+    private Type type;
+
+    /**
+     * The ID of the changed user.
+     */
+    private String userId;
+
+    /**
+     * The user's name after the change, or null for deletions.
+     */
+    private String name;
+
+    // --- Getters and Setters ---
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+}
@@ -0,0 +1,14 @@
+package com.mesh_microservices.classroom_service.repository;
+
+import com.mesh_microservices.classroom_service.model.AssignmentDeadline;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+/**
+ * A Spring Data repository for managing {@link AssignmentDeadline} entries in MongoDB.
+ * <p>
+ * Claiming due entries needs atomic find-and-modify operations and is done through
+ * {@code MongoTemplate} in the deadline scheduler; this repository covers the simple
+ * saves and deletes.
+ */
+public interface AssignmentDeadlineRepository extends MongoRepository<AssignmentDeadline, String> {
+}
@@ -0,0 +1,13 @@
+package com.mesh_microservices.classroom_service.repository;
+
+import com.mesh_microservices.classroom_service.model.ExtractedText;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+/**
+ * A Spring Data repository for managing {@link ExtractedText} documents in MongoDB.
+ * <p>
+ * This interface extends {@link MongoRepository}, which provides all the operations
+ * needed to store and load extracted texts by content hash.
+ */
+public interface ExtractedTextRepository extends MongoRepository<ExtractedText, String> {
+}
@@ -0,0 +1,13 @@
+package com.mesh_microservices.classroom_service.repository;
+
+import com.mesh_microservices.classroom_service.model.MaterialBody;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+/**
+ * A Spring Data repository for managing {@link MaterialBody} documents in MongoDB.
+ * <p>
+ * This interface extends {@link MongoRepository}, which provides all the operations
+ * needed to store, load and delete material texts by material ID.
+ */
+public interface MaterialBodyRepository extends MongoRepository<MaterialBody, String> {
+}
@@ -0,0 +1,20 @@
+package com.mesh_microservices.classroom_service.repository;
+
+import com.mesh_microservices.classroom_service.model.SearchEntry;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+/**
+ * A Spring Data repository for managing {@link SearchEntry} documents in MongoDB.
+ * <p>
+ * Text queries are run through {@code MongoTemplate} in the search service; this
+ * repository covers keeping the entries in step with the classrooms.
+ */
+public interface SearchEntryRepository extends MongoRepository<SearchEntry, String> {
+
+    /**
+     * Removes the entries of every material in a section, used when the section is deleted.
+     *
+     * @param sectionId The ID of the deleted section.
+     */
+    void deleteBySectionId(String sectionId);
+}
@@ -1,24 +1,48 @@
 package com.mesh_microservices.classroom_service.service;
 
+import com.azure.core.util.BinaryData;
 import com.azure.storage.blob.BlobClient;
 import com.azure.storage.blob.BlobContainerClient;
 import com.azure.storage.blob.BlobServiceClient;
 import com.azure.storage.blob.BlobServiceClientBuilder;
+import com.azure.storage.blob.models.BlobErrorCode;
 import com.azure.storage.blob.models.BlobHttpHeaders;
+import com.azure.storage.blob.models.BlobProperties;
+import com.azure.storage.blob.models.BlobStorageException;
+import com.azure.storage.blob.sas.BlobSasPermission;
+import com.azure.storage.blob.sas.BlobServiceSasSignatureValues;
+import com.azure.storage.blob.specialized.BlockBlobClient;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.List;
 import java.util.UUID;
 
 /**
  * A service class that encapsulates the logic for interacting with Azure Blob Storage.
  * <p>
  * This service is responsible for uploading files to a designated container.
+ * Each upload is observed as {@code classroom.blob.upload}, which produces both a
+ * latency timer and a trace span under the current request. Its size
+ * ({@code classroom.blob.upload.size}) and effective transfer rate
+ * ({@code classroom.blob.upload.throughput}) are recorded as well.
  */
 @Service
-public class AzureBlobService {
+@ConditionalOnProperty(name = "classroom.blob.backend", havingValue = "azure", matchIfMissing = true)
+public class AzureBlobService implements BlobStorageService {
 
     /**
      * A client representing the specific container in Azure Blob Storage
@@ -26,6 +50,21 @@ public class AzureBlobService {
      */
     private final BlobContainerClient containerClient;
 
+    /**
+     * The registry upload observations (timers and spans) are reported to.
+     */
+    private final ObservationRegistry observationRegistry;
+
+    /**
+     * The distribution of uploaded file sizes, in bytes.
+     */
+    private final DistributionSummary uploadSize;
+
+    /**
+     * The distribution of per-upload transfer rates, in bytes per second.
+     */
+    private final DistributionSummary uploadThroughput;
+
     /**
      * Constructs the AzureBlobService and initializes the connection to Azure.
      * <p>
@@ -35,16 +74,32 @@ public class AzureBlobService {
      *
      * @param connectionString The full connection string for the Azure Storage account.
      * @param containerName    The name of the blob container where files will be stored.
+     * @param meterRegistry    The registry used to record upload size and throughput.
+     * @param observationRegistry The registry used to time and trace uploads.
      */
     public AzureBlobService(
             @Value("${azure.storage.blob.connection-string}") String connectionString,
-            @Value("${azure.storage.blob.container-name}") String containerName
+            @Value("${azure.storage.blob.container-name}") String containerName,
+            MeterRegistry meterRegistry,
+            ObservationRegistry observationRegistry
     ) {
         BlobServiceClient blobServiceClient = new BlobServiceClientBuilder()
                 .connectionString(connectionString)
                 .buildClient();
         this.containerClient = blobServiceClient.getBlobContainerClient(containerName);
         this.containerClient.createIfNotExists();
+
+        this.observationRegistry = observationRegistry;
+        this.uploadSize = DistributionSummary.builder("classroom.blob.upload.size")
+                .description("Size of files uploaded to blob storage")
+                .baseUnit("bytes")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.uploadThroughput = DistributionSummary.builder("classroom.blob.upload.throughput")
+                .description("Transfer rate of individual uploads to blob storage")
+                .baseUnit("bytes.per.second")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
     }
 
     /**
@@ -59,6 +114,7 @@ public class AzureBlobService {
      * @return The public URL of the successfully uploaded file.
      * @throws IOException if an I/O error occurs during the file upload process.
      */
+    @Override
     public String uploadFile(MultipartFile file) throws IOException {
         // Generate a unique file name to avoid collisions and ensure file integrity.
         String fileName = UUID.randomUUID().toString() + "-" + file.getOriginalFilename();
@@ -71,11 +127,173 @@ public class AzureBlobService {
                 // Instructs the browser to attempt to display the file within the browser window.
                 .setContentDisposition("inline");
 
-        // Upload the file's data stream and size. The 'true' flag allows overwriting if needed.
-        blobClient.upload(file.getInputStream(), file.getSize(), true);
-        // Apply the configured HTTP headers to the blob that was just uploaded.
-        blobClient.setHttpHeaders(headers);
+        long start = System.nanoTime();
+        Observation.createNotStarted("classroom.blob.upload", observationRegistry)
+                .contextualName("blob upload")
+                .highCardinalityKeyValue("blob.name", fileName)
+                .observeChecked(() -> {
+                    // Upload the file's data stream and size. The 'true' flag allows overwriting if needed.
+                    blobClient.upload(file.getInputStream(), file.getSize(), true);
+                    // Apply the configured HTTP headers to the blob that was just uploaded.
+                    blobClient.setHttpHeaders(headers);
+                });
+        recordUpload(file.getSize(), System.nanoTime() - start);
+
+        return blobClient.getBlobUrl();
+    }
+
+    /**
+     * Uploads generated content in one request, observed and recorded like {@link #uploadFile}.
+     *
+     * @param blobName    The name of the blob.
+     * @param content     The content of the blob.
+     * @param contentType The MIME type of the blob.
+     * @return The URL of the stored blob.
+     */
+    @Override
+    public String uploadBlob(String blobName, byte[] content, String contentType) {
+        BlobClient blobClient = containerClient.getBlobClient(blobName);
+        long start = System.nanoTime();
+        Observation.createNotStarted("classroom.blob.upload", observationRegistry)
+                .contextualName("blob upload")
+                .highCardinalityKeyValue("blob.name", blobName)
+                .observe(() -> {
+                    blobClient.upload(BinaryData.fromBytes(content), true);
+                    blobClient.setHttpHeaders(new BlobHttpHeaders()
+                            .setContentType(contentType)
+                            .setContentDisposition("inline"));
+                });
+        recordUpload(content.length, System.nanoTime() - start);
+        return blobClient.getBlobUrl();
+    }
+
+    /**
+     * Stages one block of a block blob. Azure keeps uncommitted blocks for up to a week,
+     * so an interrupted upload can be resumed without sending the staged blocks again.
+     *
+     * @param blobName The name of the blob the block belongs to.
+     * @param blockId  The Base64-encoded ID of the block.
+     * @param data     The content of the block.
+     * @param length   The number of bytes in the block.
+     */
+    @Override
+    public void stageBlock(String blobName, String blockId, InputStream data, long length) {
+        BlockBlobClient blockBlobClient = containerClient.getBlobClient(blobName).getBlockBlobClient();
+        long start = System.nanoTime();
+        Observation.createNotStarted("classroom.blob.stage", observationRegistry)
+                .contextualName("blob stage block")
+                .highCardinalityKeyValue("blob.name", blobName)
+                .observe(() -> blockBlobClient.stageBlock(blockId, data, length));
+        recordUpload(length, System.nanoTime() - start);
+    }
+
+    /**
+     * Commits the staged blocks as the blob's content in one block list write and sets
+     * the same headers as {@link #uploadFile}.
+     *
+     * @param blobName    The name of the blob.
+     * @param blockIds    The Base64-encoded IDs of the staged blocks, in content order.
+     * @param contentType The MIME type of the blob.
+     * @return The URL of the committed blob.
+     */
+    @Override
+    public String commitBlocks(String blobName, List<String> blockIds, String contentType) {
+        BlobClient blobClient = containerClient.getBlobClient(blobName);
+        Observation.createNotStarted("classroom.blob.commit", observationRegistry)
+                .contextualName("blob commit blocks")
+                .highCardinalityKeyValue("blob.name", blobName)
+                .observe(() -> {
+                    blobClient.getBlockBlobClient().commitBlockList(blockIds, true);
+                    blobClient.setHttpHeaders(new BlobHttpHeaders()
+                            .setContentType(contentType)
+                            .setContentDisposition("inline"));
+                });
+        return blobClient.getBlobUrl();
+    }
+
+    /**
+     * Does nothing: committing a block list makes Azure drop the blob's other uncommitted
+     * blocks, and blocks that are never committed are dropped after a week. A committed
+     * block list can be committed again, so commits can be repeated.
+     *
+     * @param blobName The name of the blob.
+     */
+    @Override
+    public void discardBlocks(String blobName) {
+    }
+
+    /**
+     * Issues a service SAS URL that only allows creating the given blob. Without write
+     * permission the blob cannot be replaced once it exists, so a finalized upload cannot
+     * be swapped for another file while the URL is still valid. The start time is set
+     * slightly in the past to tolerate clock skew.
+     *
+     * @param blobName The name of the blob the client may write.
+     * @param validFor How long the URL can be used.
+     * @return The blob URL with the SAS token appended.
+     */
+    @Override
+    public String createUploadUrl(String blobName, Duration validFor) {
+        BlobClient blobClient = containerClient.getBlobClient(blobName);
+        OffsetDateTime now = OffsetDateTime.now();
+        BlobServiceSasSignatureValues values = new BlobServiceSasSignatureValues(now.plus(validFor),
+                new BlobSasPermission().setCreatePermission(true))
+                .setStartTime(now.minusMinutes(5));
+        return blobClient.getBlobUrl() + "?" + blobClient.generateSas(values);
+    }
 
+    @Override
+    public long blobSize(String blobName) {
+        BlobClient blobClient = containerClient.getBlobClient(blobName);
+        return blobClient.exists() ? blobClient.getProperties().getBlobSize() : -1;
+    }
+
+    @Override
+    public String finishUpload(String blobName, String contentType) {
+        BlobClient blobClient = containerClient.getBlobClient(blobName);
+        blobClient.setHttpHeaders(new BlobHttpHeaders()
+                .setContentType(contentType)
+                .setContentDisposition("inline"));
         return blobClient.getBlobUrl();
     }
+
+    @Override
+    public void deleteBlob(String blobName) {
+        containerClient.getBlobClient(blobName).deleteIfExists();
+    }
+
+    /**
+     * Downloads a blob into a local file, observed as {@code classroom.blob.download}.
+     *
+     * @param blobName The name of the blob.
+     * @param target   The file to write.
+     * @throws NoSuchFileException if the blob does not exist.
+     */
+    @Override
+    public Instant downloadBlob(String blobName, Path target) throws NoSuchFileException {
+        BlobClient blobClient = containerClient.getBlobClient(blobName);
+        try {
+            BlobProperties properties = Observation.createNotStarted("classroom.blob.download", observationRegistry)
+                    .contextualName("blob download")
+                    .highCardinalityKeyValue("blob.name", blobName)
+                    .observe(() -> blobClient.downloadToFile(target.toString(), true));
+            return properties.getLastModified().toInstant();
+        } catch (BlobStorageException e) {
+            if (e.getErrorCode() == BlobErrorCode.BLOB_NOT_FOUND) {
+                throw new NoSuchFileException(blobName);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Records the size and transfer rate of a successful upload.
+     *
+     * @param bytes        The number of bytes uploaded.
+     * @param elapsedNanos The time the upload took.
+     */
+    private void recordUpload(long bytes, long elapsedNanos) {
+        uploadSize.record(bytes);
+        uploadThroughput.record(bytes / Math.max(elapsedNanos / 1e9, 1e-9));
+    }
 }
\ No newline at end of file
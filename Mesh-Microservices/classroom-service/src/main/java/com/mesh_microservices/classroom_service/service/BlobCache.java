@@ -0,0 +1,334 @@
+package com.mesh_microservices.classroom_service.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Keeps copies of stored blobs on the local disk, so popular files are fetched from blob
+ * storage once per instance rather than once per download.
+ * <p>
+ * Copies are read through a {@link Hold}, and are evicted least recently used first once
+ * their total size exceeds the limit. A held copy is never evicted, so a file is not
+ * deleted while a download or a background job is still reading it; the cache may exceed
+ * its limit until the hold is closed. Blobs are never modified after upload, so a copy
+ * stays valid for as long as it is kept. Concurrent misses for the same blob share one
+ * fetch. Each copy carries the blob's modification time from storage, so it survives
+ * restarts: the cache directory is indexed again on startup, oldest blobs first.
+ * <p>
+ * Lookups are counted under {@code classroom.downloads.cache}, tagged {@code hit},
+ * {@code miss} or {@code shared} (a miss that waited for another request's fetch), and
+ * the cached bytes are published as {@code classroom.downloads.cache.size}.
+ */
+@Service
+public class BlobCache {
+
+    /**
+     * A cached copy of a blob.
+     *
+     * @param file The local file holding the blob.
+     * @param size The size of the blob in bytes.
+     * @param etag A strong entity tag for the blob.
+     * @param lastModified When the blob was last modified in storage.
+     */
+    public record CachedBlob(Path file, long size, String etag, Instant lastModified) {
+    }
+
+    /**
+     * Keeps a cached copy from being evicted while it is read. Closing the hold more than
+     * once has no further effect.
+     */
+    public final class Hold implements AutoCloseable {
+
+        private final String fileName;
+        private final CachedBlob blob;
+        private boolean closed;
+
+        private Hold(String fileName, CachedBlob blob) {
+            this.fileName = fileName;
+            this.blob = blob;
+        }
+
+        /**
+         * Returns the held copy.
+         */
+        public CachedBlob blob() {
+            return blob;
+        }
+
+        @Override
+        public void close() {
+            synchronized (entries) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                holds.computeIfPresent(fileName, (name, count) -> count == 1 ? null : count - 1);
+                evict();
+            }
+        }
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(BlobCache.class);
+    private static final String PARTIAL_SUFFIX = ".part";
+
+    private final BlobStorageService blobStorageService;
+    private final Path directory;
+    private final long maxBytes;
+
+    // Copies by file name, in access order, and the number of open holds on each, both
+    // guarded by the monitor of entries.
+    private final LinkedHashMap<String, CachedBlob> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Integer> holds = new HashMap<>();
+    private long cachedBytes;
+
+    // Fetches in progress, by blob name.
+    private final Map<String, CompletableFuture<CachedBlob>> fetches = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter shared;
+
+    public BlobCache(BlobStorageService blobStorageService,
+                     @Value("${classroom.downloads.cache.directory:${java.io.tmpdir}/mesh-blob-cache}") Path directory,
+                     @Value("${classroom.downloads.cache.max-size:10GB}") DataSize maxSize,
+                     MeterRegistry meterRegistry) throws IOException {
+        this.blobStorageService = blobStorageService;
+        this.directory = Files.createDirectories(directory);
+        this.maxBytes = maxSize.toBytes();
+        loadExisting();
+
+        this.hits = lookups(meterRegistry, "hit");
+        this.misses = lookups(meterRegistry, "miss");
+        this.shared = lookups(meterRegistry, "shared");
+        Gauge.builder("classroom.downloads.cache.size", this, cache -> cache.cachedBytes())
+                .description("Bytes of blobs cached on local disk")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Holds the cached copy of a blob, fetching it from blob storage if necessary. The copy
+     * stays on disk at least until the hold is closed.
+     *
+     * @param blobName The name of the blob.
+     * @return The hold on the cached copy, to be closed once the file has been read.
+     * @throws java.nio.file.NoSuchFileException if the blob does not exist.
+     * @throws IOException if the blob cannot be fetched or written to the cache.
+     */
+    public Hold hold(String blobName) throws IOException {
+        String fileName = fileName(blobName);
+        while (true) {
+            get(blobName);
+            synchronized (entries) {
+                // The copy may have been evicted since it was fetched; then it is fetched again.
+                CachedBlob cached = entries.get(fileName);
+                if (cached != null) {
+                    holds.merge(fileName, 1, Integer::sum);
+                    return new Hold(fileName, cached);
+                }
+            }
+        }
+    }
+
+    private CachedBlob get(String blobName) throws IOException {
+        String fileName = fileName(blobName);
+        CachedBlob cached = lookup(fileName);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        CompletableFuture<CachedBlob> fetch = new CompletableFuture<>();
+        CompletableFuture<CachedBlob> running = fetches.putIfAbsent(blobName, fetch);
+        if (running != null) {
+            shared.increment();
+            return await(running);
+        }
+        try {
+            // Another fetch may have finished between the lookup and claiming this one.
+            cached = lookup(fileName);
+            if (cached == null) {
+                misses.increment();
+                cached = fetch(blobName, fileName);
+            }
+            fetch.complete(cached);
+            return cached;
+        } catch (IOException | RuntimeException e) {
+            fetch.completeExceptionally(e);
+            throw e;
+        } finally {
+            fetches.remove(blobName, fetch);
+        }
+    }
+
+    private CachedBlob lookup(String fileName) {
+        synchronized (entries) {
+            return entries.get(fileName);
+        }
+    }
+
+    /**
+     * Downloads a blob into a temporary file and moves it into place, so a partly written
+     * file is never served, then evicts older copies until the cache fits its limit again.
+     * The file takes the blob's modification time, which is served as its Last-Modified date.
+     */
+    private CachedBlob fetch(String blobName, String fileName) throws IOException {
+        Path file = directory.resolve(fileName);
+        Path partial = Files.createTempFile(directory, fileName, PARTIAL_SUFFIX);
+        try {
+            Instant lastModified = blobStorageService.downloadBlob(blobName, partial);
+            Files.setLastModifiedTime(partial, FileTime.from(lastModified));
+            Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+
+        CachedBlob cached = describe(file);
+        synchronized (entries) {
+            CachedBlob previous = entries.put(fileName, cached);
+            if (previous != null) {
+                cachedBytes -= previous.size();
+            }
+            cachedBytes += cached.size();
+            evict();
+        }
+        return cached;
+    }
+
+    /**
+     * Removes the least recently used copies that are not held until the cache fits its
+     * limit, always keeping the most recent one.
+     */
+    private void evict() {
+        Iterator<Map.Entry<String, CachedBlob>> eldest = entries.entrySet().iterator();
+        for (int remaining = entries.size(); remaining > 1 && cachedBytes > maxBytes; remaining--) {
+            Map.Entry<String, CachedBlob> entry = eldest.next();
+            if (holds.containsKey(entry.getKey())) {
+                continue;
+            }
+            CachedBlob evicted = entry.getValue();
+            eldest.remove();
+            cachedBytes -= evicted.size();
+            try {
+                Files.deleteIfExists(evicted.file());
+            } catch (IOException e) {
+                log.warn("Could not delete evicted cache file {}", evicted.file(), e);
+            }
+        }
+    }
+
+    /**
+     * Indexes the copies left by a previous run and removes unfinished downloads.
+     */
+    private void loadExisting() throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(Files::isRegularFile).toList();
+        }
+        for (Path file : files) {
+            if (file.getFileName().toString().endsWith(PARTIAL_SUFFIX)) {
+                Files.deleteIfExists(file);
+            }
+        }
+
+        try {
+            List<Map.Entry<String, CachedBlob>> copies = files.stream()
+                    .filter(Files::exists)
+                    .map(file -> Map.entry(file.getFileName().toString(), describeUnchecked(file)))
+                    .sorted(Comparator.comparing(entry -> entry.getValue().lastModified()))
+                    .toList();
+            synchronized (entries) {
+                for (Map.Entry<String, CachedBlob> copy : copies) {
+                    entries.put(copy.getKey(), copy.getValue());
+                    cachedBytes += copy.getValue().size();
+                }
+                evict();
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private CachedBlob describe(Path file) throws IOException {
+        long size = Files.size(file);
+        Instant lastModified = Files.getLastModifiedTime(file).toInstant();
+        // Blob names are unique per upload, so the name and size identify the content.
+        String etag = "\"" + file.getFileName() + "-" + Long.toHexString(size) + "\"";
+        return new CachedBlob(file, size, etag, lastModified);
+    }
+
+    private CachedBlob describeUnchecked(Path file) {
+        try {
+            return describe(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private long cachedBytes() {
+        synchronized (entries) {
+            return cachedBytes;
+        }
+    }
+
+    /**
+     * Maps a blob name to a fixed-length file name that is safe on any file system.
+     */
+    private static String fileName(String blobName) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(blobName.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static CachedBlob await(CompletableFuture<CachedBlob> fetch) throws IOException {
+        try {
+            return fetch.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw e;
+        }
+    }
+
+    private static Counter lookups(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("classroom.downloads.cache")
+                .description("Blob download cache lookups")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
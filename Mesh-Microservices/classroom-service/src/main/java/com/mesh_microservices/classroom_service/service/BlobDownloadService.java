@@ -0,0 +1,126 @@
+package com.mesh_microservices.classroom_service.service;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Serves stored files to clients from the local {@link BlobCache}.
+ * <p>
+ * Responses carry an entity tag and the blob's modification date in storage, so
+ * revalidating clients get {@code 304 Not Modified} from any instance, and a single byte
+ * range can be requested with {@code Range} (guarded by {@code If-Range}), so video
+ * seeking and resumed downloads work. Several ranges in one request are answered with
+ * the whole file, as HTTP allows.
+ * <p>
+ * The cached copy is held for the whole response, so eviction cannot delete it while it
+ * is being sent, and written from an open channel with {@link FileChannel#transferTo}.
+ * Tomcat's sendfile support is not used: it opens the file by name after the request has
+ * been handled, when the copy can no longer be held.
+ */
+@Service
+public class BlobDownloadService {
+
+    @Autowired
+    private BlobCache blobCache;
+
+    @Autowired
+    private BlobStorageService blobStorageService;
+
+    /**
+     * Writes a stored file, or the requested range of it, to the response.
+     *
+     * @param fileUrl The URL of the file, as returned by the {@link BlobStorageService}.
+     * @param request The download request.
+     * @param response The response to write.
+     * @throws java.nio.file.NoSuchFileException if the file no longer exists.
+     * @throws IOException if the file cannot be fetched or written.
+     */
+    public void serve(String fileUrl, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String blobName = blobStorageService.blobNameOf(fileUrl);
+        try (BlobCache.Hold hold = blobCache.hold(blobName)) {
+            send(blobName, hold.blob(), request, response);
+        }
+    }
+
+    private static void send(String blobName, BlobCache.CachedBlob blob, HttpServletRequest request,
+                             HttpServletResponse response) throws IOException {
+        // Sets ETag and Last-Modified, and answers 304 or 412 when the conditions say so.
+        if (new ServletWebRequest(request, response).checkNotModified(blob.etag(), blob.lastModified().toEpochMilli())) {
+            return;
+        }
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setContentType(MediaTypeFactory.getMediaType(blobName)
+                .orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "inline");
+
+        long start = 0;
+        long end = blob.size() - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range != null && rangeApplies(request, blob)) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(range);
+            } catch (IllegalArgumentException e) {
+                // A malformed Range header is ignored.
+                ranges = List.of();
+            }
+            if (ranges.size() == 1) {
+                // HttpRange clamps the end to the file but not the start, so check the start here.
+                start = ranges.get(0).getRangeStart(blob.size());
+                end = ranges.get(0).getRangeEnd(blob.size());
+                if (start >= blob.size() || start > end) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + blob.size());
+                    response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    return;
+                }
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + blob.size());
+            }
+        }
+
+        response.setContentLengthLong(end - start + 1);
+        if ("HEAD".equals(request.getMethod()) || end < start) {
+            return;
+        }
+        try (FileChannel file = FileChannel.open(blob.file(), StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position <= end) {
+                position += file.transferTo(position, end + 1 - position, out);
+            }
+        }
+    }
+
+    /**
+     * Checks an {@code If-Range} condition: a range is only sent if the client's copy, named
+     * by entity tag or date, is still current; otherwise the whole file is sent.
+     */
+    private static boolean rangeApplies(HttpServletRequest request, BlobCache.CachedBlob blob) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(blob.etag());
+        }
+        try {
+            return request.getDateHeader(HttpHeaders.IF_RANGE) / 1000 == blob.lastModified().getEpochSecond();
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.mesh_microservices.classroom_service.service;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Defines the file storage operations the Classroom Service depends on.
+ * <p>
+ * {@link AzureBlobService} is the production implementation. {@link LocalBlobService}
+ * keeps files on the local disk so the service can run without an Azure account, for
+ * example in load tests. The backend is selected with the {@code classroom.blob.backend}
+ * property ({@code azure} by default, or {@code local}).
+ * <p>
+ * Large files can also be written in pieces: each piece is staged as a block under the
+ * final blob name, in any order and in parallel, and the blob is created from the staged
+ * blocks with one commit. Staged blocks are kept by the storage backend, so an upload can
+ * be resumed after a dropped connection or a service restart.
+ * <p>
+ * Clients can also write a blob directly, without the bytes passing through the gateway
+ * or this service: they receive a short-lived, create-only signed URL for one blob name,
+ * and the service checks the blob once the client reports that the upload is done.
+ * <p>
+ * Stored blobs are never modified: every upload gets a new, unique name. Copies of a blob
+ * can therefore be cached by name without revalidation.
+ */
+public interface BlobStorageService {
+
+    /**
+     * Stores an uploaded file under a unique name.
+     *
+     * @param file The {@link MultipartFile} to be stored.
+     * @return The URL at which the stored file can be retrieved.
+     * @throws IOException if an I/O error occurs while storing the file.
+     */
+    String uploadFile(MultipartFile file) throws IOException;
+
+    /**
+     * Stores generated content, such as an image rendition, under the given name, replacing
+     * any blob of that name.
+     *
+     * @param blobName    The name of the blob.
+     * @param content     The content of the blob.
+     * @param contentType The MIME type of the blob.
+     * @return The URL at which the blob can be retrieved.
+     * @throws IOException if the blob cannot be stored.
+     */
+    String uploadBlob(String blobName, byte[] content, String contentType) throws IOException;
+
+    /**
+     * Stages one block of a blob that is uploaded in pieces. Staging the same block again
+     * replaces it. The blob does not exist until its blocks are committed.
+     *
+     * @param blobName The name of the blob the block belongs to.
+     * @param blockId  The ID of the block; all IDs of a blob must have the same length.
+     * @param data     The content of the block.
+     * @param length   The number of bytes in the block.
+     * @throws IOException if the block cannot be stored.
+     */
+    void stageBlock(String blobName, String blockId, InputStream data, long length) throws IOException;
+
+    /**
+     * Creates a blob from its staged blocks, in the given order.
+     *
+     * @param blobName    The name of the blob.
+     * @param blockIds    The IDs of the staged blocks, in content order.
+     * @param contentType The MIME type of the blob.
+     * @return The URL at which the blob can be retrieved.
+     * @throws IOException if the blob cannot be created.
+     */
+    String commitBlocks(String blobName, List<String> blockIds, String contentType) throws IOException;
+
+    /**
+     * Removes the blocks staged for a blob, once its commit has been recorded or its
+     * upload abandoned. Until then a commit can be repeated from the same blocks.
+     *
+     * @param blobName The name of the blob.
+     * @throws IOException if the blocks cannot be removed.
+     */
+    void discardBlocks(String blobName) throws IOException;
+
+    /**
+     * Issues a URL that allows creating exactly one blob, and nothing else, for a short time.
+     * Once the blob exists, the URL cannot replace it.
+     *
+     * @param blobName The name of the blob the client may write.
+     * @param validFor How long the URL can be used.
+     * @return The signed URL the client uploads the file to.
+     */
+    String createUploadUrl(String blobName, Duration validFor);
+
+    /**
+     * Returns the size of a stored blob.
+     *
+     * @param blobName The name of the blob.
+     * @return The size in bytes, or -1 if the blob does not exist.
+     * @throws IOException if the storage cannot be queried.
+     */
+    long blobSize(String blobName) throws IOException;
+
+    /**
+     * Sets the headers of a directly uploaded blob, as {@link #uploadFile} does, and returns its URL.
+     *
+     * @param blobName    The name of the blob.
+     * @param contentType The MIME type of the blob.
+     * @return The URL at which the blob can be retrieved.
+     * @throws IOException if the blob cannot be updated.
+     */
+    String finishUpload(String blobName, String contentType) throws IOException;
+
+    /**
+     * Deletes a blob, if it exists.
+     *
+     * @param blobName The name of the blob.
+     * @throws IOException if the blob cannot be deleted.
+     */
+    void deleteBlob(String blobName) throws IOException;
+
+    /**
+     * Copies a stored blob into a local file, replacing the file if it exists.
+     *
+     * @param blobName The name of the blob.
+     * @param target   The file to write.
+     * @return The time the blob was last modified in storage.
+     * @throws java.nio.file.NoSuchFileException if the blob does not exist.
+     * @throws IOException if the blob cannot be read or the file cannot be written.
+     */
+    Instant downloadBlob(String blobName, Path target) throws IOException;
+
+    /**
+     * Extracts the blob name from a URL returned by this service.
+     *
+     * @param fileUrl The URL of a stored blob.
+     * @return The name of the blob.
+     */
+    default String blobNameOf(String fileUrl) {
+        String path = URI.create(fileUrl).getPath();
+        return path.substring(path.lastIndexOf('/') + 1);
+    }
+}
@@ -0,0 +1,262 @@
+package com.mesh_microservices.classroom_service.service;
+
+import com.mongodb.ClientSessionOptions;
+import com.mongodb.ReadPreference;
+import com.mongodb.client.ClientSession;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.BsonBinaryWriter;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonTimestamp;
+import org.bson.BsonValue;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Sends reads that tolerate slightly stale data to replica set secondaries, while making
+ * sure users still see their own writes.
+ * <p>
+ * The read preference of each query method is configured as
+ * {@code classroom.reads.preference.<method>=<mode>}, e.g. {@code secondaryPreferred}; methods
+ * without an entry read from the primary. Secondaries lagging more than
+ * {@code classroom.reads.max-staleness} behind are skipped.
+ * <p>
+ * Writes made through {@link #write} run in a causally consistent session, and the time of
+ * the write on its shard is returned in the {@value #TOKEN_HEADER} response header. Clients
+ * send the last token they received back with their following requests. A secondary read by
+ * the same user within {@code classroom.reads.causal-window} of a write in the token runs in
+ * a session advanced to that time, so the secondary waits until it has replicated the write
+ * before answering. The token travels with the client, so the guarantee holds whichever
+ * instance serves the next request; clients that do not send it back only see their writes
+ * in reads of the same request. With the default {@code local} read concern it may also
+ * lapse across a primary failover.
+ * <p>
+ * The token only carries cluster times, whose signatures the servers check, so a client
+ * can at most make its own reads wait; a malformed token is ignored.
+ * <p>
+ * Each read is counted as {@code classroom.reads}, tagged with the method, the read
+ * preference, and whether it waited for an earlier write.
+ */
+@Service
+public class CausalReads {
+
+    /**
+     * The header that carries the times of a user's writes, in responses and in the
+     * requests that follow them.
+     */
+    public static final String TOKEN_HEADER = "X-Causal-Token";
+
+    private static final ClientSessionOptions CAUSAL = ClientSessionOptions.builder().causallyConsistent(true).build();
+
+    // The request attribute holding the token as updated by the request's own writes.
+    private static final String TOKEN_ATTRIBUTE = CausalReads.class.getName() + ".token";
+
+    private final Map<String, ReadPreference> preferences = new HashMap<>();
+    private final ClassroomShards classroomShards;
+    private final Duration causalWindow;
+    private final MeterRegistry meterRegistry;
+
+    public CausalReads(Environment environment,
+                       ClassroomShards classroomShards,
+                       @Value("${classroom.reads.max-staleness:PT90S}") Duration maxStaleness,
+                       @Value("${classroom.reads.causal-window:PT1M}") Duration causalWindow,
+                       MeterRegistry meterRegistry) {
+        Binder.get(environment)
+                .bind("classroom.reads.preference", Bindable.mapOf(String.class, String.class))
+                .orElse(Map.of())
+                .forEach((method, mode) -> preferences.put(method, readPreference(mode, maxStaleness)));
+        this.classroomShards = classroomShards;
+        this.causalWindow = causalWindow;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Runs a read with the read preference configured for its method.
+     *
+     * @param method The name of the query method, as used in the configuration.
+     * @param user The email of the user the data is read for.
+     * @param shard The shard to read from.
+     * @param read The read, given the template to run it on.
+     * @param <T> The type of the result.
+     * @return The result of the read.
+     */
+    public <T> T read(String method, String user, MongoTemplate shard, Function<MongoTemplate, T> read) {
+        ReadPreference preference = preferences.getOrDefault(method, ReadPreference.primary());
+        if (preference.equals(ReadPreference.primary())) {
+            count(method, preference, false);
+            return read.apply(shard);
+        }
+        BsonDocument written = recentWrite(user, shard);
+        boolean afterWrite = written != null;
+        count(method, preference, afterWrite);
+        try (ClientSession session = shard.getMongoDatabaseFactory().getSession(CAUSAL)) {
+            if (afterWrite) {
+                session.advanceClusterTime(written.getDocument("clusterTime"));
+                session.advanceOperationTime(written.getTimestamp("operationTime"));
+            }
+            MongoTemplate secondary = shard.withSession(session);
+            secondary.setReadPreference(preference);
+            return read.apply(secondary);
+        }
+    }
+
+    /**
+     * Runs a write on the primary and adds its time to the token of the current request, so
+     * that the user's secondary reads on the same shard see it.
+     *
+     * @param user The email of the user making the write.
+     * @param shard The shard to write to.
+     * @param write The write, given the template to run it on.
+     * @param <T> The type of the result.
+     * @return The result of the write.
+     */
+    public <T> T write(String user, MongoTemplate shard, Function<MongoTemplate, T> write) {
+        try (ClientSession session = shard.getMongoDatabaseFactory().getSession(CAUSAL)) {
+            try {
+                return write.apply(shard.withSession(session));
+            } finally {
+                // Also after a failure, since part of the write, such as a bulk write, may have been applied.
+                if (session.getOperationTime() != null && session.getClusterTime() != null) {
+                    remember(user, shard, session.getOperationTime(), session.getClusterTime());
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the time of the user's write on a shard from the current request's token, if
+     * it is recent enough for a secondary to be behind it.
+     */
+    private BsonDocument recentWrite(String user, MongoTemplate shard) {
+        BsonDocument token = currentToken();
+        if (token == null || !user.equals(token.getString("user").getValue())) {
+            return null;
+        }
+        BsonValue written = token.getDocument("shards").get(shardName(shard));
+        if (written == null) {
+            return null;
+        }
+        // Operation times count seconds on the primary's clock.
+        long age = System.currentTimeMillis() / 1000 - written.asDocument().getTimestamp("operationTime").getTime();
+        return age <= causalWindow.toSeconds() ? written.asDocument() : null;
+    }
+
+    /**
+     * Records a write in the current request's token and returns the token to the client.
+     * Outside of a request, or once the response is committed, the write is not recorded.
+     */
+    private void remember(String user, MongoTemplate shard, BsonTimestamp operationTime, BsonDocument clusterTime) {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes request)
+                || request.getResponse() == null || request.getResponse().isCommitted()) {
+            return;
+        }
+        BsonDocument token = currentToken();
+        if (token == null || !user.equals(token.getString("user").getValue())) {
+            token = new BsonDocument("user", new BsonString(user)).append("shards", new BsonDocument());
+        }
+        token.getDocument("shards").put(shardName(shard), new BsonDocument("operationTime", operationTime)
+                .append("clusterTime", clusterTime));
+        request.setAttribute(TOKEN_ATTRIBUTE, token, RequestAttributes.SCOPE_REQUEST);
+        request.getResponse().setHeader(TOKEN_HEADER, encode(token));
+    }
+
+    /**
+     * Returns the token of the current request, as sent by the client and updated by the
+     * request's own writes, or {@code null} if there is none or it is malformed.
+     */
+    private static BsonDocument currentToken() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes request)) {
+            return null;
+        }
+        if (request.getAttribute(TOKEN_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof BsonDocument token) {
+            return token;
+        }
+        BsonDocument token = decode(request.getRequest().getHeader(TOKEN_HEADER));
+        if (token != null) {
+            request.setAttribute(TOKEN_ATTRIBUTE, token, RequestAttributes.SCOPE_REQUEST);
+        }
+        return token;
+    }
+
+    private String shardName(MongoTemplate shard) {
+        // Shards are distinct template instances, compared by identity.
+        for (Map.Entry<String, MongoTemplate> named : classroomShards.byName().entrySet()) {
+            if (named.getValue() == shard) {
+                return named.getKey();
+            }
+        }
+        return ClassroomShards.PRIMARY;
+    }
+
+    private static String encode(BsonDocument token) {
+        BasicOutputBuffer buffer = new BasicOutputBuffer();
+        new BsonDocumentCodec().encode(new BsonBinaryWriter(buffer), token, EncoderContext.builder().build());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.toByteArray());
+    }
+
+    private static BsonDocument decode(String header) {
+        if (header == null || header.isEmpty()) {
+            return null;
+        }
+        BsonDocument token;
+        try {
+            token = new RawBsonDocument(Base64.getUrlDecoder().decode(header)).decode(new BsonDocumentCodec());
+        } catch (RuntimeException e) {
+            return null;
+        }
+        if (!token.isString("user") || !token.isDocument("shards")) {
+            return null;
+        }
+        for (BsonValue written : token.getDocument("shards").values()) {
+            if (!written.isDocument() || !written.asDocument().isTimestamp("operationTime")
+                    || !written.asDocument().isDocument("clusterTime")) {
+                return null;
+            }
+        }
+        return token;
+    }
+
+    private void count(String method, ReadPreference preference, boolean afterWrite) {
+        Counter.builder("classroom.reads")
+                .description("Classroom reads by query method and read preference")
+                .tag("method", method)
+                .tag("preference", preference.getName())
+                .tag("after-write", String.valueOf(afterWrite))
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Parses a read preference mode such as {@code secondaryPreferred}.
+     *
+     * @throws IllegalArgumentException if the mode is unknown.
+     */
+    private static ReadPreference readPreference(String mode, Duration maxStaleness) {
+        ReadPreference preference = ReadPreference.valueOf(mode);
+        if (preference.equals(ReadPreference.primary())) {
+            return preference;
+        }
+        return ReadPreference.valueOf(mode, List.of(), maxStaleness.toSeconds(), TimeUnit.SECONDS);
+    }
+}
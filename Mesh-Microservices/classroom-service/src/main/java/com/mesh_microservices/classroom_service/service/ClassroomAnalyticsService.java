@@ -0,0 +1,149 @@
+package com.mesh_microservices.classroom_service.service;
+
+import com.mesh_microservices.classroom_service.model.AssignmentAnalytics;
+import com.mesh_microservices.classroom_service.model.Classroom;
+import com.mesh_microservices.classroom_service.model.ClassroomAnalytics;
+import com.mesh_microservices.classroom_service.model.SubmissionStats;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Reads and maintains the submission counters stored on classrooms and assignments.
+ * <p>
+ * The counters are adjusted incrementally by the operations that change submissions, in
+ * the same write. This service turns them into analytics with a single projection that
+ * never touches the submissions, and recalculates them from the submissions when they
+ * need repairing, for example after documents were edited by hand or written by an older
+ * version of the service.
+ */
+@Service
+public class ClassroomAnalyticsService {
+
+    /**
+     * Recomputes every assignment's counters from its submissions, then the classroom's
+     * counters from the assignments'. As an update pipeline, it reads and writes each
+     * classroom in one atomic step, so concurrent submissions and grades are not lost.
+     */
+    private static final List<Document> REBUILD_PIPELINE = List.of(
+            Document.parse("""
+                    {$set: {assignments: {$map: {input: {$ifNull: ["$assignments", []]}, as: "a", in: {$mergeObjects: ["$$a", {stats: {$let: {
+                        vars: {subs: {$ifNull: ["$$a.submissions", []]}},
+                        in: {
+                            submitted: {$size: "$$subs"},
+                            graded: {$size: {$filter: {input: "$$subs", as: "s", cond: {$ne: [{$ifNull: ["$$s.grade", null]}, null]}}}},
+                            late: {$size: {$filter: {input: "$$subs", as: "s", cond: {$eq: ["$$s.late", true]}}}},
+                            gradeSum: {$sum: "$$subs.grade"}
+                        }
+                    }}}]}}}}}"""),
+            Document.parse("""
+                    {$set: {stats: {
+                        submitted: {$sum: "$assignments.stats.submitted"},
+                        graded: {$sum: "$assignments.stats.graded"},
+                        late: {$sum: "$assignments.stats.late"},
+                        gradeSum: {$sum: "$assignments.stats.gradeSum"}
+                    }}}"""));
+
+    /**
+     * Projects a classroom down to its counters and assignment headers.
+     */
+    private static final Document ANALYTICS_PROJECTION = Document.parse("""
+            {$project: {classroomName: 1, stats: 1, enrolled: {$size: {$ifNull: ["$studentIds", []]}},
+                assignments: {$map: {input: {$ifNull: ["$assignments", []]}, as: "a", in: {
+                    _id: "$$a._id", title: "$$a.title", points: "$$a.points", dueDate: "$$a.dueDate", stats: "$$a.stats"
+                }}}
+            }}""");
+
+    @Autowired
+    private ClassroomShards classroomShards;
+
+    /**
+     * Builds the analytics of a classroom from its stored counters.
+     *
+     * @param classroomId The ID of the classroom.
+     * @return The analytics, or null if the classroom does not exist.
+     */
+    public ClassroomAnalytics analytics(String classroomId) {
+        MongoTemplate shard = classroomShards.forClassroom(classroomId);
+        Document row = shard.aggregate(Aggregation.newAggregation(Classroom.class,
+                        Aggregation.match(Criteria.where("id").is(classroomId)),
+                        Aggregation.stage(ANALYTICS_PROJECTION)), Document.class)
+                .getUniqueMappedResult();
+        if (row == null) {
+            return null;
+        }
+        MongoConverter converter = shard.getConverter();
+
+        ClassroomAnalytics analytics = new ClassroomAnalytics();
+        analytics.setClassroomId(classroomId);
+        analytics.setClassroomName(row.getString("classroomName"));
+        analytics.setEnrolled(row.getInteger("enrolled", 0));
+        analytics.setStats(stats(converter, row.get("stats", Document.class)));
+
+        for (Document assignment : row.getList("assignments", Document.class)) {
+            AssignmentAnalytics item = new AssignmentAnalytics();
+            item.setAssignmentId(assignment.getString("_id"));
+            item.setTitle(assignment.getString("title"));
+            item.setPoints(assignment.getInteger("points", 0));
+            item.setDueDate(converter.getConversionService().convert(assignment.getDate("dueDate"), LocalDateTime.class));
+            item.setStats(stats(converter, assignment.get("stats", Document.class)));
+            item.setSubmissionRate(ratio(item.getStats().getSubmitted(), analytics.getEnrolled()));
+            item.setOnTimeRate(ratio(item.getStats().getSubmitted() - item.getStats().getLate(), item.getStats().getSubmitted()));
+            item.setAverageGrade(average(item.getStats()));
+            analytics.getAssignments().add(item);
+        }
+
+        long possible = (long) analytics.getEnrolled() * analytics.getAssignments().size();
+        analytics.setSubmissionRate(ratio(analytics.getStats().getSubmitted(), possible));
+        analytics.setOnTimeRate(ratio(analytics.getStats().getSubmitted() - analytics.getStats().getLate(), analytics.getStats().getSubmitted()));
+        analytics.setAverageGrade(average(analytics.getStats()));
+        return analytics;
+    }
+
+    /**
+     * Recalculates the counters of one classroom from its submissions.
+     *
+     * @param classroomId The ID of the classroom to repair.
+     */
+    public void rebuild(String classroomId) {
+        classroomShards.forClassroom(classroomId)
+                .updateFirst(Query.query(Criteria.where("id").is(classroomId)), rebuildUpdate(), Classroom.class);
+    }
+
+    /**
+     * Recalculates the counters of every classroom from its submissions. Runs nightly by
+     * default, so any drift is corrected within a day.
+     */
+    @Scheduled(cron = "${classroom.analytics.rebuild-cron:0 0 3 * * *}")
+    public void rebuildAll() {
+        for (MongoTemplate shard : classroomShards.all()) {
+            shard.updateMulti(new Query(), rebuildUpdate(), Classroom.class);
+        }
+    }
+
+    private static AggregationUpdate rebuildUpdate() {
+        return AggregationUpdate.from(REBUILD_PIPELINE.stream().map(Aggregation::stage).toList());
+    }
+
+    private static SubmissionStats stats(MongoConverter converter, Document document) {
+        return document == null ? new SubmissionStats() : converter.read(SubmissionStats.class, document);
+    }
+
+    private static double ratio(long part, long whole) {
+        return whole == 0 ? 0 : (double) part / whole;
+    }
+
+    private static Double average(SubmissionStats stats) {
+        return stats.getGraded() == 0 ? null : (double) stats.getGradeSum() / stats.getGraded();
+    }
+}
@@ -0,0 +1,182 @@
+package com.mesh_microservices.classroom_service.service;
+
+import com.mesh_microservices.classroom_service.model.ClassroomEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fans classroom change events out to clients subscribed over Server-Sent Events.
+ * <p>
+ * Clients open one long-lived stream per classroom instead of polling the classroom.
+ * Subscriptions are held as {@link SseEmitter}s on asynchronous requests, so an idle
+ * subscriber costs a connection and a small object, not a thread. Events published by the
+ * {@link ClassroomService} are written to the classroom's subscribers on a small sender
+ * pool, so the request that made the change never waits on slow clients. A comment line
+ * is sent to every subscriber at a fixed interval to keep proxies from closing idle
+ * streams and to detect clients that have gone away.
+ * <p>
+ * Subscriptions are local to this instance: a change is delivered to the subscribers of
+ * the instance that made it. Streams end after a timeout, and reconnecting clients should
+ * reload the classroom once to catch up on anything missed in between.
+ */
+@Service
+public class ClassroomEventBroadcaster implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ClassroomEventBroadcaster.class);
+
+    /**
+     * Signals that this instance already holds the maximum number of open streams.
+     */
+    public static class TooManySubscribersException extends RuntimeException {
+        private final Duration retryAfter;
+
+        public TooManySubscribersException(Duration retryAfter) {
+            super("Too many open event streams, try again later.");
+            this.retryAfter = retryAfter;
+        }
+
+        public Duration getRetryAfter() {
+            return retryAfter;
+        }
+    }
+
+    // How long a stream stays open before the client has to reconnect.
+    @Value("${classroom.events.timeout:PT30M}")
+    private Duration timeout;
+
+    // The maximum number of open streams on this instance.
+    @Value("${classroom.events.max-subscribers:50000}")
+    private int maxSubscribers;
+
+    // How long clients turned away at the limit are asked to wait before reconnecting.
+    @Value("${classroom.events.retry-after:PT30S}")
+    private Duration retryAfter;
+
+    // Open streams by classroom ID.
+    private final Map<String, Set<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    // Writes events and heartbeats, so slow clients never hold up request threads.
+    private final ExecutorService sender = Executors.newFixedThreadPool(4, runnable -> {
+        Thread thread = new Thread(runnable, "classroom-events");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ClassroomEventBroadcaster(MeterRegistry meterRegistry) {
+        Gauge.builder("classroom.events.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Open classroom event streams")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Opens a stream of change events for a classroom.
+     * <p>
+     * Access to the classroom must be checked by the caller.
+     *
+     * @param classroomId The ID of the classroom to follow.
+     * @return The emitter to return from the controller.
+     * @throws TooManySubscribersException if this instance already holds the maximum number of streams.
+     */
+    public SseEmitter subscribe(String classroomId) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new TooManySubscribersException(retryAfter);
+        }
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        subscribers.compute(classroomId, (id, emitters) -> {
+            Set<SseEmitter> set = emitters != null ? emitters : ConcurrentHashMap.newKeySet();
+            set.add(emitter);
+            return set;
+        });
+        emitter.onCompletion(() -> unsubscribe(classroomId, emitter));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> unsubscribe(classroomId, emitter));
+        return emitter;
+    }
+
+    /**
+     * Delivers a saved change to the classroom's subscribers.
+     *
+     * @param event The change published by the classroom service.
+     */
+    @EventListener
+    public void onClassroomEvent(ClassroomEvent event) {
+        Set<SseEmitter> emitters = subscribers.get(event.getClassroomId());
+        if (emitters == null) {
+            return;
+        }
+        List<SseEmitter> targets = List.copyOf(emitters);
+        sender.execute(() -> {
+            for (SseEmitter emitter : targets) {
+                send(event.getClassroomId(), emitter, SseEmitter.event()
+                        .name(event.getType().name())
+                        .data(event, MediaType.APPLICATION_JSON));
+            }
+        });
+    }
+
+    /**
+     * Sends a comment line to every open stream, one classroom per task.
+     */
+    @Scheduled(fixedDelayString = "${classroom.events.heartbeat-interval:PT25S}")
+    public void heartbeat() {
+        subscribers.forEach((classroomId, emitters) -> {
+            List<SseEmitter> targets = List.copyOf(emitters);
+            sender.execute(() -> {
+                for (SseEmitter emitter : targets) {
+                    send(classroomId, emitter, SseEmitter.event().comment("heartbeat"));
+                }
+            });
+        });
+    }
+
+    private void send(String classroomId, SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+        } catch (IOException | IllegalStateException e) {
+            // The client has gone away or the stream has already ended.
+            log.debug("Dropping event stream of classroom {}: {}", classroomId, e.getMessage());
+            unsubscribe(classroomId, emitter);
+            emitter.completeWithError(e);
+        }
+    }
+
+    private void unsubscribe(String classroomId, SseEmitter emitter) {
+        subscribers.computeIfPresent(classroomId, (id, emitters) -> {
+            if (emitters.remove(emitter)) {
+                subscriberCount.decrementAndGet();
+            }
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+
+    /**
+     * Ends all open streams when the application shuts down.
+     */
+    @Override
+    public void destroy() {
+        sender.shutdownNow();
+        subscribers.values().forEach(emitters -> emitters.forEach(SseEmitter::complete));
+        subscribers.clear();
+    }
+}
@@ -0,0 +1,244 @@
+package com.mesh_microservices.classroom_service.service;
+
+import com.mesh_microservices.classroom_service.model.Classroom;
+import com.mesh_microservices.classroom_service.model.ClassroomRoute;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOptions;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Moves classrooms to the shard the hash ring assigns them, while the service keeps running.
+ * <p>
+ * After a shard is added or removed, the ring assigns some classrooms elsewhere; this job
+ * moves them in batches. A move claims the classroom's route, which makes lookups for it
+ * wait, then copies the document until the copy matches the source, points the route at
+ * the new shard and finally deletes the old copy. Each classroom is therefore unavailable
+ * for about two drain periods, and never to more than one shard at a time.
+ * <p>
+ * On its first run the job also records routes for classrooms created before routing
+ * existed. Enabled with {@code classroom.shards.rebalance.enabled=true}.
+ */
+@Service
+@ConditionalOnProperty(name = "classroom.shards.rebalance.enabled", havingValue = "true")
+public class ClassroomRebalancer {
+
+    private static final Logger log = LoggerFactory.getLogger(ClassroomRebalancer.class);
+
+    // Copies are retried while the source keeps changing, up to this many times.
+    private static final int MAX_COPY_ATTEMPTS = 5;
+
+    private final ClassroomShards shards;
+    private final Duration drain;
+    private final int batchSize;
+
+    private volatile boolean backfilled;
+
+    public ClassroomRebalancer(ClassroomShards shards,
+                               @Value("${classroom.shards.rebalance.drain:PT1S}") Duration drain,
+                               @Value("${classroom.shards.rebalance.batch-size:100}") int batchSize) {
+        this.shards = shards;
+        this.drain = drain;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Runs a rebalancing pass on a schedule, if classrooms are sharded.
+     */
+    @Scheduled(fixedDelayString = "${classroom.shards.rebalance.interval:PT1M}")
+    public void scheduledRebalance() {
+        if (shards.isSharded()) {
+            rebalance();
+        }
+    }
+
+    /**
+     * Moves up to one batch of classrooms to the shard the ring assigns them.
+     *
+     * @return The number of classrooms moved.
+     */
+    public int rebalance() {
+        if (!backfilled) {
+            backfillRoutes();
+            backfilled = true;
+        }
+        int moved = 0;
+        for (ClassroomRoute route : misplacedRoutes()) {
+            try {
+                if (move(route.getId(), route.getShard(), shards.ownerOf(route.getId()))) {
+                    moved++;
+                }
+            } catch (RuntimeException e) {
+                log.warn("Could not move classroom {} from shard {}", route.getId(), route.getShard(), e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        if (moved > 0) {
+            log.info("Moved {} classrooms between shards", moved);
+        }
+        return moved;
+    }
+
+    /**
+     * Records a route for every classroom that has none, and removes leftover copies of
+     * classrooms from shards their route does not point to, if they are identical to the
+     * routed copy. Copies that differ are kept and logged, so no data is lost silently.
+     */
+    private void backfillRoutes() {
+        MongoTemplate home = shards.home();
+        for (Map.Entry<String, MongoTemplate> shard : shards.byName().entrySet()) {
+            Query all = new Query();
+            all.fields().include("id").include("classroomCode").include("studentIds");
+            try (Stream<Classroom> classrooms = shard.getValue().stream(all, Classroom.class)) {
+                classrooms.forEach(classroom -> {
+                    ClassroomRoute route = home.findById(classroom.getId(), ClassroomRoute.class);
+                    if (route == null) {
+                        try {
+                            shards.register(classroom, shard.getKey());
+                        } catch (DuplicateKeyException e) {
+                            log.warn("Classroom {} on shard {} was not routed: duplicate route or join code",
+                                    classroom.getId(), shard.getKey());
+                        }
+                    } else if (route.getShard().equals(shard.getKey())) {
+                        home.updateFirst(Query.query(Criteria.where("id").is(classroom.getId())),
+                                new Update().set("classroomCode", classroom.getClassroomCode())
+                                        .set("studentIds", classroom.getStudentIds()),
+                                ClassroomRoute.class);
+                    } else if (route.getMovingTo() == null) {
+                        removeLeftover(classroom.getId(), shard.getKey(), route.getShard());
+                    }
+                });
+            }
+        }
+    }
+
+    private void removeLeftover(String classroomId, String leftoverShard, String routedShard) {
+        Bson byId = byId(classroomId);
+        Document leftover = classrooms(leftoverShard).find(byId).first();
+        Document routed = classrooms(routedShard).find(byId).first();
+        if (leftover != null && leftover.equals(routed)) {
+            classrooms(leftoverShard).deleteOne(byId);
+        } else if (leftover != null) {
+            log.error("Classroom {} is on shard {} but differs from the routed copy on shard {}; keeping both",
+                    classroomId, leftoverShard, routedShard);
+        }
+    }
+
+    /**
+     * Finds routes whose classroom is on another shard than the ring assigns, skipping
+     * classrooms that are being moved.
+     */
+    private List<ClassroomRoute> misplacedRoutes() {
+        LocalDateTime stale = LocalDateTime.now().minus(shards.getMoveTimeout());
+        Query query = Query.query(new Criteria().orOperator(
+                Criteria.where("movingTo").is(null),
+                Criteria.where("movingSince").lt(stale)));
+        query.fields().include("shard");
+        List<ClassroomRoute> misplaced = new ArrayList<>();
+        try (Stream<ClassroomRoute> routes = shards.home().stream(query, ClassroomRoute.class)) {
+            routes.filter(route -> !route.getShard().equals(shards.ownerOf(route.getId())))
+                    .limit(batchSize)
+                    .forEach(misplaced::add);
+        }
+        return misplaced;
+    }
+
+    /**
+     * Moves one classroom.
+     *
+     * @return True if the classroom was moved; false if it was claimed by another instance.
+     */
+    private boolean move(String classroomId, String source, String target) throws InterruptedException {
+        MongoTemplate home = shards.home();
+        Query unclaimed = Query.query(Criteria.where("id").is(classroomId).and("shard").is(source)
+                .orOperator(Criteria.where("movingTo").is(null),
+                        Criteria.where("movingSince").lt(LocalDateTime.now().minus(shards.getMoveTimeout()))));
+        ClassroomRoute claimed = home.findAndModify(unclaimed,
+                new Update().set("movingTo", target).set("movingSince", LocalDateTime.now()),
+                FindAndModifyOptions.options().returnNew(true), ClassroomRoute.class);
+        if (claimed == null) {
+            return false;
+        }
+        Query claim = Query.query(Criteria.where("id").is(classroomId).and("shard").is(source).and("movingTo").is(target));
+        try {
+            // Requests that found the route before the claim finish their writes meanwhile.
+            Thread.sleep(drain.toMillis());
+            copy(classroomId, source, target);
+
+            if (home.updateFirst(claim, new Update().set("shard", target).unset("movingTo").unset("movingSince"),
+                    ClassroomRoute.class).getModifiedCount() == 0) {
+                throw new IllegalStateException("The claim on classroom " + classroomId + " was lost");
+            }
+        } catch (RuntimeException | InterruptedException e) {
+            home.updateFirst(claim, new Update().unset("movingTo").unset("movingSince"), ClassroomRoute.class);
+            throw e;
+        }
+
+        // Requests that waited past the move timeout may still write to the source.
+        Thread.sleep(drain.toMillis());
+        Document old = classrooms(source).find(byId(classroomId)).first();
+        Document moved = classrooms(target).find(byId(classroomId)).first();
+        if (old != null && old.equals(moved)) {
+            classrooms(source).deleteOne(byId(classroomId));
+        } else if (old != null) {
+            log.error("Classroom {} changed on shard {} after moving to shard {}; keeping the old copy",
+                    classroomId, source, target);
+        }
+        return true;
+    }
+
+    /**
+     * Copies a classroom until the copy matches the source.
+     */
+    private void copy(String classroomId, String source, String target) {
+        Bson byId = byId(classroomId);
+        Document copied = classrooms(source).find(byId).first();
+        for (int attempt = 0; attempt < MAX_COPY_ATTEMPTS; attempt++) {
+            if (copied == null) {
+                throw new IllegalStateException("Classroom " + classroomId + " is not on shard " + source);
+            }
+            classrooms(target).replaceOne(byId, copied, new ReplaceOptions().upsert(true));
+            Document current = classrooms(source).find(byId).first();
+            if (copied.equals(current)) {
+                return;
+            }
+            copied = current;
+        }
+        throw new IllegalStateException("Classroom " + classroomId + " kept changing while being copied");
+    }
+
+    private MongoCollection<Document> classrooms(String shard) {
+        MongoTemplate template = shards.shard(shard);
+        return template.getCollection(template.getCollectionName(Classroom.class));
+    }
+
+    /**
+     * Matches a classroom by ID. IDs are stored as ObjectIds when they are valid ones.
+     */
+    private static Bson byId(String classroomId) {
+        return Filters.eq("_id", ObjectId.isValid(classroomId) ? new ObjectId(classroomId) : classroomId);
+    }
+}
@@ -1,56 +1,163 @@
 package com.mesh_microservices.classroom_service.service;
 
 import com.mesh_microservices.classroom_service.model.*;
-import com.mesh_microservices.classroom_service.repository.ClassroomRepository;
+import io.micrometer.core.annotation.Timed;
+import org.bson.Document;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.data.util.Pair;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.security.SecureRandom;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * The primary service class for the classroom-service.
  * <p>
  * This class contains all the business logic for creating, managing, and interacting
- * with classrooms. It coordinates with the {@link ClassroomRepository} for database
- * operations, the {@link AzureBlobService} for file storage, and uses a
+ * with classrooms. It reaches each classroom's database through {@link ClassroomShards},
+ * stores files with the {@link BlobStorageService}, and uses a
  * {@link RestTemplate} to communicate with the user-service.
+ * <p>
+ * Every public method is timed under the {@code classroom.service} metric, tagged
+ * with the method name and any exception thrown.
  */
 @Service
+@Timed(value = "classroom.service", histogram = true)
 public class ClassroomService {
 
-    // Handles database operations for Classroom entities.
+    // Routes each classroom to the shard database that holds it.
+    @Autowired
+    private ClassroomShards classroomShards;
+
+    // Sends listings that tolerate stale data to secondaries, keeping each user's own writes visible.
     @Autowired
-    private ClassroomRepository classroomRepository;
+    private CausalReads causalReads;
 
     // Used for making REST calls to other microservices (e.g., user-service).
     @Autowired
     private RestTemplate restTemplate;
 
-    // Handles file upload logic to Azure Blob Storage.
+    // Looks users up over gRPC; the REST endpoint above remains the fallback.
+    @Autowired
+    private UserLookupClient userLookupClient;
+
+    // Handles file uploads to the configured storage backend (Azure Blob Storage by default).
+    @Autowired
+    private BlobStorageService blobStorageService;
+
+    // Schedules due-date reminders and late checks for new assignments.
+    @Autowired
+    private DeadlineScheduler deadlineScheduler;
+
+    // Streams gradebook exports from the database to the response.
+    @Autowired
+    private GradebookExporter gradebookExporter;
+
+    // Reads and repairs the analytics counters.
+    @Autowired
+    private ClassroomAnalyticsService classroomAnalyticsService;
+
+    // Keeps long material texts out of the classroom document.
+    @Autowired
+    private MaterialBodyStore materialBodyStore;
+
+    // Extracts the text of uploaded PDF and DOCX materials in the background.
     @Autowired
-    private AzureBlobService azureBlobService;
+    private TextExtractionService textExtractionService;
+
+    // Generates thumbnails and previews of uploaded images in the background.
+    @Autowired
+    private ImageRenditionService imageRenditionService;
+
+    // Keeps the search index in step with materials and assignments.
+    @Autowired
+    private SearchService searchService;
+
+    // Publishes saved changes to the classroom event streams.
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // Holds the open classroom event streams.
+    @Autowired
+    private ClassroomEventBroadcaster eventBroadcaster;
+
+    /**
+     * Stores a file and returns its URL; run only after the request has been authorized.
+     */
+    @FunctionalInterface
+    private interface FileUpload {
+        String store() throws IOException;
+    }
 
     // Constants for generating unique classroom codes.
     private static final String CHARS = "abcdefghijklmnopqrstuvwxyz0123456789";
     private static final SecureRandom RANDOM = new SecureRandom();
 
+    // How often a submission is recomputed when the student's previous submission changes
+    // between the read and the write, e.g. because it is being graded.
+    private static final int SUBMIT_ATTEMPTS = 5;
+
+    // Bounds for the page size of submission listings.
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+
+    // Time window and size bounds of a student's "what's due" list.
+    private static final int DEFAULT_DUE_DAYS = 14;
+    private static final int DEFAULT_OVERDUE_DAYS = 30;
+    private static final int MAX_DUE_DAYS = 365;
+    private static final int MAX_DUE_ASSIGNMENTS = 500;
+
     /**
      * A private helper method to fetch user details from the user-service by email.
+     * <p>
+     * The lookup goes over gRPC when a user-service instance offers it and falls back
+     * to the REST endpoint otherwise.
      *
      * @param email The email of the user to retrieve.
      * @return The User DTO containing the user's details.
      * @throws IllegalArgumentException if no user is found with the given email.
      */
     private User getUserByEmail(String email) {
-        // The "user-service" name is resolved by Eureka to an actual host and port.
-        String url = "http://user-service/users/byEmail/" + email;
-        User user = restTemplate.getForObject(url, User.class);
+        User user;
+        try {
+            user = userLookupClient.findByEmail(email).orElse(null);
+        } catch (UserLookupClient.UnavailableException e) {
+            // The "user-service" name is resolved by Eureka to an actual host and port.
+            // The email is passed as a URI variable so request metrics are tagged with the template, not each address.
+            user = restTemplate.getForObject("http://user-service/users/byEmail/{email}", User.class, email);
+        }
         if (user == null) {
             throw new IllegalArgumentException("User not found with email: " + email);
         }
@@ -72,7 +179,38 @@ public class ClassroomService {
         classroom.setCreatedAt(LocalDateTime.now());
         classroom.setClassroomCode(generateUniqueCode());
 
-        return classroomRepository.save(classroom);
+        // The ID is chosen here because it decides the shard; the route also claims the code.
+        classroom.setId(new ObjectId().toHexString());
+        classroomShards.register(classroom);
+        return causalReads.write(facultyEmail, classroomShards.forClassroom(classroom.getId()), shard -> shard.insert(classroom));
+    }
+
+    /**
+     * Applies a targeted update to a classroom on the shard that holds it, so that the user's
+     * own later reads see it.
+     * <p>
+     * Classrooms are never loaded and saved as a whole once created: a full save would undo
+     * grades, submissions, renames and other targeted updates written since the load.
+     *
+     * @return The classroom as updated, or {@code null} if the query matched nothing.
+     */
+    private Classroom update(String classroomId, Query query, Update update, String userEmail) {
+        return causalReads.write(userEmail, classroomShards.forClassroom(classroomId), shard -> shard.findAndModify(
+                query, update, FindAndModifyOptions.options().returnNew(true), Classroom.class));
+    }
+
+    /**
+     * Loads a classroom from the shard that holds it.
+     */
+    private Optional<Classroom> load(String classroomId) {
+        return Optional.ofNullable(classroomShards.forClassroom(classroomId).findById(classroomId, Classroom.class));
+    }
+
+    /**
+     * Checks whether a classroom exists, without loading it.
+     */
+    private boolean exists(String classroomId) {
+        return classroomShards.forClassroom(classroomId).exists(Query.query(Criteria.where("id").is(classroomId)), Classroom.class);
     }
 
     /**
@@ -89,30 +227,91 @@ public class ClassroomService {
                 sb.append(CHARS.charAt(RANDOM.nextInt(CHARS.length())));
             }
             code = sb.toString();
-        } while (classroomRepository.findByClassroomCode(code).isPresent());
+        } while (classroomShards.forCode(code).exists(Query.query(Criteria.where("classroomCode").is(code)), Classroom.class));
         return code;
     }
 
     /**
-     * A private helper to retrieve a classroom and verify that the requesting
-     * user is the faculty member who owns it.
+     * A private helper to verify that the requesting user is the faculty member who
+     * owns a classroom, without loading the classroom document.
      *
-     * @param classroomId The ID of the classroom to find.
+     * @param classroomId The ID of the classroom to check.
      * @param facultyEmail The email of the user attempting the action.
-     * @return The Classroom object if found and ownership is verified.
      * @throws RuntimeException if the classroom is not found.
      * @throws SecurityException if the user is not the owner.
      */
-    private Classroom findClassroomAndVerifyFaculty(String classroomId, String facultyEmail) {
-        Classroom classroom = classroomRepository.findById(classroomId)
-                .orElseThrow(() -> new RuntimeException("Classroom not found with ID: " + classroomId));
-
+    private void verifyFacultyOwnership(String classroomId, String facultyEmail) {
         User faculty = getUserByEmail(facultyEmail);
 
-        if (!classroom.getFacultyId().equals(faculty.getId())) {
-            throw new SecurityException("You are not authorized to modify this classroom.");
+        Query owned = Query.query(Criteria.where("id").is(classroomId).and("facultyId").is(faculty.getId()));
+        if (!classroomShards.forClassroom(classroomId).exists(owned, Classroom.class)) {
+            if (!exists(classroomId)) {
+                throw new RuntimeException("Classroom not found with ID: " + classroomId);
+            }
+            throw new SecurityException("You are not authorized to view this classroom.");
+        }
+    }
+
+    /**
+     * Opens a stream of change events for a classroom, for its owner or an enrolled student.
+     * <p>
+     * Membership is checked with a single indexed query that does not load the classroom.
+     *
+     * @param classroomId The ID of the classroom to follow.
+     * @param userEmail The email of the subscribing user.
+     * @return The emitter that streams the classroom's changes.
+     * @throws RuntimeException if the classroom is not found.
+     * @throws SecurityException if the user neither owns nor is enrolled in the classroom.
+     */
+    public SseEmitter subscribeToEvents(String classroomId, String userEmail) {
+        User user = getUserByEmail(userEmail);
+
+        Query member = Query.query(Criteria.where("id").is(classroomId).orOperator(
+                Criteria.where("facultyId").is(user.getId()),
+                Criteria.where("studentIds").is(user.getId())));
+        if (!classroomShards.forClassroom(classroomId).exists(member, Classroom.class)) {
+            if (!exists(classroomId)) {
+                throw new RuntimeException("Classroom not found with ID: " + classroomId);
+            }
+            throw new SecurityException("You are not a member of this classroom.");
+        }
+        return eventBroadcaster.subscribe(classroomId);
+    }
+
+    /**
+     * Verifies, without loading the classroom, that a student may submit to an assignment.
+     *
+     * @param classroomId The ID of the classroom.
+     * @param assignmentId The ID of the assignment.
+     * @param studentEmail The email of the student.
+     * @throws SecurityException if the student is not enrolled or the assignment does not exist.
+     */
+    public void verifyCanSubmit(String classroomId, String assignmentId, String studentEmail) {
+        User student = getUserByEmail(studentEmail);
+        Query target = Query.query(Criteria.where("id").is(classroomId)
+                .and("studentIds").is(student.getId())
+                .and("assignments._id").is(assignmentId));
+        if (!classroomShards.forClassroom(classroomId).exists(target, Classroom.class)) {
+            throw new SecurityException("You are not enrolled in this classroom, or the assignment does not exist.");
+        }
+    }
+
+    /**
+     * Verifies, without loading the classroom, that a faculty member may add material to a section.
+     *
+     * @param classroomId The ID of the classroom.
+     * @param sectionId The ID of the section.
+     * @param facultyEmail The email of the faculty member.
+     * @throws SecurityException if the user does not own the classroom or the section does not exist.
+     */
+    public void verifyCanAddMaterial(String classroomId, String sectionId, String facultyEmail) {
+        User faculty = getUserByEmail(facultyEmail);
+        Query target = Query.query(Criteria.where("id").is(classroomId)
+                .and("facultyId").is(faculty.getId())
+                .and("sections._id").is(sectionId));
+        if (!classroomShards.forClassroom(classroomId).exists(target, Classroom.class)) {
+            throw new SecurityException("You do not own this classroom, or the section does not exist.");
         }
-        return classroom;
     }
 
     /**
@@ -124,14 +323,21 @@ public class ClassroomService {
      * @return The updated Classroom entity.
      */
     public Classroom addSection(String classroomId, Section section, String facultyEmail) {
-        Classroom classroom = findClassroomAndVerifyFaculty(classroomId, facultyEmail);
-        classroom.getSections().add(section);
-        return classroomRepository.save(classroom);
+        verifyFacultyOwnership(classroomId, facultyEmail);
+        Classroom saved = update(classroomId, Query.query(Criteria.where("id").is(classroomId)),
+                new Update().push("sections", section), facultyEmail);
+        if (saved == null) {
+            throw new RuntimeException("Classroom not found with ID: " + classroomId);
+        }
+        eventPublisher.publishEvent(new ClassroomEvent(ClassroomEvent.Type.SECTION_ADDED,
+                classroomId, section.getId(), section.getId(), section.getTitle()));
+        return saved;
     }
 
     /**
      * Adds learning material to a specific section within a classroom.
      * If a file is provided, it's uploaded; otherwise, it's treated as text-only.
+     * Text above the inline limit is stored compressed outside the classroom document.
      *
      * @param classroomId The ID of the classroom.
      * @param sectionId The ID of the section to add the material to.
@@ -142,27 +348,72 @@ public class ClassroomService {
      * @throws IOException if there is a file upload error.
      */
     public Classroom addMaterialToSection(String classroomId, String sectionId, Material material, MultipartFile file, String facultyEmail) throws IOException {
-        Classroom classroom = findClassroomAndVerifyFaculty(classroomId, facultyEmail);
+        FileUpload upload = file != null && !file.isEmpty() ? () -> blobStorageService.uploadFile(file) : null;
+        return addMaterial(classroomId, sectionId, material, upload, facultyEmail);
+    }
 
-        Section section = classroom.getSections().stream()
-                .filter(s -> s.getId().equals(sectionId))
-                .findFirst()
-                .orElseThrow(() -> new RuntimeException("Section not found with ID: " + sectionId));
+    /**
+     * Adds a file material whose content has already been stored, e.g. by a resumable upload.
+     *
+     * @param classroomId The ID of the classroom.
+     * @param sectionId The ID of the section to add the material to.
+     * @param material The material object (title, text content).
+     * @param fileUrl The URL of the stored file.
+     * @param facultyEmail The email of the faculty member performing the action.
+     * @return The updated Classroom entity.
+     */
+    public Classroom addUploadedMaterial(String classroomId, String sectionId, Material material, String fileUrl, String facultyEmail) {
+        try {
+            return addMaterial(classroomId, sectionId, material, () -> fileUrl, facultyEmail);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unreachable: the file is already stored", e);
+        }
+    }
+
+    /**
+     * Stores a material's file, if any, once the target has been verified, and adds the material.
+     */
+    private Classroom addMaterial(String classroomId, String sectionId, Material material, FileUpload upload, String facultyEmail) throws IOException {
+        verifyFacultyOwnership(classroomId, facultyEmail);
+
+        Query inSection = Query.query(Criteria.where("id").is(classroomId).and("sections._id").is(sectionId));
+        if (!classroomShards.forClassroom(classroomId).exists(inSection, Classroom.class)) {
+            throw new RuntimeException("Section not found with ID: " + sectionId);
+        }
 
-        if (file != null && !file.isEmpty()) {
-            String fileUrl = azureBlobService.uploadFile(file);
+        if (upload != null) {
+            String fileUrl = upload.store();
             material.setType(Material.MaterialType.FILE);
             material.setFileUrl(fileUrl);
         } else {
             material.setType(Material.MaterialType.TEXT);
         }
 
-        section.getMaterials().add(material);
-        return classroomRepository.save(classroom);
+        // Long texts are stored separately before the classroom is saved, so the reference never dangles.
+        String text = material.getTextContent();
+        materialBodyStore.externalizeIfLarge(classroomId, material);
+
+        // Raw field names are used inside the array filters, where embedded IDs are stored as _id.
+        Classroom saved = update(classroomId, inSection, new Update().push("sections.$[s].materials", material)
+                .filterArray(Criteria.where("s._id").is(sectionId)), facultyEmail);
+        if (saved == null) {
+            // The section was deleted while the file was being stored.
+            if (material.isTextExternal()) {
+                materialBodyStore.delete(List.of(material.getId()));
+            }
+            throw new RuntimeException("Section not found with ID: " + sectionId);
+        }
+        searchService.indexMaterial(classroomId, sectionId, material, text);
+        textExtractionService.extractLater(classroomId, sectionId, material);
+        imageRenditionService.renderLater(classroomId, sectionId, material);
+        eventPublisher.publishEvent(new ClassroomEvent(ClassroomEvent.Type.MATERIAL_ADDED,
+                classroomId, sectionId, material.getId(), material.getTitle()));
+        return saved;
     }
 
     /**
      * Creates a new assignment in a classroom after verifying faculty ownership.
+     * If the assignment has a due date, its reminder and late check are scheduled.
      *
      * @param classroomId The ID of the classroom.
      * @param assignment The new Assignment to add.
@@ -170,9 +421,20 @@ public class ClassroomService {
      * @return The updated Classroom entity.
      */
     public Classroom createAssignment(String classroomId, Assignment assignment, String facultyEmail) {
-        Classroom classroom = findClassroomAndVerifyFaculty(classroomId, facultyEmail);
-        classroom.getAssignments().add(assignment);
-        return classroomRepository.save(classroom);
+        verifyFacultyOwnership(classroomId, facultyEmail);
+        // A new assignment starts without submissions, whatever the request contained.
+        assignment.getSubmissions().clear();
+        assignment.setStats(new SubmissionStats());
+        Classroom saved = update(classroomId, Query.query(Criteria.where("id").is(classroomId)),
+                new Update().push("assignments", assignment), facultyEmail);
+        if (saved == null) {
+            throw new RuntimeException("Classroom not found with ID: " + classroomId);
+        }
+        deadlineScheduler.schedule(classroomId, assignment);
+        searchService.indexAssignment(classroomId, assignment);
+        eventPublisher.publishEvent(new ClassroomEvent(ClassroomEvent.Type.ASSIGNMENT_CREATED,
+                classroomId, null, assignment.getId(), assignment.getTitle()));
+        return saved;
     }
 
     /**
@@ -187,15 +449,21 @@ public class ClassroomService {
     public Classroom joinClassroom(String classroomCode, String studentEmail) {
         User student = getUserByEmail(studentEmail);
 
-        Classroom classroom = classroomRepository.findByClassroomCode(classroomCode)
-                .orElseThrow(() -> new RuntimeException("Classroom with code '" + classroomCode + "' not found."));
-
-        if (classroom.getStudentIds().contains(student.getId())) {
+        MongoTemplate shard = classroomShards.forCode(classroomCode);
+        Query byCode = Query.query(Criteria.where("classroomCode").is(classroomCode));
+        Classroom saved = causalReads.write(studentEmail, shard, writer -> writer.findAndModify(
+                Query.query(Criteria.where("classroomCode").is(classroomCode).and("studentIds").ne(student.getId())),
+                new Update().push("studentIds", student.getId()),
+                FindAndModifyOptions.options().returnNew(true), Classroom.class));
+        if (saved == null) {
+            if (!shard.exists(byCode, Classroom.class)) {
+                throw new RuntimeException("Classroom with code '" + classroomCode + "' not found.");
+            }
             throw new IllegalArgumentException("Student is already enrolled in this classroom.");
         }
 
-        classroom.getStudentIds().add(student.getId());
-        return classroomRepository.save(classroom);
+        classroomShards.addStudent(saved.getId(), student.getId());
+        return saved;
     }
 
     /**
@@ -206,12 +474,108 @@ public class ClassroomService {
      */
     public List<Classroom> findClassroomsByStudent(String studentEmail) {
         User student = getUserByEmail(studentEmail);
-        return classroomRepository.findByStudentIdsContains(student.getId());
+        Query enrolled = Query.query(Criteria.where("studentIds").is(student.getId()));
+        List<Classroom> classrooms = new ArrayList<>();
+        for (MongoTemplate shard : classroomShards.forStudent(student.getId())) {
+            classrooms.addAll(causalReads.read("findClassroomsByStudent", studentEmail, shard,
+                    reader -> reader.find(enrolled, Classroom.class)));
+        }
+        return classrooms;
+    }
+
+    /**
+     * Lists the assignments a student still has to act on, across all of their classrooms.
+     * <p>
+     * The result holds every assignment due within the next {@code days} days, with the
+     * student's own submission status, and every assignment that fell due within the past
+     * {@code overdueDays} days without a submission. It is computed in one aggregation: the
+     * classrooms are found through the index on enrolled students, their assignments are
+     * narrowed to the time window before being unwound, and only the student's own
+     * submission is kept of each.
+     *
+     * @param studentEmail The email of the student.
+     * @param days Optional number of days ahead to include (default 14, at most 365).
+     * @param overdueDays Optional number of days back to include overdue work (default 30, at most 365).
+     * @return The assignments, earliest due date first.
+     */
+    public List<DueAssignment> findDueAssignments(String studentEmail, Integer days, Integer overdueDays) {
+        User student = getUserByEmail(studentEmail);
+        String studentId = student.getId();
+        LocalDateTime now = LocalDateTime.now();
+        MongoConverter converter = classroomShards.home().getConverter();
+        Object nowValue = converter.convertToMongoType(now);
+        Object horizon = converter.convertToMongoType(
+                now.plusDays(days == null || days <= 0 ? DEFAULT_DUE_DAYS : Math.min(days, MAX_DUE_DAYS)));
+        Object lookback = converter.convertToMongoType(
+                now.minusDays(overdueDays == null || overdueDays < 0 ? DEFAULT_OVERDUE_DAYS : Math.min(overdueDays, MAX_DUE_DAYS)));
+
+        // Keep assignments due before the horizon that are either still open or were missed recently.
+        Document submitted = new Document("$in", List.of(studentId,
+                new Document("$ifNull", List.of("$$a.submissions.studentId", List.of()))));
+        Document inWindow = new Document("$and", List.of(
+                new Document("$gt", Arrays.asList("$$a.dueDate", null)),
+                new Document("$lte", List.of("$$a.dueDate", horizon)),
+                new Document("$or", List.of(
+                        new Document("$gte", List.of("$$a.dueDate", nowValue)),
+                        new Document("$and", List.of(
+                                new Document("$gte", List.of("$$a.dueDate", lookback)),
+                                new Document("$not", List.of(submitted))))))));
+        Document narrow = new Document("$project", new Document("classroomName", 1)
+                .append("assignments", new Document("$filter", new Document("input", "$assignments")
+                        .append("as", "a").append("cond", inWindow))));
+        // Reduce each assignment's submissions to the student's own one, if any.
+        Document own = new Document("$project", new Document("_id", 0)
+                .append("classroomId", "$_id")
+                .append("classroomName", 1)
+                .append("assignmentId", "$assignments._id")
+                .append("title", "$assignments.title")
+                .append("points", "$assignments.points")
+                .append("dueDate", "$assignments.dueDate")
+                .append("own", new Document("$first", new Document("$filter", new Document("input",
+                        new Document("$ifNull", List.of("$assignments.submissions", List.of())))
+                        .append("as", "s")
+                        .append("cond", new Document("$eq", List.of("$$s.studentId", studentId)))))));
+
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("studentIds").is(studentId)),
+                Aggregation.stage(narrow),
+                Aggregation.unwind("assignments"),
+                Aggregation.stage(own),
+                Aggregation.stage(Document.parse("""
+                        {$addFields: {submittedAt: "$own.submittedAt", grade: "$own.grade", late: {$ifNull: ["$own.late", false]}}}""")),
+                Aggregation.project().andExclude("own"),
+                Aggregation.sort(Sort.by("dueDate", "classroomId")),
+                Aggregation.limit(MAX_DUE_ASSIGNMENTS));
+
+        // Each shard returns its earliest assignments; the overall earliest are among them.
+        List<DueAssignment> due = new ArrayList<>();
+        for (MongoTemplate shard : classroomShards.forStudent(studentId)) {
+            due.addAll(causalReads.read("findDueAssignments", studentEmail, shard,
+                    reader -> reader.aggregate(aggregation, "classrooms", DueAssignment.class).getMappedResults()));
+        }
+        due.sort(Comparator.comparing(DueAssignment::getDueDate).thenComparing(DueAssignment::getClassroomId));
+        if (due.size() > MAX_DUE_ASSIGNMENTS) {
+            due = due.subList(0, MAX_DUE_ASSIGNMENTS);
+        }
+        for (DueAssignment assignment : due) {
+            if (assignment.getGrade() != null) {
+                assignment.setStatus(DueAssignment.Status.GRADED);
+            } else if (assignment.getSubmittedAt() != null) {
+                assignment.setStatus(DueAssignment.Status.SUBMITTED);
+            } else if (assignment.getDueDate().isBefore(now)) {
+                assignment.setStatus(DueAssignment.Status.OVERDUE);
+            } else {
+                assignment.setStatus(DueAssignment.Status.PENDING);
+            }
+        }
+        return due;
     }
 
     /**
      * Processes an assignment submission from a student.
-     * It verifies enrollment, uploads the file, and adds the submission record.
+     * It verifies enrollment, uploads the file, and adds the submission record,
+     * flagged as late if it is made after the assignment's due date. The analytics
+     * counters are updated in the same write.
      * Allows for re-submission by replacing the previous submission.
      *
      * @param classroomId The ID of the classroom.
@@ -223,33 +587,126 @@ public class ClassroomService {
      * @throws SecurityException if the student is not enrolled in the class.
      */
     public Classroom submitAssignment(String classroomId, String assignmentId, MultipartFile file, String studentEmail) throws IOException {
+        return submit(classroomId, assignmentId, () -> blobStorageService.uploadFile(file), studentEmail);
+    }
+
+    /**
+     * Records a submission whose file has already been stored, e.g. by a resumable upload.
+     *
+     * @param classroomId The ID of the classroom.
+     * @param assignmentId The ID of the assignment.
+     * @param fileUrl The URL of the stored file.
+     * @param studentEmail The email of the submitting student.
+     * @return The updated Classroom entity with the new submission.
+     */
+    public Classroom submitUploadedFile(String classroomId, String assignmentId, String fileUrl, String studentEmail) {
+        try {
+            return submit(classroomId, assignmentId, () -> fileUrl, studentEmail);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unreachable: the file is already stored", e);
+        }
+    }
+
+    /**
+     * Verifies enrollment, stores the file and records the submission.
+     * <p>
+     * The classroom is not saved as a whole: the submission and the counter adjustments are
+     * written in one targeted update of the assignment, which only applies while the student's
+     * previous submission (or its absence) is as it was read. Grades, counters and other
+     * students' submissions written concurrently are therefore kept; if the student's own
+     * submission changed in between, e.g. because it was graded, the update is recomputed.
+     */
+    private Classroom submit(String classroomId, String assignmentId, FileUpload upload, String studentEmail) throws IOException {
         User student = getUserByEmail(studentEmail);
+        String fileUrl = null;
 
-        Classroom classroom = classroomRepository.findById(classroomId)
-                .orElseThrow(() -> new RuntimeException("Classroom not found."));
+        for (int attempt = 1; ; attempt++) {
+            Classroom classroom = load(classroomId)
+                    .orElseThrow(() -> new RuntimeException("Classroom not found."));
 
-        if (!classroom.getStudentIds().contains(student.getId())) {
-            throw new SecurityException("You are not enrolled in this classroom.");
-        }
+            if (!classroom.getStudentIds().contains(student.getId())) {
+                throw new SecurityException("You are not enrolled in this classroom.");
+            }
 
-        Assignment assignment = classroom.getAssignments().stream()
-                .filter(a -> a.getId().equals(assignmentId))
-                .findFirst()
-                .orElseThrow(() -> new RuntimeException("Assignment not found."));
+            Assignment assignment = classroom.getAssignments().stream()
+                    .filter(a -> a.getId().equals(assignmentId))
+                    .findFirst()
+                    .orElseThrow(() -> new RuntimeException("Assignment not found."));
 
-        String fileUrl = azureBlobService.uploadFile(file);
+            if (fileUrl == null) {
+                fileUrl = upload.store();
+            }
 
-        Submission newSubmission = new Submission();
-        newSubmission.setStudentId(student.getId());
-        newSubmission.setStudentName(student.getName());
-        newSubmission.setSubmittedFileUrl(fileUrl);
-        newSubmission.setSubmittedAt(LocalDateTime.now());
+            Submission newSubmission = new Submission();
+            newSubmission.setStudentId(student.getId());
+            newSubmission.setStudentName(student.getName());
+            newSubmission.setSubmittedFileUrl(fileUrl);
+            newSubmission.setSubmittedAt(LocalDateTime.now());
+            newSubmission.setLate(assignment.getDueDate() != null && newSubmission.getSubmittedAt().isAfter(assignment.getDueDate()));
 
-        // Remove any previous submission from the same student to allow resubmission.
-        assignment.getSubmissions().removeIf(sub -> sub.getStudentId().equals(student.getId()));
-        assignment.getSubmissions().add(newSubmission);
+            // A previous submission from the same student is replaced, to allow resubmission.
+            Submission previous = assignment.getSubmissions().stream()
+                    .filter(sub -> sub.getStudentId().equals(student.getId()))
+                    .findFirst()
+                    .orElse(null);
 
-        return classroomRepository.save(classroom);
+            Classroom saved = causalReads.write(studentEmail, classroomShards.forClassroom(classroomId), shard -> shard.findAndModify(
+                    submissionGuard(classroomId, assignmentId, student.getId(), previous),
+                    submissionUpdate(assignmentId, previous, newSubmission),
+                    FindAndModifyOptions.options().returnNew(true), Classroom.class));
+            if (saved != null) {
+                imageRenditionService.renderLater(classroomId, assignmentId, newSubmission);
+                return saved;
+            }
+            if (attempt == SUBMIT_ATTEMPTS) {
+                throw new IllegalStateException("Your submission was changed by another request; please retry.");
+            }
+        }
+    }
+
+    /**
+     * Matches the classroom only while the student is enrolled and their submission to the
+     * assignment is still the one that was read, or still absent.
+     */
+    private static Query submissionGuard(String classroomId, String assignmentId, String studentId, Submission previous) {
+        Criteria assignment = Criteria.where("_id").is(assignmentId);
+        if (previous == null) {
+            assignment.and("submissions.studentId").ne(studentId);
+        } else {
+            assignment.and("submissions").elemMatch(Criteria.where("_id").is(previous.getId())
+                    .and("grade").is(previous.getGrade())
+                    .and("late").is(previous.isLate()));
+        }
+        return Query.query(Criteria.where("id").is(classroomId)
+                .and("studentIds").is(studentId)
+                .and("assignments").elemMatch(assignment));
+    }
+
+    /**
+     * Adds a submission, or replaces the previous one in place, and adjusts the assignment and
+     * classroom counters, all in one update. A resubmission has no grade yet, so the previous
+     * grade is taken out of the totals.
+     */
+    private static Update submissionUpdate(String assignmentId, Submission previous, Submission current) {
+        // Raw field names are used inside the array filters, where embedded IDs are stored as _id.
+        Update update = new Update().filterArray(Criteria.where("a._id").is(assignmentId));
+        if (previous == null) {
+            update.push("assignments.$[a].submissions", current)
+                    .inc("assignments.$[a].stats.submitted", 1).inc("stats.submitted", 1);
+        } else {
+            update.set("assignments.$[a].submissions.$[s]", current)
+                    .filterArray(Criteria.where("s._id").is(previous.getId()));
+            if (previous.getGrade() != null) {
+                update.inc("assignments.$[a].stats.graded", -1).inc("stats.graded", -1)
+                        .inc("assignments.$[a].stats.gradeSum", -previous.getGrade())
+                        .inc("stats.gradeSum", -previous.getGrade());
+            }
+        }
+        int lateDelta = (current.isLate() ? 1 : 0) - (previous != null && previous.isLate() ? 1 : 0);
+        if (lateDelta != 0) {
+            update.inc("assignments.$[a].stats.late", lateDelta).inc("stats.late", lateDelta);
+        }
+        return update;
     }
 
     /**
@@ -259,7 +716,7 @@ public class ClassroomService {
      * @return An Optional containing the Classroom if found, otherwise empty.
      */
     public Optional<Classroom> findClassroomById(String classroomId) {
-        return classroomRepository.findById(classroomId);
+        return load(classroomId);
     }
 
     /**
@@ -272,15 +729,494 @@ public class ClassroomService {
      * @throws RuntimeException if the section is not found.
      */
     public Classroom deleteSection(String classroomId, String sectionId, String facultyEmail) {
-        Classroom classroom = findClassroomAndVerifyFaculty(classroomId, facultyEmail);
+        verifyFacultyOwnership(classroomId, facultyEmail);
 
-        boolean removed = classroom.getSections().removeIf(section -> section.getId().equals(sectionId));
-
-        if (!removed) {
+        // The classroom is read as it was before the update, for the materials of the removed section.
+        Classroom saved = causalReads.write(facultyEmail, classroomShards.forClassroom(classroomId), shard -> shard.findAndModify(
+                Query.query(Criteria.where("id").is(classroomId).and("sections._id").is(sectionId)),
+                new Update().pull("sections", new Document("_id", sectionId)),
+                FindAndModifyOptions.options().returnNew(false), Classroom.class));
+        if (saved == null) {
             throw new RuntimeException("Section not found with ID: " + sectionId);
         }
+        Section section = saved.getSections().stream()
+                .filter(s -> s.getId().equals(sectionId))
+                .findFirst()
+                .orElseThrow();
+        saved.getSections().remove(section);
+
+        searchService.removeSection(sectionId);
+        materialBodyStore.delete(section.getMaterials().stream()
+                .filter(Material::isTextExternal)
+                .map(Material::getId)
+                .toList());
+        eventPublisher.publishEvent(new ClassroomEvent(ClassroomEvent.Type.SECTION_DELETED,
+                classroomId, sectionId, sectionId, null));
+        return saved;
+    }
+
+    /**
+     * Applies many grades to the submissions of one assignment in a single unordered bulk write.
+     * <p>
+     * Like every other modifying operation, this does not load and save the whole classroom.
+     * Only the owning faculty ID and the target assignment are read, and each grade is written
+     * with a targeted {@code $set} on its own submission, so writes elsewhere in the classroom
+     * cannot undo it.
+     * <p>
+     * The assignment and classroom analytics counters are adjusted in the same update as each
+     * grade. Each update only applies while the submission still has the grade it was read
+     * with; entries that lose such a race to another grader are reported as failed.
+     * <p>
+     * Entries that reference unknown submissions, carry an out-of-range grade or repeat a
+     * submission ID are reported and skipped; the rest are still applied.
+     *
+     * @param classroomId The ID of the classroom.
+     * @param assignmentId The ID of the assignment whose submissions are graded.
+     * @param entries The grades to apply.
+     * @param facultyEmail The email of the faculty member performing the action.
+     * @return One result per entry, in the same order as the entries.
+     * @throws RuntimeException if the classroom or assignment is not found.
+     * @throws SecurityException if the user is not the owner.
+     */
+    public List<GradeResult> gradeSubmissions(String classroomId, String assignmentId, List<GradeEntry> entries, String facultyEmail) {
+        Query lookup = Query.query(Criteria.where("id").is(classroomId));
+        lookup.fields().include("facultyId").elemMatch("assignments", Criteria.where("_id").is(assignmentId));
+        MongoTemplate shard = classroomShards.forClassroom(classroomId);
+        Classroom classroom = shard.findOne(lookup, Classroom.class);
+        if (classroom == null) {
+            throw new RuntimeException("Classroom not found with ID: " + classroomId);
+        }
+
+        User faculty = getUserByEmail(facultyEmail);
+        if (!classroom.getFacultyId().equals(faculty.getId())) {
+            throw new SecurityException("You are not authorized to modify this classroom.");
+        }
+
+        Assignment assignment = classroom.getAssignments().stream()
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException("Assignment not found."));
+        Map<String, Submission> submissions = new HashMap<>();
+        assignment.getSubmissions().forEach(sub -> submissions.put(sub.getId(), sub));
+
+        List<GradeResult> results = new ArrayList<>(entries.size());
+        // Positions in 'results' of the entries queued in the bulk write, in queue order.
+        List<Integer> queued = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        List<Pair<Query, UpdateDefinition>> updates = new ArrayList<>();
+
+        for (GradeEntry entry : entries) {
+            String submissionId = entry.getSubmissionId();
+            Submission submission = submissions.get(submissionId);
+            if (submission == null) {
+                results.add(new GradeResult(submissionId, GradeResult.Status.NOT_FOUND, "Submission not found."));
+            } else if (!seen.add(submissionId)) {
+                results.add(new GradeResult(submissionId, GradeResult.Status.INVALID, "Submission is graded more than once in this request."));
+            } else if (entry.getGrade() == null || entry.getGrade() < 0
+                    || (assignment.getPoints() > 0 && entry.getGrade() > assignment.getPoints())) {
+                results.add(new GradeResult(submissionId, GradeResult.Status.INVALID,
+                        "Grade must be between 0 and " + assignment.getPoints() + "."));
+            } else {
+                updates.add(Pair.of(gradeGuard(classroomId, assignmentId, submission), gradeUpdate(assignmentId, submission, entry)));
+                queued.add(results.size());
+                results.add(new GradeResult(submissionId, GradeResult.Status.UPDATED, null));
+            }
+        }
+
+        if (!queued.isEmpty()) {
+            int matched;
+            try {
+                matched = causalReads.write(facultyEmail, shard, writer -> writer
+                        .bulkOps(BulkOperations.BulkMode.UNORDERED, Classroom.class)
+                        .updateOne(updates)
+                        .execute()).getMatchedCount();
+            } catch (BulkOperationException e) {
+                // In unordered mode every other write is still applied; only the reported ones failed.
+                matched = e.getResult().getMatchedCount();
+                e.getErrors().forEach(error -> {
+                    GradeResult result = results.get(queued.get(error.getIndex()));
+                    result.setStatus(GradeResult.Status.FAILED);
+                    result.setMessage(error.getMessage());
+                });
+            }
+            if (matched < queued.size()) {
+                reportGradeConflicts(shard, classroomId, assignmentId, entries, results, queued);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Matches the classroom only while the submission still has the grade it was read with,
+     * so the counter adjustments of a grade update are never applied on top of a concurrent one.
+     */
+    private static Query gradeGuard(String classroomId, String assignmentId, Submission submission) {
+        return Query.query(Criteria.where("id").is(classroomId)
+                .and("assignments").elemMatch(Criteria.where("_id").is(assignmentId)
+                        .and("submissions").elemMatch(Criteria.where("_id").is(submission.getId())
+                                .and("grade").is(submission.getGrade()))));
+    }
+
+    /**
+     * Sets a submission's grade and feedback and adjusts the assignment and classroom
+     * counters by the difference to its previous grade, all in one update.
+     */
+    private static Update gradeUpdate(String assignmentId, Submission submission, GradeEntry entry) {
+        // Raw field names are used inside the array filters, where embedded IDs are stored as _id.
+        Update update = new Update()
+                .set("assignments.$[a].submissions.$[s].grade", entry.getGrade())
+                .set("assignments.$[a].submissions.$[s].feedback", entry.getFeedback())
+                .filterArray(Criteria.where("a._id").is(assignmentId))
+                .filterArray(Criteria.where("s._id").is(submission.getId()));
+
+        Integer previous = submission.getGrade();
+        long gradeDelta = entry.getGrade() - (previous == null ? 0 : previous);
+        if (previous == null) {
+            update.inc("assignments.$[a].stats.graded", 1).inc("stats.graded", 1);
+        }
+        if (gradeDelta != 0) {
+            update.inc("assignments.$[a].stats.gradeSum", gradeDelta).inc("stats.gradeSum", gradeDelta);
+        }
+        return update;
+    }
+
+    /**
+     * Marks the queued entries whose grade was not written because another request changed
+     * the submission between the read and the bulk write.
+     */
+    private void reportGradeConflicts(MongoTemplate shard, String classroomId, String assignmentId, List<GradeEntry> entries,
+                                      List<GradeResult> results, List<Integer> queued) {
+        Query lookup = Query.query(Criteria.where("id").is(classroomId));
+        lookup.fields().elemMatch("assignments", Criteria.where("_id").is(assignmentId));
+        Classroom current = shard.findOne(lookup, Classroom.class);
+        Map<String, Integer> grades = new HashMap<>();
+        if (current != null && !current.getAssignments().isEmpty()) {
+            current.getAssignments().get(0).getSubmissions().forEach(sub -> grades.put(sub.getId(), sub.getGrade()));
+        }
+
+        for (int position : queued) {
+            GradeResult result = results.get(position);
+            Integer requested = entries.get(position).getGrade();
+            if (result.getStatus() == GradeResult.Status.UPDATED && !requested.equals(grades.get(result.getSubmissionId()))) {
+                result.setStatus(GradeResult.Status.FAILED);
+                result.setMessage("The submission was changed by another request; reload it and retry.");
+            }
+        }
+    }
+
+    /**
+     * Lists one page of an assignment's submissions, oldest first, after verifying faculty ownership.
+     * <p>
+     * Filtering, ordering and paging all run in a server-side aggregation that unwinds only
+     * the requested assignment, so just the matching page is sent to this service regardless
+     * of class size. Pages are addressed by a cursor on (submittedAt, submission ID) rather
+     * than an offset, so later pages cost the same as the first and stay stable while new
+     * submissions arrive.
+     *
+     * @param classroomId The ID of the classroom.
+     * @param assignmentId The ID of the assignment. An unknown ID yields an empty page.
+     * @param ungraded If true, only submissions without a grade are returned.
+     * @param late If true, only submissions made after the assignment's due date are returned.
+     * @param studentId If not null, only this student's submission is returned.
+     * @param cursor The {@code nextCursor} of the previous page, or null for the first page.
+     * @param limit The maximum number of submissions on the page (capped at 200).
+     * @param facultyEmail The email of the faculty member performing the action.
+     * @return The page of submissions and the cursor for the next one.
+     * @throws IllegalArgumentException if the cursor is malformed.
+     * @throws SecurityException if the user is not the owner.
+     */
+    public SubmissionPage listSubmissions(String classroomId, String assignmentId, boolean ungraded, boolean late,
+                                          String studentId, String cursor, Integer limit, String facultyEmail) {
+        verifyFacultyOwnership(classroomId, facultyEmail);
+        int pageSize = limit == null || limit <= 0 ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+
+        // Raw field names are used because the pipeline reshapes the document; embedded IDs are stored as _id.
+        List<Criteria> filters = new ArrayList<>();
+        if (ungraded) {
+            filters.add(Criteria.where("assignments.submissions.grade").is(null));
+        }
+        if (late) {
+            filters.add(Criteria.where("assignments.dueDate").ne(null));
+            filters.add(Criteria.expr(ComparisonOperators.valueOf("assignments.submissions.submittedAt")
+                    .greaterThan("assignments.dueDate")));
+        }
+        if (studentId != null) {
+            filters.add(Criteria.where("assignments.submissions.studentId").is(studentId));
+        }
+        if (cursor != null) {
+            String[] position = decodeCursor(cursor);
+            Object after = classroomShards.home().getConverter().convertToMongoType(LocalDateTime.parse(position[0]));
+            filters.add(new Criteria().orOperator(
+                    Criteria.where("assignments.submissions.submittedAt").gt(after),
+                    Criteria.where("assignments.submissions.submittedAt").is(after)
+                            .and("assignments.submissions._id").gt(position[1])));
+        }
+
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("_id").is(classroomId)),
+                Aggregation.unwind("assignments"),
+                Aggregation.match(Criteria.where("assignments._id").is(assignmentId)),
+                Aggregation.unwind("assignments.submissions"),
+                Aggregation.match(filters.isEmpty() ? new Criteria() : new Criteria().andOperator(filters)),
+                Aggregation.sort(Sort.by("assignments.submissions.submittedAt", "assignments.submissions._id")),
+                // One extra document tells whether another page follows.
+                Aggregation.limit(pageSize + 1L),
+                Aggregation.replaceRoot("assignments.submissions"));
+
+        List<Submission> submissions = new ArrayList<>(
+                causalReads.read("listSubmissions", facultyEmail, classroomShards.forClassroom(classroomId),
+                        reader -> reader.aggregate(aggregation, "classrooms", Submission.class).getMappedResults()));
+        String nextCursor = null;
+        if (submissions.size() > pageSize) {
+            submissions = submissions.subList(0, pageSize);
+            Submission last = submissions.get(pageSize - 1);
+            nextCursor = encodeCursor(last.getSubmittedAt(), last.getId());
+        }
+        return new SubmissionPage(submissions, nextCursor);
+    }
+
+    /**
+     * Lists the classrooms a faculty member owns, newest first, one page at a time.
+     * <p>
+     * The query is answered from the index on owner and creation time, and only the summary
+     * fields and counts are projected, so the embedded students, sections and assignments
+     * never leave the database.
+     *
+     * @param cursor Optional cursor from the previous page's {@code nextCursor}.
+     * @param limit Optional page size (default 50, at most 200).
+     * @param facultyEmail The email of the faculty member whose classrooms are listed.
+     * @return The page of classroom summaries and the cursor of the next page.
+     * @throws IllegalArgumentException if the cursor is malformed.
+     */
+    public ClassroomSummaryPage listFacultyClassrooms(String cursor, Integer limit, String facultyEmail) {
+        User faculty = getUserByEmail(facultyEmail);
+        int pageSize = limit == null || limit <= 0 ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+
+        Criteria criteria = Criteria.where("facultyId").is(faculty.getId());
+        if (cursor != null) {
+            String[] position = decodeCursor(cursor);
+            Object before = classroomShards.home().getConverter().convertToMongoType(LocalDateTime.parse(position[0]));
+            // Classroom IDs are stored as ObjectIds, so the tie-breaker must compare as one.
+            Object beforeId = ObjectId.isValid(position[1]) ? new ObjectId(position[1]) : position[1];
+            criteria = criteria.orOperator(
+                    Criteria.where("createdAt").lt(before),
+                    Criteria.where("createdAt").is(before).and("_id").lt(beforeId));
+        }
 
-        return classroomRepository.save(classroom);
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(criteria),
+                Aggregation.sort(Sort.by(Sort.Direction.DESC, "createdAt", "_id")),
+                // One extra document tells whether another page follows.
+                Aggregation.limit(pageSize + 1L),
+                Aggregation.project("classroomName", "subject", "classroomCode", "createdAt", "stats")
+                        .and(ArrayOperators.Size.lengthOfArray(
+                                ConditionalOperators.ifNull("studentIds").then(List.of()))).as("studentCount")
+                        .and(ArrayOperators.Size.lengthOfArray(
+                                ConditionalOperators.ifNull("assignments").then(List.of()))).as("assignmentCount"));
+
+        // A faculty member's classrooms are spread over the shards; each returns its first page and they are merged.
+        List<ClassroomSummary> classrooms = new ArrayList<>();
+        Set<String> listed = new HashSet<>();
+        for (MongoTemplate shard : classroomShards.all()) {
+            causalReads.read("listFacultyClassrooms", facultyEmail, shard,
+                            reader -> reader.aggregate(aggregation, "classrooms", ClassroomSummary.class).getMappedResults())
+                    .stream()
+                    // A classroom caught between the copy and the cleanup of a move is on two shards.
+                    .filter(summary -> listed.add(summary.getId()))
+                    .forEach(classrooms::add);
+        }
+        classrooms.sort(Comparator.comparing(ClassroomSummary::getCreatedAt)
+                .thenComparing(summary -> new ObjectId(summary.getId())).reversed());
+        String nextCursor = null;
+        if (classrooms.size() > pageSize) {
+            classrooms = classrooms.subList(0, pageSize);
+            ClassroomSummary last = classrooms.get(pageSize - 1);
+            nextCursor = encodeCursor(last.getCreatedAt(), last.getId());
+        }
+        return new ClassroomSummaryPage(classrooms, nextCursor);
+    }
+
+    /**
+     * Encodes the position after a listed item as an opaque, URL-safe cursor.
+     */
+    private static String encodeCursor(LocalDateTime timestamp, String id) {
+        String position = timestamp + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor into its timestamp and item ID.
+     */
+    private static String[] decodeCursor(String cursor) {
+        String[] position;
+        try {
+            position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 2);
+            LocalDateTime.parse(position[0]);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+        if (position.length != 2) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        return position;
+    }
+
+    /**
+     * Exports the gradebook of one classroom after verifying faculty ownership.
+     * <p>
+     * Ownership is checked before the response starts, so failures still produce an error
+     * status; the rows themselves are streamed when the returned body is written.
+     *
+     * @param classroomId The ID of the classroom to export.
+     * @param format The output format.
+     * @param facultyEmail The email of the faculty member performing the action.
+     * @return A body that streams the gradebook.
+     * @throws RuntimeException if the classroom is not found.
+     * @throws SecurityException if the user is not the owner.
+     */
+    public StreamingResponseBody exportGradebook(String classroomId, GradebookExporter.Format format, String facultyEmail) {
+        verifyFacultyOwnership(classroomId, facultyEmail);
+        return gradebookExporter.export(List.of(classroomShards.forClassroom(classroomId)), Criteria.where("id").is(classroomId), format);
+    }
+
+    /**
+     * Exports the gradebooks of every classroom owned by a faculty member.
+     *
+     * @param format The output format.
+     * @param facultyEmail The email of the faculty member whose classrooms are exported.
+     * @return A body that streams the gradebooks, one classroom after another.
+     */
+    public StreamingResponseBody exportAllGradebooks(GradebookExporter.Format format, String facultyEmail) {
+        User faculty = getUserByEmail(facultyEmail);
+        return gradebookExporter.export(classroomShards.all(), Criteria.where("facultyId").is(faculty.getId()), format);
+    }
+
+    /**
+     * Returns the submission and grading analytics of a classroom after verifying faculty ownership.
+     *
+     * @param classroomId The ID of the classroom.
+     * @param facultyEmail The email of the faculty member performing the action.
+     * @return The analytics, read from the stored counters.
+     * @throws SecurityException if the user is not the owner.
+     */
+    public ClassroomAnalytics getAnalytics(String classroomId, String facultyEmail) {
+        verifyFacultyOwnership(classroomId, facultyEmail);
+        ClassroomAnalytics analytics = classroomAnalyticsService.analytics(classroomId);
+        if (analytics == null) {
+            throw new RuntimeException("Classroom not found with ID: " + classroomId);
+        }
+        return analytics;
+    }
+
+    /**
+     * Recalculates the analytics counters of a classroom from its submissions after
+     * verifying faculty ownership, and returns the corrected analytics.
+     *
+     * @param classroomId The ID of the classroom.
+     * @param facultyEmail The email of the faculty member performing the action.
+     * @return The analytics after the rebuild.
+     * @throws SecurityException if the user is not the owner.
+     */
+    public ClassroomAnalytics rebuildAnalytics(String classroomId, String facultyEmail) {
+        verifyFacultyOwnership(classroomId, facultyEmail);
+        classroomAnalyticsService.rebuild(classroomId);
+        return classroomAnalyticsService.analytics(classroomId);
+    }
+
+    /**
+     * Searches the materials and assignments of the classrooms a student is enrolled in.
+     *
+     * @param studentEmail The email of the searching student.
+     * @param terms The search terms.
+     * @param classroomId If not null, only this classroom is searched.
+     * @param page The zero-based page number, or null for the first page.
+     * @param size The number of results per page, or null for the default.
+     * @return The matching entries; with the text search backend, best match first.
+     * @throws SecurityException if the student is not enrolled in the given classroom.
+     */
+    public List<SearchEntry> search(String studentEmail, String terms, String classroomId, Integer page, Integer size) {
+        User student = getUserByEmail(studentEmail);
+
+        // Only the IDs of the student's classrooms are needed to scope the search.
+        Query enrolled = Query.query(Criteria.where("studentIds").is(student.getId()));
+        enrolled.fields().include("id");
+        List<String> classroomIds = classroomShards.forStudent(student.getId()).stream()
+                .flatMap(shard -> shard.find(enrolled, Classroom.class).stream())
+                .map(Classroom::getId)
+                .distinct()
+                .toList();
+
+        if (classroomId != null) {
+            if (!classroomIds.contains(classroomId)) {
+                throw new SecurityException("You are not enrolled in this classroom.");
+            }
+            classroomIds = List.of(classroomId);
+        }
+        return searchService.search(classroomIds, terms, page, size);
+    }
+
+    /**
+     * Returns the full text of a text material, wherever it is stored.
+     *
+     * @param classroomId The ID of the classroom containing the material.
+     * @param materialId The ID of the material.
+     * @return The material's text.
+     * @throws RuntimeException if the classroom or a text material with that ID is not found.
+     */
+    public String getMaterialText(String classroomId, String materialId) {
+        Optional<MaterialBody> stored = findMaterialBody(classroomId, materialId);
+        if (stored.isPresent()) {
+            return materialBodyStore.text(stored.get());
+        }
+
+        // Short texts, and those written before texts were stored separately, are inline.
+        Classroom classroom = load(classroomId)
+                .orElseThrow(() -> new RuntimeException("Classroom not found with ID: " + classroomId));
+        return classroom.getSections().stream()
+                .flatMap(section -> section.getMaterials().stream())
+                .filter(material -> material.getId().equals(materialId) && material.getTextContent() != null)
+                .findFirst()
+                .map(Material::getTextContent)
+                .orElseThrow(() -> new RuntimeException("Text material not found with ID: " + materialId));
     }
 
-}
\ No newline at end of file
+    /**
+     * Returns the stored file of a file material. Only the materials' IDs and file URLs are
+     * read from the classroom.
+     *
+     * @param classroomId The ID of the classroom containing the material.
+     * @param materialId The ID of the material.
+     * @return The URL of the material's file.
+     * @throws RuntimeException if the classroom or a file material with that ID is not found.
+     */
+    public String getMaterialFileUrl(String classroomId, String materialId) {
+        Query query = Query.query(Criteria.where("id").is(classroomId).and("sections.materials._id").is(materialId));
+        query.fields().include("sections.materials._id").include("sections.materials.fileUrl");
+        Classroom classroom = classroomShards.forClassroom(classroomId).findOne(query, Classroom.class);
+        if (classroom == null) {
+            throw new RuntimeException("Material not found with ID: " + materialId);
+        }
+        return classroom.getSections().stream()
+                .flatMap(section -> section.getMaterials().stream())
+                .filter(material -> material.getId().equals(materialId) && material.getFileUrl() != null)
+                .findFirst()
+                .map(Material::getFileUrl)
+                .orElseThrow(() -> new RuntimeException("File material not found with ID: " + materialId));
+    }
+
+    /**
+     * Returns the gzip-compressed text of a material if it is stored separately, so it can
+     * be sent to clients that accept gzip without being decompressed and compressed again.
+     *
+     * @param classroomId The ID of the classroom containing the material.
+     * @param materialId The ID of the material.
+     * @return The compressed UTF-8 text, or empty if the text is kept inline.
+     */
+    public Optional<byte[]> findCompressedMaterialText(String classroomId, String materialId) {
+        return findMaterialBody(classroomId, materialId).map(MaterialBody::getContent);
+    }
+
+    private Optional<MaterialBody> findMaterialBody(String classroomId, String materialId) {
+        return materialBodyStore.find(materialId)
+                .filter(body -> body.getClassroomId().equals(classroomId));
+    }
+}
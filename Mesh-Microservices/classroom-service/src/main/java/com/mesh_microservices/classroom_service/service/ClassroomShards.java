@@ -0,0 +1,288 @@
+package com.mesh_microservices.classroom_service.service;
+
+import com.mesh_microservices.classroom_service.model.Classroom;
+import com.mesh_microservices.classroom_service.model.ClassroomRoute;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Routes classroom reads and writes to the shard database that holds each classroom.
+ * <p>
+ * The primary database (the one configured with {@code spring.data.mongodb}) is always the
+ * shard named {@value #PRIMARY}; further shards are configured as
+ * {@code classroom.shards.uris.<name>=<connection string>}. New classrooms are placed by
+ * consistent hashing of their ID over all shards, and a {@link ClassroomRoute} in the
+ * primary database records where each one is. Every collection other than "classrooms"
+ * stays in the primary database.
+ * <p>
+ * With only the primary shard, routes are still written but never read, so a single
+ * database behaves exactly as before sharding. While a classroom is being moved between
+ * shards, lookups for it wait until the move completes, at most the move timeout.
+ */
+public class ClassroomShards {
+
+    /**
+     * The name of the shard held by the primary database.
+     */
+    public static final String PRIMARY = "primary";
+
+    private static final long MOVE_POLL_MILLIS = 20;
+
+    private final MongoTemplate home;
+    private final Map<String, MongoTemplate> shards = new LinkedHashMap<>();
+    private final ShardRing ring;
+    private final Duration moveTimeout;
+
+    /**
+     * Creates the router.
+     *
+     * @param home The template of the primary database, which is also the primary shard.
+     * @param additionalShards The templates of the other shards, by name.
+     * @param moveTimeout How long a lookup waits for a classroom that is being moved.
+     * @throws IllegalArgumentException if another shard is named {@value #PRIMARY}.
+     */
+    public ClassroomShards(MongoTemplate home, Map<String, MongoTemplate> additionalShards, Duration moveTimeout) {
+        if (additionalShards.containsKey(PRIMARY)) {
+            throw new IllegalArgumentException("The shard name '" + PRIMARY + "' is reserved for the primary database.");
+        }
+        this.home = home;
+        this.shards.put(PRIMARY, home);
+        this.shards.putAll(additionalShards);
+        this.ring = new ShardRing(shards.keySet());
+        this.moveTimeout = moveTimeout;
+    }
+
+    /**
+     * Returns the template of the primary database, which holds the routes and all
+     * collections other than "classrooms".
+     *
+     * @return The primary template.
+     */
+    public MongoTemplate home() {
+        return home;
+    }
+
+    /**
+     * Tells whether classrooms are spread over more than one database.
+     *
+     * @return True if shards other than the primary are configured.
+     */
+    public boolean isSharded() {
+        return shards.size() > 1;
+    }
+
+    /**
+     * Returns the shards by name, primary first.
+     *
+     * @return An unmodifiable view of the shard templates.
+     */
+    public Map<String, MongoTemplate> byName() {
+        return Collections.unmodifiableMap(shards);
+    }
+
+    /**
+     * Returns every shard, for queries that span all classrooms.
+     *
+     * @return The shard templates, primary first.
+     */
+    public Collection<MongoTemplate> all() {
+        return Collections.unmodifiableCollection(shards.values());
+    }
+
+    /**
+     * Returns the shard with the given name.
+     *
+     * @param name The name of the shard.
+     * @return Its template.
+     * @throws IllegalArgumentException if no such shard is configured.
+     */
+    public MongoTemplate shard(String name) {
+        MongoTemplate shard = shards.get(name);
+        if (shard == null) {
+            throw new IllegalArgumentException("Unknown shard: " + name);
+        }
+        return shard;
+    }
+
+    /**
+     * Returns the shard a classroom belongs on according to the hash ring.
+     *
+     * @param classroomId The ID of the classroom.
+     * @return The name of the shard.
+     */
+    public String ownerOf(String classroomId) {
+        return ring.ownerOf(classroomId);
+    }
+
+    /**
+     * Returns how long lookups wait for a classroom that is being moved.
+     *
+     * @return The move timeout.
+     */
+    public Duration getMoveTimeout() {
+        return moveTimeout;
+    }
+
+    /**
+     * Returns the shard that holds a classroom.
+     *
+     * @param classroomId The ID of the classroom.
+     * @return The template of its shard. For an unknown classroom, queries on it find nothing.
+     */
+    public MongoTemplate forClassroom(String classroomId) {
+        if (!isSharded()) {
+            return home;
+        }
+        long deadline = System.nanoTime() + moveTimeout.toNanos();
+        while (true) {
+            ClassroomRoute route = home.findById(classroomId, ClassroomRoute.class);
+            if (route == null) {
+                return shard(locateUnrouted(classroomId));
+            }
+            // After the timeout the move is presumed abandoned; the old shard still has the classroom.
+            if (route.getMovingTo() == null || System.nanoTime() > deadline) {
+                return shard(route.getShard());
+            }
+            try {
+                Thread.sleep(MOVE_POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return shard(route.getShard());
+            }
+        }
+    }
+
+    /**
+     * Returns the shard that holds the classroom with a join code.
+     *
+     * @param classroomCode The join code.
+     * @return The template of its shard. For an unknown code, queries on it find nothing.
+     */
+    public MongoTemplate forCode(String classroomCode) {
+        if (!isSharded()) {
+            return home;
+        }
+        ClassroomRoute route = home.findOne(Query.query(Criteria.where("classroomCode").is(classroomCode)), ClassroomRoute.class);
+        if (route != null) {
+            return forClassroom(route.getId());
+        }
+        Query byCode = Query.query(Criteria.where("classroomCode").is(classroomCode));
+        byCode.fields().include("id");
+        for (MongoTemplate shard : shards.values()) {
+            Classroom classroom = shard.findOne(byCode, Classroom.class);
+            if (classroom != null) {
+                // Records the route, so that later lookups by code or by student find it.
+                return forClassroom(classroom.getId());
+            }
+        }
+        return home;
+    }
+
+    /**
+     * Returns the shards that hold a student's classrooms, found through the routes.
+     *
+     * @param studentId The ID of the student.
+     * @return The templates of those shards; only the primary without sharding.
+     */
+    public Collection<MongoTemplate> forStudent(String studentId) {
+        if (!isSharded()) {
+            return List.of(home);
+        }
+        Query enrolled = Query.query(Criteria.where("studentIds").is(studentId));
+        enrolled.fields().include("shard");
+        Set<MongoTemplate> holding = new LinkedHashSet<>();
+        for (ClassroomRoute route : home.find(enrolled, ClassroomRoute.class)) {
+            holding.add(shard(route.getShard()));
+        }
+        return holding;
+    }
+
+    /**
+     * Records a new classroom before it is saved: places it on its shard and claims its join
+     * code, which is unique across all shards.
+     *
+     * @param classroom The classroom, with its ID and join code already set.
+     * @throws org.springframework.dao.DuplicateKeyException if the join code is taken.
+     */
+    public void register(Classroom classroom) {
+        register(classroom, isSharded() ? ownerOf(classroom.getId()) : PRIMARY);
+    }
+
+    /**
+     * Records an existing classroom that has no route yet.
+     *
+     * @param classroom The classroom.
+     * @param shard The name of the shard that holds it.
+     * @throws org.springframework.dao.DuplicateKeyException if it already has a route or its join code is taken.
+     */
+    void register(Classroom classroom, String shard) {
+        ClassroomRoute route = new ClassroomRoute();
+        route.setId(classroom.getId());
+        route.setShard(shard);
+        route.setClassroomCode(classroom.getClassroomCode());
+        route.setStudentIds(classroom.getStudentIds());
+        home.insert(route);
+    }
+
+    /**
+     * Records a student's enrolment in the routes.
+     *
+     * @param classroomId The ID of the classroom.
+     * @param studentId The ID of the student.
+     */
+    public void addStudent(String classroomId, String studentId) {
+        home.updateFirst(Query.query(Criteria.where("id").is(classroomId)),
+                new Update().addToSet("studentIds", studentId), ClassroomRoute.class);
+    }
+
+    /**
+     * Removes a student from the routes of all classrooms.
+     *
+     * @param studentIds The IDs of the removed students.
+     */
+    public void removeStudents(Collection<String> studentIds) {
+        home.updateMulti(Query.query(Criteria.where("studentIds").in(studentIds)),
+                new Update().pullAll("studentIds", studentIds.toArray()), ClassroomRoute.class);
+    }
+
+    /**
+     * Finds a classroom that has no route yet, because it was created before routing, and
+     * records where it is, with its join code and students like any other route. Falls back
+     * to the ring owner if no shard has it.
+     */
+    private String locateUnrouted(String classroomId) {
+        Query byId = Query.query(Criteria.where("id").is(classroomId));
+        byId.fields().include("classroomCode").include("studentIds");
+        for (Map.Entry<String, MongoTemplate> shard : shards.entrySet()) {
+            Classroom classroom = shard.getValue().findOne(byId, Classroom.class);
+            if (classroom != null) {
+                Update route = new Update().setOnInsert("shard", shard.getKey())
+                        .setOnInsert("studentIds", classroom.getStudentIds());
+                // The code index is sparse, so a classroom without a code must not store a null one.
+                if (classroom.getClassroomCode() != null) {
+                    route.setOnInsert("classroomCode", classroom.getClassroomCode());
+                }
+                try {
+                    home.upsert(Query.query(Criteria.where("id").is(classroomId)), route, ClassroomRoute.class);
+                } catch (DuplicateKeyException e) {
+                    // Another lookup recorded the route first, or the code is claimed by another
+                    // route; the rebalancer's backfill reports the latter.
+                }
+                return shard.getKey();
+            }
+        }
+        return ownerOf(classroomId);
+    }
+}
@@ -0,0 +1,33 @@
+package com.mesh_microservices.classroom_service.service;
+
+import com.mesh_microservices.classroom_service.model.Assignment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Delivers due-date reminders to students.
+ * <p>
+ * Reminders are handed over one assignment at a time with all recipients in a single
+ * batch, so a delivery channel can send them with one call. The service has no mail or
+ * push integration yet, so reminders are currently written to the log.
+ */
+@Service
+public class DeadlineNotifier {
+
+    private static final Logger log = LoggerFactory.getLogger(DeadlineNotifier.class);
+
+    /**
+     * Reminds students that an assignment is due soon.
+     *
+     * @param classroomId The ID of the classroom containing the assignment.
+     * @param assignment The assignment that is due.
+     * @param studentIds The IDs of the students who have not submitted yet.
+     */
+    public void remind(String classroomId, Assignment assignment, List<String> studentIds) {
+        log.info("Reminding {} students in classroom {} that '{}' is due at {}",
+                studentIds.size(), classroomId, assignment.getTitle(), assignment.getDueDate());
+    }
+}
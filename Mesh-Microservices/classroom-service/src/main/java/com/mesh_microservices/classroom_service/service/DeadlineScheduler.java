@@ -0,0 +1,227 @@
+package com.mesh_microservices.classroom_service.service;
+
+import com.mesh_microservices.classroom_service.model.Assignment;
+import com.mesh_microservices.classroom_service.model.AssignmentDeadline;
+import com.mesh_microservices.classroom_service.model.Classroom;
+import com.mesh_microservices.classroom_service.model.Submission;
+import com.mesh_microservices.classroom_service.repository.AssignmentDeadlineRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Fires due-date reminders and late checks for assignments.
+ * <p>
+ * Every assignment with a due date has an {@link AssignmentDeadline} entry indexed on the
+ * time of its next event. Each poll reads only the entries whose time has arrived, in
+ * batches, so the cost of a poll depends on the number of due events rather than on the
+ * number of classrooms.
+ * <p>
+ * Entries are claimed with an atomic find-and-modify, so several service instances can
+ * poll the same collection and each event is handled by exactly one of them. A reminder
+ * is claimed by advancing the entry to its next stage before it is sent, so it is never
+ * sent twice, even across restarts. The late check is idempotent and is claimed with a
+ * lease instead: if an instance dies while running it, another instance runs it again
+ * once the lease expires.
+ */
+@Service
+public class DeadlineScheduler {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ClassroomShards classroomShards;
+
+    @Autowired
+    private AssignmentDeadlineRepository deadlineRepository;
+
+    @Autowired
+    private DeadlineNotifier deadlineNotifier;
+
+    // How long before the due date students are reminded.
+    @Value("${classroom.deadlines.reminder-lead:PT24H}")
+    private Duration reminderLead;
+
+    // How long a claimed late check may run before another instance may retry it.
+    @Value("${classroom.deadlines.lease:PT5M}")
+    private Duration lease;
+
+    // The maximum number of entries handled per poll.
+    @Value("${classroom.deadlines.batch-size:100}")
+    private int batchSize;
+
+    /**
+     * Creates or replaces the deadline entry for an assignment. Assignments without a
+     * due date have no entry.
+     *
+     * @param classroomId The ID of the classroom containing the assignment.
+     * @param assignment The assignment to schedule.
+     */
+    public void schedule(String classroomId, Assignment assignment) {
+        if (assignment.getDueDate() == null) {
+            deadlineRepository.deleteById(assignment.getId());
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime dueDate = assignment.getDueDate();
+
+        AssignmentDeadline deadline = new AssignmentDeadline();
+        deadline.setId(assignment.getId());
+        deadline.setClassroomId(classroomId);
+        deadline.setDueDate(dueDate);
+        if (now.isBefore(dueDate)) {
+            // Remind at the lead time, or right away if the assignment is posted closer to its due date.
+            LocalDateTime reminderAt = dueDate.minus(reminderLead);
+            deadline.setStage(AssignmentDeadline.Stage.REMINDER);
+            deadline.setNextFireAt(reminderAt.isAfter(now) ? reminderAt : now);
+        } else {
+            deadline.setStage(AssignmentDeadline.Stage.DUE);
+            deadline.setNextFireAt(dueDate);
+        }
+        deadlineRepository.save(deadline);
+    }
+
+    /**
+     * Handles the entries whose time has arrived, up to the batch size per stage.
+     */
+    @Scheduled(fixedDelayString = "${classroom.deadlines.poll-interval:PT30S}")
+    public void poll() {
+        for (int i = 0; i < batchSize; i++) {
+            AssignmentDeadline reminder = claimReminder();
+            if (reminder == null) {
+                break;
+            }
+            sendReminder(reminder);
+        }
+        for (int i = 0; i < batchSize; i++) {
+            AssignmentDeadline due = claimDue();
+            if (due == null) {
+                break;
+            }
+            markLateSubmissions(due);
+        }
+    }
+
+    /**
+     * Atomically moves the earliest due reminder entry to the DUE stage.
+     *
+     * @return The entry as it was before the move, or null if no reminder is due.
+     */
+    private AssignmentDeadline claimReminder() {
+        LocalDateTime now = LocalDateTime.now();
+        Query query = Query.query(Criteria.where("stage").is(AssignmentDeadline.Stage.REMINDER)
+                        .and("nextFireAt").lte(now))
+                .with(Sort.by("nextFireAt"));
+        // The late check fires no earlier than this; markLateSubmissions postpones it to the due date.
+        Update update = new Update()
+                .set("stage", AssignmentDeadline.Stage.DUE)
+                .set("nextFireAt", now);
+        return mongoTemplate.findAndModify(query, update, AssignmentDeadline.class);
+    }
+
+    /**
+     * Atomically leases the earliest due late-check entry.
+     *
+     * @return The leased entry, or null if no late check is due.
+     */
+    private AssignmentDeadline claimDue() {
+        LocalDateTime now = LocalDateTime.now();
+        Query query = Query.query(Criteria.where("stage").is(AssignmentDeadline.Stage.DUE)
+                        .and("nextFireAt").lte(now))
+                .with(Sort.by("nextFireAt"));
+        Update update = new Update().set("nextFireAt", now.plus(lease));
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), AssignmentDeadline.class);
+    }
+
+    /**
+     * Reminds every enrolled student who has not submitted the assignment yet.
+     */
+    private void sendReminder(AssignmentDeadline deadline) {
+        Classroom classroom = findWithAssignment(deadline);
+        if (classroom == null || classroom.getAssignments().isEmpty()) {
+            deadlineRepository.deleteById(deadline.getId());
+            return;
+        }
+        Assignment assignment = classroom.getAssignments().get(0);
+
+        Set<String> submitted = new HashSet<>();
+        for (Submission submission : assignment.getSubmissions()) {
+            submitted.add(submission.getStudentId());
+        }
+        List<String> pending = classroom.getStudentIds().stream()
+                .filter(studentId -> !submitted.contains(studentId))
+                .toList();
+        if (!pending.isEmpty()) {
+            deadlineNotifier.remind(deadline.getClassroomId(), assignment, pending);
+        }
+    }
+
+    /**
+     * Flags every submission made after the due date as late, then removes the entry.
+     * <p>
+     * Submissions are flagged when they are made; this pass catches those that raced the
+     * deadline, and counts them in the analytics counters. If the entry was leased before
+     * its due date (after a reminder), it is postponed to the due date instead.
+     */
+    private void markLateSubmissions(AssignmentDeadline deadline) {
+        if (deadline.getDueDate().isAfter(LocalDateTime.now())) {
+            mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(deadline.getId())),
+                    Update.update("nextFireAt", deadline.getDueDate()), AssignmentDeadline.class);
+            return;
+        }
+
+        Classroom classroom = findWithAssignment(deadline);
+        if (classroom != null && !classroom.getAssignments().isEmpty()) {
+            for (Submission submission : classroom.getAssignments().get(0).getSubmissions()) {
+                if (!submission.isLate() && submission.getSubmittedAt().isAfter(deadline.getDueDate())) {
+                    markLate(deadline, submission);
+                }
+            }
+        }
+
+        mongoTemplate.remove(Query.query(Criteria.where("id").is(deadline.getId())
+                .and("stage").is(AssignmentDeadline.Stage.DUE)), AssignmentDeadline.class);
+    }
+
+    /**
+     * Flags one submission as late and counts it in the analytics counters, in one update.
+     * The update only applies while the submission is still unflagged, so a retried late
+     * check never counts a submission twice.
+     */
+    private void markLate(AssignmentDeadline deadline, Submission submission) {
+        Query query = Query.query(Criteria.where("id").is(deadline.getClassroomId())
+                .and("assignments").elemMatch(Criteria.where("_id").is(deadline.getId())
+                        .and("submissions").elemMatch(Criteria.where("_id").is(submission.getId())
+                                .and("late").ne(true))));
+        // Raw field names are used inside the array filters, where embedded IDs are stored as _id.
+        Update update = Update.update("assignments.$[a].submissions.$[s].late", true)
+                .inc("assignments.$[a].stats.late", 1)
+                .inc("stats.late", 1)
+                .filterArray(Criteria.where("a._id").is(deadline.getId()))
+                .filterArray(Criteria.where("s._id").is(submission.getId()));
+        classroomShards.forClassroom(deadline.getClassroomId()).updateFirst(query, update, Classroom.class);
+    }
+
+    /**
+     * Loads only the enrolled students and the deadline's assignment from its classroom.
+     */
+    private Classroom findWithAssignment(AssignmentDeadline deadline) {
+        Query query = Query.query(Criteria.where("id").is(deadline.getClassroomId()));
+        query.fields().include("studentIds").elemMatch("assignments", Criteria.where("_id").is(deadline.getId()));
+        return classroomShards.forClassroom(deadline.getClassroomId()).findOne(query, Classroom.class);
+    }
+}
@@ -0,0 +1,236 @@
+package com.mesh_microservices.classroom_service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mesh_microservices.classroom_service.model.Assignment;
+import com.mesh_microservices.classroom_service.model.Classroom;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Streams students x assignments gradebooks straight from a MongoDB cursor to the response.
+ * <p>
+ * An aggregation turns each classroom into one row per enrolled student, holding the
+ * student's grade for every assignment in assignment order. Rows are read from the cursor
+ * and written to the output one at a time, so memory use stays flat however large the
+ * classrooms are. The classrooms themselves are read from a cursor too, with only their
+ * names and assignment titles, and each one's rows are aggregated just after its header is
+ * read, so at most one classroom's header is held at a time. Classrooms on several shards
+ * are exported one shard after another.
+ * <p>
+ * Each cell holds the grade, {@code ungraded} for a submission without a grade, or
+ * {@code missing} if the student has not submitted. Callers are expected to have checked
+ * that the requesting faculty member owns the exported classrooms.
+ */
+@Service
+public class GradebookExporter {
+
+    /**
+     * The supported output formats.
+     */
+    public enum Format {
+        CSV, NDJSON;
+
+        /**
+         * Maps the name of a format, as given in a request, to the format.
+         *
+         * @param name The format name, {@code csv} or {@code ndjson} in any case.
+         * @return The named format.
+         * @throws UnsupportedFormatException if no format has that name.
+         */
+        public static Format of(String name) {
+            return switch (name.toLowerCase(Locale.ROOT)) {
+                case "csv" -> CSV;
+                case "ndjson" -> NDJSON;
+                default -> throw new UnsupportedFormatException(name);
+            };
+        }
+    }
+
+    /**
+     * Thrown when a gradebook is requested in a format that is not supported.
+     */
+    public static class UnsupportedFormatException extends RuntimeException {
+        public UnsupportedFormatException(String name) {
+            super("Unsupported gradebook format: " + name + ". Use csv or ndjson.");
+        }
+    }
+
+    private static final String MISSING = "missing";
+    private static final String UNGRADED = "ungraded";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Creates a response body that writes the gradebook of every classroom matching the criteria.
+     * <p>
+     * In CSV, each classroom is written as its own table with a header row, separated from
+     * the next by a blank line. In NDJSON, each line is one student in one classroom.
+     *
+     * @param shards The shards holding the classrooms to export.
+     * @param classrooms The criteria selecting the classrooms to export.
+     * @param format The output format.
+     * @return A body that runs the export when the response is written.
+     */
+    public StreamingResponseBody export(Collection<MongoTemplate> shards, Criteria classrooms, Format format) {
+        return out -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            String[] currentClassroom = {null};
+            for (MongoTemplate shard : shards) {
+                exportClassrooms(shard, classrooms, format, writer, currentClassroom);
+            }
+            writer.flush();
+        };
+    }
+
+    /**
+     * Writes the matching classrooms on one shard, reading the header of each one just before its rows.
+     */
+    private void exportClassrooms(MongoTemplate shard, Criteria classrooms, Format format, Writer writer,
+                                  String[] currentClassroom) throws IOException {
+        Query query = Query.query(classrooms);
+        query.fields().include("classroomName").include("assignments._id")
+                .include("assignments.title").include("assignments.points");
+        try (Stream<Classroom> headers = shard.stream(query, Classroom.class)) {
+            for (Classroom classroom : (Iterable<Classroom>) headers::iterator) {
+                exportRows(shard, classroom, format, writer, currentClassroom);
+            }
+        }
+    }
+
+    /**
+     * Writes the rows of one classroom, or nothing if it has no students.
+     */
+    private void exportRows(MongoTemplate shard, Classroom classroom, Format format, Writer writer,
+                            String[] currentClassroom) throws IOException {
+        try (Stream<Document> rows = shard.aggregateStream(gradebookRows(classroom.getId()), Document.class)) {
+            for (Document row : (Iterable<Document>) rows::iterator) {
+                if (format == Format.CSV) {
+                    if (!classroom.getId().equals(currentClassroom[0])) {
+                        if (currentClassroom[0] != null) {
+                            writer.write("\r\n");
+                        }
+                        writeCsvHeader(writer, classroom);
+                        currentClassroom[0] = classroom.getId();
+                    }
+                    writeCsvRow(writer, classroom, row);
+                } else {
+                    writeJsonRow(writer, classroom, row);
+                }
+            }
+        }
+    }
+
+    /**
+     * Builds the aggregation that emits one document per enrolled student of a classroom,
+     * with {@code classroomId}, {@code studentId}, {@code studentName} and a {@code grades}
+     * array aligned with the classroom's assignments.
+     */
+    private TypedAggregation<Classroom> gradebookRows(String classroomId) {
+        // Reduce each submission to the student ID, name and grade before fanning out per student.
+        Document slim = Document.parse("""
+                {$project: {studentIds: 1, assignments: {$map: {input: "$assignments", as: "a", in: {
+                    $map: {input: "$$a.submissions", as: "s", in: {k: "$$s.studentId", n: "$$s.studentName", v: "$$s.grade"}}
+                }}}}}""");
+        // For each student, keep only their own submission (if any) of every assignment.
+        Document hits = Document.parse("""
+                {$project: {_id: 0, classroomId: "$_id", studentId: "$studentIds", hits: {$map: {input: "$assignments", as: "subs", in: {
+                    $filter: {input: "$$subs", as: "s", cond: {$eq: ["$$s.k", "$studentIds"]}}
+                }}}}}""");
+        Document cells = Document.parse("""
+                {$project: {classroomId: 1, studentId: 1,
+                    studentName: {$first: {$reduce: {input: "$hits", initialValue: [], in: {$concatArrays: ["$$value", "$$this.n"]}}}},
+                    grades: {$map: {input: "$hits", as: "h", in: {$cond: [{$eq: [{$size: "$$h"}, 0]}, "%s", {$ifNull: [{$first: "$$h.v"}, "%s"]}]}}}
+                }}""".formatted(MISSING, UNGRADED));
+
+        return Aggregation.newAggregation(Classroom.class,
+                Aggregation.match(Criteria.where("id").is(classroomId)),
+                Aggregation.stage(slim),
+                Aggregation.stage(new Document("$unwind", "$studentIds")),
+                Aggregation.stage(hits),
+                Aggregation.stage(cells));
+    }
+
+    private void writeCsvHeader(Writer writer, Classroom classroom) throws IOException {
+        writer.write("classroomId,classroomName,studentId,studentName");
+        for (Assignment assignment : classroom.getAssignments()) {
+            writer.write(',');
+            writer.write(csv(assignment.getTitle() + " (" + assignment.getPoints() + ")"));
+        }
+        writer.write("\r\n");
+    }
+
+    private void writeCsvRow(Writer writer, Classroom classroom, Document row) throws IOException {
+        writer.write(csv(classroom.getId()));
+        writer.write(',');
+        writer.write(csv(classroom.getClassroomName()));
+        writer.write(',');
+        writer.write(csv(row.getString("studentId")));
+        writer.write(',');
+        writer.write(csv(row.getString("studentName")));
+        List<?> grades = row.getList("grades", Object.class);
+        for (int i = 0; i < classroom.getAssignments().size(); i++) {
+            writer.write(',');
+            writer.write(csv(String.valueOf(i < grades.size() ? grades.get(i) : MISSING)));
+        }
+        writer.write("\r\n");
+    }
+
+    private void writeJsonRow(Writer writer, Classroom classroom, Document row) throws IOException {
+        List<?> cells = row.getList("grades", Object.class);
+        List<Map<String, Object>> grades = new ArrayList<>(classroom.getAssignments().size());
+        for (int i = 0; i < classroom.getAssignments().size(); i++) {
+            Assignment assignment = classroom.getAssignments().get(i);
+            Object cell = i < cells.size() ? cells.get(i) : MISSING;
+            Map<String, Object> grade = new LinkedHashMap<>();
+            grade.put("assignmentId", assignment.getId());
+            grade.put("title", assignment.getTitle());
+            grade.put("points", assignment.getPoints());
+            grade.put("grade", cell instanceof Number ? cell : null);
+            grade.put("status", cell instanceof Number ? "graded" : cell);
+            grades.add(grade);
+        }
+
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("classroomId", classroom.getId());
+        line.put("classroomName", classroom.getClassroomName());
+        line.put("studentId", row.getString("studentId"));
+        line.put("studentName", row.getString("studentName"));
+        line.put("grades", grades);
+        writer.write(objectMapper.writeValueAsString(line));
+        writer.write('\n');
+    }
+
+    /**
+     * Quotes a CSV field if it contains a separator, quote or line break.
+     */
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,274 @@
+package com.mesh_microservices.classroom_service.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mesh_microservices.classroom_service.model.IdempotencyRecord;
+import com.mongodb.client.result.UpdateResult;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.multipart.MultipartHttpServletRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Makes retried requests safe by running each {@code Idempotency-Key} only once.
+ * <p>
+ * The first request with a key inserts an {@link IdempotencyRecord} and does the work;
+ * its response is then stored with the record for a limited time. A repeated request with
+ * the same key gets the stored response without uploading or saving anything again. A
+ * duplicate that arrives while the first request is still running waits for it to finish.
+ * <p>
+ * Keys are scoped to the user, so two clients cannot collide. Each record also stores a
+ * fingerprint of its request (method, path, parameters and uploaded files); a key reused
+ * for a different request is rejected rather than answered with an unrelated response.
+ * If the first request fails, its record is removed and the client may retry with the same
+ * key. If its instance dies, the record's lock runs out and a duplicate takes over. Every
+ * claim carries a fresh owner token, and a request only completes or removes the record
+ * while it still owns it, so a request that outlives its lock cannot overwrite or delete
+ * the record of the request that took over. Expired records are purged on a schedule
+ * rather than by a TTL index, which not every store supports on ordinary fields.
+ */
+@Service
+public class IdempotencyService {
+
+    /**
+     * Signals that an {@code Idempotency-Key} was reused for a different request.
+     */
+    public static class KeyReusedException extends RuntimeException {
+        public KeyReusedException() {
+            super("This Idempotency-Key was already used for a different request.");
+        }
+    }
+
+    /**
+     * An operation run at most once per key.
+     *
+     * @param <T> The type of the response.
+     */
+    @FunctionalInterface
+    public interface Action<T> {
+        T run() throws IOException;
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // How long a completed response is kept for repeated requests.
+    @Value("${classroom.idempotency.ttl:PT24H}")
+    private Duration ttl;
+
+    // How long the first request holds its key before a duplicate may take over.
+    @Value("${classroom.idempotency.lock:PT2M}")
+    private Duration lock;
+
+    // How long a duplicate waits for the first request before giving up.
+    @Value("${classroom.idempotency.wait:PT30S}")
+    private Duration wait;
+
+    /**
+     * Runs an action once per key and returns its response, or the stored response of
+     * an earlier request with the same key.
+     *
+     * @param key The client's {@code Idempotency-Key}, or null to simply run the action.
+     * @param userEmail The email of the requesting user.
+     * @param request The request, whose fingerprint a repeated request must match.
+     * @param responseType The type of the response, used to read back a stored response.
+     * @param action The work to do.
+     * @param <T> The type of the response.
+     * @return The response of the first request with this key.
+     * @throws IOException if the action fails with an I/O error.
+     * @throws KeyReusedException if the key was used for a different request.
+     * @throws IllegalStateException if a concurrent request with the same key does not finish in time.
+     */
+    public <T> T execute(String key, String userEmail, HttpServletRequest request, Class<T> responseType,
+                         Action<T> action) throws IOException {
+        if (key == null || key.isBlank()) {
+            return action.run();
+        }
+        String id = recordId(userEmail, key);
+        String fingerprint = fingerprint(request);
+        String owner = UUID.randomUUID().toString();
+
+        long deadline = System.nanoTime() + wait.toNanos();
+        long pauseMillis = 25;
+        while (!claim(id, fingerprint, owner)) {
+            IdempotencyRecord record = mongoTemplate.findById(id, IdempotencyRecord.class);
+            if (record != null && record.getExpiresAt().isAfter(LocalDateTime.now())) {
+                // Records stored before fingerprints were recorded match any request.
+                if (record.getFingerprint() != null && !record.getFingerprint().equals(fingerprint)) {
+                    throw new KeyReusedException();
+                }
+                if (record.getStatus() == IdempotencyRecord.Status.COMPLETED) {
+                    return objectMapper.readValue(record.getResponse(), responseType);
+                }
+            }
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("A request with this Idempotency-Key is still in progress.");
+            }
+            try {
+                Thread.sleep(pauseMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for a request with the same Idempotency-Key.", e);
+            }
+            pauseMillis = Math.min(pauseMillis * 2, 500);
+        }
+
+        Query owned = Query.query(Criteria.where("id").is(id).and("owner").is(owner));
+        T response;
+        try {
+            response = action.run();
+        } catch (IOException | RuntimeException e) {
+            // Let the client retry a failed request with the same key.
+            mongoTemplate.remove(owned, IdempotencyRecord.class);
+            throw e;
+        }
+        UpdateResult completed = mongoTemplate.updateFirst(owned,
+                new Update().set("status", IdempotencyRecord.Status.COMPLETED)
+                        .set("response", toJson(response))
+                        .set("expiresAt", LocalDateTime.now().plus(ttl)),
+                IdempotencyRecord.class);
+        if (completed.getMatchedCount() == 0) {
+            log.warn("A request with Idempotency-Key record {} finished after its lock ran out and another request took over", id);
+        }
+        return response;
+    }
+
+    /**
+     * Removes the records whose expiry time has passed.
+     */
+    @Scheduled(fixedDelayString = "${classroom.idempotency.purge-interval:PT1H}")
+    public void purgeExpired() {
+        mongoTemplate.remove(Query.query(Criteria.where("expiresAt").lt(LocalDateTime.now())), IdempotencyRecord.class);
+    }
+
+    /**
+     * Takes the key for this request: by inserting its record, or by taking over a record
+     * whose first request, for the same request, has stopped holding it, or that has expired
+     * but not yet been purged.
+     *
+     * @return True if this request should do the work.
+     */
+    private boolean claim(String id, String fingerprint, String owner) {
+        LocalDateTime now = LocalDateTime.now();
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setId(id);
+        record.setFingerprint(fingerprint);
+        record.setOwner(owner);
+        record.setStatus(IdempotencyRecord.Status.IN_PROGRESS);
+        record.setLockedUntil(now.plus(lock));
+        record.setExpiresAt(now.plus(ttl));
+        try {
+            mongoTemplate.insert(record);
+            return true;
+        } catch (DuplicateKeyException e) {
+            Query abandoned = Query.query(Criteria.where("id").is(id).orOperator(
+                    Criteria.where("status").is(IdempotencyRecord.Status.IN_PROGRESS).and("lockedUntil").lt(now)
+                            .and("fingerprint").in(fingerprint, null),
+                    Criteria.where("expiresAt").lt(now)));
+            Update takeOver = new Update()
+                    .set("fingerprint", fingerprint)
+                    .set("owner", owner)
+                    .set("status", IdempotencyRecord.Status.IN_PROGRESS)
+                    .set("lockedUntil", now.plus(lock))
+                    .set("expiresAt", now.plus(ttl))
+                    .unset("response");
+            return mongoTemplate.findAndModify(abandoned, takeOver,
+                    FindAndModifyOptions.options().returnNew(true), IdempotencyRecord.class) != null;
+        }
+    }
+
+    private String toJson(Object response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot store the response for an Idempotency-Key", e);
+        }
+    }
+
+    /**
+     * Hashes the user and key into a fixed-length record ID.
+     */
+    private static String recordId(String userEmail, String key) {
+        MessageDigest digest = sha256();
+        update(digest, userEmail);
+        update(digest, key);
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Hashes what identifies a request: its method, path, parameters (including the text
+     * parts of a multipart request) and the names and contents of uploaded files.
+     */
+    private static String fingerprint(HttpServletRequest request) throws IOException {
+        MessageDigest digest = sha256();
+        update(digest, request.getMethod());
+        update(digest, request.getRequestURI());
+        for (Map.Entry<String, String[]> parameter : new TreeMap<>(request.getParameterMap()).entrySet()) {
+            update(digest, parameter.getKey());
+            for (String value : parameter.getValue()) {
+                update(digest, value);
+            }
+        }
+        if (request instanceof MultipartHttpServletRequest multipart) {
+            for (Map.Entry<String, List<MultipartFile>> part : new TreeMap<>(multipart.getMultiFileMap()).entrySet()) {
+                update(digest, part.getKey());
+                for (MultipartFile file : part.getValue()) {
+                    update(digest, file.getOriginalFilename());
+                    update(digest, Long.toString(file.getSize()));
+                    try (InputStream in = file.getInputStream();
+                         OutputStream out = new DigestOutputStream(OutputStream.nullOutputStream(), digest)) {
+                        in.transferTo(out);
+                    }
+                }
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Adds a value to a hash, terminated so that adjacent values cannot run together.
+     */
+    private static void update(MessageDigest digest, String value) {
+        digest.update((value == null ? "" : value).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package com.mesh_microservices.classroom_service.service;
+
+import com.drew.imaging.ImageMetadataReader;
+import com.drew.imaging.ImageProcessingException;
+import com.drew.metadata.MetadataException;
+import com.drew.metadata.exif.ExifIFD0Directory;
+import com.mesh_microservices.classroom_service.model.Classroom;
+import com.mesh_microservices.classroom_service.model.Material;
+import com.mesh_microservices.classroom_service.model.Submission;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generates small JPEG renditions of uploaded images, so lists and viewers do not download
+ * multi-megabyte phone photos.
+ * <p>
+ * Each image material or submission gets a thumbnail for lists and a screen-sized preview
+ * for viewing, stored next to the original and referenced from the material or submission.
+ * Images are processed on a fixed pool of worker threads with a bounded queue. The original
+ * is read through the {@link BlobCache} and decoded with subsampling, so a 12-megapixel
+ * photo is never held in memory at full size. The EXIF orientation is applied, because
+ * phone cameras store pictures sideways and rely on viewers to turn them.
+ * <p>
+ * Each job is timed under {@code classroom.image-renditions}, tagged with its result
+ * ({@code rendered} or {@code failed}). Jobs dropped because the queue was full are counted
+ * as {@code classroom.image-renditions.rejected}; those items keep showing the original.
+ */
+@Service
+public class ImageRenditionService implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageRenditionService.class);
+    private static final String JPEG = "image/jpeg";
+
+    @Autowired
+    private ClassroomShards classroomShards;
+
+    @Autowired
+    private BlobStorageService blobStorageService;
+
+    @Autowired
+    private BlobCache blobCache;
+
+    // The longest side of thumbnails, in pixels.
+    @Value("${classroom.renditions.thumbnail-size:320}")
+    private int thumbnailSize;
+
+    // The longest side of previews, in pixels.
+    @Value("${classroom.renditions.preview-size:1600}")
+    private int previewSize;
+
+    // The JPEG quality of both renditions, from 0 to 1.
+    @Value("${classroom.renditions.quality:0.8}")
+    private float quality;
+
+    // Larger images are not decoded at all, to protect the heap from decompression bombs.
+    @Value("${classroom.renditions.max-pixels:100000000}")
+    private long maxPixels;
+
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolExecutor workers;
+    private final Counter rejected;
+
+    public ImageRenditionService(@Value("${classroom.renditions.threads:2}") int threads,
+                                 @Value("${classroom.renditions.queue-capacity:1000}") int queueCapacity,
+                                 MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.workers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "image-renditions");
+                    thread.setDaemon(true);
+                    // Image processing is background work; request threads come first.
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        Gauge.builder("classroom.image-renditions.queue", workers, executor -> executor.getQueue().size())
+                .description("Uploaded images waiting for renditions")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("classroom.image-renditions.rejected")
+                .description("Image rendition jobs dropped because the queue was full")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues renditions of a material's file, if it is an image.
+     *
+     * @param classroomId The ID of the classroom containing the material.
+     * @param sectionId The ID of the section containing the material.
+     * @param material The saved material.
+     */
+    public void renderLater(String classroomId, String sectionId, Material material) {
+        if (material.getFileUrl() == null) {
+            return;
+        }
+        renderLater(classroomId, material.getFileUrl(), "sections.$[s].materials.$[m]", new Update()
+                .filterArray(Criteria.where("s._id").is(sectionId))
+                .filterArray(Criteria.where("m._id").is(material.getId())));
+    }
+
+    /**
+     * Queues renditions of a submitted file, if it is an image. If the student resubmits
+     * before the job runs, the renditions are not recorded.
+     *
+     * @param classroomId The ID of the classroom.
+     * @param assignmentId The ID of the assignment.
+     * @param submission The saved submission.
+     */
+    public void renderLater(String classroomId, String assignmentId, Submission submission) {
+        if (submission.getSubmittedFileUrl() == null) {
+            return;
+        }
+        renderLater(classroomId, submission.getSubmittedFileUrl(), "assignments.$[a].submissions.$[sub]", new Update()
+                .filterArray(Criteria.where("a._id").is(assignmentId))
+                .filterArray(Criteria.where("sub._id").is(submission.getId())));
+    }
+
+    /**
+     * Queues a job that stores the renditions and sets their URLs on the element at
+     * {@code path}, located by the array filters of {@code target}.
+     */
+    private void renderLater(String classroomId, String fileUrl, String path, Update target) {
+        String blobName = blobStorageService.blobNameOf(fileUrl);
+        if (!isImage(blobName)) {
+            return;
+        }
+        try {
+            workers.execute(() -> {
+                Timer.Sample sample = Timer.start(meterRegistry);
+                String result = "rendered";
+                try {
+                    render(classroomId, blobName, path, target);
+                } catch (Exception e) {
+                    result = "failed";
+                    log.warn("Could not create renditions of {}", blobName, e);
+                }
+                sample.stop(Timer.builder("classroom.image-renditions")
+                        .description("Generation of image renditions")
+                        .tag("result", result)
+                        .register(meterRegistry));
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            log.warn("Image rendition queue is full; {} is served without renditions", blobName);
+        }
+    }
+
+    private void render(String classroomId, String blobName, String path, Update target) throws IOException {
+        BufferedImage decoded;
+        try (BlobCache.Hold hold = blobCache.hold(blobName)) {
+            Path file = hold.blob().file();
+            decoded = orient(decode(file), orientation(file));
+        }
+
+        BufferedImage preview = scale(decoded, previewSize);
+        BufferedImage thumbnail = scale(preview, thumbnailSize);
+        String base = blobName.substring(0, blobName.lastIndexOf('.'));
+        String previewUrl = blobStorageService.uploadBlob(base + ".preview.jpg", jpeg(preview), JPEG);
+        String thumbnailUrl = blobStorageService.uploadBlob(base + ".thumb.jpg", jpeg(thumbnail), JPEG);
+
+        classroomShards.forClassroom(classroomId).updateFirst(Query.query(Criteria.where("id").is(classroomId)),
+                target.set(path + ".previewUrl", previewUrl).set(path + ".thumbnailUrl", thumbnailUrl),
+                Classroom.class);
+    }
+
+    /**
+     * Checks whether ImageIO can read a file, judging by its extension.
+     */
+    private static boolean isImage(String blobName) {
+        int dot = blobName.lastIndexOf('.');
+        return dot > 0 && ImageIO.getImageReadersBySuffix(blobName.substring(dot + 1).toLowerCase(Locale.ROOT)).hasNext();
+    }
+
+    /**
+     * Decodes an image, skipping pixels while reading so the result is no smaller than the
+     * preview but not much larger either.
+     */
+    private BufferedImage decode(Path file) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                throw new IOException("Unsupported image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    throw new IOException("Image too large: " + width + "x" + height);
+                }
+                int subsampling = Math.max(1, Math.max(width, height) / previewSize);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Reads the EXIF orientation of a photo, or 1 (upright) if there is none.
+     */
+    private static int orientation(Path file) {
+        try {
+            ExifIFD0Directory exif = ImageMetadataReader.readMetadata(file.toFile())
+                    .getFirstDirectoryOfType(ExifIFD0Directory.class);
+            if (exif != null && exif.containsTag(ExifIFD0Directory.TAG_ORIENTATION)) {
+                return exif.getInt(ExifIFD0Directory.TAG_ORIENTATION);
+            }
+        } catch (ImageProcessingException | MetadataException | IOException e) {
+            // No usable metadata; the image is shown as stored.
+        }
+        return 1;
+    }
+
+    /**
+     * Turns an image upright. Only the rotations cameras produce are handled; the mirrored
+     * orientations are left as stored.
+     */
+    private static BufferedImage orient(BufferedImage image, int orientation) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        AffineTransform transform = new AffineTransform();
+        switch (orientation) {
+            case 3 -> {
+                transform.translate(width, height);
+                transform.rotate(Math.PI);
+            }
+            case 6 -> {
+                transform.translate(height, 0);
+                transform.rotate(Math.PI / 2);
+            }
+            case 8 -> {
+                transform.translate(0, width);
+                transform.rotate(-Math.PI / 2);
+            }
+            default -> {
+                return image;
+            }
+        }
+        boolean quarterTurn = orientation != 3;
+        BufferedImage turned = new BufferedImage(quarterTurn ? height : width, quarterTurn ? width : height,
+                BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = turned.createGraphics();
+        try {
+            graphics.drawImage(image, transform, null);
+        } finally {
+            graphics.dispose();
+        }
+        return turned;
+    }
+
+    /**
+     * Scales an image down so its longer side is at most {@code maxSize}, halving step by
+     * step to keep detail, on a white background so transparent images encode as JPEG.
+     */
+    private static BufferedImage scale(BufferedImage image, int maxSize) {
+        BufferedImage current = image;
+        int longest = Math.max(image.getWidth(), image.getHeight());
+        double factor = Math.min(1.0, (double) maxSize / longest);
+        int targetWidth = Math.max(1, (int) Math.round(image.getWidth() * factor));
+        int targetHeight = Math.max(1, (int) Math.round(image.getHeight() * factor));
+        do {
+            int width = Math.max(targetWidth, current.getWidth() / 2);
+            int height = Math.max(targetHeight, current.getHeight() / 2);
+            BufferedImage next = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = next.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.drawImage(current, 0, 0, width, height, Color.WHITE, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+        } while (current.getWidth() > targetWidth || current.getHeight() > targetHeight);
+        return current;
+    }
+
+    private byte[] jpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(buffer)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return buffer.toByteArray();
+    }
+
+    @Override
+    public void destroy() {
+        workers.shutdownNow();
+    }
+}
@@ -0,0 +1,268 @@
+package com.mesh_microservices.classroom_service.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * A {@link BlobStorageService} that stores files in a directory on the local disk.
+ * <p>
+ * This backend stands in for Azure Blob Storage when the service runs offline, such as
+ * in development or load tests. It is enabled with {@code classroom.blob.backend=local}.
+ * Staged blocks are kept as files in a {@code .staging} directory next to the stored files
+ * until they are discarded after the commit. Blob names must be plain file names; names
+ * that would resolve outside the storage directory are refused. Signed upload URLs point at this service's own
+ * {@code PUT /api/classrooms/blobs/{blobName}} endpoint and are signed with HMAC-SHA256,
+ * standing in for Azure's SAS tokens.
+ */
+@Service
+@ConditionalOnProperty(name = "classroom.blob.backend", havingValue = "local")
+public class LocalBlobService implements BlobStorageService {
+
+    /**
+     * The directory in which all files are stored.
+     */
+    private final Path root;
+
+    /**
+     * The key signed upload URLs are signed with.
+     */
+    private final SecretKeySpec signingKey;
+
+    /**
+     * Constructs the LocalBlobService and creates the storage directory if necessary.
+     *
+     * @param root The directory in which files will be stored.
+     * @param signingKey The key for signed upload URLs; if empty, a random key is used,
+     *                   so URLs do not outlive the process.
+     * @throws IOException if the directory cannot be created.
+     */
+    public LocalBlobService(@Value("${classroom.blob.local.root:${java.io.tmpdir}/mesh-blobs}") Path root,
+                            @Value("${classroom.blob.local.signing-key:}") String signingKey) throws IOException {
+        this.root = Files.createDirectories(root).toAbsolutePath().normalize();
+        byte[] key = signingKey.isEmpty() ? new byte[32] : signingKey.getBytes(StandardCharsets.UTF_8);
+        if (signingKey.isEmpty()) {
+            new SecureRandom().nextBytes(key);
+        }
+        this.signingKey = new SecretKeySpec(key, "HmacSHA256");
+    }
+
+    /**
+     * Copies the file into the storage directory under a unique name.
+     *
+     * @param file The {@link MultipartFile} to be stored.
+     * @return A {@code file:} URL pointing to the stored copy.
+     * @throws IOException if the file cannot be written.
+     */
+    @Override
+    public String uploadFile(MultipartFile file) throws IOException {
+        // Generate a unique file name to avoid collisions, as the Azure backend does.
+        String fileName = UUID.randomUUID() + "-" + file.getOriginalFilename();
+        Path target = file(fileName);
+        try (InputStream in = file.getInputStream()) {
+            Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return target.toUri().toString();
+    }
+
+    @Override
+    public String uploadBlob(String blobName, byte[] content, String contentType) throws IOException {
+        Path target = file(blobName);
+        Files.write(target, content);
+        return target.toUri().toString();
+    }
+
+    /**
+     * Writes a block to the staging directory of its blob.
+     *
+     * @param blobName The name of the blob the block belongs to.
+     * @param blockId  The ID of the block.
+     * @param data     The content of the block.
+     * @param length   The number of bytes in the block.
+     * @throws IOException if the block cannot be written or is shorter than {@code length}.
+     */
+    @Override
+    public void stageBlock(String blobName, String blockId, InputStream data, long length) throws IOException {
+        Path staging = Files.createDirectories(stagingDirectory(blobName));
+        Path block = staging.resolve(blockFileName(blockId));
+        // Write to a temporary file first so a broken transfer never leaves a partial block behind.
+        Path partial = Files.createTempFile(staging, "block", ".part");
+        try {
+            long written;
+            try (OutputStream out = Files.newOutputStream(partial)) {
+                written = data.transferTo(out);
+            }
+            if (written != length) {
+                throw new IOException("Block " + blockId + " has " + written + " bytes, expected " + length);
+            }
+            Files.move(partial, block, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+    }
+
+    /**
+     * Concatenates the staged blocks into the stored file. The blocks stay staged until
+     * {@link #discardBlocks} is called, so a commit can be repeated.
+     *
+     * @param blobName    The name of the blob.
+     * @param blockIds    The IDs of the staged blocks, in content order.
+     * @param contentType The MIME type of the blob (not stored by this backend).
+     * @return A {@code file:} URL pointing to the stored file.
+     * @throws IOException if a block is missing or the file cannot be written.
+     */
+    @Override
+    public String commitBlocks(String blobName, List<String> blockIds, String contentType) throws IOException {
+        Path staging = stagingDirectory(blobName);
+        Path target = file(blobName);
+        try (OutputStream out = Files.newOutputStream(target, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (String blockId : blockIds) {
+                Files.copy(staging.resolve(blockFileName(blockId)), out);
+            }
+        }
+        return target.toUri().toString();
+    }
+
+    /**
+     * Removes the staging directory of a blob and the blocks in it.
+     *
+     * @param blobName The name of the blob.
+     * @throws IOException if the blocks cannot be deleted.
+     */
+    @Override
+    public void discardBlocks(String blobName) throws IOException {
+        Path staging = stagingDirectory(blobName);
+        if (!Files.isDirectory(staging)) {
+            return;
+        }
+        try (var blocks = Files.list(staging)) {
+            for (Path block : blocks.toList()) {
+                Files.deleteIfExists(block);
+            }
+        }
+        Files.deleteIfExists(staging);
+    }
+
+    /**
+     * Issues a path on this service that accepts one PUT of the given blob until it expires.
+     *
+     * @param blobName The name of the blob the client may write.
+     * @param validFor How long the URL can be used.
+     * @return The signed path, relative to the gateway.
+     */
+    @Override
+    public String createUploadUrl(String blobName, Duration validFor) {
+        long expires = Instant.now().plus(validFor).getEpochSecond();
+        return "/api/classrooms/blobs/" + blobName + "?expires=" + expires + "&signature=" + sign(blobName, expires);
+    }
+
+    /**
+     * Stores the body of a signed upload, after checking the signature and expiry. Like an
+     * Azure SAS with create permission only, the URL cannot replace a blob that exists.
+     *
+     * @param blobName  The name of the blob from the URL.
+     * @param expires   The expiry from the URL, in epoch seconds.
+     * @param signature The signature from the URL.
+     * @param data      The file content.
+     * @throws SecurityException if the signature is invalid or the URL has expired.
+     * @throws java.nio.file.FileAlreadyExistsException if the blob has already been uploaded.
+     * @throws IOException if the file cannot be written.
+     */
+    public void acceptSignedUpload(String blobName, long expires, String signature, InputStream data) throws IOException {
+        boolean valid = MessageDigest.isEqual(sign(blobName, expires).getBytes(StandardCharsets.US_ASCII),
+                signature.getBytes(StandardCharsets.US_ASCII));
+        if (!valid || Instant.now().getEpochSecond() > expires) {
+            throw new SecurityException("The upload URL is invalid or has expired.");
+        }
+        Path target = file(blobName);
+        if (Files.exists(target)) {
+            throw new FileAlreadyExistsException(blobName);
+        }
+        // Write to a temporary file first so a broken transfer can be retried.
+        Path partial = Files.createTempFile(Files.createDirectories(root.resolve(".staging")), "upload", ".part");
+        try {
+            Files.copy(data, partial, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(partial, target);
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+    }
+
+    @Override
+    public long blobSize(String blobName) throws IOException {
+        Path file = file(blobName);
+        return Files.exists(file) ? Files.size(file) : -1;
+    }
+
+    @Override
+    public String finishUpload(String blobName, String contentType) {
+        return file(blobName).toUri().toString();
+    }
+
+    @Override
+    public void deleteBlob(String blobName) throws IOException {
+        Files.deleteIfExists(file(blobName));
+    }
+
+    @Override
+    public Instant downloadBlob(String blobName, Path target) throws IOException {
+        Path source = file(blobName);
+        Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+        return Files.getLastModifiedTime(source).toInstant();
+    }
+
+    private String sign(String blobName, long expires) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(signingKey);
+            byte[] hash = mac.doFinal(("PUT\n" + blobName + "\n" + expires).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    /**
+     * Resolves a blob name to its file in the storage directory.
+     *
+     * @throws SecurityException if the name is not a plain file name, e.g. contains "../".
+     */
+    private Path file(String blobName) {
+        Path file = root.resolve(blobName).normalize();
+        if (!root.equals(file.getParent()) || file.getFileName().toString().startsWith(".")) {
+            throw new SecurityException("Invalid blob name: " + blobName);
+        }
+        return file;
+    }
+
+    private Path stagingDirectory(String blobName) {
+        return root.resolve(".staging").resolve(file(blobName).getFileName());
+    }
+
+    // Block IDs may contain characters that are not valid in file names.
+    private static String blockFileName(String blockId) {
+        return HexFormat.of().formatHex(blockId.getBytes(StandardCharsets.UTF_8));
+    }
+}
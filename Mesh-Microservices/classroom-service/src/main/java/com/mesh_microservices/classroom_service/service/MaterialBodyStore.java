@@ -0,0 +1,121 @@
+package com.mesh_microservices.classroom_service.service;
+
+import com.mesh_microservices.classroom_service.model.Material;
+import com.mesh_microservices.classroom_service.model.MaterialBody;
+import com.mesh_microservices.classroom_service.repository.MaterialBodyRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Moves long material texts out of the classroom document into a compressed store.
+ * <p>
+ * Texts longer than {@code classroom.materials.inline-text-limit} characters are
+ * gzip-compressed into a {@link MaterialBody}. The material keeps only a preview and the
+ * length, so every classroom read stays small no matter how much text was pasted in.
+ * Shorter texts stay inline, where an extra lookup would cost more than it saves.
+ */
+@Service
+public class MaterialBodyStore {
+
+    @Autowired
+    private MaterialBodyRepository materialBodyRepository;
+
+    // Texts up to this many characters are kept in the classroom document.
+    @Value("${classroom.materials.inline-text-limit:4096}")
+    private int inlineTextLimit;
+
+    // The number of characters kept inline as a preview of a stored text.
+    @Value("${classroom.materials.preview-length:300}")
+    private int previewLength;
+
+    /**
+     * Records the length of a material's text and, if it is too long to keep inline, stores
+     * it compressed and replaces it on the material with a preview.
+     *
+     * @param classroomId The ID of the classroom the material is added to.
+     * @param material The material, still holding its full text.
+     */
+    public void externalizeIfLarge(String classroomId, Material material) {
+        String text = material.getTextContent();
+        if (text == null) {
+            return;
+        }
+        material.setTextLength(text.length());
+        if (text.length() <= inlineTextLimit) {
+            return;
+        }
+
+        MaterialBody body = new MaterialBody();
+        body.setId(material.getId());
+        body.setClassroomId(classroomId);
+        body.setLength(text.length());
+        body.setContent(gzip(text));
+        materialBodyRepository.save(body);
+
+        material.setTextContent(null);
+        material.setTextPreview(text.substring(0, Math.min(previewLength, text.length())));
+        material.setTextExternal(true);
+    }
+
+    /**
+     * Finds the stored text of a material.
+     *
+     * @param materialId The ID of the material.
+     * @return The compressed text, or empty if the material's text is kept inline.
+     */
+    public Optional<MaterialBody> find(String materialId) {
+        return materialBodyRepository.findById(materialId);
+    }
+
+    /**
+     * Decompresses a stored text.
+     *
+     * @param body The stored text.
+     * @return The full text.
+     */
+    public String text(MaterialBody body) {
+        try {
+            return gunzip(body.getContent());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Corrupt text for material " + body.getId(), e);
+        }
+    }
+
+    /**
+     * Deletes the stored texts of the given materials. Materials with inline text are ignored.
+     *
+     * @param materialIds The IDs of the deleted materials.
+     */
+    public void delete(Collection<String> materialIds) {
+        materialBodyRepository.deleteAllById(materialIds);
+    }
+
+    static byte[] gzip(String text) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(text.length() / 3);
+        try (OutputStream out = new GZIPOutputStream(buffer)) {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    static String gunzip(byte[] content) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(content))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
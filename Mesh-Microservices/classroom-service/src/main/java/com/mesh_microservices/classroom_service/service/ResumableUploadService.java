@@ -0,0 +1,404 @@
+package com.mesh_microservices.classroom_service.service;
+
+import com.mesh_microservices.classroom_service.model.Classroom;
+import com.mesh_microservices.classroom_service.model.Material;
+import com.mesh_microservices.classroom_service.model.UploadSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Runs the upload protocols for large submissions and materials.
+ * <p>
+ * A client creates an {@link UploadSession}, then sends the file as chunks identified by
+ * their byte offset. Each chunk is staged as one block of the final blob, so chunks may
+ * arrive in any order and in parallel, and a failed chunk is simply sent again. The
+ * session records which chunks have been staged, and the client can read it to resume
+ * after a dropped connection or a service restart. The commit writes the block list in
+ * one operation and then records the submission or material as the single-request
+ * endpoints do.
+ * <p>
+ * Direct uploads skip this service for the file itself: the client receives a short-lived,
+ * create-only signed URL for one blob, uploads to storage, and then finalizes the session,
+ * at which point the service checks the stored blob and records it the same way.
+ * <p>
+ * Sessions can only be used through the classroom they were started for, and until they
+ * expire. Expired sessions are swept with their staged chunks and unfinished files.
+ */
+@Service
+public class ResumableUploadService {
+
+    private static final Logger log = LoggerFactory.getLogger(ResumableUploadService.class);
+
+    /**
+     * Signals that an upload session does not exist, or not in the given classroom.
+     */
+    public static class UploadNotFoundException extends RuntimeException {
+        public UploadNotFoundException(String uploadId) {
+            super("Upload not found: " + uploadId);
+        }
+    }
+
+    /**
+     * Signals that an upload session has expired and can no longer be used.
+     */
+    public static class UploadExpiredException extends RuntimeException {
+        public UploadExpiredException(String uploadId) {
+            super("Upload has expired: " + uploadId);
+        }
+    }
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private BlobStorageService blobStorageService;
+
+    @Autowired
+    private ClassroomService classroomService;
+
+    // The size of every chunk but the last.
+    @Value("${classroom.uploads.chunk-size:8MB}")
+    private DataSize chunkSize;
+
+    // The largest file that may be uploaded.
+    @Value("${classroom.uploads.max-size:2GB}")
+    private DataSize maxSize;
+
+    // How long an unfinished session, and its staged chunks, can be resumed.
+    @Value("${classroom.uploads.session-ttl:P1D}")
+    private Duration sessionTtl;
+
+    // How long a signed direct upload URL can be used.
+    @Value("${classroom.uploads.direct-url-ttl:PT15M}")
+    private Duration directUrlTtl;
+
+    /**
+     * Starts an upload after checking that the user may submit to the assignment or add
+     * material to the section, so no data is accepted for a request that would be refused.
+     *
+     * @param classroomId The ID of the classroom.
+     * @param request The purpose, target, file name, content type and size of the upload.
+     * @param userEmail The email of the uploading user.
+     * @return The created session, including the chunk size to use.
+     * @throws IllegalArgumentException if the request is incomplete or the file is too large.
+     * @throws SecurityException if the user may not upload to the target.
+     */
+    public UploadSession create(String classroomId, UploadSession request, String userEmail) {
+        UploadSession session = newSession(classroomId, request, userEmail);
+        session.setChunkSize(chunkSize.toBytes());
+        session.setBlobName(blobName(request.getFileName()));
+        return mongoTemplate.insert(session);
+    }
+
+    /**
+     * Starts a direct upload after the same checks as {@link #create}, and issues the
+     * signed URL the client writes the file to.
+     *
+     * @param classroomId The ID of the classroom.
+     * @param request The purpose, target, file name, content type and size of the upload.
+     * @param userEmail The email of the uploading user.
+     * @return The created session, including the upload URL and its expiry.
+     * @throws IllegalArgumentException if the request is incomplete or the file is too large.
+     * @throws SecurityException if the user may not upload to the target.
+     */
+    public UploadSession createDirect(String classroomId, UploadSession request, String userEmail) {
+        UploadSession session = newSession(classroomId, request, userEmail);
+        session.setDirect(true);
+        session.setBlobName(blobName(request.getFileName()));
+        UploadSession saved = mongoTemplate.insert(session);
+        saved.setUploadUrl(blobStorageService.createUploadUrl(saved.getBlobName(), directUrlTtl));
+        saved.setUploadUrlExpiresAt(LocalDateTime.now().plus(directUrlTtl));
+        return saved;
+    }
+
+    /**
+     * Names the blob of an upload like single-request uploads, to avoid collisions. The name
+     * becomes part of a URL and a file path, so only URL-safe characters are kept; in
+     * particular, no path separators.
+     */
+    private static String blobName(String fileName) {
+        return UUID.randomUUID() + "-" + fileName.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    /**
+     * Validates an upload request and the user's permission, and builds the session for it.
+     */
+    private UploadSession newSession(String classroomId, UploadSession request, String userEmail) {
+        if (request.getPurpose() == null || request.getTargetId() == null || request.getFileName() == null) {
+            throw new IllegalArgumentException("purpose, targetId and fileName are required.");
+        }
+        if (request.getSize() <= 0 || request.getSize() > maxSize.toBytes()) {
+            throw new IllegalArgumentException("size must be between 1 and " + maxSize.toBytes() + " bytes.");
+        }
+        if (request.getPurpose() == UploadSession.Purpose.SUBMISSION) {
+            classroomService.verifyCanSubmit(classroomId, request.getTargetId(), userEmail);
+        } else {
+            if (request.getTitle() == null) {
+                throw new IllegalArgumentException("title is required for materials.");
+            }
+            classroomService.verifyCanAddMaterial(classroomId, request.getTargetId(), userEmail);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        UploadSession session = new UploadSession();
+        session.setPurpose(request.getPurpose());
+        session.setClassroomId(classroomId);
+        session.setTargetId(request.getTargetId());
+        session.setTitle(request.getTitle());
+        session.setTextContent(request.getTextContent());
+        session.setFileName(request.getFileName());
+        session.setContentType(request.getContentType());
+        session.setSize(request.getSize());
+        session.setUserEmail(userEmail);
+        session.setCreatedAt(now);
+        session.setExpiresAt(now.plus(sessionTtl));
+        return session;
+    }
+
+    /**
+     * Returns a session so the client can see which chunks are still missing.
+     *
+     * @param classroomId The ID of the classroom the session was started for.
+     * @param uploadId The ID of the session.
+     * @param userEmail The email of the user continuing the upload.
+     * @return The session.
+     * @throws UploadNotFoundException if the session does not exist in that classroom.
+     * @throws UploadExpiredException if the session has expired.
+     * @throws SecurityException if the session belongs to another user.
+     */
+    public UploadSession get(String classroomId, String uploadId, String userEmail) {
+        UploadSession session = mongoTemplate.findById(uploadId, UploadSession.class);
+        if (session == null || !session.getClassroomId().equals(classroomId)) {
+            throw new UploadNotFoundException(uploadId);
+        }
+        if (!session.getUserEmail().equals(userEmail)) {
+            throw new SecurityException("This upload belongs to another user.");
+        }
+        if (!session.getExpiresAt().isAfter(LocalDateTime.now())) {
+            throw new UploadExpiredException(uploadId);
+        }
+        return session;
+    }
+
+    /**
+     * Stages one chunk of the file. Sending a chunk again replaces it.
+     *
+     * @param classroomId The ID of the classroom the session was started for.
+     * @param uploadId The ID of the session.
+     * @param offset The byte offset of the chunk; must be a multiple of the chunk size.
+     * @param length The number of bytes in the chunk; must match the chunk's expected size.
+     * @param data The chunk content.
+     * @param userEmail The email of the user continuing the upload.
+     * @return The session with the chunk recorded.
+     * @throws IllegalArgumentException if the offset or length does not fit the session.
+     * @throws IllegalStateException if the upload has already been committed.
+     * @throws IOException if the chunk cannot be stored.
+     */
+    public UploadSession putChunk(String classroomId, String uploadId, long offset, long length, InputStream data,
+                                  String userEmail) throws IOException {
+        UploadSession session = get(classroomId, uploadId, userEmail);
+        if (session.isDirect()) {
+            throw new IllegalStateException("A direct upload is written to its signed URL, not in chunks.");
+        }
+        if (session.getStatus() != UploadSession.Status.UPLOADING) {
+            throw new IllegalStateException("The upload has already been committed.");
+        }
+        if (offset < 0 || offset >= session.getSize() || offset % session.getChunkSize() != 0) {
+            throw new IllegalArgumentException("offset must be a multiple of " + session.getChunkSize()
+                    + " below " + session.getSize() + ".");
+        }
+        long expected = Math.min(session.getChunkSize(), session.getSize() - offset);
+        if (length != expected) {
+            throw new IllegalArgumentException("The chunk at offset " + offset + " must be " + expected + " bytes.");
+        }
+
+        int index = (int) (offset / session.getChunkSize());
+        blobStorageService.stageBlock(session.getBlobName(), blockId(index), data, length);
+
+        return mongoTemplate.findAndModify(Query.query(Criteria.where("id").is(uploadId)),
+                new Update().addToSet("receivedChunks", index),
+                FindAndModifyOptions.options().returnNew(true), UploadSession.class);
+    }
+
+    /**
+     * Creates the blob from the staged chunks and records the submission or material.
+     * <p>
+     * Committing an already committed upload returns the classroom again, so a client whose
+     * commit response was lost can simply retry. The staged chunks are kept until the commit
+     * has been recorded, so a failed commit can be retried too.
+     *
+     * @param classroomId The ID of the classroom the session was started for.
+     * @param uploadId The ID of the session.
+     * @param userEmail The email of the user finishing the upload.
+     * @return The updated classroom.
+     * @throws IllegalStateException if chunks are missing or another commit is in progress.
+     * @throws IOException if the blob cannot be created.
+     */
+    public Classroom commit(String classroomId, String uploadId, String userEmail) throws IOException {
+        UploadSession session = get(classroomId, uploadId, userEmail);
+        if (session.isDirect()) {
+            throw new IllegalStateException("A direct upload is finalized, not committed.");
+        }
+        if (session.getStatus() == UploadSession.Status.COMMITTED) {
+            return committedClassroom(session);
+        }
+        int chunks = session.chunkCount();
+        if (session.getReceivedChunks().size() < chunks) {
+            throw new IllegalStateException("Upload is incomplete: " + session.getReceivedChunks().size()
+                    + " of " + chunks + " chunks received.");
+        }
+
+        Classroom classroom = complete(session, () -> {
+            List<String> blockIds = new ArrayList<>(chunks);
+            for (int i = 0; i < chunks; i++) {
+                blockIds.add(blockId(i));
+            }
+            return blobStorageService.commitBlocks(session.getBlobName(), blockIds, session.getContentType());
+        });
+        try {
+            blobStorageService.discardBlocks(session.getBlobName());
+        } catch (IOException e) {
+            // The sweep of expired sessions removes them later.
+            log.warn("Could not discard the staged chunks of upload {}: {}", uploadId, e.getMessage());
+        }
+        return classroom;
+    }
+
+    /**
+     * Checks that a direct upload has reached storage with the announced size and records
+     * the submission or material. Finalizing again returns the classroom again.
+     *
+     * @param classroomId The ID of the classroom the session was started for.
+     * @param uploadId The ID of the session.
+     * @param userEmail The email of the user finishing the upload.
+     * @return The updated classroom.
+     * @throws IllegalStateException if the blob is missing, has the wrong size, or another finalize is in progress.
+     * @throws IOException if the blob cannot be checked.
+     */
+    public Classroom finalizeDirect(String classroomId, String uploadId, String userEmail) throws IOException {
+        UploadSession session = get(classroomId, uploadId, userEmail);
+        if (!session.isDirect()) {
+            throw new IllegalStateException("A chunked upload is committed, not finalized.");
+        }
+        if (session.getStatus() == UploadSession.Status.COMMITTED) {
+            return committedClassroom(session);
+        }
+        long stored = blobStorageService.blobSize(session.getBlobName());
+        if (stored < 0) {
+            throw new IllegalStateException("The file has not been uploaded yet.");
+        }
+        if (stored != session.getSize()) {
+            throw new IllegalStateException("The uploaded file has " + stored + " bytes, expected " + session.getSize()
+                    + "; the file cannot be replaced, so start a new upload.");
+        }
+
+        return complete(session, () -> blobStorageService.finishUpload(session.getBlobName(), session.getContentType()));
+    }
+
+    /**
+     * Makes the stored file final and records the submission or material, allowing only one
+     * completion per session. On failure the session can be completed again.
+     */
+    private Classroom complete(UploadSession session, StoredFile storedFile) throws IOException {
+        String uploadId = session.getId();
+        // Only one completion may run, even if the client retries while it is in progress.
+        UploadSession claimed = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("id").is(uploadId).and("status").is(UploadSession.Status.UPLOADING)),
+                new Update().set("status", UploadSession.Status.COMMITTING),
+                FindAndModifyOptions.options().returnNew(true), UploadSession.class);
+        if (claimed == null) {
+            throw new IllegalStateException("The upload is already being committed.");
+        }
+
+        Classroom classroom;
+        try {
+            String fileUrl = storedFile.url();
+            if (session.getPurpose() == UploadSession.Purpose.SUBMISSION) {
+                classroom = classroomService.submitUploadedFile(session.getClassroomId(), session.getTargetId(),
+                        fileUrl, session.getUserEmail());
+            } else {
+                Material material = new Material();
+                material.setTitle(session.getTitle());
+                material.setTextContent(session.getTextContent());
+                classroom = classroomService.addUploadedMaterial(session.getClassroomId(), session.getTargetId(),
+                        material, fileUrl, session.getUserEmail());
+            }
+        } catch (IOException | RuntimeException e) {
+            // Let the client retry.
+            mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(uploadId)),
+                    new Update().set("status", UploadSession.Status.UPLOADING), UploadSession.class);
+            throw e;
+        }
+
+        mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(uploadId)),
+                new Update().set("status", UploadSession.Status.COMMITTED), UploadSession.class);
+        return classroom;
+    }
+
+    /**
+     * Removes expired sessions, with the chunks they staged and the files of direct uploads
+     * that were never finalized.
+     */
+    @Scheduled(fixedDelayString = "${classroom.uploads.sweep-interval:PT1H}")
+    public void sweepExpired() {
+        Query expired = Query.query(Criteria.where("expiresAt").lte(LocalDateTime.now()));
+        expired.fields().include("id");
+        for (UploadSession found : mongoTemplate.find(expired, UploadSession.class)) {
+            // Removing the session first makes sure only one instance sweeps it.
+            UploadSession session = mongoTemplate.findAndRemove(Query.query(Criteria.where("id").is(found.getId())
+                    .and("expiresAt").lte(LocalDateTime.now())), UploadSession.class);
+            if (session == null) {
+                continue;
+            }
+            try {
+                if (!session.isDirect()) {
+                    blobStorageService.discardBlocks(session.getBlobName());
+                } else if (session.getStatus() == UploadSession.Status.UPLOADING) {
+                    blobStorageService.deleteBlob(session.getBlobName());
+                }
+            } catch (IOException | RuntimeException e) {
+                log.warn("Could not clean up the storage of expired upload {}: {}", session.getId(), e.getMessage());
+            }
+        }
+    }
+
+    private Classroom committedClassroom(UploadSession session) {
+        return classroomService.findClassroomById(session.getClassroomId())
+                .orElseThrow(() -> new RuntimeException("Classroom not found."));
+    }
+
+    /**
+     * Produces the URL of the completed file in storage.
+     */
+    @FunctionalInterface
+    private interface StoredFile {
+        String url() throws IOException;
+    }
+
+    /**
+     * Builds the block ID of a chunk. Block IDs must be Base64 and of equal length within a blob.
+     */
+    private static String blockId(int index) {
+        return Base64.getEncoder().encodeToString(String.format("%08d", index).getBytes(StandardCharsets.UTF_8));
+    }
+}
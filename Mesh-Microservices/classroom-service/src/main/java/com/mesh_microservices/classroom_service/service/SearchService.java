@@ -0,0 +1,273 @@
+package com.mesh_microservices.classroom_service.service;
+
+import com.mesh_microservices.classroom_service.model.Assignment;
+import com.mesh_microservices.classroom_service.model.Classroom;
+import com.mesh_microservices.classroom_service.model.Material;
+import com.mesh_microservices.classroom_service.model.SearchEntry;
+import com.mesh_microservices.classroom_service.model.Section;
+import com.mesh_microservices.classroom_service.repository.SearchEntryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Maintains the search index over materials and assignments and queries it.
+ * <p>
+ * Every material and assignment is mirrored by a {@link SearchEntry} in its own collection.
+ * Entries are written as items are added and removed, so searches only touch the index and
+ * never load classrooms. Two backends are available, chosen with {@code classroom.search.backend}:
+ * <ul>
+ *   <li>{@code prefix} (the default) matches each search word as a prefix of the entry's
+ *   keywords, through an ordinary index, and quoted phrases against the title and body.
+ *   It works on any MongoDB-compatible store, including Azure Cosmos DB for MongoDB.
+ *   Results are in a stable but not ranked order.</li>
+ *   <li>{@code text} uses a MongoDB text index, matching words by stem and ranking results
+ *   by text score. The store must support text indexes.</li>
+ * </ul>
+ * Either way, results are paged with a skip and limit.
+ */
+@Service
+public class SearchService {
+
+    // The number of characters of the body returned with each result.
+    private static final int SNIPPET_LENGTH = 200;
+
+    // Bounds for the page size of search results.
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    // Bounds for the keywords of an entry. Longer words are cut to their prefix, and only the
+    // first distinct words of a long text are kept, title first, to keep entries small.
+    private static final int MAX_KEYWORD_LENGTH = 32;
+    private static final int MAX_KEYWORDS = 2000;
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern PHRASE = Pattern.compile("\"([^\"]*)\"");
+    private static final Pattern REGEX_SPECIAL = Pattern.compile("[\\\\^$.|?*+()\\[\\]{}]");
+
+    /**
+     * The ways searches can be run.
+     */
+    public enum Backend {
+        PREFIX, TEXT
+    }
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ClassroomShards classroomShards;
+
+    @Autowired
+    private SearchEntryRepository searchEntryRepository;
+
+    @Autowired
+    private MaterialBodyStore materialBodyStore;
+
+    @Value("${classroom.search.backend:prefix}")
+    private Backend backend;
+
+    /**
+     * Adds or replaces the entry for a material.
+     *
+     * @param classroomId The ID of the classroom containing the material.
+     * @param sectionId The ID of the section containing the material.
+     * @param material The material to index.
+     * @param text The material's full text, which may no longer be held by the material itself.
+     */
+    public void indexMaterial(String classroomId, String sectionId, Material material, String text) {
+        searchEntryRepository.save(entry(classroomId, sectionId, material, text));
+    }
+
+    /**
+     * Adds or replaces the entry for an assignment.
+     *
+     * @param classroomId The ID of the classroom containing the assignment.
+     * @param assignment The assignment to index.
+     */
+    public void indexAssignment(String classroomId, Assignment assignment) {
+        searchEntryRepository.save(entry(classroomId, assignment));
+    }
+
+    /**
+     * Removes the entries of all materials in a deleted section.
+     *
+     * @param sectionId The ID of the deleted section.
+     */
+    public void removeSection(String sectionId) {
+        searchEntryRepository.deleteBySectionId(sectionId);
+    }
+
+    /**
+     * Searches materials and assignments in the given classrooms.
+     *
+     * @param classroomIds The classrooms to search in.
+     * @param terms The search terms. Words are matched by prefix, or by stem with the text
+     *              backend; quoted phrases must match exactly.
+     * @param page The zero-based page number.
+     * @param size The number of results per page (capped at 100).
+     * @return The entries on the requested page, without their bodies; with the text backend, best match first.
+     */
+    public List<SearchEntry> search(Collection<String> classroomIds, String terms, Integer page, Integer size) {
+        if (classroomIds.isEmpty() || terms == null || terms.isBlank()) {
+            return List.of();
+        }
+        int pageSize = size == null || size <= 0 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        int pageNumber = page == null || page < 0 ? 0 : page;
+
+        Query query = backend == Backend.TEXT ? textQuery(terms) : prefixQuery(terms);
+        if (query == null) {
+            return List.of();
+        }
+        query.addCriteria(Criteria.where("classroomId").in(classroomIds))
+                .skip((long) pageNumber * pageSize)
+                .limit(pageSize);
+        query.fields().exclude("body").exclude("keywords");
+        return mongoTemplate.find(query, SearchEntry.class);
+    }
+
+    /**
+     * Builds the index from the existing classrooms when it is empty, which is the case on
+     * the first start after search was introduced, or when it holds entries written before
+     * keywords were recorded. Later starts find it complete and skip this.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIndexIfEmpty() {
+        if (mongoTemplate.estimatedCount(SearchEntry.class) > 0
+                && !mongoTemplate.exists(Query.query(Criteria.where("keywords").exists(false)), SearchEntry.class)) {
+            return;
+        }
+        Query query = new Query();
+        query.fields().include("sections").include("assignments._id")
+                .include("assignments.title").include("assignments.description");
+        for (MongoTemplate shard : classroomShards.all()) {
+            try (Stream<Classroom> classrooms = shard.stream(query, Classroom.class)) {
+                classrooms.forEach(classroom -> {
+                    List<SearchEntry> entries = new ArrayList<>();
+                    for (Section section : classroom.getSections()) {
+                        for (Material material : section.getMaterials()) {
+                            entries.add(entry(classroom.getId(), section.getId(), material, fullText(material)));
+                        }
+                    }
+                    for (Assignment assignment : classroom.getAssignments()) {
+                        entries.add(entry(classroom.getId(), assignment));
+                    }
+                    searchEntryRepository.saveAll(entries);
+                });
+            }
+        }
+    }
+
+    /**
+     * Returns a material's full text, loading it from the compressed store if it is not inline.
+     */
+    private String fullText(Material material) {
+        if (!material.isTextExternal()) {
+            return material.getTextContent();
+        }
+        return materialBodyStore.find(material.getId())
+                .map(materialBodyStore::text)
+                .orElse(material.getTextPreview());
+    }
+
+    private static Query textQuery(String terms) {
+        return TextQuery.queryText(TextCriteria.forDefaultLanguage().matching(terms)).sortByScore();
+    }
+
+    /**
+     * Builds a query matching every word of the terms as a keyword prefix and every quoted
+     * phrase within the title or body, or returns null if the terms contain no words.
+     */
+    private static Query prefixQuery(String terms) {
+        List<Criteria> criteria = new ArrayList<>();
+        // Anchored prefixes of lower-case keywords can be answered from the keyword index.
+        for (String word : keywords(terms)) {
+            criteria.add(Criteria.where("keywords").regex("^" + word));
+        }
+        if (criteria.isEmpty()) {
+            return null;
+        }
+        Matcher phrases = PHRASE.matcher(terms);
+        while (phrases.find()) {
+            String phrase = phrases.group(1).strip();
+            if (!phrase.isEmpty()) {
+                String pattern = REGEX_SPECIAL.matcher(phrase).replaceAll("\\\\$0");
+                criteria.add(new Criteria().orOperator(
+                        Criteria.where("title").regex(pattern, "i"),
+                        Criteria.where("body").regex(pattern, "i")));
+            }
+        }
+        return Query.query(new Criteria().andOperator(criteria)).with(Sort.by("id"));
+    }
+
+    /**
+     * Splits texts into distinct lower-case words, in order of first appearance.
+     */
+    static List<String> keywords(String... texts) {
+        Set<String> keywords = new LinkedHashSet<>();
+        for (String text : texts) {
+            if (text == null) {
+                continue;
+            }
+            for (String word : NON_WORD.split(text.toLowerCase(Locale.ROOT))) {
+                if (keywords.size() == MAX_KEYWORDS) {
+                    return List.copyOf(keywords);
+                }
+                if (!word.isEmpty()) {
+                    keywords.add(word.length() > MAX_KEYWORD_LENGTH ? word.substring(0, MAX_KEYWORD_LENGTH) : word);
+                }
+            }
+        }
+        return List.copyOf(keywords);
+    }
+
+    private static SearchEntry entry(String classroomId, String sectionId, Material material, String text) {
+        SearchEntry entry = new SearchEntry();
+        entry.setId(material.getId());
+        entry.setClassroomId(classroomId);
+        entry.setSectionId(sectionId);
+        entry.setType(SearchEntry.Type.MATERIAL);
+        entry.setTitle(material.getTitle());
+        entry.setBody(text);
+        entry.setKeywords(keywords(material.getTitle(), text));
+        entry.setSnippet(snippet(text));
+        return entry;
+    }
+
+    private static SearchEntry entry(String classroomId, Assignment assignment) {
+        SearchEntry entry = new SearchEntry();
+        entry.setId(assignment.getId());
+        entry.setClassroomId(classroomId);
+        entry.setType(SearchEntry.Type.ASSIGNMENT);
+        entry.setTitle(assignment.getTitle());
+        entry.setBody(assignment.getDescription());
+        entry.setKeywords(keywords(assignment.getTitle(), assignment.getDescription()));
+        entry.setSnippet(snippet(assignment.getDescription()));
+        return entry;
+    }
+
+    private static String snippet(String body) {
+        if (body == null || body.length() <= SNIPPET_LENGTH) {
+            return body;
+        }
+        return body.substring(0, SNIPPET_LENGTH) + "...";
+    }
+}
@@ -0,0 +1,66 @@
+package com.mesh_microservices.classroom_service.service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * A consistent hash ring that assigns keys to named shards.
+ * <p>
+ * Every shard is placed on the ring at many points (virtual nodes), and a key belongs to
+ * the first shard point at or after the key's own hash. Adding or removing a shard
+ * therefore only moves the keys between that shard and its neighbours, roughly
+ * {@code 1/n} of all keys, and the keys are spread evenly however few shards there are.
+ */
+public class ShardRing {
+
+    private static final int VIRTUAL_NODES = 160;
+
+    private final NavigableMap<Long, String> points = new TreeMap<>();
+
+    /**
+     * Builds the ring for the given shards.
+     *
+     * @param shards The names of the shards; at least one.
+     * @throws IllegalArgumentException if there are no shards.
+     */
+    public ShardRing(Collection<String> shards) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("A shard ring needs at least one shard.");
+        }
+        for (String shard : shards) {
+            for (int i = 0; i < VIRTUAL_NODES; i++) {
+                points.put(hash(shard + "#" + i), shard);
+            }
+        }
+    }
+
+    /**
+     * Returns the shard a key belongs to.
+     *
+     * @param key The key, such as a classroom ID.
+     * @return The name of the owning shard.
+     */
+    public String ownerOf(String key) {
+        Map.Entry<Long, String> point = points.ceilingEntry(hash(key));
+        return (point != null ? point : points.firstEntry()).getValue();
+    }
+
+    /**
+     * Hashes a string to a position on the ring. SHA-256 spreads the sequential parts of
+     * ObjectIds evenly, which simpler string hashes do not.
+     */
+    private static long hash(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
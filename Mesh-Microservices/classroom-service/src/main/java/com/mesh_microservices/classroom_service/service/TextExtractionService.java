@@ -0,0 +1,291 @@
+package com.mesh_microservices.classroom_service.service;
+
+import com.mesh_microservices.classroom_service.model.Classroom;
+import com.mesh_microservices.classroom_service.model.ExtractedText;
+import com.mesh_microservices.classroom_service.model.Material;
+import com.mesh_microservices.classroom_service.model.Section;
+import com.mesh_microservices.classroom_service.repository.ExtractedTextRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.apache.poi.xwpf.extractor.XWPFWordExtractor;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Extracts the text of uploaded PDF and DOCX materials once, in the background, so that
+ * consumers such as the AI assistant read plain text instead of downloading and parsing
+ * the original file themselves.
+ * <p>
+ * Files are processed on a fixed pool of worker threads with a bounded queue. The file is
+ * read through the {@link BlobCache}, hashed with SHA-256, and its text is stored as an
+ * {@link ExtractedText} under that hash; a file whose hash is already stored is not parsed
+ * again. The hash is then recorded on the material. Jobs that do not fit in the queue, or
+ * are lost in a restart, are queued again the next time the material's text is requested.
+ * <p>
+ * Each job is timed under {@code classroom.text-extraction}, tagged with its result
+ * ({@code extracted}, {@code reused} or {@code failed}). Jobs dropped because the queue was
+ * full are counted as {@code classroom.text-extraction.rejected}, and the number of
+ * waiting jobs is published as {@code classroom.text-extraction.queue}.
+ */
+@Service
+public class TextExtractionService implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(TextExtractionService.class);
+
+    @Autowired
+    private ExtractedTextRepository extractedTextRepository;
+
+    @Autowired
+    private ClassroomShards classroomShards;
+
+    @Autowired
+    private BlobStorageService blobStorageService;
+
+    @Autowired
+    private BlobCache blobCache;
+
+    // Longer texts are cut off, keeping the stored document well below MongoDB's size limit.
+    @Value("${classroom.text-extraction.max-characters:5000000}")
+    private int maxCharacters;
+
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolExecutor workers;
+    private final Counter rejected;
+
+    // Materials with a job queued or running, so each is processed once at a time.
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    public TextExtractionService(@Value("${classroom.text-extraction.threads:2}") int threads,
+                                 @Value("${classroom.text-extraction.queue-capacity:1000}") int queueCapacity,
+                                 MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.workers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "text-extraction");
+                    thread.setDaemon(true);
+                    // Parsing is background work; request threads come first.
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        Gauge.builder("classroom.text-extraction.queue", workers, executor -> executor.getQueue().size())
+                .description("Uploaded files waiting for text extraction")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("classroom.text-extraction.rejected")
+                .description("Text extraction jobs dropped because the queue was full")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Checks whether text can be extracted from a stored file, by its extension.
+     *
+     * @param fileUrl The URL of the stored file.
+     * @return True for PDF and DOCX files.
+     */
+    public boolean supports(String fileUrl) {
+        String name = blobStorageService.blobNameOf(fileUrl).toLowerCase(Locale.ROOT);
+        return name.endsWith(".pdf") || name.endsWith(".docx");
+    }
+
+    /**
+     * Queues the extraction of a file material's text. Materials without a supported file,
+     * or already queued, are ignored. Never blocks: if the queue is full the job is dropped
+     * and runs when the text is first requested.
+     *
+     * @param classroomId The ID of the classroom containing the material.
+     * @param sectionId The ID of the section containing the material.
+     * @param material The saved material.
+     */
+    public void extractLater(String classroomId, String sectionId, Material material) {
+        String materialId = material.getId();
+        String fileUrl = material.getFileUrl();
+        if (fileUrl == null || !supports(fileUrl) || !pending.add(materialId)) {
+            return;
+        }
+        try {
+            workers.execute(() -> {
+                try {
+                    extract(classroomId, sectionId, materialId, fileUrl);
+                } catch (Exception e) {
+                    log.warn("Text extraction failed for material {}", materialId, e);
+                } finally {
+                    pending.remove(materialId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.remove(materialId);
+            rejected.increment();
+            log.warn("Text extraction queue is full; material {} will be processed when requested", materialId);
+        }
+    }
+
+    /**
+     * Finds the extracted text of a file material.
+     *
+     * @param classroomId The ID of the classroom containing the material.
+     * @param materialId The ID of the material.
+     * @return The extracted text, or empty while the file has not been processed yet.
+     * @throws RuntimeException if the material is not found.
+     * @throws IllegalArgumentException if the material is not a PDF or DOCX file.
+     */
+    public Optional<ExtractedText> find(String classroomId, String materialId) {
+        Query query = Query.query(Criteria.where("id").is(classroomId).and("sections.materials._id").is(materialId));
+        query.fields().include("sections._id").include("sections.materials._id")
+                .include("sections.materials.fileUrl").include("sections.materials.contentHash");
+        Classroom classroom = classroomShards.forClassroom(classroomId).findOne(query, Classroom.class);
+        if (classroom != null) {
+            for (Section section : classroom.getSections()) {
+                for (Material material : section.getMaterials()) {
+                    if (material.getId().equals(materialId)) {
+                        return find(classroomId, section.getId(), material);
+                    }
+                }
+            }
+        }
+        throw new RuntimeException("Material not found with ID: " + materialId);
+    }
+
+    private Optional<ExtractedText> find(String classroomId, String sectionId, Material material) {
+        if (material.getFileUrl() == null || !supports(material.getFileUrl())) {
+            throw new IllegalArgumentException("Text can only be extracted from PDF and DOCX files.");
+        }
+        // The hash is recorded only after the text is stored.
+        if (material.getContentHash() != null) {
+            return extractedTextRepository.findById(material.getContentHash());
+        }
+        // Queued again in case the original job was dropped or lost.
+        extractLater(classroomId, sectionId, material);
+        return Optional.empty();
+    }
+
+    /**
+     * Decompresses an extracted text.
+     *
+     * @param extracted The extracted text.
+     * @return The full text.
+     */
+    public String text(ExtractedText extracted) {
+        try {
+            return MaterialBodyStore.gunzip(extracted.getContent());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Corrupt extracted text " + extracted.getId(), e);
+        }
+    }
+
+    private void extract(String classroomId, String sectionId, String materialId, String fileUrl) throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String blobName = blobStorageService.blobNameOf(fileUrl);
+        String hash;
+        String result = "reused";
+        try (BlobCache.Hold hold = blobCache.hold(blobName)) {
+            Path file = hold.blob().file();
+            hash = sha256(file);
+            if (!extractedTextRepository.existsById(hash)) {
+                ExtractedText extracted = read(hash, blobName, file);
+                extractedTextRepository.save(extracted);
+                result = extracted.getError() == null ? "extracted" : "failed";
+            }
+        }
+
+        classroomShards.forClassroom(classroomId).updateFirst(Query.query(Criteria.where("id").is(classroomId)),
+                new Update().set("sections.$[s].materials.$[m].contentHash", hash)
+                        .filterArray(Criteria.where("s._id").is(sectionId))
+                        .filterArray(Criteria.where("m._id").is(materialId)),
+                Classroom.class);
+        sample.stop(Timer.builder("classroom.text-extraction")
+                .description("Text extraction of uploaded files")
+                .tag("result", result)
+                .register(meterRegistry));
+    }
+
+    /**
+     * Parses a file. Files that cannot be parsed, such as encrypted or corrupt ones, are
+     * recorded with the reason so they are not parsed again.
+     */
+    private ExtractedText read(String hash, String blobName, Path file) throws IOException {
+        ExtractedText extracted = new ExtractedText();
+        extracted.setId(hash);
+        extracted.setExtractedAt(LocalDateTime.now());
+        try {
+            String text = blobName.toLowerCase(Locale.ROOT).endsWith(".pdf") ? pdfText(file) : docxText(file);
+            if (text.length() > maxCharacters) {
+                text = text.substring(0, maxCharacters);
+                extracted.setTruncated(true);
+            }
+            extracted.setContent(MaterialBodyStore.gzip(text));
+            extracted.setLength(text.length());
+        } catch (NoSuchFileException e) {
+            // Evicted from the cache meanwhile; the file itself is fine.
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            extracted.setError(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        }
+        return extracted;
+    }
+
+    private static String pdfText(Path file) throws IOException {
+        try (PDDocument document = Loader.loadPDF(file.toFile())) {
+            return new PDFTextStripper().getText(document);
+        }
+    }
+
+    private static String docxText(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file);
+             XWPFDocument document = new XWPFDocument(in);
+             XWPFWordExtractor extractor = new XWPFWordExtractor(document)) {
+            return extractor.getText();
+        }
+    }
+
+    private static String sha256(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] buffer = new byte[64 * 1024];
+            for (int read; (read = in.read(buffer)) > 0; ) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    @Override
+    public void destroy() {
+        workers.shutdownNow();
+    }
+}
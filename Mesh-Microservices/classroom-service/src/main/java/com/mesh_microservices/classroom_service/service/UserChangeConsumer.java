@@ -0,0 +1,235 @@
+package com.mesh_microservices.classroom_service.service;
+
+import com.mesh_microservices.classroom_service.model.Classroom;
+import com.mesh_microservices.classroom_service.model.SyncCheckpoint;
+import com.mesh_microservices.classroom_service.model.User;
+import com.mesh_microservices.classroom_service.model.UserChange;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Applies user changes from the user-service to the user data copied into classrooms.
+ * <p>
+ * Classrooms store the faculty member's name and each submission stores the student's
+ * name; enrolment is a list of student IDs. The user-service records every rename and
+ * deletion in an outbox and serves it as a change feed. This consumer reads the feed in
+ * batches from the last checkpoint, keeps only the latest change per user, and turns the
+ * batch into a few multi-document updates executed as one unordered bulk write, however
+ * many classrooms each user appears in. The checkpoint is moved only after the bulk write
+ * succeeded, so a failed batch is read again on the next poll.
+ * <p>
+ * The user-service purges old changes. If the checkpoint has fallen behind them, for
+ * instance after a long outage, the feed answers 410 (Gone); the consumer then
+ * resynchronizes every user referenced by a classroom from the current user data, and
+ * reads on after the purged changes.
+ * <p>
+ * The updates are idempotent, so several instances may poll at the same time without harm.
+ */
+@Service
+public class UserChangeConsumer {
+
+    private static final Logger log = LoggerFactory.getLogger(UserChangeConsumer.class);
+
+    // The checkpoint document of the user change feed.
+    private static final String CHECKPOINT_ID = "user-changes";
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ClassroomShards classroomShards;
+
+    @Autowired
+    private UserLookupClient userLookupClient;
+
+    // The maximum number of changes read per request.
+    @Value("${classroom.user-changes.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * Reads and applies all changes published since the last checkpoint.
+     */
+    @Scheduled(fixedDelayString = "${classroom.user-changes.poll-interval:PT10S}")
+    public void poll() {
+        SyncCheckpoint checkpoint = mongoTemplate.findById(CHECKPOINT_ID, SyncCheckpoint.class);
+        String after = checkpoint != null ? checkpoint.getLastEventId() : null;
+        try {
+            while (true) {
+                UserChange[] changes;
+                try {
+                    changes = restTemplate.getForObject(
+                            "http://user-service/users/changes?after={after}&limit={limit}",
+                            UserChange[].class, after == null ? "" : after, batchSize);
+                } catch (HttpClientErrorException.Gone e) {
+                    String purgedThrough = (String) e.getResponseBodyAs(Map.class).get("purgedThrough");
+                    log.warn("User changes up to {} were purged before being applied; resynchronizing", purgedThrough);
+                    resync();
+                    after = purgedThrough;
+                    saveCheckpoint(after);
+                    continue;
+                }
+                if (changes == null || changes.length == 0) {
+                    return;
+                }
+                apply(List.of(changes));
+                after = changes[changes.length - 1].getId();
+                saveCheckpoint(after);
+                if (changes.length < batchSize) {
+                    return;
+                }
+            }
+        } catch (RestClientException | UserLookupClient.UnavailableException e) {
+            log.warn("Could not read the user change feed, retrying on the next poll: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Brings the copied names and enrolment lists up to date with the current users: every
+     * user referenced by a classroom is applied as renamed to their current name, or as
+     * deleted if they no longer exist.
+     */
+    private void resync() {
+        Set<String> userIds = new LinkedHashSet<>();
+        for (MongoTemplate shard : classroomShards.all()) {
+            userIds.addAll(shard.findDistinct(new Query(), "facultyId", Classroom.class, String.class));
+            userIds.addAll(shard.findDistinct(new Query(), "studentIds", Classroom.class, String.class));
+            userIds.addAll(shard.findDistinct(new Query(), "assignments.submissions.studentId", Classroom.class, String.class));
+        }
+        userIds.remove(null);
+        Map<String, String> names = currentNames(userIds);
+
+        List<UserChange> changes = new ArrayList<>();
+        for (String userId : userIds) {
+            UserChange change = new UserChange();
+            change.setUserId(userId);
+            change.setType(names.containsKey(userId) ? UserChange.Type.UPDATED : UserChange.Type.DELETED);
+            change.setName(names.get(userId));
+            changes.add(change);
+            if (changes.size() == batchSize) {
+                apply(changes);
+                changes.clear();
+            }
+        }
+        if (!changes.isEmpty()) {
+            apply(changes);
+        }
+        log.info("Resynchronized {} users referenced by classrooms", userIds.size());
+    }
+
+    /**
+     * Looks up the current names of the given users. Users missing from the batched
+     * lookups, which may read from a lagging secondary, are looked up once more one by
+     * one, so a user is only reported missing if they were really deleted.
+     */
+    private Map<String, String> currentNames(Set<String> userIds) {
+        Map<String, String> names = new HashMap<>();
+        List<String> ids = new ArrayList<>(userIds);
+        try {
+            for (int from = 0; from < ids.size(); from += batchSize) {
+                userLookupClient.findByIds(ids.subList(from, Math.min(from + batchSize, ids.size())))
+                        .forEach(user -> names.put(user.getId(), user.getName()));
+            }
+        } catch (UserLookupClient.UnavailableException e) {
+            User[] users = restTemplate.getForObject("http://user-service/users", User[].class);
+            if (users != null) {
+                for (User user : users) {
+                    names.put(user.getId(), user.getName());
+                }
+            }
+        }
+        for (String userId : ids) {
+            if (!names.containsKey(userId)) {
+                findUser(userId).ifPresent(user -> names.put(userId, user.getName()));
+            }
+        }
+        return names;
+    }
+
+    private Optional<User> findUser(String userId) {
+        try {
+            return userLookupClient.findById(userId);
+        } catch (UserLookupClient.UnavailableException e) {
+            try {
+                return Optional.ofNullable(restTemplate.getForObject("http://user-service/users/{userId}", User.class, userId));
+            } catch (HttpClientErrorException.NotFound notFound) {
+                return Optional.empty();
+            }
+        }
+    }
+
+    /**
+     * Applies a batch of changes with one unordered bulk write per shard.
+     */
+    private void apply(List<UserChange> changes) {
+        // Only the latest change of each user matters.
+        Map<String, UserChange> latest = new LinkedHashMap<>();
+        for (UserChange change : changes) {
+            latest.put(change.getUserId(), change);
+        }
+
+        int modified = 0;
+        for (MongoTemplate shard : classroomShards.all()) {
+            modified += apply(shard, latest.values());
+        }
+        List<String> deleted = latest.values().stream()
+                .filter(change -> change.getType() == UserChange.Type.DELETED)
+                .map(UserChange::getUserId)
+                .toList();
+        if (!deleted.isEmpty()) {
+            classroomShards.removeStudents(deleted);
+        }
+        log.info("Applied {} user changes with {} classroom updates", latest.size(), modified);
+    }
+
+    private int apply(MongoTemplate shard, Collection<UserChange> changes) {
+        BulkOperations bulk = shard.bulkOps(BulkOperations.BulkMode.UNORDERED, Classroom.class);
+        for (UserChange change : changes) {
+            String userId = change.getUserId();
+            if (change.getType() == UserChange.Type.DELETED) {
+                // Submissions are kept as a record of the work; only the enrolment goes.
+                bulk.updateMulti(Query.query(Criteria.where("studentIds").is(userId)),
+                        new Update().pull("studentIds", userId));
+            } else {
+                bulk.updateMulti(Query.query(Criteria.where("facultyId").is(userId)),
+                        new Update().set("facultyName", change.getName()));
+                // Raw names are used in array filters; embedded fields are matched as stored.
+                bulk.updateMulti(Query.query(Criteria.where("assignments.submissions.studentId").is(userId)),
+                        new Update().set("assignments.$[].submissions.$[s].studentName", change.getName())
+                                .filterArray(Criteria.where("s.studentId").is(userId)));
+            }
+        }
+        return bulk.execute().getModifiedCount();
+    }
+
+    private void saveCheckpoint(String lastEventId) {
+        mongoTemplate.upsert(Query.query(Criteria.where("id").is(CHECKPOINT_ID)),
+                new Update().set("lastEventId", lastEventId).set("updatedAt", LocalDateTime.now()),
+                SyncCheckpoint.class);
+    }
+}
@@ -0,0 +1,191 @@
+package com.mesh_microservices.classroom_service.service;
+
+import com.mesh_microservices.classroom_service.model.User;
+import com.mesh_microservices.user_service.grpc.GetUserByEmailRequest;
+import com.mesh_microservices.user_service.grpc.GetUserByIdRequest;
+import com.mesh_microservices.user_service.grpc.GetUsersByIdsRequest;
+import com.mesh_microservices.user_service.grpc.UserLookupGrpc;
+import com.mesh_microservices.user_service.grpc.UserProfile;
+import io.grpc.ManagedChannel;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+import io.micrometer.core.instrument.binder.grpc.ObservationGrpcClientInterceptor;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Looks up users in the user-service over gRPC.
+ * <p>
+ * user-service instances advertise their gRPC port in their Eureka metadata under
+ * {@code grpc-port}. Calls are spread round-robin over those instances, each reached
+ * through one long-lived HTTP/2 channel that multiplexes all concurrent calls, instead
+ * of a JSON request per lookup. Calls are observed, so they appear in the
+ * {@code grpc.client} metrics and propagate the current trace.
+ * <p>
+ * When gRPC is disabled, no instance advertises a port, or a call fails, a
+ * {@link UnavailableException} tells the caller to fall back to the REST endpoint.
+ */
+@Service
+public class UserLookupClient implements DisposableBean {
+
+    // The Eureka metadata key under which user-service publishes its gRPC port.
+    private static final String GRPC_PORT_METADATA = "grpc-port";
+
+    @Autowired
+    private DiscoveryClient discoveryClient;
+
+    @Autowired
+    private ObservationRegistry observationRegistry;
+
+    // Whether lookups go over gRPC at all.
+    @Value("${classroom.users.grpc.enabled:true}")
+    private boolean enabled;
+
+    // The time a single lookup may take before the caller falls back to REST.
+    @Value("${classroom.users.grpc.deadline:PT2S}")
+    private Duration deadline;
+
+    // One channel per user-service instance, keyed by "host:port".
+    private final Map<String, ManagedChannel> channels = new ConcurrentHashMap<>();
+    private final AtomicInteger nextInstance = new AtomicInteger();
+
+    /**
+     * Signals that a lookup could not be made over gRPC and should be retried over REST.
+     */
+    public static class UnavailableException extends RuntimeException {
+        public UnavailableException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    /**
+     * Finds a user by email address.
+     *
+     * @param email The email of the user to find.
+     * @return The user, or empty if no user has that email.
+     * @throws UnavailableException if the lookup could not be made over gRPC.
+     */
+    public Optional<User> findByEmail(String email) {
+        UserLookupGrpc.UserLookupBlockingStub stub = UserLookupGrpc.newBlockingStub(channel())
+                .withDeadlineAfter(deadline.toMillis(), TimeUnit.MILLISECONDS);
+        try {
+            return Optional.of(toUser(stub.getUserByEmail(GetUserByEmailRequest.newBuilder().setEmail(email).build())));
+        } catch (StatusRuntimeException e) {
+            if (e.getStatus().getCode() == Status.Code.NOT_FOUND) {
+                return Optional.empty();
+            }
+            throw new UnavailableException("gRPC user lookup failed: " + e.getStatus(), e);
+        }
+    }
+
+    /**
+     * Finds a user by ID. The user-service reads it from the primary, so a missing user
+     * has really been deleted.
+     *
+     * @param id The ID of the user to find.
+     * @return The user, or empty if no user has that ID.
+     * @throws UnavailableException if the lookup could not be made over gRPC.
+     */
+    public Optional<User> findById(String id) {
+        UserLookupGrpc.UserLookupBlockingStub stub = UserLookupGrpc.newBlockingStub(channel())
+                .withDeadlineAfter(deadline.toMillis(), TimeUnit.MILLISECONDS);
+        try {
+            return Optional.of(toUser(stub.getUserById(GetUserByIdRequest.newBuilder().setId(id).build())));
+        } catch (StatusRuntimeException e) {
+            if (e.getStatus().getCode() == Status.Code.NOT_FOUND) {
+                return Optional.empty();
+            }
+            throw new UnavailableException("gRPC user lookup failed: " + e.getStatus(), e);
+        }
+    }
+
+    /**
+     * Finds the users among the given IDs in one call. The user-service may answer from a
+     * secondary, so a user created moments ago can be missing.
+     *
+     * @param ids The IDs of the users to find.
+     * @return The users found; unknown IDs are left out.
+     * @throws UnavailableException if the lookup could not be made over gRPC.
+     */
+    public List<User> findByIds(Collection<String> ids) {
+        UserLookupGrpc.UserLookupBlockingStub stub = UserLookupGrpc.newBlockingStub(channel())
+                .withDeadlineAfter(deadline.toMillis(), TimeUnit.MILLISECONDS);
+        try {
+            return stub.getUsersByIds(GetUsersByIdsRequest.newBuilder().addAllIds(ids).build()).getUsersList().stream()
+                    .map(UserLookupClient::toUser)
+                    .toList();
+        } catch (StatusRuntimeException e) {
+            throw new UnavailableException("gRPC user lookup failed: " + e.getStatus(), e);
+        }
+    }
+
+    /**
+     * Picks the next user-service instance that serves gRPC and returns its channel,
+     * creating it on first use. Channels of instances that have left the registry are closed.
+     */
+    private ManagedChannel channel() {
+        if (!enabled) {
+            throw new UnavailableException("gRPC user lookups are disabled", null);
+        }
+        List<ServiceInstance> instances = discoveryClient.getInstances("user-service").stream()
+                .filter(instance -> instance.getMetadata().containsKey(GRPC_PORT_METADATA))
+                .toList();
+        if (instances.isEmpty()) {
+            throw new UnavailableException("No user-service instance advertises a gRPC port", null);
+        }
+
+        Set<String> live = instances.stream().map(UserLookupClient::address).collect(Collectors.toSet());
+        channels.entrySet().removeIf(entry -> {
+            if (live.contains(entry.getKey())) {
+                return false;
+            }
+            entry.getValue().shutdown();
+            return true;
+        });
+
+        ServiceInstance instance = instances.get(Math.floorMod(nextInstance.getAndIncrement(), instances.size()));
+        return channels.computeIfAbsent(address(instance), key -> NettyChannelBuilder
+                .forAddress(instance.getHost(), Integer.parseInt(instance.getMetadata().get(GRPC_PORT_METADATA)))
+                .usePlaintext()
+                .intercept(new ObservationGrpcClientInterceptor(observationRegistry))
+                .build());
+    }
+
+    private static String address(ServiceInstance instance) {
+        return instance.getHost() + ":" + instance.getMetadata().get(GRPC_PORT_METADATA);
+    }
+
+    private static User toUser(UserProfile profile) {
+        User user = new User();
+        user.setId(profile.getId());
+        user.setName(profile.getName());
+        user.setEmail(profile.getEmail());
+        return user;
+    }
+
+    /**
+     * Closes all channels when the application shuts down.
+     */
+    @Override
+    public void destroy() {
+        channels.values().forEach(ManagedChannel::shutdown);
+        channels.clear();
+    }
+}
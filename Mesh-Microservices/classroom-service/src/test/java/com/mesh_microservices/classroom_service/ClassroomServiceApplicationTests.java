@@ -1,11 +1,31 @@
 package com.mesh_microservices.classroom_service;
 
+import com.mesh_microservices.classroom_service.support.MongoStandIn;
+import de.bwaldvogel.mongo.MongoServer;
+import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
 
-@SpringBootTest
+@SpringBootTest(properties = {
+		"classroom.blob.backend=local",
+		"eureka.client.enabled=false"
+})
 class ClassroomServiceApplicationTests {
 
+	private static final MongoServer mongoServer = MongoStandIn.create();
+
+	@DynamicPropertySource
+	static void mongoProperties(DynamicPropertyRegistry registry) {
+		registry.add("spring.data.mongodb.uri", () -> mongoServer.bindAndGetConnectionString() + "/classroom_db");
+	}
+
+	@AfterAll
+	static void stopMongo() {
+		mongoServer.shutdownNow();
+	}
+
 	@Test
 	void contextLoads() {
 	}
@@ -0,0 +1,81 @@
+package com.mesh_microservices.classroom_service.config;
+
+import com.mesh_microservices.classroom_service.support.MongoStandIn;
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import de.bwaldvogel.mongo.MongoServer;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.tracing.handler.DefaultTracingObservationHandler;
+import io.micrometer.tracing.otel.bridge.OtelCurrentTraceContext;
+import io.micrometer.tracing.otel.bridge.OtelTracer;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifies that MongoDB commands are traced as children of the request that issued them,
+ * using an in-memory span exporter and an in-process Mongo stand-in instead of an
+ * external collector and database.
+ */
+class TracingConfigTests {
+
+    private final InMemorySpanExporter exporter = InMemorySpanExporter.create();
+    private final SdkTracerProvider tracerProvider = SdkTracerProvider.builder()
+            .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+            .build();
+    private final ObservationRegistry observationRegistry = ObservationRegistry.create();
+    private MongoServer mongoServer;
+
+    @BeforeEach
+    void setUp() {
+        OtelTracer tracer = new OtelTracer(tracerProvider.get("test"), new OtelCurrentTraceContext(), event -> {
+        });
+        observationRegistry.observationConfig().observationHandler(new DefaultTracingObservationHandler(tracer));
+        mongoServer = MongoStandIn.create();
+    }
+
+    @AfterEach
+    void tearDown() {
+        mongoServer.shutdownNow();
+        tracerProvider.close();
+    }
+
+    @Test
+    void mongoCommandSpansAreChildrenOfTheCurrentObservation() {
+        InetSocketAddress address = mongoServer.bind();
+        MongoClientSettings.Builder settings = MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString("mongodb://" + address.getHostString() + ":" + address.getPort()));
+        new TracingConfig().mongoObservationCustomizer(observationRegistry).customize(settings);
+
+        try (MongoClient client = MongoClients.create(settings.build())) {
+            Observation.createNotStarted("classroom.request", observationRegistry).observe(() ->
+                    client.getDatabase("test").getCollection("classrooms").insertOne(new Document("classroomName", "Cloud")));
+        }
+
+        List<SpanData> spans = exporter.getFinishedSpanItems();
+        SpanData request = spans.stream()
+                .filter(span -> span.getName().equals("classroom.request"))
+                .findFirst()
+                .orElseThrow();
+        assertThat(spans)
+                .filteredOn(span -> span != request)
+                .isNotEmpty()
+                .allSatisfy(span -> {
+                    assertThat(span.getTraceId()).isEqualTo(request.getTraceId());
+                    assertThat(span.getParentSpanId()).isEqualTo(request.getSpanId());
+                });
+    }
+}
@@ -0,0 +1,84 @@
+package com.mesh_microservices.classroom_service.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verifies that held copies survive eviction and that copies carry the blob's modification
+ * time from storage, using a stubbed blob store.
+ */
+class BlobCacheTests {
+
+    private static final Instant MODIFIED = Instant.parse("2024-03-01T10:15:30Z");
+
+    @TempDir
+    Path directory;
+
+    private BlobStorageService blobStorageService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        blobStorageService = mock(BlobStorageService.class);
+        when(blobStorageService.downloadBlob(anyString(), any(Path.class))).thenAnswer(invocation -> {
+            Files.write(invocation.getArgument(1), new byte[6]);
+            return MODIFIED;
+        });
+    }
+
+    @Test
+    void heldCopiesAreOnlyEvictedOnceReleased() throws Exception {
+        BlobCache cache = cache();
+
+        BlobCache.Hold first = cache.hold("first.pdf");
+        Path firstFile = first.blob().file();
+        // The second copy takes the cache over its limit while the first is still held.
+        try (BlobCache.Hold second = cache.hold("second.pdf")) {
+            assertThat(firstFile).exists();
+            assertThat(second.blob().file()).exists();
+
+            first.close();
+            assertThat(firstFile).doesNotExist();
+            assertThat(second.blob().file()).exists();
+        }
+        // Closing again changes nothing.
+        first.close();
+
+        try (BlobCache.Hold again = cache.hold("second.pdf")) {
+            assertThat(again.blob().file()).exists();
+        }
+        verify(blobStorageService).downloadBlob(eq("first.pdf"), any(Path.class));
+        verify(blobStorageService).downloadBlob(eq("second.pdf"), any(Path.class));
+    }
+
+    @Test
+    void copiesKeepTheBlobsModificationTimeAcrossRestarts() throws Exception {
+        try (BlobCache.Hold hold = cache().hold("notes.pdf")) {
+            assertThat(hold.blob().lastModified()).isEqualTo(MODIFIED);
+        }
+
+        try (BlobCache.Hold hold = cache().hold("notes.pdf")) {
+            assertThat(hold.blob().lastModified()).isEqualTo(MODIFIED);
+        }
+        verify(blobStorageService, times(1)).downloadBlob(anyString(), any(Path.class));
+    }
+
+    private BlobCache cache() throws Exception {
+        return new BlobCache(blobStorageService, directory, DataSize.ofBytes(10), new SimpleMeterRegistry());
+    }
+}
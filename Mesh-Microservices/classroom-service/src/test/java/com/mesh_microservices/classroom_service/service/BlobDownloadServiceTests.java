@@ -0,0 +1,107 @@
+package com.mesh_microservices.classroom_service.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verifies conditional and range requests for downloads served from the blob cache.
+ */
+class BlobDownloadServiceTests {
+
+    private static final String FILE_URL = "https://storage.example/materials/notes.txt";
+    private static final byte[] CONTENT = "0123456789".getBytes(StandardCharsets.US_ASCII);
+    private static final Instant MODIFIED = Instant.parse("2024-03-01T10:15:30Z");
+
+    @TempDir
+    Path directory;
+
+    private BlobDownloadService downloadService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        BlobStorageService blobStorageService = mock(BlobStorageService.class);
+        when(blobStorageService.blobNameOf(FILE_URL)).thenReturn("notes.txt");
+        when(blobStorageService.downloadBlob(eq("notes.txt"), any(Path.class))).thenAnswer(invocation -> {
+            Files.write(invocation.getArgument(1), CONTENT);
+            return MODIFIED;
+        });
+        downloadService = new BlobDownloadService();
+        ReflectionTestUtils.setField(downloadService, "blobStorageService", blobStorageService);
+        ReflectionTestUtils.setField(downloadService, "blobCache",
+                new BlobCache(blobStorageService, directory, DataSize.ofMegabytes(1), new SimpleMeterRegistry()));
+    }
+
+    @Test
+    void servesTheWholeFileWithItsValidators() throws Exception {
+        MockHttpServletResponse response = serve(new MockHttpServletRequest("GET", "/download"));
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsByteArray()).isEqualTo(CONTENT);
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isNotBlank();
+        assertThat(response.getDateHeader(HttpHeaders.LAST_MODIFIED)).isEqualTo(MODIFIED.toEpochMilli());
+        assertThat(response.getHeader(HttpHeaders.ACCEPT_RANGES)).isEqualTo("bytes");
+    }
+
+    @Test
+    void answersRevalidationWithNotModified() throws Exception {
+        String etag = serve(new MockHttpServletRequest("GET", "/download")).getHeader(HttpHeaders.ETAG);
+
+        MockHttpServletRequest byTag = new MockHttpServletRequest("GET", "/download");
+        byTag.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+        assertThat(serve(byTag).getStatus()).isEqualTo(304);
+
+        MockHttpServletRequest byDate = new MockHttpServletRequest("GET", "/download");
+        byDate.addHeader(HttpHeaders.IF_MODIFIED_SINCE, MODIFIED.toEpochMilli());
+        assertThat(serve(byDate).getStatus()).isEqualTo(304);
+    }
+
+    @Test
+    void servesASingleRangeWhileTheCopyIsCurrent() throws Exception {
+        String etag = serve(new MockHttpServletRequest("GET", "/download")).getHeader(HttpHeaders.ETAG);
+
+        MockHttpServletRequest range = new MockHttpServletRequest("GET", "/download");
+        range.addHeader(HttpHeaders.RANGE, "bytes=2-5");
+        range.addHeader(HttpHeaders.IF_RANGE, etag);
+        MockHttpServletResponse partial = serve(range);
+        assertThat(partial.getStatus()).isEqualTo(206);
+        assertThat(partial.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 2-5/10");
+        assertThat(partial.getContentAsString()).isEqualTo("2345");
+
+        MockHttpServletRequest stale = new MockHttpServletRequest("GET", "/download");
+        stale.addHeader(HttpHeaders.RANGE, "bytes=2-5");
+        stale.addHeader(HttpHeaders.IF_RANGE, "\"other\"");
+        MockHttpServletResponse whole = serve(stale);
+        assertThat(whole.getStatus()).isEqualTo(200);
+        assertThat(whole.getContentAsByteArray()).isEqualTo(CONTENT);
+
+        MockHttpServletRequest unsatisfiable = new MockHttpServletRequest("GET", "/download");
+        unsatisfiable.addHeader(HttpHeaders.RANGE, "bytes=20-");
+        MockHttpServletResponse rejected = serve(unsatisfiable);
+        assertThat(rejected.getStatus()).isEqualTo(416);
+        assertThat(rejected.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes */10");
+    }
+
+    private MockHttpServletResponse serve(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        downloadService.serve(FILE_URL, request, response);
+        return response;
+    }
+}
@@ -0,0 +1,131 @@
+package com.mesh_microservices.classroom_service.service;
+
+import com.mongodb.client.ClientSession;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.bson.BsonInt64;
+import org.bson.BsonTimestamp;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verifies that the times of a user's writes reach later requests through the causal token,
+ * with stubbed shards and sessions.
+ */
+class CausalReadsTests {
+
+    private static final String USER = "a@example.com";
+    private static final String METHOD = "listSubmissions";
+
+    private final MongoTemplate primary = shard();
+    private final MongoTemplate other = shard();
+    private final ClientSession session = mock(ClientSession.class);
+    private final BsonDocument clusterTime = new BsonDocument("clusterTime", new BsonTimestamp(1, 1))
+            .append("keyId", new BsonInt64(7));
+    private CausalReads causalReads;
+
+    @BeforeEach
+    void setUp() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("classroom.reads.preference." + METHOD, "secondaryPreferred");
+        causalReads = new CausalReads(environment,
+                new ClassroomShards(primary, Map.of("b", other), Duration.ofSeconds(1)),
+                Duration.ofSeconds(90), Duration.ofMinutes(1), new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void writeTokenMakesLaterRequestsWaitForTheWrite() {
+        BsonTimestamp written = secondsAgo(5);
+        MockHttpServletResponse response = request(null);
+        causalReads.write(USER, other, shard -> "saved");
+        String token = response.getHeader(CausalReads.TOKEN_HEADER);
+        assertThat(token).isNotBlank();
+
+        // Another request, possibly served by another instance, that sends the token back.
+        request(token);
+        assertThat(waitsFor(USER, other, written)).isTrue();
+        assertThat(waitsFor(USER, primary, written)).isFalse();
+        assertThat(waitsFor("b@example.com", other, written)).isFalse();
+
+        request(null);
+        assertThat(waitsFor(USER, other, written)).isFalse();
+        request("not-a-token");
+        assertThat(waitsFor(USER, other, written)).isFalse();
+    }
+
+    @Test
+    void writesOnSeveralShardsAccumulateAndOldOnesAreIgnored() {
+        BsonTimestamp old = secondsAgo(120);
+        MockHttpServletResponse first = request(null);
+        causalReads.write(USER, primary, shard -> "saved");
+
+        BsonTimestamp recent = secondsAgo(5);
+        MockHttpServletResponse second = request(first.getHeader(CausalReads.TOKEN_HEADER));
+        causalReads.write(USER, other, shard -> "saved");
+
+        request(second.getHeader(CausalReads.TOKEN_HEADER));
+        assertThat(waitsFor(USER, other, recent)).isTrue();
+        // The secondaries have caught up with writes older than the causal window.
+        assertThat(waitsFor(USER, primary, old)).isFalse();
+    }
+
+    private BsonTimestamp secondsAgo(long seconds) {
+        BsonTimestamp time = new BsonTimestamp((int) (System.currentTimeMillis() / 1000 - seconds), 1);
+        when(session.getOperationTime()).thenReturn(time);
+        when(session.getClusterTime()).thenReturn(new BsonDocument("$clusterTime", clusterTime));
+        return time;
+    }
+
+    /**
+     * Runs a secondary read and tells whether its session was advanced to the given write.
+     */
+    private boolean waitsFor(String user, MongoTemplate shard, BsonTimestamp written) {
+        clearInvocations(session);
+        causalReads.read(METHOD, user, shard, template -> null);
+        return mockingDetails(session).getInvocations().stream()
+                .anyMatch(call -> call.getMethod().getName().equals("advanceOperationTime")
+                        && call.getArgument(0).equals(written));
+    }
+
+    private static MockHttpServletResponse request(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        if (token != null) {
+            request.addHeader(CausalReads.TOKEN_HEADER, token);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+        return response;
+    }
+
+    private MongoTemplate shard() {
+        MongoTemplate shard = mock(MongoTemplate.class);
+        MongoDatabaseFactory factory = mock(MongoDatabaseFactory.class);
+        when(shard.getMongoDatabaseFactory()).thenReturn(factory);
+        when(factory.getSession(any())).thenAnswer(invocation -> session);
+        when(shard.withSession(any(ClientSession.class))).thenReturn(mock(MongoTemplate.class));
+        return shard;
+    }
+}
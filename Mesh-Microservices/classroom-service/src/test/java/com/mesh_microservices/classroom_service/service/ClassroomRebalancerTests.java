@@ -0,0 +1,137 @@
+package com.mesh_microservices.classroom_service.service;
+
+import com.mesh_microservices.classroom_service.model.Classroom;
+import com.mesh_microservices.classroom_service.model.ClassroomRoute;
+import com.mesh_microservices.classroom_service.support.MongoStandIn;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import de.bwaldvogel.mongo.MongoServer;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifies that classrooms stored in one database are spread over added shards by the
+ * rebalancer and stay reachable through their routes, using in-process Mongo stand-ins
+ * for the shard databases.
+ */
+class ClassroomRebalancerTests {
+
+    private static final int CLASSROOMS = 40;
+
+    private final List<MongoServer> servers = new ArrayList<>();
+    private final List<MongoClient> clients = new ArrayList<>();
+    private MongoTemplate primary;
+
+    @BeforeEach
+    void setUp() {
+        primary = new MongoTemplate(client(), "classroom_db");
+    }
+
+    @AfterEach
+    void tearDown() {
+        clients.forEach(MongoClient::close);
+        servers.forEach(MongoServer::shutdownNow);
+    }
+
+    @Test
+    void rebalancingMovesEveryClassroomToItsShardAndKeepsItReachable() {
+        ClassroomShards single = new ClassroomShards(primary, Map.of(), Duration.ofSeconds(1));
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < CLASSROOMS; i++) {
+            Classroom classroom = classroom(i);
+            single.register(classroom);
+            primary.save(classroom);
+            ids.add(classroom.getId());
+        }
+        // One classroom predates routing and has no route yet.
+        Classroom unrouted = classroom(CLASSROOMS);
+        primary.save(unrouted);
+        ids.add(unrouted.getId());
+
+        Map<String, MongoTemplate> added = new LinkedHashMap<>();
+        added.put("b", shard());
+        added.put("c", shard());
+        ClassroomShards shards = new ClassroomShards(primary, added, Duration.ofSeconds(1));
+        ClassroomRebalancer rebalancer = new ClassroomRebalancer(shards, Duration.ZERO, 1000);
+
+        assertThat(rebalancer.rebalance()).isPositive();
+        assertThat(rebalancer.rebalance()).isZero();
+
+        long stored = 0;
+        for (MongoTemplate shard : shards.all()) {
+            stored += shard.count(new Query(), Classroom.class);
+        }
+        assertThat(stored).isEqualTo(ids.size());
+        assertThat(ids).allSatisfy(id -> {
+            String owner = shards.ownerOf(id);
+            assertThat(primary.findById(id, ClassroomRoute.class).getShard()).isEqualTo(owner);
+            assertThat(shards.forClassroom(id)).isSameAs(shards.shard(owner));
+            assertThat(shards.shard(owner).findById(id, Classroom.class).getStudentIds()).containsExactly("student-" + id);
+        });
+        assertThat(ids).extracting(shards::ownerOf).contains(ClassroomShards.PRIMARY, "b", "c");
+
+        String firstId = ids.get(0);
+        Classroom first = shards.forClassroom(firstId).findById(firstId, Classroom.class);
+        assertThat(shards.forCode(first.getClassroomCode())).isSameAs(shards.forClassroom(firstId));
+        assertThat(shards.forStudent("student-" + firstId)).containsExactly(shards.forClassroom(firstId));
+    }
+
+    @Test
+    void firstLookupOfAnUnroutedClassroomRoutesItWithCodeAndStudents() {
+        MongoTemplate b = shard();
+        ClassroomShards shards = new ClassroomShards(primary, Map.of("b", b), Duration.ofSeconds(1));
+        Classroom byId = classroom(0);
+        Classroom byCode = classroom(1);
+        b.save(byId);
+        b.save(byCode);
+
+        assertThat(shards.forClassroom(byId.getId())).isSameAs(b);
+        assertThat(shards.forCode(byCode.getClassroomCode())).isSameAs(b);
+
+        for (Classroom classroom : List.of(byId, byCode)) {
+            ClassroomRoute route = primary.findById(classroom.getId(), ClassroomRoute.class);
+            assertThat(route.getShard()).isEqualTo("b");
+            assertThat(route.getClassroomCode()).isEqualTo(classroom.getClassroomCode());
+            assertThat(shards.forStudent("student-" + classroom.getId())).containsExactly(b);
+        }
+        shards.addStudent(byId.getId(), "joined");
+        assertThat(shards.forStudent("joined")).containsExactly(b);
+    }
+
+    private static Classroom classroom(int i) {
+        Classroom classroom = new Classroom();
+        classroom.setId(new ObjectId().toHexString());
+        classroom.setClassroomName("Classroom " + i);
+        classroom.setClassroomCode("CODE" + i);
+        classroom.setFacultyId("faculty");
+        classroom.setCreatedAt(LocalDateTime.now());
+        classroom.setStudentIds(new ArrayList<>(List.of("student-" + classroom.getId())));
+        return classroom;
+    }
+
+    private MongoTemplate shard() {
+        return new MongoTemplate(new SimpleMongoClientDatabaseFactory(client(), "classroom_db"), primary.getConverter());
+    }
+
+    private MongoClient client() {
+        MongoServer server = MongoStandIn.create();
+        servers.add(server);
+        MongoClient client = MongoClients.create(server.bindAndGetConnectionString());
+        clients.add(client);
+        return client;
+    }
+}
@@ -0,0 +1,382 @@
+package com.mesh_microservices.classroom_service.service;
+
+import com.mesh_microservices.classroom_service.model.Assignment;
+import com.mesh_microservices.classroom_service.model.Classroom;
+import com.mesh_microservices.classroom_service.model.ClassroomSummary;
+import com.mesh_microservices.classroom_service.model.ClassroomSummaryPage;
+import com.mesh_microservices.classroom_service.model.GradeEntry;
+import com.mesh_microservices.classroom_service.model.GradeResult;
+import com.mesh_microservices.classroom_service.model.Material;
+import com.mesh_microservices.classroom_service.model.Section;
+import com.mesh_microservices.classroom_service.model.Submission;
+import com.mesh_microservices.classroom_service.model.User;
+import com.mesh_microservices.classroom_service.support.MongoStandIn;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import de.bwaldvogel.mongo.MongoServer;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verifies that submissions, bulk grades and other classroom changes are written with targeted
+ * updates that keep concurrent changes, and that faculty classroom listings page by cursor, against an
+ * in-process Mongo stand-in. Another request's write is simulated by running it just before
+ * the service's own write.
+ */
+class ClassroomServiceTests {
+
+    private static final String STUDENT_ID = "student-a";
+    private static final String STUDENT_EMAIL = "a@example.com";
+    private static final String OTHER_STUDENT_ID = "student-b";
+    private static final String NEW_STUDENT_ID = "student-c";
+    private static final String NEW_STUDENT_EMAIL = "c@example.com";
+    private static final String FACULTY_ID = "faculty";
+    private static final String FACULTY_EMAIL = "faculty@example.com";
+
+    private MongoServer server;
+    private MongoClient client;
+    private MongoTemplate mongoTemplate;
+    private ClassroomService classroomService;
+
+    // Runs once, just before the next write of the service.
+    private Runnable concurrentWrite = () -> { };
+
+    private String classroomId;
+    private Assignment assignment;
+
+    @BeforeEach
+    void setUp() {
+        server = MongoStandIn.create();
+        client = MongoClients.create(server.bindAndGetConnectionString());
+        mongoTemplate = new MongoTemplate(client, "classroom_db");
+
+        CausalReads causalReads = mock(CausalReads.class);
+        when(causalReads.write(any(), any(), any())).thenAnswer(invocation -> {
+            Runnable write = concurrentWrite;
+            concurrentWrite = () -> { };
+            write.run();
+            Function<MongoTemplate, Object> own = invocation.getArgument(2);
+            return own.apply(invocation.getArgument(1));
+        });
+        when(causalReads.read(any(), any(), any(), any())).thenAnswer(invocation -> {
+            Function<MongoTemplate, Object> read = invocation.getArgument(3);
+            return read.apply(invocation.getArgument(2));
+        });
+        UserLookupClient userLookupClient = mock(UserLookupClient.class);
+        when(userLookupClient.findByEmail(STUDENT_EMAIL)).thenReturn(Optional.of(user(STUDENT_ID, STUDENT_EMAIL)));
+        when(userLookupClient.findByEmail(NEW_STUDENT_EMAIL)).thenReturn(Optional.of(user(NEW_STUDENT_ID, NEW_STUDENT_EMAIL)));
+        when(userLookupClient.findByEmail(FACULTY_EMAIL)).thenReturn(Optional.of(user(FACULTY_ID, FACULTY_EMAIL)));
+
+        classroomService = new ClassroomService();
+        ReflectionTestUtils.setField(classroomService, "classroomShards",
+                new ClassroomShards(mongoTemplate, Map.of(), Duration.ofSeconds(1)));
+        ReflectionTestUtils.setField(classroomService, "causalReads", causalReads);
+        ReflectionTestUtils.setField(classroomService, "userLookupClient", userLookupClient);
+        ReflectionTestUtils.setField(classroomService, "imageRenditionService", mock(ImageRenditionService.class));
+        ReflectionTestUtils.setField(classroomService, "textExtractionService", mock(TextExtractionService.class));
+        ReflectionTestUtils.setField(classroomService, "materialBodyStore", mock(MaterialBodyStore.class));
+        ReflectionTestUtils.setField(classroomService, "searchService", mock(SearchService.class));
+        ReflectionTestUtils.setField(classroomService, "deadlineScheduler", mock(DeadlineScheduler.class));
+        ReflectionTestUtils.setField(classroomService, "eventPublisher", mock(ApplicationEventPublisher.class));
+
+        assignment = new Assignment();
+        assignment.setTitle("Essay");
+        assignment.setPoints(10);
+        assignment.setDueDate(LocalDateTime.now().plusDays(1));
+        Classroom classroom = new Classroom();
+        classroom.setId(new ObjectId().toHexString());
+        classroom.setFacultyId(FACULTY_ID);
+        classroom.setFacultyName("Dr. Smith");
+        classroom.setClassroomCode("abc123");
+        classroom.setCreatedAt(LocalDateTime.now());
+        classroom.setStudentIds(new ArrayList<>(List.of(STUDENT_ID, OTHER_STUDENT_ID)));
+        classroom.getAssignments().add(assignment);
+        mongoTemplate.save(classroom);
+        classroomId = classroom.getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        server.shutdownNow();
+    }
+
+    @Test
+    void submissionKeepsConcurrentSubmissionsAndGrades() {
+        Submission other = addSubmission(OTHER_STUDENT_ID);
+        concurrentWrite = () -> grade(other.getId(), 9);
+
+        classroomService.submitUploadedFile(classroomId, assignment.getId(), "https://files/a.pdf", STUDENT_EMAIL);
+
+        Assignment stored = storedAssignment();
+        assertThat(stored.getSubmissions()).extracting(Submission::getStudentId)
+                .containsExactlyInAnyOrder(STUDENT_ID, OTHER_STUDENT_ID);
+        assertThat(submissionOf(stored, OTHER_STUDENT_ID).getGrade()).isEqualTo(9);
+        assertThat(stored.getStats().getSubmitted()).isEqualTo(2);
+        assertThat(stored.getStats().getGraded()).isEqualTo(1);
+        assertThat(stored.getStats().getGradeSum()).isEqualTo(9);
+        assertThat(storedClassroom().getStats().getSubmitted()).isEqualTo(2);
+    }
+
+    @Test
+    void resubmissionGradedConcurrentlyIsRecomputed() {
+        Submission previous = addSubmission(STUDENT_ID);
+        concurrentWrite = () -> grade(previous.getId(), 7);
+
+        classroomService.submitUploadedFile(classroomId, assignment.getId(), "https://files/a-v2.pdf", STUDENT_EMAIL);
+
+        Assignment stored = storedAssignment();
+        assertThat(stored.getSubmissions()).hasSize(1);
+        Submission resubmitted = stored.getSubmissions().get(0);
+        assertThat(resubmitted.getSubmittedFileUrl()).isEqualTo("https://files/a-v2.pdf");
+        assertThat(resubmitted.getGrade()).isNull();
+        assertThat(stored.getStats().getSubmitted()).isEqualTo(1);
+        assertThat(stored.getStats().getGraded()).isZero();
+        assertThat(stored.getStats().getGradeSum()).isZero();
+        assertThat(storedClassroom().getStats().getGraded()).isZero();
+    }
+
+    @Test
+    void lateResubmissionMovesTheLateCounter() {
+        addSubmission(STUDENT_ID);
+        mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(classroomId)),
+                new Update().set("assignments.0.dueDate", LocalDateTime.now().minusHours(1)), Classroom.class);
+
+        classroomService.submitUploadedFile(classroomId, assignment.getId(), "https://files/a-late.pdf", STUDENT_EMAIL);
+
+        Assignment stored = storedAssignment();
+        assertThat(stored.getSubmissions()).singleElement().satisfies(sub -> assertThat(sub.isLate()).isTrue());
+        assertThat(stored.getStats().getLate()).isEqualTo(1);
+        assertThat(storedClassroom().getStats().getLate()).isEqualTo(1);
+    }
+
+    @Test
+    void bulkGradingAppliesValidEntriesAndReportsTheRest() {
+        Submission first = addSubmission(STUDENT_ID);
+        Submission second = addSubmission(OTHER_STUDENT_ID);
+
+        List<GradeResult> results = classroomService.gradeSubmissions(classroomId, assignment.getId(), List.of(
+                gradeEntry(first.getId(), 8),
+                gradeEntry(second.getId(), 11),
+                gradeEntry("unknown", 5),
+                gradeEntry(first.getId(), 6)), FACULTY_EMAIL);
+
+        assertThat(results).extracting(GradeResult::getStatus).containsExactly(
+                GradeResult.Status.UPDATED, GradeResult.Status.INVALID,
+                GradeResult.Status.NOT_FOUND, GradeResult.Status.INVALID);
+        Assignment stored = storedAssignment();
+        assertThat(submissionOf(stored, STUDENT_ID).getGrade()).isEqualTo(8);
+        assertThat(submissionOf(stored, STUDENT_ID).getFeedback()).isEqualTo("Feedback 8");
+        assertThat(submissionOf(stored, OTHER_STUDENT_ID).getGrade()).isNull();
+        assertThat(stored.getStats().getGraded()).isEqualTo(1);
+        assertThat(stored.getStats().getGradeSum()).isEqualTo(8);
+        assertThat(storedClassroom().getStats().getGraded()).isEqualTo(1);
+        assertThat(storedClassroom().getStats().getGradeSum()).isEqualTo(8);
+    }
+
+    @Test
+    void regradingMovesTheGradeSumByTheDifference() {
+        Submission submission = addSubmission(STUDENT_ID);
+        grade(submission.getId(), 7);
+
+        List<GradeResult> results = classroomService.gradeSubmissions(classroomId, assignment.getId(),
+                List.of(gradeEntry(submission.getId(), 9)), FACULTY_EMAIL);
+
+        assertThat(results).singleElement().satisfies(result ->
+                assertThat(result.getStatus()).isEqualTo(GradeResult.Status.UPDATED));
+        Assignment stored = storedAssignment();
+        assertThat(stored.getStats().getGraded()).isEqualTo(1);
+        assertThat(stored.getStats().getGradeSum()).isEqualTo(9);
+        assertThat(storedClassroom().getStats().getGradeSum()).isEqualTo(9);
+    }
+
+    @Test
+    void gradeChangedConcurrentlyIsReportedAndKept() {
+        Submission first = addSubmission(STUDENT_ID);
+        Submission second = addSubmission(OTHER_STUDENT_ID);
+        concurrentWrite = () -> grade(first.getId(), 4);
+
+        List<GradeResult> results = classroomService.gradeSubmissions(classroomId, assignment.getId(), List.of(
+                gradeEntry(first.getId(), 8),
+                gradeEntry(second.getId(), 6)), FACULTY_EMAIL);
+
+        assertThat(results).extracting(GradeResult::getStatus)
+                .containsExactly(GradeResult.Status.FAILED, GradeResult.Status.UPDATED);
+        Assignment stored = storedAssignment();
+        assertThat(submissionOf(stored, STUDENT_ID).getGrade()).isEqualTo(4);
+        assertThat(submissionOf(stored, OTHER_STUDENT_ID).getGrade()).isEqualTo(6);
+        assertThat(stored.getStats().getGraded()).isEqualTo(2);
+        assertThat(stored.getStats().getGradeSum()).isEqualTo(10);
+        assertThat(storedClassroom().getStats().getGradeSum()).isEqualTo(10);
+    }
+
+    @Test
+    void classroomChangesKeepConcurrentUpdates() {
+        Submission submission = addSubmission(STUDENT_ID);
+        Section section = new Section();
+        section.setTitle("Week 1");
+        concurrentWrite = () -> grade(submission.getId(), 9);
+        classroomService.addSection(classroomId, section, FACULTY_EMAIL);
+
+        Material material = new Material();
+        material.setTitle("Slides");
+        concurrentWrite = () -> addSubmission(OTHER_STUDENT_ID);
+        classroomService.addUploadedMaterial(classroomId, section.getId(), material, "https://files/slides.pdf", FACULTY_EMAIL);
+
+        Assignment quiz = new Assignment();
+        quiz.setTitle("Quiz");
+        concurrentWrite = () -> mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(classroomId)),
+                new Update().set("facultyName", "Dr. Jones"), Classroom.class);
+        classroomService.createAssignment(classroomId, quiz, FACULTY_EMAIL);
+
+        concurrentWrite = () -> mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(classroomId)),
+                new Update().pull("studentIds", OTHER_STUDENT_ID), Classroom.class);
+        classroomService.joinClassroom("abc123", NEW_STUDENT_EMAIL);
+
+        Classroom stored = storedClassroom();
+        assertThat(stored.getFacultyName()).isEqualTo("Dr. Jones");
+        assertThat(stored.getStudentIds()).containsExactly(STUDENT_ID, NEW_STUDENT_ID);
+        assertThat(stored.getSections()).singleElement().satisfies(s ->
+                assertThat(s.getMaterials()).extracting(Material::getTitle).containsExactly("Slides"));
+        assertThat(stored.getAssignments()).extracting(Assignment::getTitle).containsExactly("Essay", "Quiz");
+        assertThat(submissionOf(storedAssignment(), STUDENT_ID).getGrade()).isEqualTo(9);
+        assertThat(storedAssignment().getStats().getSubmitted()).isEqualTo(2);
+
+        Submission other = submissionOf(storedAssignment(), OTHER_STUDENT_ID);
+        concurrentWrite = () -> grade(other.getId(), 5);
+        Classroom updated = classroomService.deleteSection(classroomId, section.getId(), FACULTY_EMAIL);
+
+        assertThat(updated.getSections()).isEmpty();
+        assertThat(storedClassroom().getSections()).isEmpty();
+        assertThat(submissionOf(storedAssignment(), OTHER_STUDENT_ID).getGrade()).isEqualTo(5);
+        assertThat(storedClassroom().getStats().getGradeSum()).isEqualTo(14);
+    }
+
+    @Test
+    void joiningTwiceOrByUnknownCodeIsRejected() {
+        classroomService.joinClassroom("abc123", NEW_STUDENT_EMAIL);
+
+        assertThatThrownBy(() -> classroomService.joinClassroom("abc123", NEW_STUDENT_EMAIL))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> classroomService.joinClassroom("zzz999", NEW_STUDENT_EMAIL))
+                .isInstanceOf(RuntimeException.class)
+                .isNotInstanceOf(IllegalArgumentException.class);
+        assertThat(storedClassroom().getStudentIds()).containsExactly(STUDENT_ID, OTHER_STUDENT_ID, NEW_STUDENT_ID);
+    }
+
+    @Test
+    void facultyClassroomPagesAreDisjointAndNewestFirst() {
+        LocalDateTime earlier = LocalDateTime.now().minusDays(1).withNano(0);
+        // Classrooms created at the same time are ordered by ID, so none is skipped at a page boundary.
+        List<String> expected = new ArrayList<>(List.of(classroomId,
+                storeClassroom(FACULTY_ID, earlier), storeClassroom(FACULTY_ID, earlier), storeClassroom(FACULTY_ID, earlier),
+                storeClassroom(FACULTY_ID, earlier.minusDays(1))));
+        expected.subList(1, 4).sort(Comparator.reverseOrder());
+        storeClassroom("other-faculty", earlier);
+
+        List<String> listed = new ArrayList<>();
+        String cursor = null;
+        do {
+            ClassroomSummaryPage page = classroomService.listFacultyClassrooms(cursor, 2, FACULTY_EMAIL);
+            assertThat(page.getClassrooms()).hasSizeLessThanOrEqualTo(2);
+            page.getClassrooms().stream().map(ClassroomSummary::getId).forEach(listed::add);
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertThat(listed).containsExactlyElementsOf(expected);
+        assertThatThrownBy(() -> classroomService.listFacultyClassrooms("not-a-cursor", 2, FACULTY_EMAIL))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Stores an empty classroom owned by the given faculty member and returns its ID.
+     */
+    private String storeClassroom(String facultyId, LocalDateTime createdAt) {
+        Classroom classroom = new Classroom();
+        classroom.setId(new ObjectId().toHexString());
+        classroom.setFacultyId(facultyId);
+        classroom.setCreatedAt(createdAt);
+        mongoTemplate.save(classroom);
+        return classroom.getId();
+    }
+
+    /**
+     * Stores an ungraded, on-time submission with its counters, as a submit would.
+     */
+    private Submission addSubmission(String studentId) {
+        Submission submission = new Submission();
+        submission.setStudentId(studentId);
+        submission.setSubmittedFileUrl("https://files/" + studentId + ".pdf");
+        mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(classroomId)), new Update()
+                .push("assignments.0.submissions", submission)
+                .inc("assignments.0.stats.submitted", 1)
+                .inc("stats.submitted", 1), Classroom.class);
+        return submission;
+    }
+
+    /**
+     * Grades an ungraded submission with its counters, as a grader would.
+     */
+    private void grade(String submissionId, int grade) {
+        Assignment current = storedAssignment();
+        int index = current.getSubmissions().stream().map(Submission::getId).toList().indexOf(submissionId);
+        mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(classroomId)), new Update()
+                .set("assignments.0.submissions." + index + ".grade", grade)
+                .inc("assignments.0.stats.graded", 1).inc("stats.graded", 1)
+                .inc("assignments.0.stats.gradeSum", grade).inc("stats.gradeSum", grade), Classroom.class);
+    }
+
+    private Classroom storedClassroom() {
+        return mongoTemplate.findById(classroomId, Classroom.class);
+    }
+
+    private Assignment storedAssignment() {
+        return storedClassroom().getAssignments().get(0);
+    }
+
+    private static Submission submissionOf(Assignment assignment, String studentId) {
+        return assignment.getSubmissions().stream()
+                .filter(sub -> sub.getStudentId().equals(studentId))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static GradeEntry gradeEntry(String submissionId, int grade) {
+        GradeEntry entry = new GradeEntry();
+        entry.setSubmissionId(submissionId);
+        entry.setGrade(grade);
+        entry.setFeedback("Feedback " + grade);
+        return entry;
+    }
+
+    private static User user(String id, String email) {
+        User user = new User();
+        user.setId(id);
+        user.setName(id);
+        user.setEmail(email);
+        return user;
+    }
+}
@@ -0,0 +1,157 @@
+package com.mesh_microservices.classroom_service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mesh_microservices.classroom_service.model.IdempotencyRecord;
+import com.mesh_microservices.classroom_service.support.MongoStandIn;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import de.bwaldvogel.mongo.MongoServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.mock.web.MockMultipartHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Verifies replays, key reuse and takeovers of idempotency keys against an in-process
+ * Mongo stand-in.
+ */
+class IdempotencyServiceTests {
+
+    private static final String USER = "student@example.com";
+
+    private MongoServer server;
+    private MongoClient client;
+    private MongoTemplate mongoTemplate;
+    private IdempotencyService idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        server = MongoStandIn.create();
+        client = MongoClients.create(server.bindAndGetConnectionString());
+        mongoTemplate = new MongoTemplate(client, "classroom_db");
+        idempotencyService = new IdempotencyService();
+        ReflectionTestUtils.setField(idempotencyService, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(idempotencyService, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(idempotencyService, "ttl", Duration.ofHours(24));
+        ReflectionTestUtils.setField(idempotencyService, "lock", Duration.ofMinutes(2));
+        ReflectionTestUtils.setField(idempotencyService, "wait", Duration.ofMillis(200));
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        server.shutdownNow();
+    }
+
+    @Test
+    void repeatedRequestsGetTheStoredResponse() throws IOException {
+        AtomicInteger runs = new AtomicInteger();
+        IdempotencyService.Action<String> action = () -> "response " + runs.incrementAndGet();
+
+        assertThat(idempotencyService.execute("key", USER, submission("a.pdf", "essay"), String.class, action))
+                .isEqualTo("response 1");
+        assertThat(idempotencyService.execute("key", USER, submission("a.pdf", "essay"), String.class, action))
+                .isEqualTo("response 1");
+        // Keys belong to their user.
+        assertThat(idempotencyService.execute("key", "other@example.com", submission("a.pdf", "essay"), String.class, action))
+                .isEqualTo("response 2");
+        assertThat(idempotencyService.execute(null, USER, submission("a.pdf", "essay"), String.class, action))
+                .isEqualTo("response 3");
+    }
+
+    @Test
+    void keyReusedForADifferentRequestIsRejected() throws IOException {
+        idempotencyService.execute("key", USER, submission("a.pdf", "essay"), String.class, () -> "first");
+
+        assertThatThrownBy(() -> idempotencyService.execute("key", USER, submission("a.pdf", "other essay"),
+                String.class, () -> "second")).isInstanceOf(IdempotencyService.KeyReusedException.class);
+        assertThatThrownBy(() -> idempotencyService.execute("key", USER, submission("b.pdf", "essay"),
+                String.class, () -> "second")).isInstanceOf(IdempotencyService.KeyReusedException.class);
+        MockMultipartHttpServletRequest otherPath = submission("a.pdf", "essay");
+        otherPath.setRequestURI("/api/classrooms/c1/assignments/a2/submit");
+        assertThatThrownBy(() -> idempotencyService.execute("key", USER, otherPath, String.class, () -> "second"))
+                .isInstanceOf(IdempotencyService.KeyReusedException.class);
+    }
+
+    @Test
+    void failedRequestReleasesTheKey() throws IOException {
+        assertThatThrownBy(() -> idempotencyService.execute("key", USER, submission("a.pdf", "essay"), String.class,
+                () -> {
+                    throw new IOException("upload failed");
+                })).isInstanceOf(IOException.class);
+
+        assertThat(idempotencyService.execute("key", USER, submission("a.pdf", "essay"), String.class, () -> "retried"))
+                .isEqualTo("retried");
+    }
+
+    @Test
+    void requestOutlivingItsLockCannotOverwriteTheTakeover() throws IOException {
+        String first = idempotencyService.execute("key", USER, submission("a.pdf", "essay"), String.class, () -> {
+            expireLock();
+            assertThat(idempotencyService.execute("key", USER, submission("a.pdf", "essay"), String.class,
+                    () -> "second")).isEqualTo("second");
+            return "first";
+        });
+
+        assertThat(first).isEqualTo("first");
+        assertThat(idempotencyService.execute("key", USER, submission("a.pdf", "essay"), String.class, () -> "third"))
+                .isEqualTo("second");
+    }
+
+    @Test
+    void requestFailingAfterATakeoverLeavesTheRecord() {
+        assertThatThrownBy(() -> idempotencyService.execute("key", USER, submission("a.pdf", "essay"), String.class,
+                () -> {
+                    expireLock();
+                    idempotencyService.execute("key", USER, submission("a.pdf", "essay"), String.class, () -> "second");
+                    throw new IOException("too late");
+                })).isInstanceOf(IOException.class);
+
+        IdempotencyRecord record = mongoTemplate.findOne(new Query(), IdempotencyRecord.class);
+        assertThat(record.getStatus()).isEqualTo(IdempotencyRecord.Status.COMPLETED);
+        assertThat(record.getResponse()).isEqualTo("\"second\"");
+    }
+
+    @Test
+    void purgeRemovesOnlyExpiredRecords() throws IOException {
+        idempotencyService.execute("old", USER, submission("a.pdf", "essay"), String.class, () -> "old");
+        idempotencyService.execute("new", USER, submission("a.pdf", "essay"), String.class, () -> "new");
+        mongoTemplate.updateFirst(new Query(), new Update().set("expiresAt", LocalDateTime.now().minusMinutes(1)),
+                IdempotencyRecord.class);
+
+        idempotencyService.purgeExpired();
+
+        assertThat(mongoTemplate.count(new Query(), IdempotencyRecord.class)).isEqualTo(1);
+    }
+
+    /**
+     * Lets the lock of the request in progress run out, as if its instance had stalled.
+     */
+    private void expireLock() {
+        mongoTemplate.updateMulti(new Query(), new Update().set("lockedUntil", LocalDateTime.now().minusSeconds(1)),
+                IdempotencyRecord.class);
+    }
+
+    private static MockMultipartHttpServletRequest submission(String fileName, String content) {
+        MockMultipartHttpServletRequest request = new MockMultipartHttpServletRequest();
+        request.setMethod("POST");
+        request.setRequestURI("/api/classrooms/c1/assignments/a1/submit");
+        request.addFile(new MockMultipartFile("file", fileName, "application/pdf",
+                content.getBytes(StandardCharsets.UTF_8)));
+        return request;
+    }
+}
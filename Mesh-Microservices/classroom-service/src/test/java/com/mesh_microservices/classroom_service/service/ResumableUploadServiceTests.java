@@ -0,0 +1,164 @@
+package com.mesh_microservices.classroom_service.service;
+
+import com.mesh_microservices.classroom_service.model.Classroom;
+import com.mesh_microservices.classroom_service.model.UploadSession;
+import com.mesh_microservices.classroom_service.support.MongoStandIn;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import de.bwaldvogel.mongo.MongoServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verifies chunk validation and commits of chunked uploads against an in-process Mongo
+ * stand-in and local blob storage.
+ */
+class ResumableUploadServiceTests {
+
+    private static final String CLASSROOM_ID = "classroom";
+    private static final String ASSIGNMENT_ID = "assignment";
+    private static final String STUDENT_EMAIL = "student@example.com";
+    private static final byte[] CONTENT = "0123456789".getBytes(StandardCharsets.US_ASCII);
+
+    @TempDir
+    Path directory;
+
+    private MongoServer server;
+    private MongoClient client;
+    private ClassroomService classroomService;
+    private ResumableUploadService uploadService;
+    private final Classroom classroom = new Classroom();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = MongoStandIn.create();
+        client = MongoClients.create(server.bindAndGetConnectionString());
+        classroomService = mock(ClassroomService.class);
+        when(classroomService.submitUploadedFile(eq(CLASSROOM_ID), eq(ASSIGNMENT_ID), anyString(), eq(STUDENT_EMAIL)))
+                .thenReturn(classroom);
+        when(classroomService.findClassroomById(CLASSROOM_ID)).thenReturn(Optional.of(classroom));
+
+        uploadService = new ResumableUploadService();
+        ReflectionTestUtils.setField(uploadService, "mongoTemplate", new MongoTemplate(client, "classroom_db"));
+        ReflectionTestUtils.setField(uploadService, "blobStorageService", new LocalBlobService(directory, ""));
+        ReflectionTestUtils.setField(uploadService, "classroomService", classroomService);
+        ReflectionTestUtils.setField(uploadService, "chunkSize", DataSize.ofBytes(4));
+        ReflectionTestUtils.setField(uploadService, "maxSize", DataSize.ofMegabytes(1));
+        ReflectionTestUtils.setField(uploadService, "sessionTtl", Duration.ofHours(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        server.shutdownNow();
+    }
+
+    @Test
+    void chunksMustFitTheSessionLayout() throws IOException {
+        String uploadId = start().getId();
+
+        // Chunks start at multiples of the chunk size inside the file.
+        assertThatThrownBy(() -> putChunk(uploadId, 3, 4)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> putChunk(uploadId, -4, 4)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> putChunk(uploadId, 12, 4)).isInstanceOf(IllegalArgumentException.class);
+        // Only the last chunk may be shorter, and it must be exactly the rest of the file.
+        assertThatThrownBy(() -> putChunk(uploadId, 0, 3)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> putChunk(uploadId, 8, 4)).isInstanceOf(IllegalArgumentException.class);
+        // Sessions belong to their classroom and user.
+        assertThatThrownBy(() -> uploadService.putChunk("other", uploadId, 0, 4, chunk(0, 4), STUDENT_EMAIL))
+                .isInstanceOf(ResumableUploadService.UploadNotFoundException.class);
+        assertThatThrownBy(() -> uploadService.putChunk(CLASSROOM_ID, uploadId, 0, 4, chunk(0, 4), "other@example.com"))
+                .isInstanceOf(SecurityException.class);
+
+        assertThat(uploadService.get(CLASSROOM_ID, uploadId, STUDENT_EMAIL).getReceivedChunks()).isEmpty();
+    }
+
+    @Test
+    void commitAssemblesChunksSentInAnyOrderOnce() throws IOException {
+        String uploadId = start().getId();
+        putChunk(uploadId, 8, 2);
+        putChunk(uploadId, 0, 4);
+        assertThatThrownBy(() -> uploadService.commit(CLASSROOM_ID, uploadId, STUDENT_EMAIL))
+                .isInstanceOf(IllegalStateException.class);
+        putChunk(uploadId, 4, 4);
+        // Sending a chunk again replaces it.
+        UploadSession session = putChunk(uploadId, 0, 4);
+        assertThat(session.getReceivedChunks()).containsExactlyInAnyOrder(0, 1, 2);
+
+        assertThat(uploadService.commit(CLASSROOM_ID, uploadId, STUDENT_EMAIL)).isSameAs(classroom);
+        assertThat(uploadService.commit(CLASSROOM_ID, uploadId, STUDENT_EMAIL)).isSameAs(classroom);
+
+        verify(classroomService, times(1)).submitUploadedFile(eq(CLASSROOM_ID), eq(ASSIGNMENT_ID), anyString(), eq(STUDENT_EMAIL));
+        Path stored = directory.resolve(session.getBlobName());
+        assertThat(stored).hasBinaryContent(CONTENT);
+        assertThat(directory.resolve(".staging").resolve(session.getBlobName())).doesNotExist();
+        assertThat(uploadService.get(CLASSROOM_ID, uploadId, STUDENT_EMAIL).getStatus())
+                .isEqualTo(UploadSession.Status.COMMITTED);
+        assertThatThrownBy(() -> putChunk(uploadId, 0, 4)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void failedCommitCanBeRetried() throws IOException {
+        String uploadId = start().getId();
+        putChunk(uploadId, 0, 4);
+        putChunk(uploadId, 4, 4);
+        putChunk(uploadId, 8, 2);
+        when(classroomService.submitUploadedFile(eq(CLASSROOM_ID), eq(ASSIGNMENT_ID), anyString(), eq(STUDENT_EMAIL)))
+                .thenThrow(new IllegalStateException("Classroom changed"))
+                .thenReturn(classroom);
+
+        assertThatThrownBy(() -> uploadService.commit(CLASSROOM_ID, uploadId, STUDENT_EMAIL))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(uploadService.get(CLASSROOM_ID, uploadId, STUDENT_EMAIL).getStatus())
+                .isEqualTo(UploadSession.Status.UPLOADING);
+
+        assertThat(uploadService.commit(CLASSROOM_ID, uploadId, STUDENT_EMAIL)).isSameAs(classroom);
+        ArgumentCaptor<String> fileUrl = ArgumentCaptor.forClass(String.class);
+        verify(classroomService, times(2)).submitUploadedFile(eq(CLASSROOM_ID), eq(ASSIGNMENT_ID), fileUrl.capture(), eq(STUDENT_EMAIL));
+        assertThat(Path.of(URI.create(fileUrl.getValue()))).hasBinaryContent(CONTENT);
+    }
+
+    private UploadSession start() {
+        UploadSession request = new UploadSession();
+        request.setPurpose(UploadSession.Purpose.SUBMISSION);
+        request.setTargetId(ASSIGNMENT_ID);
+        request.setFileName("essay.pdf");
+        request.setContentType("application/pdf");
+        request.setSize(CONTENT.length);
+        return uploadService.create(CLASSROOM_ID, request, STUDENT_EMAIL);
+    }
+
+    private UploadSession putChunk(String uploadId, long offset, long length) throws IOException {
+        return uploadService.putChunk(CLASSROOM_ID, uploadId, offset, length, chunk(offset, length), STUDENT_EMAIL);
+    }
+
+    private static ByteArrayInputStream chunk(long offset, long length) {
+        int from = (int) Math.max(0, Math.min(offset, CONTENT.length));
+        int to = (int) Math.min(from + length, CONTENT.length);
+        return new ByteArrayInputStream(Arrays.copyOfRange(CONTENT, from, to));
+    }
+}
@@ -0,0 +1,136 @@
+package com.mesh_microservices.classroom_service.service;
+
+import com.mesh_microservices.classroom_service.model.Assignment;
+import com.mesh_microservices.classroom_service.model.Classroom;
+import com.mesh_microservices.classroom_service.model.Material;
+import com.mesh_microservices.classroom_service.model.SearchEntry;
+import com.mesh_microservices.classroom_service.repository.SearchEntryRepository;
+import com.mesh_microservices.classroom_service.support.MongoStandIn;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import de.bwaldvogel.mongo.MongoServer;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifies the prefix search backend, which must work without text indexes, against an
+ * in-process Mongo stand-in.
+ */
+class SearchServiceTests {
+
+    private MongoServer server;
+    private MongoClient client;
+    private MongoTemplate mongoTemplate;
+    private SearchService searchService;
+
+    @BeforeEach
+    void setUp() {
+        server = MongoStandIn.create();
+        client = MongoClients.create(server.bindAndGetConnectionString());
+        mongoTemplate = new MongoTemplate(client, "classroom_db");
+        searchService = new SearchService();
+        ReflectionTestUtils.setField(searchService, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(searchService, "classroomShards",
+                new ClassroomShards(mongoTemplate, Map.of(), Duration.ofSeconds(1)));
+        ReflectionTestUtils.setField(searchService, "searchEntryRepository",
+                new MongoRepositoryFactory(mongoTemplate).getRepository(SearchEntryRepository.class));
+        ReflectionTestUtils.setField(searchService, "backend", SearchService.Backend.PREFIX);
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        server.shutdownNow();
+    }
+
+    @Test
+    void matchesWordPrefixesAndPhrasesWithinTheGivenClassrooms() {
+        Material material = material("Introduction to Photosynthesis");
+        searchService.indexMaterial("a", "section", material, "How green plants turn light into sugar.");
+        Assignment assignment = assignment("Photosynthesis lab report", "Measure the oxygen output of a leaf.");
+        searchService.indexAssignment("a", assignment);
+        searchService.indexAssignment("b", assignment("Photosynthesis overview", "Not in the student's classroom."));
+
+        assertThat(searchService.search(List.of("a"), "photo", null, null))
+                .extracting(SearchEntry::getId)
+                .containsExactlyInAnyOrder(material.getId(), assignment.getId());
+        assertThat(searchService.search(List.of("a"), "PHOTO Lab", null, null))
+                .extracting(SearchEntry::getId)
+                .containsExactly(assignment.getId());
+        assertThat(searchService.search(List.of("a"), "\"green plants\"", null, null))
+                .extracting(SearchEntry::getId)
+                .containsExactly(material.getId());
+        assertThat(searchService.search(List.of("a"), "\"plants green\"", null, null)).isEmpty();
+        assertThat(searchService.search(List.of("a"), "?!", null, null)).isEmpty();
+        assertThat(searchService.search(List.of(), "photo", null, null)).isEmpty();
+
+        SearchEntry result = searchService.search(List.of("a", "b"), "oxygen", null, null).get(0);
+        assertThat(result.getSnippet()).isEqualTo("Measure the oxygen output of a leaf.");
+        assertThat(result.getBody()).isNull();
+        assertThat(result.getKeywords()).isNull();
+    }
+
+    @Test
+    void pagesAreDisjointAndCoverEveryMatch() {
+        for (int i = 0; i < 5; i++) {
+            searchService.indexAssignment("a", assignment("Essay " + i, "Write an essay."));
+        }
+
+        List<String> seen = new ArrayList<>();
+        for (int page = 0; page < 3; page++) {
+            searchService.search(List.of("a"), "essay", page, 2).forEach(entry -> seen.add(entry.getId()));
+        }
+
+        assertThat(seen).hasSize(5).doesNotHaveDuplicates();
+        assertThat(searchService.search(List.of("a"), "essay", 3, 2)).isEmpty();
+    }
+
+    @Test
+    void rebuildsEntriesWrittenWithoutKeywords() {
+        Assignment assignment = assignment("Fractions worksheet", "Simplify each fraction.");
+        Classroom classroom = new Classroom();
+        classroom.setId(new ObjectId().toHexString());
+        classroom.getAssignments().add(assignment);
+        mongoTemplate.save(classroom);
+        // An entry from before keywords were recorded.
+        SearchEntry old = new SearchEntry();
+        old.setId(assignment.getId());
+        old.setClassroomId(classroom.getId());
+        old.setType(SearchEntry.Type.ASSIGNMENT);
+        old.setTitle(assignment.getTitle());
+        mongoTemplate.save(old);
+        assertThat(searchService.search(List.of(classroom.getId()), "fraction", null, null)).isEmpty();
+
+        searchService.buildIndexIfEmpty();
+
+        assertThat(searchService.search(List.of(classroom.getId()), "fraction", null, null))
+                .extracting(SearchEntry::getId)
+                .containsExactly(assignment.getId());
+    }
+
+    private static Material material(String title) {
+        Material material = new Material();
+        material.setId(new ObjectId().toHexString());
+        material.setTitle(title);
+        return material;
+    }
+
+    private static Assignment assignment(String title, String description) {
+        Assignment assignment = new Assignment();
+        assignment.setTitle(title);
+        assignment.setDescription(description);
+        return assignment;
+    }
+}
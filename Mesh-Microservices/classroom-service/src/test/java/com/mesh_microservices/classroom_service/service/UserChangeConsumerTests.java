@@ -0,0 +1,209 @@
+package com.mesh_microservices.classroom_service.service;
+
+import com.mesh_microservices.classroom_service.model.Assignment;
+import com.mesh_microservices.classroom_service.model.Classroom;
+import com.mesh_microservices.classroom_service.model.Submission;
+import com.mesh_microservices.classroom_service.model.SyncCheckpoint;
+import com.mesh_microservices.classroom_service.model.User;
+import com.mesh_microservices.classroom_service.model.UserChange;
+import com.mesh_microservices.classroom_service.support.MongoStandIn;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import de.bwaldvogel.mongo.MongoServer;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verifies that user changes from the feed, and resyncs after the feed expired, reach the
+ * names and enrolment lists copied into classrooms, against an in-process Mongo stand-in
+ * and a stubbed user-service.
+ */
+class UserChangeConsumerTests {
+
+    private static final String CHANGES_URL = "http://user-service/users/changes?after={after}&limit={limit}";
+
+    private MongoServer server;
+    private MongoClient client;
+    private MongoTemplate mongoTemplate;
+    private RestTemplate restTemplate;
+    private UserLookupClient userLookupClient;
+    private UserChangeConsumer consumer;
+
+    // The feed pages served by the stubbed user-service, by the checkpoint they follow.
+    private final Map<String, UserChange[]> feed = new HashMap<>();
+    // The checkpoints before purged changes; reading after them answers 410 (Gone).
+    private final Map<String, String> purged = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        server = MongoStandIn.create();
+        client = MongoClients.create(server.bindAndGetConnectionString());
+        mongoTemplate = new MongoTemplate(client, "classroom_db");
+        restTemplate = mock(RestTemplate.class);
+        when(restTemplate.getForObject(eq(CHANGES_URL), eq(UserChange[].class), anyString(), anyInt()))
+                .thenAnswer(invocation -> {
+                    String after = invocation.getArgument(2);
+                    if (purged.containsKey(after)) {
+                        throw gone(purged.get(after));
+                    }
+                    return feed.getOrDefault(after, new UserChange[0]);
+                });
+        userLookupClient = mock(UserLookupClient.class);
+        when(userLookupClient.findById(any())).thenReturn(Optional.empty());
+
+        consumer = new UserChangeConsumer();
+        ReflectionTestUtils.setField(consumer, "restTemplate", restTemplate);
+        ReflectionTestUtils.setField(consumer, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(consumer, "classroomShards",
+                new ClassroomShards(mongoTemplate, Map.of(), Duration.ofSeconds(1)));
+        ReflectionTestUtils.setField(consumer, "userLookupClient", userLookupClient);
+        ReflectionTestUtils.setField(consumer, "batchSize", 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        server.shutdownNow();
+    }
+
+    @Test
+    void batchesApplyTheLatestChangeOfEachUserToEveryClassroom() {
+        String first = storeClassroom("faculty", "Dr. Smith", "student-a", "student-b");
+        String second = storeClassroom("faculty", "Dr. Smith", "student-a");
+        UserChange renamed = change("c1", "faculty", UserChange.Type.UPDATED, "Dr. Jones");
+        UserChange renamedAgain = change("c2", "faculty", UserChange.Type.UPDATED, "Prof. Jones");
+        UserChange studentRenamed = change("c3", "student-a", UserChange.Type.UPDATED, "Alice Cooper");
+        UserChange deleted = change("c4", "student-b", UserChange.Type.DELETED, null);
+        feed.put("", new UserChange[]{renamed, renamedAgain});
+        feed.put("c2", new UserChange[]{studentRenamed, deleted});
+
+        consumer.poll();
+
+        for (String classroomId : List.of(first, second)) {
+            Classroom classroom = mongoTemplate.findById(classroomId, Classroom.class);
+            assertThat(classroom.getFacultyName()).isEqualTo("Prof. Jones");
+            assertThat(classroom.getStudentIds()).containsExactly("student-a");
+            assertThat(classroom.getAssignments().get(0).getSubmissions())
+                    .filteredOn(sub -> sub.getStudentId().equals("student-a"))
+                    .singleElement()
+                    .satisfies(sub -> assertThat(sub.getStudentName()).isEqualTo("Alice Cooper"));
+        }
+        // Submissions of deleted students are kept as a record of the work.
+        assertThat(mongoTemplate.findById(first, Classroom.class).getAssignments().get(0).getSubmissions()).hasSize(2);
+        assertThat(checkpoint()).isEqualTo("c4");
+    }
+
+    @Test
+    void expiredCheckpointResyncsEveryReferencedUserAndReadsOn() {
+        String classroomId = storeClassroom("faculty", "Dr. Smith", "student-a", "student-b");
+        mongoTemplate.save(checkpointAt("c1"));
+        purged.put("c1", "c9");
+        feed.put("c9", new UserChange[]{change("c10", "student-a", UserChange.Type.UPDATED, "Alice Cooper")});
+        when(userLookupClient.findByIds(any())).thenAnswer(invocation -> {
+            List<User> users = new ArrayList<>();
+            for (String id : invocation.<List<String>>getArgument(0)) {
+                if (id.equals("faculty")) {
+                    users.add(user(id, "Prof. Jones"));
+                } else if (id.equals("student-a")) {
+                    users.add(user(id, "Alice"));
+                }
+            }
+            return users;
+        });
+
+        consumer.poll();
+
+        Classroom classroom = mongoTemplate.findById(classroomId, Classroom.class);
+        assertThat(classroom.getFacultyName()).isEqualTo("Prof. Jones");
+        // student-b no longer exists, even when looked up alone.
+        assertThat(classroom.getStudentIds()).containsExactly("student-a");
+        assertThat(classroom.getAssignments().get(0).getSubmissions())
+                .filteredOn(sub -> sub.getStudentId().equals("student-a"))
+                .singleElement()
+                .satisfies(sub -> assertThat(sub.getStudentName()).isEqualTo("Alice Cooper"));
+        assertThat(checkpoint()).isEqualTo("c10");
+    }
+
+    /**
+     * Stores a classroom with one assignment that every given student has submitted to.
+     */
+    private String storeClassroom(String facultyId, String facultyName, String... studentIds) {
+        Assignment assignment = new Assignment();
+        assignment.setTitle("Essay");
+        for (String studentId : studentIds) {
+            Submission submission = new Submission();
+            submission.setStudentId(studentId);
+            submission.setStudentName(studentId);
+            assignment.getSubmissions().add(submission);
+        }
+        Classroom classroom = new Classroom();
+        classroom.setId(new ObjectId().toHexString());
+        classroom.setFacultyId(facultyId);
+        classroom.setFacultyName(facultyName);
+        classroom.setStudentIds(new ArrayList<>(List.of(studentIds)));
+        classroom.getAssignments().add(assignment);
+        mongoTemplate.save(classroom);
+        return classroom.getId();
+    }
+
+    private String checkpoint() {
+        return mongoTemplate.findById("user-changes", SyncCheckpoint.class).getLastEventId();
+    }
+
+    private static SyncCheckpoint checkpointAt(String lastEventId) {
+        SyncCheckpoint checkpoint = new SyncCheckpoint();
+        checkpoint.setId("user-changes");
+        checkpoint.setLastEventId(lastEventId);
+        return checkpoint;
+    }
+
+    private static UserChange change(String id, String userId, UserChange.Type type, String name) {
+        UserChange change = new UserChange();
+        change.setId(id);
+        change.setUserId(userId);
+        change.setType(type);
+        change.setName(name);
+        return change;
+    }
+
+    private static User user(String id, String name) {
+        User user = new User();
+        user.setId(id);
+        user.setName(name);
+        return user;
+    }
+
+    /**
+     * Builds the 410 (Gone) the feed answers for a checkpoint before purged changes.
+     */
+    private static HttpClientErrorException gone(String purgedThrough) {
+        HttpClientErrorException e = HttpClientErrorException.create(HttpStatus.GONE, "Gone", new HttpHeaders(),
+                ("{\"purgedThrough\":\"" + purgedThrough + "\"}").getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+        e.setBodyConvertFunction(type -> Map.of("purgedThrough", purgedThrough));
+        return e;
+    }
+}
@@ -0,0 +1,65 @@
+package com.mesh_microservices.load_tests;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The p99 latency each endpoint is allowed under load.
+ * <p>
+ * Defaults are deliberately generous for an in-process run on a developer machine.
+ * Any budget can be overridden with a system property of the form
+ * {@code loadtest.budget.<endpoint>.p99=<millis>}, for example
+ * {@code -Dloadtest.budget.classroom.submit.p99=1500}.
+ */
+public final class LatencyBudget {
+
+    private static final Map<String, Double> DEFAULT_P99_MILLIS = Map.of(
+            "users.signup", 1000.0,
+            "classroom.create", 1000.0,
+            "student.join", 1000.0,
+            "classroom.submit", 2000.0,
+            "student.classrooms", 500.0,
+            "classroom.get", 500.0,
+            "admin.users", 1000.0);
+
+    private LatencyBudget() {
+    }
+
+    /**
+     * Returns the p99 budget for an endpoint.
+     *
+     * @param endpoint The logical endpoint name.
+     * @return The budget in milliseconds, or {@code Double.MAX_VALUE} if none is configured.
+     */
+    public static double p99Millis(String endpoint) {
+        String override = System.getProperty("loadtest.budget." + endpoint + ".p99");
+        if (override != null) {
+            return Double.parseDouble(override);
+        }
+        return DEFAULT_P99_MILLIS.getOrDefault(endpoint, Double.MAX_VALUE);
+    }
+
+    /**
+     * Lists every endpoint result that exceeded its p99 budget or returned errors.
+     *
+     * @param scenario The scenario the results belong to, used in the messages.
+     * @param results  The endpoint results to check.
+     * @return A human-readable description of each violation; empty if all budgets were met.
+     */
+    public static List<String> violations(String scenario, List<LatencyReport.EndpointResult> results) {
+        List<String> violations = new ArrayList<>();
+        for (LatencyReport.EndpointResult result : results) {
+            double budget = p99Millis(result.endpoint());
+            if (result.p99Millis() > budget) {
+                violations.add(String.format("%s/%s: p99 %.2f ms exceeds budget of %.0f ms",
+                        scenario, result.endpoint(), result.p99Millis(), budget));
+            }
+            if (result.errors() > 0) {
+                violations.add(String.format("%s/%s: %d of %d requests failed",
+                        scenario, result.endpoint(), result.errors(), result.requests()));
+            }
+        }
+        return violations;
+    }
+}
@@ -0,0 +1,105 @@
+package com.mesh_microservices.load_tests;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records request latencies per logical endpoint and summarizes them per scenario.
+ * <p>
+ * Latencies go into HdrHistogram {@link Recorder}s, which accept concurrent writers
+ * without locking, so recording does not distort the load being measured.
+ */
+public class LatencyReport {
+
+    private static final long MAX_TRACKED_MICROS = 120_000_000L;
+
+    private final Map<String, EndpointRecorder> endpoints = new ConcurrentHashMap<>();
+    private volatile long intervalStartNanos = System.nanoTime();
+
+    /**
+     * The summarized measurements of one endpoint over one interval.
+     *
+     * @param endpoint   The logical endpoint name, e.g. {@code classroom.submit}.
+     * @param requests   The number of completed requests.
+     * @param errors     The number of requests that did not return a 2xx status.
+     * @param throughput The completed requests per second over the interval.
+     * @param p50Millis  The median latency.
+     * @param p99Millis  The 99th percentile latency.
+     * @param p999Millis The 99.9th percentile latency.
+     * @param maxMillis  The highest latency observed.
+     */
+    public record EndpointResult(String endpoint, long requests, long errors, double throughput,
+                                 double p50Millis, double p99Millis, double p999Millis, double maxMillis) {
+
+        /**
+         * Formats the result as a fixed-width report row.
+         *
+         * @return The report row.
+         */
+        public String toRow() {
+            return String.format("%-22s %8d %7d %9.1f %9.2f %9.2f %9.2f %9.2f",
+                    endpoint, requests, errors, throughput, p50Millis, p99Millis, p999Millis, maxMillis);
+        }
+    }
+
+    /**
+     * The header line matching {@link EndpointResult#toRow()}.
+     */
+    public static final String HEADER = String.format("%-22s %8s %7s %9s %9s %9s %9s %9s",
+            "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+
+    /**
+     * Records the outcome of one request.
+     *
+     * @param endpoint   The logical endpoint name.
+     * @param startNanos The {@link System#nanoTime()} taken before the request was sent.
+     * @param success    Whether the response had a 2xx status.
+     */
+    public void record(String endpoint, long startNanos, boolean success) {
+        EndpointRecorder recorder = endpoints.computeIfAbsent(endpoint, name -> new EndpointRecorder());
+        long micros = (System.nanoTime() - startNanos) / 1_000;
+        recorder.latencies.recordValue(Math.min(micros, MAX_TRACKED_MICROS));
+        if (!success) {
+            recorder.errors.increment();
+        }
+    }
+
+    /**
+     * Summarizes every endpoint seen since the previous call and starts a new interval.
+     *
+     * @return One result per endpoint, sorted by endpoint name.
+     */
+    public List<EndpointResult> takeInterval() {
+        long now = System.nanoTime();
+        double seconds = Math.max((now - intervalStartNanos) / 1e9, 1e-9);
+        intervalStartNanos = now;
+
+        List<EndpointResult> results = new ArrayList<>();
+        for (Map.Entry<String, EndpointRecorder> entry : new TreeMap<>(endpoints).entrySet()) {
+            Histogram histogram = entry.getValue().latencies.getIntervalHistogram();
+            long errors = entry.getValue().errors.sumThenReset();
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            results.add(new EndpointResult(entry.getKey(), histogram.getTotalCount(), errors,
+                    histogram.getTotalCount() / seconds,
+                    histogram.getValueAtPercentile(50) / 1000.0,
+                    histogram.getValueAtPercentile(99) / 1000.0,
+                    histogram.getValueAtPercentile(99.9) / 1000.0,
+                    histogram.getMaxValue() / 1000.0));
+        }
+        return results;
+    }
+
+    private static final class EndpointRecorder {
+        private final Recorder latencies = new Recorder(MAX_TRACKED_MICROS, 3);
+        private final LongAdder errors = new LongAdder();
+    }
+}
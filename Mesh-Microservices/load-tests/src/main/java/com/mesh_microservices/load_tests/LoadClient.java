@@ -0,0 +1,161 @@
+package com.mesh_microservices.load_tests;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sends requests to the API Gateway on behalf of simulated users and records each one
+ * in a {@link LatencyReport} under a logical endpoint name.
+ * <p>
+ * The user's identity is passed in the {@code X-User-Email} header, as the real clients do.
+ * The last {@code X-Causal-Token} each user received is sent back with their next requests,
+ * so that they read their own writes from whichever instance serves them.
+ */
+public class LoadClient {
+
+    private static final String CAUSAL_TOKEN = "X-Causal-Token";
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    // The last causal token received by each user.
+    private final Map<String, String> causalTokens = new ConcurrentHashMap<>();
+    private final String baseUrl;
+    private final LatencyReport report;
+
+    /**
+     * Creates a client for the given gateway.
+     *
+     * @param baseUrl The gateway base URL.
+     * @param report  The report every request is recorded in.
+     */
+    public LoadClient(String baseUrl, LatencyReport report) {
+        this.baseUrl = baseUrl;
+        this.report = report;
+    }
+
+    /**
+     * Sends a GET request and parses the JSON response.
+     *
+     * @param endpoint The logical endpoint name to record the request under.
+     * @param path     The request path.
+     * @param email    The acting user's email, or {@code null} for anonymous requests.
+     * @return The parsed response, or {@code null} if the request failed.
+     */
+    public JsonNode get(String endpoint, String path, String email) {
+        return json(send(endpoint, request(path, email).GET().build()));
+    }
+
+    /**
+     * Sends a POST request with a JSON body and parses the JSON response.
+     *
+     * @param endpoint The logical endpoint name to record the request under.
+     * @param path     The request path.
+     * @param email    The acting user's email, or {@code null} for anonymous requests.
+     * @param body     The object to serialize as the request body.
+     * @return The parsed response, or {@code null} if the request failed or was not JSON.
+     */
+    public JsonNode postJson(String endpoint, String path, String email, Object body) {
+        try {
+            HttpRequest request = request(path, email)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                    .build();
+            return json(send(endpoint, request));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize request body", e);
+        }
+    }
+
+    /**
+     * Sends a multipart POST request carrying a single file in the {@code file} part.
+     *
+     * @param endpoint The logical endpoint name to record the request under.
+     * @param path     The request path.
+     * @param email    The acting user's email.
+     * @param fileName The file name reported in the part headers.
+     * @param content  The file content.
+     * @return The parsed response, or {@code null} if the request failed.
+     */
+    public JsonNode postFile(String endpoint, String path, String email, String fileName, byte[] content) {
+        String boundary = "mesh-" + UUID.randomUUID();
+        ByteArrayOutputStream body = new ByteArrayOutputStream(content.length + 256);
+        body.writeBytes(("--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"" + fileName + "\"\r\n"
+                + "Content-Type: application/pdf\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+        body.writeBytes(content);
+        body.writeBytes(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8));
+
+        HttpRequest request = request(path, email)
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()))
+                .build();
+        return json(send(endpoint, request));
+    }
+
+    private HttpRequest.Builder request(String path, String email) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(60));
+        if (email != null) {
+            builder.header("X-User-Email", email);
+            String token = causalTokens.get(email);
+            if (token != null) {
+                builder.header(CAUSAL_TOKEN, token);
+            }
+        }
+        return builder;
+    }
+
+    /**
+     * Sends a request and records its latency. Transport failures are recorded as errors.
+     *
+     * @return The response body if the status was 2xx, otherwise {@code null}.
+     */
+    private String send(String endpoint, HttpRequest request) {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            String email = request.headers().firstValue("X-User-Email").orElse(null);
+            String token = response.headers().firstValue(CAUSAL_TOKEN).orElse(null);
+            if (email != null && token != null) {
+                causalTokens.put(email, token);
+            }
+            boolean success = response.statusCode() / 100 == 2;
+            report.record(endpoint, start, success);
+            return success ? response.body() : null;
+        } catch (IOException e) {
+            report.record(endpoint, start, false);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            report.record(endpoint, start, false);
+            return null;
+        }
+    }
+
+    private JsonNode json(String body) {
+        if (body == null || body.isEmpty()) {
+            return null;
+        }
+        try {
+            return objectMapper.readTree(body);
+        } catch (JsonProcessingException e) {
+            // Some endpoints (e.g. signup) answer with plain text.
+            return objectMapper.getNodeFactory().textNode(body);
+        }
+    }
+}
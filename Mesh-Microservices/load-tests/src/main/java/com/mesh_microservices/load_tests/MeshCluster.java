@@ -0,0 +1,235 @@
+package com.mesh_microservices.load_tests;
+
+import com.mesh_microservices.admin_service.AdminServiceApplication;
+import com.mesh_microservices.api_gateway.ApiGatewayApplication;
+import com.mesh_microservices.classroom_service.ClassroomServiceApplication;
+import com.mesh_microservices.discovery_server.DiscoveryServerApplication;
+import com.mesh_microservices.user_service.UserServiceApplication;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import de.bwaldvogel.mongo.bson.Document;
+import io.netty.channel.Channel;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Boots the whole Mesh system inside the current JVM with local stand-ins for its
+ * external dependencies.
+ * <p>
+ * MongoDB Atlas is replaced by an in-memory {@code mongo-java-server} and Azure Blob
+ * Storage by the classroom-service's local disk backend. The discovery server, user,
+ * classroom and admin services and the API Gateway are started from their real
+ * application classes on random ports, register with each other through Eureka, and
+ * are reachable through the gateway exactly as in production.
+ */
+public class MeshCluster implements AutoCloseable {
+
+    /**
+     * Security auto-configuration excluded from services that do not depend on Spring
+     * Security themselves but see it on this module's combined classpath.
+     */
+    private static final String SERVLET_SECURITY_EXCLUDES = String.join(",",
+            "org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration",
+            "org.springframework.boot.autoconfigure.security.servlet.SecurityFilterAutoConfiguration",
+            "org.springframework.boot.autoconfigure.security.servlet.UserDetailsServiceAutoConfiguration",
+            "org.springframework.boot.actuate.autoconfigure.security.servlet.ManagementWebSecurityAutoConfiguration");
+    private static final String REACTIVE_SECURITY_EXCLUDES = String.join(",",
+            "org.springframework.boot.autoconfigure.security.reactive.ReactiveSecurityAutoConfiguration",
+            "org.springframework.boot.autoconfigure.security.reactive.ReactiveUserDetailsServiceAutoConfiguration",
+            "org.springframework.boot.actuate.autoconfigure.security.reactive.ReactiveManagementWebSecurityAutoConfiguration");
+
+    private final MongoServer mongoServer = new MongoServer(new StandInBackend());
+    private final List<ConfigurableApplicationContext> contexts = new ArrayList<>();
+    private final Path blobRoot;
+    private String mongoUri;
+    private String eurekaUrl;
+    private String gatewayUrl;
+
+    /**
+     * Creates a cluster whose uploaded files are written to a fresh temporary directory.
+     *
+     * @throws IOException if the directory cannot be created.
+     */
+    public MeshCluster() throws IOException {
+        this.blobRoot = Files.createTempDirectory("mesh-load-blobs");
+    }
+
+    /**
+     * Starts the Mongo stand-in and all five applications, then waits until the gateway
+     * can route to every service.
+     *
+     * @return This cluster, for chaining.
+     * @throws InterruptedException if interrupted while waiting for routing to settle.
+     */
+    public MeshCluster start() throws InterruptedException {
+        InetSocketAddress mongo = mongoServer.bind();
+        mongoUri = "mongodb://" + mongo.getHostString() + ":" + mongo.getPort();
+
+        int eurekaPort = port(boot(DiscoveryServerApplication.class, WebApplicationType.SERVLET,
+                "spring.application.name=discovery-server",
+                "eureka.client.register-with-eureka=false",
+                "eureka.client.fetch-registry=false",
+                "eureka.server.enable-self-preservation=false",
+                "eureka.server.wait-time-in-ms-when-sync-empty=0",
+                "eureka.server.response-cache-update-interval-ms=500",
+                "spring.autoconfigure.exclude=" + SERVLET_SECURITY_EXCLUDES));
+        eurekaUrl = "http://localhost:" + eurekaPort + "/eureka/";
+
+        boot(UserServiceApplication.class, WebApplicationType.SERVLET,
+                "spring.application.name=user-service",
+                "spring.data.mongodb.uri=" + mongoUri + "/users",
+                // Pick a free gRPC port; it is published to classroom-service through Eureka.
+                "user.grpc.port=0");
+        boot(ClassroomServiceApplication.class, WebApplicationType.SERVLET,
+                "spring.application.name=classroom-service",
+                "spring.data.mongodb.uri=" + mongoUri + "/classrooms",
+                "classroom.blob.backend=local",
+                "classroom.blob.local.root=" + blobRoot);
+        boot(AdminServiceApplication.class, WebApplicationType.SERVLET,
+                "spring.application.name=admin-service",
+                "spring.data.mongodb.uri=" + mongoUri + "/admin",
+                "spring.autoconfigure.exclude=" + SERVLET_SECURITY_EXCLUDES);
+        int gatewayPort = port(boot(ApiGatewayApplication.class, WebApplicationType.REACTIVE,
+                "spring.application.name=api-gateway",
+                "spring.cloud.gateway.server.webflux.enabled=true",
+                "spring.cloud.gateway.server.webflux.routes[0].id=classroom-service",
+                "spring.cloud.gateway.server.webflux.routes[0].uri=lb://classroom-service",
+                "spring.cloud.gateway.server.webflux.routes[0].predicates[0]=Path=/api/classrooms/**,/api/student/**",
+                "spring.cloud.gateway.server.webflux.routes[1].id=user-service",
+                "spring.cloud.gateway.server.webflux.routes[1].uri=lb://user-service",
+                "spring.cloud.gateway.server.webflux.routes[1].predicates[0]=Path=/users/**",
+                "spring.cloud.gateway.server.webflux.routes[2].id=admin-service",
+                "spring.cloud.gateway.server.webflux.routes[2].uri=lb://admin-service",
+                "spring.cloud.gateway.server.webflux.routes[2].predicates[0]=Path=/api/admin/**",
+                // The services put gRPC on the shared classpath, but not the unshaded Netty
+                // transport the gateway's JSON-to-gRPC filter needs.
+                "spring.cloud.gateway.server.webflux.filter.json-to-grpc.enabled=false",
+                "spring.autoconfigure.exclude=" + REACTIVE_SECURITY_EXCLUDES));
+        gatewayUrl = "http://localhost:" + gatewayPort;
+
+        awaitRoute("/users");
+        awaitRoute("/api/admin/users");
+        awaitRoute("/api/student/classrooms");
+        return this;
+    }
+
+    /**
+     * Starts one application with the settings every service shares in the cluster.
+     * <p>
+     * Eureka intervals are shortened from 30 seconds to 1 so services discover each other
+     * within seconds, and the gateway is switched off in the servlet services, which only
+     * see it because this module's classpath contains every service's dependencies. For
+     * the same reason the Eureka clients find the discovery server's Jersey client, whose
+     * transport only the server itself sets up; they are told to use the RestTemplate
+     * transport the services use when deployed.
+     */
+    private ConfigurableApplicationContext boot(Class<?> application, WebApplicationType type, String... properties) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(application)
+                .web(type)
+                .properties(
+                        "server.port=0",
+                        "spring.main.banner-mode=off",
+                        "spring.jmx.enabled=false",
+                        "spring.data.mongodb.uri=" + mongoUri + "/mesh",
+                        "spring.cloud.gateway.server.webflux.enabled=false",
+                        "eureka.client.jersey.enabled=false",
+                        "eureka.client.service-url.defaultZone=" + (eurekaUrl == null ? "http://localhost:1/eureka/" : eurekaUrl),
+                        "eureka.client.registry-fetch-interval-seconds=1",
+                        "eureka.instance.lease-renewal-interval-in-seconds=1",
+                        "eureka.instance.hostname=localhost",
+                        "management.tracing.sampling.probability=0",
+                        "logging.level.root=WARN")
+                .properties(properties)
+                .run();
+        contexts.add(context);
+        return context;
+    }
+
+    private static int port(ConfigurableApplicationContext context) {
+        return ((WebServerApplicationContext) context).getWebServer().getPort();
+    }
+
+    /**
+     * Polls a read-only endpoint through the gateway until it stops failing, which means
+     * the target service has registered and the gateway has fetched it from Eureka.
+     */
+    private void awaitRoute(String path) throws InterruptedException {
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(gatewayUrl + path))
+                .header("X-User-Email", "probe@mesh.local")
+                .build();
+        long deadline = System.nanoTime() + Duration.ofMinutes(2).toNanos();
+        while (System.nanoTime() < deadline) {
+            try {
+                int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                // 503 means no instance is known yet; anything else came from the service itself.
+                if (status != 503 && status != 404) {
+                    return;
+                }
+            } catch (IOException ignored) {
+                // The gateway may reset connections while routes are refreshing.
+            }
+            Thread.sleep(500);
+        }
+        throw new IllegalStateException("Gateway did not route " + path + " within two minutes");
+    }
+
+    /**
+     * Returns the base URL of the API Gateway, through which all load is driven.
+     *
+     * @return The gateway URL, e.g. {@code http://localhost:54321}.
+     */
+    public String getGatewayUrl() {
+        return gatewayUrl;
+    }
+
+    /**
+     * Stops all applications in reverse start order, then the Mongo stand-in.
+     */
+    @Override
+    public void close() {
+        for (int i = contexts.size() - 1; i >= 0; i--) {
+            contexts.get(i).close();
+        }
+        mongoServer.shutdownNow();
+    }
+
+    /**
+     * The in-memory backend of the Mongo stand-in. mongo-java-server answers the handshake
+     * with the wire version of MongoDB 3.6, which the current driver refuses to connect to,
+     * so the backend reports the wire version of MongoDB 4.2 instead, along with a session
+     * timeout so that the driver opens sessions. The commands it implements are unchanged.
+     */
+    private static final class StandInBackend extends MemoryBackend {
+
+        // The lowest wire version the driver accepts (MongoDB 4.2).
+        private static final int WIRE_VERSION = 8;
+        // Without a session timeout in the handshake, the driver refuses the causally
+        // consistent sessions classroom-service reads and writes in.
+        private static final int SESSION_TIMEOUT_MINUTES = 30;
+
+        @Override
+        public Document handleCommand(Channel channel, String databaseName, String command, Document query) {
+            Document response = super.handleCommand(channel, databaseName, command, query);
+            if (response != null && response.containsKey("maxWireVersion")) {
+                response.put("maxWireVersion", WIRE_VERSION);
+                response.put("logicalSessionTimeoutMinutes", SESSION_TIMEOUT_MINUTES);
+            }
+            return response;
+        }
+    }
+}
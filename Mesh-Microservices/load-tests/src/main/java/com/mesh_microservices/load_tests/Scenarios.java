@@ -0,0 +1,180 @@
+package com.mesh_microservices.load_tests;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntConsumer;
+
+/**
+ * Realistic traffic patterns replayed against a running Mesh system.
+ * <p>
+ * A course is set up with one faculty member and a configurable number of students. The
+ * scenarios then reproduce the moments that hurt most in production: every student
+ * joining right after the code is announced, every student submitting just before a
+ * deadline, and clients polling their dashboards.
+ */
+public class Scenarios {
+
+    private final LoadClient client;
+    private final int students;
+    private final ExecutorService pool;
+    private final int concurrency;
+    private final byte[] submissionFile;
+
+    private final String facultyEmail = "faculty@mesh.local";
+    private String classroomId;
+    private String classroomCode;
+    private String assignmentId;
+
+    /**
+     * Creates the scenarios for a course of the given size.
+     *
+     * @param client          The client used to send all requests.
+     * @param students        The number of students in the course.
+     * @param concurrency     The number of requests in flight at once.
+     * @param submissionBytes The size of each submitted file.
+     */
+    public Scenarios(LoadClient client, int students, int concurrency, int submissionBytes) {
+        this.client = client;
+        this.students = students;
+        this.concurrency = concurrency;
+        this.pool = Executors.newFixedThreadPool(concurrency);
+        this.submissionFile = new byte[submissionBytes];
+        ThreadLocalRandom.current().nextBytes(submissionFile);
+    }
+
+    /**
+     * Registers the faculty member and all students, then creates the classroom, a
+     * section and an assignment that is due in one hour.
+     *
+     * @throws Exception if a worker fails or the classroom cannot be created.
+     */
+    public void setUp() throws Exception {
+        client.postJson("users.signup", "/users/signup", null,
+                Map.of("name", "Faculty", "email", facultyEmail, "password", "secret", "role", "faculty"));
+        inParallel(students, s -> client.postJson("users.signup", "/users/signup", null,
+                Map.of("name", "Student " + s, "email", studentEmail(s), "password", "secret")));
+
+        JsonNode classroom = client.postJson("classroom.create", "/api/classrooms/create", facultyEmail,
+                Map.of("classroomName", "Load Test 101", "subject", "Performance"));
+        if (classroom == null) {
+            throw new IllegalStateException("Could not create the load test classroom");
+        }
+        classroomId = classroom.get("id").asText();
+        classroomCode = classroom.get("classroomCode").asText();
+
+        client.postJson("classroom.section", "/api/classrooms/" + classroomId + "/sections", facultyEmail,
+                Map.of("title", "Week 1"));
+        JsonNode withAssignment = client.postJson("classroom.assignment", "/api/classrooms/" + classroomId + "/assignments",
+                facultyEmail, Map.of("title", "Homework 1", "description", "Load test submission", "points", 100,
+                        "dueDate", LocalDateTime.now().plusHours(1).toString()));
+        if (withAssignment == null) {
+            throw new IllegalStateException("Could not create the load test assignment");
+        }
+        JsonNode assignments = withAssignment.get("assignments");
+        assignmentId = assignments.get(assignments.size() - 1).get("id").asText();
+    }
+
+    /**
+     * Every student joins the classroom at once, as happens when a join code is shown in class.
+     *
+     * @throws Exception if a worker fails.
+     */
+    public void joinStorm() throws Exception {
+        inParallel(students, s -> client.postJson("student.join", "/api/student/classrooms/join",
+                studentEmail(s), Map.of("classroomCode", classroomCode)));
+    }
+
+    /**
+     * Every student submits a file for the assignment at once, as happens minutes before a deadline.
+     *
+     * @throws Exception if a worker fails.
+     */
+    public void submissionDeadline() throws Exception {
+        String path = "/api/classrooms/" + classroomId + "/assignments/" + assignmentId + "/submit";
+        inParallel(students, s -> client.postFile("classroom.submit", path, studentEmail(s),
+                "answer-" + s + ".pdf", submissionFile));
+    }
+
+    /**
+     * Students poll their classroom list and the classroom itself, and an administrator
+     * occasionally lists users, at a fixed total request rate.
+     *
+     * @param duration    How long to keep polling.
+     * @param ratePerSecond The total number of polling requests per second.
+     * @throws Exception if a worker fails.
+     */
+    public void dashboardPolling(Duration duration, double ratePerSecond) throws Exception {
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        double perWorkerRate = ratePerSecond / concurrency;
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int w = 0; w < concurrency; w++) {
+            futures.add(pool.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (long n = 0; ; n++) {
+                    long due = start + (long) (n * 1e9 / perWorkerRate);
+                    if (due >= end) {
+                        return;
+                    }
+                    LockSupport.parkNanos(due - System.nanoTime());
+                    String email = studentEmail(random.nextInt(students));
+                    double pick = random.nextDouble();
+                    if (pick < 0.5) {
+                        client.get("student.classrooms", "/api/student/classrooms", email);
+                    } else if (pick < 0.99) {
+                        client.get("classroom.get", "/api/classrooms/" + classroomId, email);
+                    } else {
+                        client.get("admin.users", "/api/admin/users", null);
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+    }
+
+    /**
+     * Releases the worker threads.
+     */
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Runs one action per student index on the worker pool, releasing them all at once
+     * so that the burst arrives together, and waits for all of them to finish.
+     */
+    private void inParallel(int count, IntConsumer action) throws Exception {
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            futures.add(pool.submit(() -> {
+                go.await();
+                action.accept(index);
+                return null;
+            }));
+        }
+        go.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+    }
+
+    private static String studentEmail(int index) {
+        return "student" + index + "@mesh.local";
+    }
+}
@@ -0,0 +1,90 @@
+package com.mesh_microservices.load_tests;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives the production traffic patterns through the whole Mesh system booted in this JVM
+ * and fails if any endpoint misses its p99 latency budget or returns errors.
+ * <p>
+ * The scenarios run in order on one shared course, so students join before they submit
+ * and dashboards are polled for a classroom full of submissions. Only runs under the
+ * {@code load-test} Maven profile:
+ * <pre>
+ * mvn -Pload-test test -Dloadtest.students=500 -Dloadtest.concurrency=128
+ * </pre>
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class OfflineLoadTest {
+
+    private final int students = Integer.getInteger("loadtest.students", 300);
+    private final int concurrency = Integer.getInteger("loadtest.concurrency", 64);
+    private final Duration pollingDuration = Duration.ofSeconds(Integer.getInteger("loadtest.polling.seconds", 30));
+    private final double pollingRate = Integer.getInteger("loadtest.polling.rate", 200);
+
+    private final LatencyReport report = new LatencyReport();
+    private MeshCluster cluster;
+    private Scenarios scenarios;
+
+    @BeforeAll
+    void startCluster() throws Exception {
+        cluster = new MeshCluster().start();
+        scenarios = new Scenarios(new LoadClient(cluster.getGatewayUrl(), report), students, concurrency, 256 * 1024);
+        scenarios.setUp();
+        // Setup traffic runs against cold services; it is reported but not budgeted.
+        print("setup", report.takeInterval());
+    }
+
+    @AfterAll
+    void stopCluster() {
+        if (scenarios != null) {
+            scenarios.shutdown();
+        }
+        if (cluster != null) {
+            cluster.close();
+        }
+    }
+
+    @Test
+    @Order(1)
+    void joinStorm() throws Exception {
+        scenarios.joinStorm();
+        assertWithinBudget("join-storm");
+    }
+
+    @Test
+    @Order(2)
+    void submissionDeadline() throws Exception {
+        scenarios.submissionDeadline();
+        assertWithinBudget("submission-deadline");
+    }
+
+    @Test
+    @Order(3)
+    void dashboardPolling() throws Exception {
+        scenarios.dashboardPolling(pollingDuration, pollingRate);
+        assertWithinBudget("dashboard-polling");
+    }
+
+    private void assertWithinBudget(String scenario) {
+        List<LatencyReport.EndpointResult> results = report.takeInterval();
+        print(scenario, results);
+        assertThat(LatencyBudget.violations(scenario, results)).isEmpty();
+    }
+
+    private static void print(String scenario, List<LatencyReport.EndpointResult> results) {
+        System.out.printf("%n== %s ==%n%s%n", scenario, LatencyReport.HEADER);
+        results.forEach(result -> System.out.println(result.toRow()));
+    }
+}
@@ -0,0 +1,106 @@
+package com.mesh_microservices.registry_load_simulator;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * A minimal client for the Eureka REST protocol used by the synthetic instances.
+ * <p>
+ * The real Eureka client library keeps its own caches, schedulers and backoff logic,
+ * which would hide the server's behaviour behind client-side smoothing. This class
+ * instead issues the raw register, renew, delta and cancel calls so that every
+ * request reaches the registry and is timed individually.
+ */
+public class EurekaRestClient {
+
+    private final HttpClient httpClient;
+    private final String baseUrl;
+
+    final OperationStats registerStats = new OperationStats("register");
+    final OperationStats renewStats = new OperationStats("renew");
+    final OperationStats deltaStats = new OperationStats("delta");
+    final OperationStats cancelStats = new OperationStats("cancel");
+
+    /**
+     * Creates a client that talks to the registry at the given base URL.
+     *
+     * @param baseUrl The Eureka endpoint root, e.g. {@code http://localhost:8761/eureka}.
+     */
+    public EurekaRestClient(String baseUrl) {
+        this.baseUrl = baseUrl;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    /**
+     * Registers a synthetic instance with the registry.
+     *
+     * @param instance The instance to register.
+     */
+    public void register(SyntheticInstance instance) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/apps/" + instance.app()))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(instance.toRegistrationJson()))
+                .build();
+        send(request, registerStats, 204);
+    }
+
+    /**
+     * Sends a heartbeat for a registered instance.
+     *
+     * @param instance The instance renewing its lease.
+     */
+    public void renew(SyntheticInstance instance) {
+        URI uri = URI.create(baseUrl + "/apps/" + instance.app() + "/" + instance.instanceId()
+                + "?status=UP&lastDirtyTimestamp=" + instance.lastDirtyTimestamp());
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .PUT(HttpRequest.BodyPublishers.noBody())
+                .build();
+        send(request, renewStats, 200);
+    }
+
+    /**
+     * Fetches the registry delta, as every client does between full fetches.
+     */
+    public void fetchDelta() {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/apps/delta"))
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+        send(request, deltaStats, 200);
+    }
+
+    /**
+     * Removes a synthetic instance from the registry.
+     *
+     * @param instance The instance shutting down.
+     */
+    public void cancel(SyntheticInstance instance) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/apps/" + instance.app() + "/" + instance.instanceId()))
+                .DELETE()
+                .build();
+        send(request, cancelStats, 200);
+    }
+
+    /**
+     * Sends a request, discards the body and records its latency and outcome.
+     */
+    private void send(HttpRequest request, OperationStats stats, int expectedStatus) {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+            stats.record(start, response.statusCode() == expectedStatus);
+        } catch (IOException e) {
+            stats.record(start, false);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stats.record(start, false);
+        }
+    }
+}
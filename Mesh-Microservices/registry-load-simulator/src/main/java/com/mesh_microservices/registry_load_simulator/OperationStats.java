@@ -0,0 +1,71 @@
+package com.mesh_microservices.registry_load_simulator;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects latency and error counts for one kind of registry operation (register,
+ * renew, delta fetch or cancel).
+ * <p>
+ * Latencies are recorded into an HdrHistogram {@link Recorder}, which is safe for
+ * concurrent writers and lets each simulation step take an interval snapshot without
+ * pausing the workers.
+ */
+public class OperationStats {
+
+    /**
+     * The highest latency the histogram tracks precisely, in microseconds (one minute).
+     */
+    private static final long MAX_TRACKED_MICROS = 60_000_000L;
+
+    private final String name;
+    private final Recorder recorder = new Recorder(MAX_TRACKED_MICROS, 3);
+    private final LongAdder errors = new LongAdder();
+
+    /**
+     * Creates a statistics holder for a named operation.
+     *
+     * @param name The operation name used in reports (e.g., "renew").
+     */
+    public OperationStats(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Records the outcome of a single request.
+     *
+     * @param startNanos The {@link System#nanoTime()} taken before the request was sent.
+     * @param success    Whether the registry answered with the expected status.
+     */
+    public void record(long startNanos, boolean success) {
+        long micros = (System.nanoTime() - startNanos) / 1_000;
+        recorder.recordValue(Math.min(micros, MAX_TRACKED_MICROS));
+        if (!success) {
+            errors.increment();
+        }
+    }
+
+    /**
+     * Returns the latencies recorded since the previous call and resets the interval.
+     *
+     * @return A histogram of latencies in microseconds.
+     */
+    public Histogram takeInterval() {
+        return recorder.getIntervalHistogram();
+    }
+
+    /**
+     * Returns the number of failed requests since the previous call and resets the count.
+     *
+     * @return The failed request count.
+     */
+    public long takeErrors() {
+        return errors.sumThenReset();
+    }
+
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,239 @@
+package com.mesh_microservices.registry_load_simulator;
+
+import com.mesh_microservices.discovery_server.DiscoveryServerApplication;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Drives synthetic Eureka clients against an in-process {@link DiscoveryServerApplication}
+ * to find where registry throughput stops scaling.
+ * <p>
+ * For each configured registry size the simulator registers the additional instances,
+ * then sustains the renew and delta-fetch rate a fleet of that size would produce for
+ * the configured step duration. Each step reports latency percentiles, CPU, heap, GC
+ * and response-cache hit rate. The first step whose achieved rate falls short of the
+ * target is reported as the throughput ceiling. All instances are cancelled at the end.
+ * <p>
+ * Example: {@code mvn spring-boot:run -Dspring-boot.run.arguments="--instances=1000,5000,10000 --renew-interval-ms=5000"}
+ */
+public class RegistryLoadSimulator {
+
+    private final SimulationSettings settings;
+    private final EurekaRestClient client;
+    private final ResourceSampler sampler = new ResourceSampler();
+    private final List<SyntheticInstance> instances = new ArrayList<>();
+    private final ExecutorService workers;
+
+    /**
+     * Creates a simulator for the given settings and registry client.
+     *
+     * @param settings The simulation parameters.
+     * @param client   The client pointed at the registry under test.
+     */
+    public RegistryLoadSimulator(SimulationSettings settings, EurekaRestClient client) {
+        this.settings = settings;
+        this.client = client;
+        this.workers = Executors.newFixedThreadPool(settings.getThreads());
+    }
+
+    /**
+     * Starts the discovery server on a random port and runs the simulation against it.
+     *
+     * @param args Simulation options, see {@link SimulationSettings#fromArgs(String[])}.
+     * @throws Exception if the simulation is interrupted or a worker fails.
+     */
+    public static void main(String[] args) throws Exception {
+        SimulationSettings settings = SimulationSettings.fromArgs(args);
+
+        ConfigurableApplicationContext server = new SpringApplicationBuilder(DiscoveryServerApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.main.banner-mode=off",
+                        "eureka.client.register-with-eureka=false",
+                        "eureka.client.fetch-registry=false",
+                        "eureka.server.enable-self-preservation=false",
+                        "eureka.server.wait-time-in-ms-when-sync-empty=0",
+                        "logging.level.com.netflix=WARN")
+                .run();
+        int port = ((WebServerApplicationContext) server).getWebServer().getPort();
+
+        RegistryLoadSimulator simulator = new RegistryLoadSimulator(settings, new EurekaRestClient("http://localhost:" + port + "/eureka"));
+        try {
+            simulator.run();
+        } finally {
+            simulator.workers.shutdownNow();
+            server.close();
+        }
+    }
+
+    /**
+     * Runs every configured step, prints one report row per step, then cancels all
+     * instances and prints the ceiling summary.
+     *
+     * @return The results of all steps, in order.
+     * @throws Exception if a worker fails or the simulation is interrupted.
+     */
+    public List<StepResult> run() throws Exception {
+        List<StepResult> results = new ArrayList<>();
+        System.out.println(StepResult.HEADER);
+
+        for (int size : settings.getInstanceSteps()) {
+            registerUpTo(size);
+
+            // Discard anything recorded during registration so the step only reports steady-state traffic.
+            client.renewStats.takeInterval();
+            client.deltaStats.takeInterval();
+            client.renewStats.takeErrors();
+            client.deltaStats.takeErrors();
+
+            double targetRate = settings.targetRate(size);
+            ResourceSampler.Snapshot start = sampler.snapshot();
+            long completed = drive(targetRate);
+            ResourceSampler.Snapshot end = sampler.snapshot();
+
+            double seconds = (end.wallNanos() - start.wallNanos()) / 1e9;
+            StepResult result = new StepResult(size, targetRate, completed / seconds,
+                    client.renewStats.takeInterval(), client.deltaStats.takeInterval(),
+                    client.renewStats.takeErrors() + client.deltaStats.takeErrors(),
+                    sampler.usageBetween(start, end));
+            results.add(result);
+            System.out.println(result.toRow());
+        }
+
+        cancelAll();
+        printSummary(results);
+        return results;
+    }
+
+    /**
+     * Registers new instances in parallel until the registry holds the requested number.
+     */
+    private void registerUpTo(int size) throws Exception {
+        List<SyntheticInstance> added = new ArrayList<>();
+        for (int i = instances.size(); i < size; i++) {
+            added.add(SyntheticInstance.create(i, settings.getApplications()));
+        }
+        forEachInParallel(added, client::register);
+        instances.addAll(added);
+
+        Histogram registrations = client.registerStats.takeInterval();
+        long failed = client.registerStats.takeErrors();
+        System.out.printf("# registered %d instances: p50 %.2f ms, p99 %.2f ms, %d failed%n",
+                added.size(), registrations.getValueAtPercentile(50) / 1000.0,
+                registrations.getValueAtPercentile(99) / 1000.0, failed);
+    }
+
+    /**
+     * Sustains the target request rate for one step duration.
+     * <p>
+     * Each worker owns a fixed slice of the instances and walks it round-robin so that
+     * every lease is renewed at the configured interval and none expire. Requests are
+     * paced against a fixed schedule; when the registry cannot keep up, workers fall
+     * behind the schedule and the shortfall shows up as a lower achieved rate.
+     *
+     * @return The number of requests completed.
+     */
+    private long drive(double targetRate) throws Exception {
+        int threads = settings.getThreads();
+        double perWorkerRate = targetRate / threads;
+        double deltaShare = settings.deltaShare();
+        long startNanos = System.nanoTime();
+        long endNanos = startNanos + settings.getStepDuration().toNanos();
+        LongAdder completed = new LongAdder();
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int w = 0; w < threads; w++) {
+            int worker = w;
+            futures.add(workers.submit(() -> {
+                int cursor = worker % instances.size();
+                for (long n = 0; ; n++) {
+                    long due = startNanos + (long) (n * 1e9 / perWorkerRate);
+                    if (due >= endNanos) {
+                        return;
+                    }
+                    long wait = due - System.nanoTime();
+                    if (wait > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                    if (ThreadLocalRandom.current().nextDouble() < deltaShare) {
+                        client.fetchDelta();
+                    } else {
+                        client.renew(instances.get(cursor));
+                        cursor = (cursor + threads) % instances.size();
+                    }
+                    completed.increment();
+                    if (System.nanoTime() >= endNanos) {
+                        return;
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        return completed.sum();
+    }
+
+    /**
+     * Cancels every registered instance and reports cancellation latency.
+     */
+    private void cancelAll() throws Exception {
+        forEachInParallel(instances, client::cancel);
+        Histogram cancellations = client.cancelStats.takeInterval();
+        System.out.printf("# cancelled %d instances: p50 %.2f ms, p99 %.2f ms, %d failed%n",
+                instances.size(), cancellations.getValueAtPercentile(50) / 1000.0,
+                cancellations.getValueAtPercentile(99) / 1000.0, client.cancelStats.takeErrors());
+        instances.clear();
+    }
+
+    /**
+     * Applies an action to every instance using all worker threads and waits for completion.
+     */
+    private void forEachInParallel(List<SyntheticInstance> batch, Consumer<SyntheticInstance> action) throws Exception {
+        int threads = settings.getThreads();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int w = 0; w < threads; w++) {
+            int worker = w;
+            futures.add(workers.submit(() -> {
+                for (int i = worker; i < batch.size(); i += threads) {
+                    action.accept(batch.get(i));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.MINUTES);
+        }
+    }
+
+    /**
+     * Prints the largest registry size that was sustained and the first one that was not.
+     */
+    private void printSummary(List<StepResult> results) {
+        StepResult lastSustained = null;
+        for (StepResult result : results) {
+            if (!result.sustained(settings.getTolerance())) {
+                System.out.printf("# ceiling: %d instances achieved %.1f of %.1f req/s (%.0f%%)%s%n",
+                        result.instances(), result.achievedRate(), result.targetRate(),
+                        100 * result.achievedRate() / result.targetRate(),
+                        lastSustained == null ? "" : "; last sustained size was " + lastSustained.instances());
+                return;
+            }
+            lastSustained = result;
+        }
+        System.out.println("# no ceiling reached: every step sustained at least "
+                + Math.round(settings.getTolerance() * 100) + "% of its target rate");
+    }
+}
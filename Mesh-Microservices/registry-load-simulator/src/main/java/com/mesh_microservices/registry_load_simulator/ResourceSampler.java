@@ -0,0 +1,94 @@
+package com.mesh_microservices.registry_load_simulator;
+
+import com.netflix.eureka.util.EurekaMonitors;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+
+/**
+ * Takes snapshots of JVM and registry counters so that each simulation step can report
+ * the resources it consumed.
+ * <p>
+ * The discovery server runs in the same JVM as the load driver, so CPU and GC figures
+ * include the driver's own overhead. They are still useful for spotting the step at
+ * which cost per request starts to climb.
+ */
+public class ResourceSampler {
+
+    private final com.sun.management.OperatingSystemMXBean os =
+            (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+
+    /**
+     * An immutable point-in-time reading of the counters the simulator tracks.
+     *
+     * @param wallNanos        The {@link System#nanoTime()} at the time of the snapshot.
+     * @param cpuNanos         The total CPU time consumed by the process.
+     * @param gcCount          The total number of collections across all collectors.
+     * @param gcMillis         The total time spent in collections.
+     * @param deltaRequests    The number of delta fetches the registry has served.
+     * @param deltaCacheMisses The number of delta fetches that missed the response cache.
+     */
+    public record Snapshot(long wallNanos, long cpuNanos, long gcCount, long gcMillis,
+                           long deltaRequests, long deltaCacheMisses) {
+    }
+
+    /**
+     * Resources consumed between two snapshots.
+     *
+     * @param cpuPercent       The average process CPU usage across all cores.
+     * @param peakHeapBytes    The highest heap occupancy observed during the step.
+     * @param gcCount          The number of collections during the step.
+     * @param gcMillis         The time spent in collections during the step.
+     * @param cacheHitRate     The share of delta fetches served from the response cache.
+     */
+    public record Usage(double cpuPercent, long peakHeapBytes, long gcCount, long gcMillis, double cacheHitRate) {
+    }
+
+    /**
+     * Captures the current counter values and resets heap peak tracking for the next step.
+     *
+     * @return The snapshot.
+     */
+    public Snapshot snapshot() {
+        long gcCount = 0;
+        long gcMillis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            gcCount += Math.max(gc.getCollectionCount(), 0);
+            gcMillis += Math.max(gc.getCollectionTime(), 0);
+        }
+        return new Snapshot(System.nanoTime(), os.getProcessCpuTime(), gcCount, gcMillis,
+                EurekaMonitors.GET_ALL_DELTA.getCount(), EurekaMonitors.GET_ALL_CACHE_MISS_DELTA.getCount());
+    }
+
+    /**
+     * Calculates the resources used between two snapshots.
+     *
+     * @param start The snapshot taken at the beginning of the step.
+     * @param end   The snapshot taken at the end of the step.
+     * @return The usage over the interval.
+     */
+    public Usage usageBetween(Snapshot start, Snapshot end) {
+        long wall = Math.max(end.wallNanos() - start.wallNanos(), 1);
+        double cpu = 100.0 * (end.cpuNanos() - start.cpuNanos()) / wall / os.getAvailableProcessors();
+        long requests = end.deltaRequests() - start.deltaRequests();
+        long misses = end.deltaCacheMisses() - start.deltaCacheMisses();
+        double hitRate = requests == 0 ? 0.0 : 1.0 - (double) misses / requests;
+        return new Usage(cpu, takePeakHeap(), end.gcCount() - start.gcCount(), end.gcMillis() - start.gcMillis(), hitRate);
+    }
+
+    /**
+     * Sums the peak usage of all heap pools and resets the peaks.
+     */
+    private long takePeakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+                pool.resetPeakUsage();
+            }
+        }
+        return peak;
+    }
+}
@@ -0,0 +1,154 @@
+package com.mesh_microservices.registry_load_simulator;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Holds the tunable parameters of a registry load simulation.
+ * <p>
+ * Settings are read from {@code --name=value} command-line arguments. Every value has a
+ * default that mirrors a stock Eureka client (30 second renewals and delta fetches), so
+ * running the simulator without arguments reproduces production-like traffic per instance.
+ */
+public class SimulationSettings {
+
+    /**
+     * The registry sizes to step through, in ascending order (e.g., 500, 1000, 2000).
+     */
+    private List<Integer> instanceSteps = List.of(500, 1000, 2000, 4000, 8000);
+
+    /**
+     * How long traffic is sustained at each registry size.
+     */
+    private Duration stepDuration = Duration.ofSeconds(60);
+
+    /**
+     * How often each synthetic instance sends a heartbeat. Lowering it compresses time
+     * so that a small number of instances produces the renew rate of a larger fleet.
+     */
+    private Duration renewInterval = Duration.ofSeconds(30);
+
+    /**
+     * How often each fetching client polls {@code /eureka/apps/delta}.
+     */
+    private Duration deltaInterval = Duration.ofSeconds(30);
+
+    /**
+     * The fraction of instances that also fetch registry deltas (1.0 means every instance).
+     */
+    private double deltaFetchRatio = 1.0;
+
+    /**
+     * The number of distinct application names the instances are spread across.
+     */
+    private int applications = 50;
+
+    /**
+     * The number of worker threads driving requests.
+     */
+    private int threads = 64;
+
+    /**
+     * The share of the target request rate a step must achieve to count as sustained.
+     * The first step that falls below it is reported as the throughput ceiling.
+     */
+    private double tolerance = 0.9;
+
+    /**
+     * Parses simulation settings from command-line arguments, keeping defaults for
+     * any option that is not supplied.
+     *
+     * @param args Arguments of the form {@code --instances=500,1000}.
+     * @return The parsed settings.
+     * @throws IllegalArgumentException if an option is unknown or malformed.
+     */
+    public static SimulationSettings fromArgs(String[] args) {
+        SimulationSettings settings = new SimulationSettings();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            switch (name) {
+                case "instances" -> settings.instanceSteps = parseSteps(value);
+                case "step-seconds" -> settings.stepDuration = Duration.ofSeconds(Long.parseLong(value));
+                case "renew-interval-ms" -> settings.renewInterval = Duration.ofMillis(Long.parseLong(value));
+                case "delta-interval-ms" -> settings.deltaInterval = Duration.ofMillis(Long.parseLong(value));
+                case "delta-fetch-ratio" -> settings.deltaFetchRatio = Double.parseDouble(value);
+                case "applications" -> settings.applications = Integer.parseInt(value);
+                case "threads" -> settings.threads = Integer.parseInt(value);
+                case "tolerance" -> settings.tolerance = Double.parseDouble(value);
+                default -> throw new IllegalArgumentException("Unknown option: --" + name);
+            }
+        }
+        return settings;
+    }
+
+    private static List<Integer> parseSteps(String value) {
+        List<Integer> steps = new ArrayList<>();
+        for (String step : value.split(",")) {
+            steps.add(Integer.parseInt(step.trim()));
+        }
+        steps.sort(Integer::compareTo);
+        return steps;
+    }
+
+    /**
+     * Calculates the request rate the registry must sustain for a given number of instances.
+     *
+     * @param instances The registry size.
+     * @return The combined renew and delta-fetch rate in requests per second.
+     */
+    public double targetRate(int instances) {
+        double renewRate = instances / (renewInterval.toMillis() / 1000.0);
+        double deltaRate = instances * deltaFetchRatio / (deltaInterval.toMillis() / 1000.0);
+        return renewRate + deltaRate;
+    }
+
+    /**
+     * Returns the probability that a single driven operation is a delta fetch rather than a renewal.
+     *
+     * @return A value between 0 and 1.
+     */
+    public double deltaShare() {
+        double renewWeight = 1000.0 / renewInterval.toMillis();
+        double deltaWeight = deltaFetchRatio * 1000.0 / deltaInterval.toMillis();
+        return deltaWeight / (renewWeight + deltaWeight);
+    }
+
+    // --- Getters ---
+
+    public List<Integer> getInstanceSteps() {
+        return instanceSteps;
+    }
+
+    public Duration getStepDuration() {
+        return stepDuration;
+    }
+
+    public Duration getRenewInterval() {
+        return renewInterval;
+    }
+
+    public Duration getDeltaInterval() {
+        return deltaInterval;
+    }
+
+    public double getDeltaFetchRatio() {
+        return deltaFetchRatio;
+    }
+
+    public int getApplications() {
+        return applications;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public double getTolerance() {
+        return tolerance;
+    }
+}
@@ -0,0 +1,54 @@
+package com.mesh_microservices.registry_load_simulator;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * The measured outcome of one simulation step at a fixed registry size.
+ *
+ * @param instances    The number of registered instances during the step.
+ * @param targetRate   The request rate the step tried to drive, in requests per second.
+ * @param achievedRate The request rate actually completed, in requests per second.
+ * @param renew        Renewal latencies in microseconds.
+ * @param delta        Delta-fetch latencies in microseconds.
+ * @param errors       The number of failed renewals and delta fetches.
+ * @param usage        The CPU, heap, GC and response-cache figures for the step.
+ */
+public record StepResult(int instances, double targetRate, double achievedRate,
+                         Histogram renew, Histogram delta, long errors, ResourceSampler.Usage usage) {
+
+    /**
+     * The header line matching {@link #toRow()}.
+     */
+    public static final String HEADER = String.format("%9s %10s %10s %9s %9s %9s %9s %7s %7s %9s %6s %8s %7s",
+            "instances", "target/s", "done/s", "renew p50", "renew p99", "delta p50", "delta p99",
+            "errors", "cpu%", "heap MB", "gcs", "gc ms", "hit%");
+
+    /**
+     * Decides whether the registry kept up with the offered load during this step.
+     *
+     * @param tolerance The minimum share of the target rate that must be achieved.
+     * @return {@code true} if the achieved rate met the tolerance and fewer than 1% of requests failed.
+     */
+    public boolean sustained(double tolerance) {
+        long total = renew.getTotalCount() + delta.getTotalCount();
+        boolean fewErrors = total == 0 || (double) errors / total < 0.01;
+        return achievedRate >= targetRate * tolerance && fewErrors;
+    }
+
+    /**
+     * Formats the step as a fixed-width report row. Latencies are shown in milliseconds.
+     *
+     * @return The report row.
+     */
+    public String toRow() {
+        return String.format("%9d %10.1f %10.1f %9.2f %9.2f %9.2f %9.2f %7d %7.1f %9d %6d %8d %7.1f",
+                instances, targetRate, achievedRate,
+                millis(renew, 50), millis(renew, 99), millis(delta, 50), millis(delta, 99),
+                errors, usage.cpuPercent(), usage.peakHeapBytes() / (1024 * 1024),
+                usage.gcCount(), usage.gcMillis(), usage.cacheHitRate() * 100);
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+}
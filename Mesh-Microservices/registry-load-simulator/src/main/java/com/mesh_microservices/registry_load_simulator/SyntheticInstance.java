@@ -0,0 +1,45 @@
+package com.mesh_microservices.registry_load_simulator;
+
+/**
+ * A fake service instance that takes part in the simulation.
+ * <p>
+ * Each instance has a stable identity so that renewals and cancellations target the
+ * lease created by its registration.
+ *
+ * @param app                The upper-case application name the instance registers under.
+ * @param instanceId         The unique instance ID within the application.
+ * @param ipAddr             A synthetic IP address, unique per instance.
+ * @param lastDirtyTimestamp The timestamp sent on registration and echoed on every renewal.
+ */
+public record SyntheticInstance(String app, String instanceId, String ipAddr, long lastDirtyTimestamp) {
+
+    /**
+     * Creates the instance with the given sequence number, spread across a fixed number
+     * of application names.
+     *
+     * @param sequence     The zero-based sequence number of the instance.
+     * @param applications The number of distinct application names.
+     * @return The synthetic instance.
+     */
+    public static SyntheticInstance create(int sequence, int applications) {
+        String app = "SIM-APP-" + (sequence % applications);
+        String ip = "10." + ((sequence >> 16) & 0xFF) + "." + ((sequence >> 8) & 0xFF) + "." + (sequence & 0xFF);
+        return new SyntheticInstance(app, "sim-" + sequence, ip, System.currentTimeMillis());
+    }
+
+    /**
+     * Builds the JSON registration payload in the format the Eureka server expects.
+     *
+     * @return The registration request body.
+     */
+    public String toRegistrationJson() {
+        String vip = app.toLowerCase();
+        return """
+                {"instance":{"instanceId":"%s","hostName":"%s","app":"%s","ipAddr":"%s","status":"UP",\
+                "port":{"$":8080,"@enabled":"true"},"securePort":{"$":443,"@enabled":"false"},\
+                "dataCenterInfo":{"@class":"com.netflix.appinfo.InstanceInfo$DefaultDataCenterInfo","name":"MyOwn"},\
+                "leaseInfo":{"renewalIntervalInSecs":30,"durationInSecs":90},\
+                "vipAddress":"%s","secureVipAddress":"%s","lastDirtyTimestamp":"%d"}}"""
+                .formatted(instanceId, ipAddr, app, ipAddr, vip, vip, lastDirtyTimestamp);
+    }
+}
@@ -0,0 +1,104 @@
+package com.mesh_microservices.user_service.config;
+
+import com.mesh_microservices.user_service.service.UserLookupGrpcService;
+import com.netflix.appinfo.ApplicationInfoManager;
+import io.grpc.Server;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import io.micrometer.core.instrument.binder.grpc.ObservationGrpcServerInterceptor;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the gRPC server of the User Service next to its HTTP server.
+ * <p>
+ * The server listens on {@code user.grpc.port} (9090 by default; 0 picks a free port) and
+ * serves the {@link UserLookupGrpcService}. Calls are observed like HTTP requests, so they
+ * appear in the {@code grpc.server} metrics and continue the caller's trace.
+ * <p>
+ * Once started, the actual port is published in this instance's Eureka metadata under
+ * {@code grpc-port}, which is how clients discover that and where gRPC is available.
+ */
+@Configuration
+public class GrpcServerConfig implements SmartLifecycle {
+
+    /**
+     * The Eureka metadata key under which the gRPC port is published.
+     */
+    public static final String GRPC_PORT_METADATA = "grpc-port";
+
+    private final int port;
+    private final UserLookupGrpcService userLookupService;
+    private final ObservationRegistry observationRegistry;
+    private final ApplicationInfoManager applicationInfoManager;
+    private volatile Server server;
+
+    public GrpcServerConfig(@Value("${user.grpc.port:9090}") int port,
+                            UserLookupGrpcService userLookupService,
+                            ObservationRegistry observationRegistry,
+                            ApplicationInfoManager applicationInfoManager) {
+        this.port = port;
+        this.userLookupService = userLookupService;
+        this.observationRegistry = observationRegistry;
+        this.applicationInfoManager = applicationInfoManager;
+    }
+
+    /**
+     * Starts the gRPC server and advertises its port through Eureka.
+     */
+    @Override
+    public void start() {
+        try {
+            server = NettyServerBuilder.forPort(port)
+                    .addService(userLookupService)
+                    .intercept(new ObservationGrpcServerInterceptor(observationRegistry))
+                    .build()
+                    .start();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not start the gRPC server on port " + port, e);
+        }
+        applicationInfoManager.registerAppMetadata(Map.of(GRPC_PORT_METADATA, String.valueOf(server.getPort())));
+    }
+
+    /**
+     * Stops accepting calls and waits briefly for in-flight calls to finish.
+     */
+    @Override
+    public void stop() {
+        Server running = server;
+        if (running == null) {
+            return;
+        }
+        running.shutdown();
+        try {
+            if (!running.awaitTermination(5, TimeUnit.SECONDS)) {
+                running.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            running.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        server = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+
+    /**
+     * Returns the port the server is listening on.
+     *
+     * @return The bound port, or -1 if the server is not running.
+     */
+    public int getPort() {
+        Server running = server;
+        return running == null ? -1 : running.getPort();
+    }
+}
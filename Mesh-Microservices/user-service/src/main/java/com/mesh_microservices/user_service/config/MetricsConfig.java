@@ -0,0 +1,31 @@
+package com.mesh_microservices.user_service.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configures Micrometer instrumentation for the User Service.
+ * <p>
+ * HTTP server requests, gRPC calls and MongoDB commands are timed by Spring Boot's
+ * auto-configuration. This class adds the split of MongoDB reads between primaries and
+ * secondaries, which shows the effect of the read preferences on {@code UserRepository}.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Counts MongoDB reads by the replica set member that answered them.
+     *
+     * @param registry The meter registry the counts are recorded in.
+     * @return A customizer applied to the auto-configured MongoDB client settings.
+     */
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoReadMetricsCustomizer(MeterRegistry registry) {
+        MongoReadMetrics metrics = new MongoReadMetrics(registry);
+        return builder -> builder
+                .addCommandListener(metrics)
+                .applyToClusterSettings(cluster -> cluster.addClusterListener(metrics));
+    }
+}
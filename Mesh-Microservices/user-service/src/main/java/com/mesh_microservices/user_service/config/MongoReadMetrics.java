@@ -0,0 +1,61 @@
+package com.mesh_microservices.user_service.config;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ServerDescription;
+import com.mongodb.event.ClusterDescriptionChangedEvent;
+import com.mongodb.event.ClusterListener;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Counts the read commands answered by replica set primaries and by secondaries, which
+ * shows how much read load the configured read preferences move off the primary.
+ * <p>
+ * Reads are counted as {@code mongodb.reads}, tagged with the command and with
+ * {@code member=primary} or {@code member=secondary}. The member type of each server is
+ * taken from the driver's view of the cluster; a standalone server counts as primary.
+ */
+public class MongoReadMetrics implements CommandListener, ClusterListener {
+
+    private static final Set<String> READ_COMMANDS = Set.of("find", "getMore", "aggregate", "count", "distinct");
+
+    private final MeterRegistry meterRegistry;
+
+    // The current secondaries of each cluster the listener is attached to.
+    private final Map<ClusterId, Set<ServerAddress>> secondaries = new ConcurrentHashMap<>();
+
+    public MongoReadMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void clusterDescriptionChanged(ClusterDescriptionChangedEvent event) {
+        secondaries.put(event.getClusterId(), event.getNewDescription().getServerDescriptions().stream()
+                .filter(ServerDescription::isSecondary)
+                .map(ServerDescription::getAddress)
+                .collect(Collectors.toUnmodifiableSet()));
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        if (!READ_COMMANDS.contains(event.getCommandName())) {
+            return;
+        }
+        ServerAddress server = event.getConnectionDescription().getServerAddress();
+        boolean secondary = secondaries.values().stream().anyMatch(addresses -> addresses.contains(server));
+        Counter.builder("mongodb.reads")
+                .description("Read commands by the replica set member that answered them")
+                .tag("command", event.getCommandName())
+                .tag("member", secondary ? "secondary" : "primary")
+                .register(meterRegistry)
+                .increment();
+    }
+}
@@ -0,0 +1,15 @@
+package com.mesh_microservices.user_service.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables Spring's {@code @Scheduled} support for the User Service.
+ * <p>
+ * Used by the {@code UserChangeService}, which publishes outbox entries left pending by
+ * failed requests and purges expired ones.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
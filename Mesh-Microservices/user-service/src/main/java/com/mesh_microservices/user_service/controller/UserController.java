@@ -1,12 +1,16 @@
 package com.mesh_microservices.user_service.controller;
 
 import com.mesh_microservices.user_service.model.User;
+import com.mesh_microservices.user_service.model.UserChangeEvent;
 import com.mesh_microservices.user_service.repository.UserRepository;
+import com.mesh_microservices.user_service.service.UserChangeService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -23,6 +27,10 @@ public class UserController {
     @Autowired
     private UserRepository userRepository;
 
+    // Updates and deletes users and records the changes for other services.
+    @Autowired
+    private UserChangeService userChangeService;
+
 
     // === USER REGISTRATION AND LOGIN ===
 
@@ -107,6 +115,7 @@ public class UserController {
 
     /**
      * Updates the details of an existing user.
+     * Changes to the name or role are recorded for the services that keep copies of them.
      *
      * @param userId The ID of the user to update.
      * @param userDetails A User object from the request body with the updated information.
@@ -114,31 +123,48 @@ public class UserController {
      */
     @PutMapping("/{userId}")
     public ResponseEntity<User> updateUser(@PathVariable String userId, @RequestBody User userDetails) {
-        return userRepository.findById(userId)
-                .map(user -> {
-                    user.setName(userDetails.getName());
-                    user.setEmail(userDetails.getEmail());
-                    user.setRole(userDetails.getRole());
-                    // Note: Add other fields to be updated here as necessary.
-                    User updatedUser = userRepository.save(user);
-                    return ResponseEntity.ok(updatedUser);
-                })
+        return userChangeService.update(userId, userDetails)
+                .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     /**
      * Deletes a user from the database by their ID.
+     * The deletion is recorded so other services can remove the user from their data.
      *
      * @param userId The ID of the user to be deleted.
      * @return An empty ResponseEntity with a 200 OK status on success, or a 404 Not Found status.
      */
     @DeleteMapping("/{userId}")
     public ResponseEntity<?> deleteUser(@PathVariable String userId) {
-        return userRepository.findById(userId)
-                .map(user -> {
-                    userRepository.delete(user);
-                    return ResponseEntity.ok().build();
-                })
-                .orElse(ResponseEntity.notFound().build());
+        return userChangeService.delete(userId)
+                ? ResponseEntity.ok().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Reads the feed of user changes that other services apply to their copies of user data.
+     * Consumers pass the ID of the last change they applied to receive the ones after it.
+     * <p>
+     * If changes after that ID have already been purged, the response is 410 (Gone) with
+     * the ID of the newest purged change as {@code purgedThrough}. The consumer must then
+     * resynchronize its copies from the current users and read on after that ID.
+     *
+     * @param after Optional ID of the last change already applied.
+     * @param limit Optional maximum number of changes to return (default 100, at most 1000).
+     * @return A ResponseEntity containing the changes, oldest first; 400 (Bad Request) for a
+     * malformed ID, or 410 (Gone) if the consumer has fallen behind the retained changes.
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<?> getChanges(@RequestParam(required = false) String after,
+                                        @RequestParam(required = false) Integer limit) {
+        try {
+            List<UserChangeEvent> changes = userChangeService.changesAfter(after, limit);
+            return ResponseEntity.ok(changes);
+        } catch (UserChangeService.FeedExpiredException e) {
+            return ResponseEntity.status(HttpStatus.GONE).body(Map.of("purgedThrough", e.getPurgedThrough()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,45 @@
+package com.mesh_microservices.user_service.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * How far the user outbox has been purged.
+ * <p>
+ * This model is mapped to the "user_outbox_retention" collection, with a single document.
+ * A consumer whose checkpoint is before {@code purgedThrough} may have missed purged
+ * entries, and must resynchronize its copies instead of reading on from the feed.
+ */
+@Document(collection = "user_outbox_retention")
+public class OutboxRetention {
+
+    /**
+     * The ID of the single retention document.
+     */
+    public static final String ID = "user_outbox";
+
+    @Id
+    private String id;
+
+    /**
+     * The ID of the newest purged outbox entry, or null if nothing has been purged.
+     */
+    private String purgedThrough;
+
+    // --- Getters and Setters ---
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getPurgedThrough() {
+        return purgedThrough;
+    }
+
+    public void setPurgedThrough(String purgedThrough) {
+        this.purgedThrough = purgedThrough;
+    }
+}
@@ -0,0 +1,145 @@
+package com.mesh_microservices.user_service.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * A change to a user that other services keep copies of.
+ * <p>
+ * This model is mapped to the "user_outbox" collection. An entry is written before the
+ * change it describes and carries the user's new values, from which the change is then
+ * applied; it is published once the change has been applied. Consumers read the outbox in
+ * ID order through the change feed and remember the last ID they applied. Published
+ * entries are purged after the retention period.
+ */
+@Document(collection = "user_outbox")
+public class UserChangeEvent {
+
+    /**
+     * The kinds of changes recorded in the outbox.
+     */
+    public enum Type {
+        UPDATED, DELETED
+    }
+
+    /**
+     * The unique, increasing identifier of the entry, generated by MongoDB.
+     */
+    @Id
+    private String id;
+
+    /**
+     * The kind of change.
+     */
+    private Type type;
+
+    /**
+     * The ID of the changed user.
+     */
+    private String userId;
+
+    /**
+     * The user's name after the change, or null for deletions.
+     */
+    private String name;
+
+    /**
+     * The user's email after the change, or null for deletions. Not copied by other
+     * services, but needed to apply the change.
+     */
+    private String email;
+
+    /**
+     * The user's role after the change, or null for deletions.
+     */
+    private String role;
+
+    /**
+     * The time the change was requested. Entries are purged after the retention period.
+     */
+    private LocalDateTime occurredAt;
+
+    /**
+     * Whether the change has been applied to the user. Unpublished entries hold back the feed.
+     */
+    private boolean published;
+
+    public UserChangeEvent() {
+    }
+
+    public UserChangeEvent(Type type, String userId, String name, String email, String role) {
+        this.type = type;
+        this.userId = userId;
+        this.name = name;
+        this.email = email;
+        this.role = role;
+        this.occurredAt = LocalDateTime.now();
+    }
+
+    // --- Getters and Setters ---
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public void setRole(String role) {
+        this.role = role;
+    }
+
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+
+    public void setOccurredAt(LocalDateTime occurredAt) {
+        this.occurredAt = occurredAt;
+    }
+
+    public boolean isPublished() {
+        return published;
+    }
+
+    public void setPublished(boolean published) {
+        this.published = published;
+    }
+}
@@ -0,0 +1,33 @@
+package com.mesh_microservices.user_service.repository;
+
+import com.mesh_microservices.user_service.model.User;
+
+import java.util.List;
+
+/**
+ * The user reads whose read preference is configurable, as a fragment of the
+ * {@link UserRepository}.
+ * <p>
+ * The read preference of each method is configured as
+ * {@code user.reads.preference.<method>=<mode>}, e.g. {@code secondaryPreferred}; methods
+ * without an entry read from the primary. Secondaries lagging more than
+ * {@code user.reads.max-staleness} behind are skipped. Secondary reads are not tied to the
+ * caller's own writes, so only reads that tolerate slightly stale data should use them.
+ */
+public interface UserReadRepository {
+
+    /**
+     * Lists all users, e.g. for the admin dashboard.
+     *
+     * @return All users.
+     */
+    List<User> findAll();
+
+    /**
+     * Finds several users at once, e.g. to show the names of a class roster.
+     *
+     * @param ids The IDs of the users to find.
+     * @return The users found.
+     */
+    List<User> findAllById(Iterable<String> ids);
+}
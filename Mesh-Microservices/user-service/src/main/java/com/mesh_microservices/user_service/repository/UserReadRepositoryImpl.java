@@ -0,0 +1,62 @@
+package com.mesh_microservices.user_service.repository;
+
+import com.mesh_microservices.user_service.model.User;
+import com.mongodb.ReadPreference;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the reads of {@link UserReadRepository} with the read preference configured for
+ * each method.
+ */
+class UserReadRepositoryImpl implements UserReadRepository {
+
+    private final MongoTemplate mongoTemplate;
+    private final ReadPreference findAll;
+    private final ReadPreference findAllById;
+
+    UserReadRepositoryImpl(MongoTemplate mongoTemplate, Environment environment,
+                           @Value("${user.reads.max-staleness:PT90S}") Duration maxStaleness) {
+        Map<String, String> modes = Binder.get(environment)
+                .bind("user.reads.preference", Bindable.mapOf(String.class, String.class))
+                .orElse(Map.of());
+        this.mongoTemplate = mongoTemplate;
+        this.findAll = readPreference(modes.get("findAll"), maxStaleness);
+        this.findAllById = readPreference(modes.get("findAllById"), maxStaleness);
+    }
+
+    @Override
+    public List<User> findAll() {
+        return mongoTemplate.find(new Query().withReadPreference(findAll), User.class);
+    }
+
+    @Override
+    public List<User> findAllById(Iterable<String> ids) {
+        List<String> idList = new ArrayList<>();
+        ids.forEach(idList::add);
+        return mongoTemplate.find(Query.query(Criteria.where("id").in(idList)).withReadPreference(findAllById), User.class);
+    }
+
+    /**
+     * Parses a read preference mode such as {@code secondaryPreferred}; no mode means the primary.
+     *
+     * @throws IllegalArgumentException if the mode is unknown.
+     */
+    private static ReadPreference readPreference(String mode, Duration maxStaleness) {
+        if (mode == null || ReadPreference.valueOf(mode).equals(ReadPreference.primary())) {
+            return ReadPreference.primary();
+        }
+        return ReadPreference.valueOf(mode, List.of(), maxStaleness.toSeconds(), TimeUnit.SECONDS);
+    }
+}
@@ -10,8 +10,12 @@ import java.util.Optional;
  *
  * This interface extends MongoRepository, which provides a full set of standard
  * CRUD (Create, Read, Update, Delete) operations for the User model.
+ *
+ * Reads go to the replica set primary, except the listings of {@link UserReadRepository},
+ * whose read preference is configured per method. Lookups by email and ID stay on the
+ * primary, so a user can log in and be found right after signing up or being updated.
  */
-public interface UserRepository extends MongoRepository<User, String> {
+public interface UserRepository extends MongoRepository<User, String>, UserReadRepository {
 
     /**
      * Finds a user by their unique email address.
@@ -22,4 +26,4 @@ public interface UserRepository extends MongoRepository<User, String> {
      * with the specified email exists.
      */
     Optional<User> findByEmail(String email);
-}
\ No newline at end of file
+}
@@ -0,0 +1,239 @@
+package com.mesh_microservices.user_service.service;
+
+import com.mesh_microservices.user_service.model.OutboxRetention;
+import com.mesh_microservices.user_service.model.User;
+import com.mesh_microservices.user_service.model.UserChangeEvent;
+import com.mesh_microservices.user_service.repository.UserRepository;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Updates and deletes users, recording each change in the user outbox.
+ * <p>
+ * Other services copy user names (e.g. classroom-service stores faculty and student
+ * names in its classrooms). The store this service is deployed on has no multi-document
+ * transactions, so a change is first written to the outbox as an unpublished
+ * {@link UserChangeEvent} carrying the user's new values, then applied to the user from
+ * that entry, and finally published. Applying an entry is idempotent and never overwrites
+ * a newer change, so entries left unpublished by a failure are simply applied again by
+ * {@link #publishPending}. Consumers read the published entries through
+ * {@link #changesAfter} to update their copies.
+ */
+@Service
+public class UserChangeService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserChangeService.class);
+
+    // Bounds for the number of entries returned by one feed read.
+    private static final int DEFAULT_FEED_SIZE = 100;
+    private static final int MAX_FEED_SIZE = 1000;
+
+    // The field of a user document holding the ID of the last outbox entry applied to it.
+    private static final String LAST_CHANGE_ID = "lastChangeId";
+
+    /**
+     * Signals that a consumer's checkpoint lies before purged outbox entries, so changes
+     * may have been missed.
+     */
+    public static class FeedExpiredException extends RuntimeException {
+
+        private final String purgedThrough;
+
+        public FeedExpiredException(String purgedThrough) {
+            super("Changes up to " + purgedThrough + " have been purged; resynchronize and read on after it");
+            this.purgedThrough = purgedThrough;
+        }
+
+        /**
+         * Returns the ID of the newest purged entry, from which the feed can be read again after a resync.
+         */
+        public String getPurgedThrough() {
+            return purgedThrough;
+        }
+    }
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    // Entries younger than this are held back from the feed. IDs are assigned before the
+    // insert, so a concurrent request may still insert an entry with a smaller ID;
+    // waiting makes sure consumers never move their checkpoint past it.
+    @Value("${user.outbox.settle-delay:PT5S}")
+    private Duration settleDelay;
+
+    // Published entries older than this are purged.
+    @Value("${user.outbox.retention:P7D}")
+    private Duration retention;
+
+    /**
+     * Creates the indexes the outbox queries use. A store that rejects them only makes
+     * those queries slower, so failures are logged rather than stopping the service.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndexes() {
+        try {
+            mongoTemplate.indexOps(UserChangeEvent.class).createIndex(new Index().on("published", Sort.Direction.ASC).on("_id", Sort.Direction.ASC));
+            mongoTemplate.indexOps(UserChangeEvent.class).createIndex(new Index().on("occurredAt", Sort.Direction.ASC));
+        } catch (DataAccessException e) {
+            log.warn("Could not create the user outbox indexes: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Updates a user's name, email and role and records the change.
+     *
+     * @param userId The ID of the user to update.
+     * @param userDetails The new values.
+     * @return The updated user, or empty if no user has that ID.
+     */
+    public Optional<User> update(String userId, User userDetails) {
+        Optional<User> existing = userRepository.findById(userId);
+        if (existing.isEmpty()) {
+            return Optional.empty();
+        }
+        User user = existing.get();
+        // Only changes to fields other services copy are worth propagating.
+        if (Objects.equals(user.getName(), userDetails.getName()) && Objects.equals(user.getRole(), userDetails.getRole())) {
+            mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(userId)),
+                    new Update().set("email", userDetails.getEmail()), User.class);
+        } else {
+            publish(mongoTemplate.insert(new UserChangeEvent(UserChangeEvent.Type.UPDATED, userId,
+                    userDetails.getName(), userDetails.getEmail(), userDetails.getRole())));
+        }
+        return userRepository.findById(userId);
+    }
+
+    /**
+     * Deletes a user and records the deletion.
+     *
+     * @param userId The ID of the user to delete.
+     * @return True if the user existed and was deleted.
+     */
+    public boolean delete(String userId) {
+        if (!userRepository.existsById(userId)) {
+            return false;
+        }
+        publish(mongoTemplate.insert(new UserChangeEvent(UserChangeEvent.Type.DELETED, userId, null, null, null)));
+        return true;
+    }
+
+    /**
+     * Applies and publishes outbox entries left unpublished by a failed or interrupted
+     * request, oldest first. Entries younger than the settle delay may still be in progress
+     * and are left to their request.
+     */
+    @Scheduled(fixedDelayString = "${user.outbox.recovery-interval:PT30S}")
+    public void publishPending() {
+        Query pending = Query.query(Criteria.where("published").is(false)
+                .and("occurredAt").lte(LocalDateTime.now().minus(settleDelay))).with(Sort.by("id"));
+        for (UserChangeEvent event : mongoTemplate.find(pending, UserChangeEvent.class)) {
+            publish(event);
+            log.info("Published user change {} left pending by an earlier request", event.getId());
+        }
+    }
+
+    /**
+     * Purges published outbox entries older than the retention period. The purge is
+     * recorded before the entries are deleted, so a consumer reading concurrently never
+     * skips them unnoticed.
+     */
+    @Scheduled(fixedDelayString = "${user.outbox.purge-interval:PT1H}")
+    public void purgeExpired() {
+        Query expired = Query.query(Criteria.where("published").is(true)
+                .and("occurredAt").lt(LocalDateTime.now().minus(retention))).with(Sort.by(Sort.Direction.DESC, "id"));
+        UserChangeEvent newest = mongoTemplate.findOne(expired, UserChangeEvent.class);
+        if (newest == null) {
+            return;
+        }
+        mongoTemplate.upsert(Query.query(Criteria.where("id").is(OutboxRetention.ID)),
+                new Update().max("purgedThrough", newest.getId()), OutboxRetention.class);
+        long purged = mongoTemplate.remove(Query.query(Criteria.where("published").is(true)
+                .and("id").lte(new ObjectId(newest.getId()))), UserChangeEvent.class).getDeletedCount();
+        log.info("Purged {} user changes up to {}", purged, newest.getId());
+    }
+
+    /**
+     * Reads the published outbox entries after a given entry, oldest first. Reading stops
+     * before the oldest unpublished entry, so a checkpoint never moves past a change that
+     * is still being applied.
+     *
+     * @param after The ID of the last entry the consumer has applied, or null or blank to start at the beginning.
+     * @param limit Optional maximum number of entries (default 100, at most 1000).
+     * @return The entries, in ID order.
+     * @throws IllegalArgumentException if {@code after} is not a valid entry ID.
+     * @throws FeedExpiredException if entries after {@code after} have been purged.
+     */
+    public List<UserChangeEvent> changesAfter(String after, Integer limit) {
+        boolean fromStart = after == null || after.isBlank();
+        if (!fromStart && !ObjectId.isValid(after)) {
+            throw new IllegalArgumentException("Invalid change ID: " + after);
+        }
+        OutboxRetention retained = mongoTemplate.findById(OutboxRetention.ID, OutboxRetention.class);
+        if (retained != null && retained.getPurgedThrough() != null
+                && (fromStart || new ObjectId(after).compareTo(new ObjectId(retained.getPurgedThrough())) < 0)) {
+            throw new FeedExpiredException(retained.getPurgedThrough());
+        }
+
+        int size = limit == null || limit <= 0 ? DEFAULT_FEED_SIZE : Math.min(limit, MAX_FEED_SIZE);
+        UserChangeEvent oldestPending = mongoTemplate.findOne(
+                Query.query(Criteria.where("published").is(false)).with(Sort.by("id")), UserChangeEvent.class);
+        Criteria criteria = Criteria.where("occurredAt").lte(LocalDateTime.now().minus(settleDelay));
+        if (!fromStart || oldestPending != null) {
+            Criteria id = criteria.and("id");
+            if (!fromStart) {
+                id.gt(new ObjectId(after));
+            }
+            if (oldestPending != null) {
+                id.lt(new ObjectId(oldestPending.getId()));
+            }
+        }
+        Query query = Query.query(criteria).with(Sort.by("id")).limit(size);
+        return mongoTemplate.find(query, UserChangeEvent.class);
+    }
+
+    /**
+     * Applies an outbox entry to the user and marks it published. An update only applies
+     * if no newer entry has been applied to the user, so a retried or delayed entry never
+     * reverts a later change.
+     */
+    private void publish(UserChangeEvent event) {
+        ObjectId changeId = new ObjectId(event.getId());
+        if (event.getType() == UserChangeEvent.Type.DELETED) {
+            mongoTemplate.remove(Query.query(Criteria.where("id").is(event.getUserId())), User.class);
+        } else {
+            Query notNewer = Query.query(Criteria.where("id").is(event.getUserId()).orOperator(
+                    Criteria.where(LAST_CHANGE_ID).exists(false),
+                    Criteria.where(LAST_CHANGE_ID).lt(changeId)));
+            mongoTemplate.updateFirst(notNewer, new Update()
+                    .set("name", event.getName())
+                    .set("email", event.getEmail())
+                    .set("role", event.getRole())
+                    .set(LAST_CHANGE_ID, changeId), User.class);
+        }
+        mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(event.getId())),
+                new Update().set("published", true), UserChangeEvent.class);
+    }
+}
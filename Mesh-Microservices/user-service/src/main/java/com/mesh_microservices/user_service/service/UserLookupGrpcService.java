@@ -0,0 +1,85 @@
+package com.mesh_microservices.user_service.service;
+
+import com.mesh_microservices.user_service.grpc.GetUserByEmailRequest;
+import com.mesh_microservices.user_service.grpc.GetUserByIdRequest;
+import com.mesh_microservices.user_service.grpc.GetUsersByIdsReply;
+import com.mesh_microservices.user_service.grpc.GetUsersByIdsRequest;
+import com.mesh_microservices.user_service.grpc.UserLookupGrpc;
+import com.mesh_microservices.user_service.grpc.UserProfile;
+import com.mesh_microservices.user_service.model.User;
+import com.mesh_microservices.user_service.repository.UserRepository;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+/**
+ * Serves user lookups to the other Mesh services over gRPC.
+ * <p>
+ * This is the binary counterpart of the {@code /users/{userId}} and
+ * {@code /users/byEmail/{email}} REST endpoints, plus a batch lookup. Unlike the REST
+ * endpoints, it never returns the user's password.
+ */
+@Service
+public class UserLookupGrpcService extends UserLookupGrpc.UserLookupImplBase {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Override
+    public void getUserById(GetUserByIdRequest request, StreamObserver<UserProfile> responseObserver) {
+        reply(userRepository.findById(request.getId()), "id " + request.getId(), responseObserver);
+    }
+
+    @Override
+    public void getUserByEmail(GetUserByEmailRequest request, StreamObserver<UserProfile> responseObserver) {
+        reply(userRepository.findByEmail(request.getEmail()), "email " + request.getEmail(), responseObserver);
+    }
+
+    @Override
+    public void getUsersByIds(GetUsersByIdsRequest request, StreamObserver<GetUsersByIdsReply> responseObserver) {
+        GetUsersByIdsReply.Builder reply = GetUsersByIdsReply.newBuilder();
+        userRepository.findAllById(request.getIdsList()).forEach(user -> reply.addUsers(toProfile(user)));
+        responseObserver.onNext(reply.build());
+        responseObserver.onCompleted();
+    }
+
+    private static void reply(Optional<User> user, String key, StreamObserver<UserProfile> responseObserver) {
+        if (user.isEmpty()) {
+            responseObserver.onError(Status.NOT_FOUND.withDescription("User not found with " + key).asRuntimeException());
+            return;
+        }
+        responseObserver.onNext(toProfile(user.get()));
+        responseObserver.onCompleted();
+    }
+
+    /**
+     * Converts a user to its protobuf form. Protobuf strings cannot be null, so missing
+     * values are sent as empty strings.
+     */
+    private static UserProfile toProfile(User user) {
+        UserProfile.Builder profile = UserProfile.newBuilder()
+                .setId(user.getId())
+                .setName(nullToEmpty(user.getName()))
+                .setEmail(nullToEmpty(user.getEmail()))
+                .setRole(nullToEmpty(user.getRole()))
+                .setDepartment(nullToEmpty(user.getDepartment()));
+        if (user.getSemester() != null) {
+            profile.setSemester(user.getSemester());
+        }
+        if (user.getSubjects() != null) {
+            profile.addAllSubjects(user.getSubjects());
+        }
+        if (user.getRegisteredAt() != null) {
+            profile.setRegisteredAtMillis(user.getRegisteredAt().toInstant(ZoneOffset.UTC).toEpochMilli());
+        }
+        return profile.build();
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
@@ -0,0 +1,154 @@
+package com.mesh_microservices.user_service.service;
+
+import com.mesh_microservices.user_service.model.User;
+import com.mesh_microservices.user_service.model.UserChangeEvent;
+import com.mesh_microservices.user_service.repository.UserRepository;
+import com.mesh_microservices.user_service.support.MongoStandIn;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import de.bwaldvogel.mongo.MongoServer;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Verifies how user changes are applied, fed and purged through the outbox, against an
+ * in-process Mongo stand-in.
+ */
+class UserChangeServiceTests {
+
+    private MongoServer server;
+    private MongoClient client;
+    private MongoTemplate mongoTemplate;
+    private UserChangeService userChangeService;
+
+    @BeforeEach
+    void setUp() {
+        server = MongoStandIn.create();
+        client = MongoClients.create(server.bindAndGetConnectionString());
+        mongoTemplate = new MongoTemplate(client, "user_db");
+        userChangeService = new UserChangeService();
+        ReflectionTestUtils.setField(userChangeService, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(userChangeService, "userRepository",
+                new MongoRepositoryFactory(mongoTemplate).getRepository(UserRepository.class));
+        ReflectionTestUtils.setField(userChangeService, "settleDelay", Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(userChangeService, "retention", Duration.ofDays(7));
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        server.shutdownNow();
+    }
+
+    @Test
+    void changeAppliedLateNeverRevertsANewerOne() {
+        User user = storeUser("Ada");
+        // A rename whose request stopped after writing the outbox entry.
+        UserChangeEvent stalled = storePending(user, "Ada Stalled");
+        userChangeService.update(user.getId(), details(user, "Ada Lovelace"));
+        settle();
+
+        userChangeService.publishPending();
+
+        assertThat(mongoTemplate.findById(user.getId(), User.class).getName()).isEqualTo("Ada Lovelace");
+        assertThat(mongoTemplate.findById(stalled.getId(), UserChangeEvent.class).isPublished()).isTrue();
+    }
+
+    @Test
+    void feedStopsBeforePendingAndUnsettledChanges() {
+        User ada = storeUser("Ada");
+        User grace = storeUser("Grace");
+        User alan = storeUser("Alan");
+        userChangeService.update(ada.getId(), details(ada, "Ada Lovelace"));
+        UserChangeEvent pending = storePending(grace, "Grace Hopper");
+        userChangeService.update(alan.getId(), details(alan, "Alan Turing"));
+        settle();
+        // Too recent to be read yet: an entry with a smaller ID may still be inserted.
+        userChangeService.update(ada.getId(), details(ada, "Countess Lovelace"));
+
+        List<UserChangeEvent> beforeRecovery = userChangeService.changesAfter(null, null);
+        assertThat(beforeRecovery).extracting(UserChangeEvent::getName).containsExactly("Ada Lovelace");
+
+        userChangeService.publishPending();
+
+        assertThat(userChangeService.changesAfter(null, null)).extracting(UserChangeEvent::getName)
+                .containsExactly("Ada Lovelace", "Grace Hopper", "Alan Turing");
+        assertThat(userChangeService.changesAfter(beforeRecovery.get(0).getId(), null)).extracting(UserChangeEvent::getId)
+                .startsWith(pending.getId());
+        assertThatThrownBy(() -> userChangeService.changesAfter("not-an-id", null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void purgedChangesExpireTheCheckpointsBeforeThem() {
+        User ada = storeUser("Ada");
+        userChangeService.update(ada.getId(), details(ada, "Ada Lovelace"));
+        userChangeService.update(ada.getId(), details(ada, "Ada King"));
+        userChangeService.update(ada.getId(), details(ada, "Countess Lovelace"));
+        List<UserChangeEvent> changes = mongoTemplate.find(new Query().with(Sort.by("id")), UserChangeEvent.class);
+        settle();
+        mongoTemplate.updateMulti(Query.query(Criteria.where("id").in(changes.get(0).getId(), changes.get(1).getId())),
+                new Update().set("occurredAt", LocalDateTime.now().minusDays(8)), UserChangeEvent.class);
+
+        userChangeService.purgeExpired();
+
+        String purgedThrough = changes.get(1).getId();
+        assertThatThrownBy(() -> userChangeService.changesAfter(null, null))
+                .isInstanceOfSatisfying(UserChangeService.FeedExpiredException.class,
+                        e -> assertThat(e.getPurgedThrough()).isEqualTo(purgedThrough));
+        assertThatThrownBy(() -> userChangeService.changesAfter(changes.get(0).getId(), null))
+                .isInstanceOf(UserChangeService.FeedExpiredException.class);
+        assertThat(userChangeService.changesAfter(purgedThrough, null)).extracting(UserChangeEvent::getName)
+                .containsExactly("Countess Lovelace");
+    }
+
+    private User storeUser(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(name.toLowerCase() + "@example.com");
+        user.setRole("STUDENT");
+        return mongoTemplate.insert(user);
+    }
+
+    private static User details(User user, String name) {
+        User details = new User();
+        details.setName(name);
+        details.setEmail(user.getEmail());
+        details.setRole(user.getRole());
+        return details;
+    }
+
+    /**
+     * Stores an unpublished rename, as left by a request that failed after recording it.
+     */
+    private UserChangeEvent storePending(User user, String name) {
+        UserChangeEvent event = new UserChangeEvent(UserChangeEvent.Type.UPDATED, user.getId(), name,
+                user.getEmail(), user.getRole());
+        event.setId(new ObjectId().toHexString());
+        return mongoTemplate.insert(event);
+    }
+
+    /**
+     * Moves every entry past the settle delay.
+     */
+    private void settle() {
+        mongoTemplate.updateMulti(new Query(), new Update().set("occurredAt", LocalDateTime.now().minusMinutes(1)),
+                UserChangeEvent.class);
+    }
+}
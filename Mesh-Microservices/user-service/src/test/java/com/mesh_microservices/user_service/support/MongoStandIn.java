@@ -0,0 +1,43 @@
+package com.mesh_microservices.user_service.support;
+
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import de.bwaldvogel.mongo.bson.Document;
+import io.netty.channel.Channel;
+
+/**
+ * The in-process Mongo stand-in the tests run against.
+ * <p>
+ * mongo-java-server answers the handshake with the wire version of MongoDB 3.6, which the
+ * current driver refuses to connect to. The stand-in reports the wire version of MongoDB
+ * 4.2 instead; the commands it implements are unchanged.
+ */
+public final class MongoStandIn {
+
+    // The lowest wire version the driver accepts (MongoDB 4.2).
+    private static final int WIRE_VERSION = 8;
+
+    private MongoStandIn() {
+    }
+
+    /**
+     * Creates an unbound server with an empty in-memory backend.
+     *
+     * @return The server; bind it to get a connection string.
+     */
+    public static MongoServer create() {
+        return new MongoServer(new Backend());
+    }
+
+    private static final class Backend extends MemoryBackend {
+
+        @Override
+        public Document handleCommand(Channel channel, String databaseName, String command, Document query) {
+            Document response = super.handleCommand(channel, databaseName, command, query);
+            if (response != null && response.containsKey("maxWireVersion")) {
+                response.put("maxWireVersion", WIRE_VERSION);
+            }
+            return response;
+        }
+    }
+}